@@ -1,6 +1,7 @@
 package com.fp.aspect;
 
 import com.fp.annotation.RevokeJwt;
+import com.fp.auth.JwtPrincipal;
 import com.fp.auth.service.JwtService;
 import com.fp.auth.service.RevokedJwtService;
 import com.fp.constant.Messages;
@@ -11,14 +12,12 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.*;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.core.annotation.Order;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Optional;
 
 
 /**
@@ -60,23 +59,21 @@ public class AutoJwtContextValidationAspect {
     public void validateJwtContext(JoinPoint joinPoint){
         log.debug("Validating JWT context for method: {}", joinPoint.getSignature().getName());
 
-        //Get JWT from the context
-        Jwt jwt = jwtService.getJwtFromAuthContext();
-        Optional<String> jwtAccountIdOpt = jwtService.getAccountIdFromToken(jwt.getTokenValue());
-        Optional<String> jwtEmailOpt = jwtService.getEmailFromToken(jwt.getTokenValue());
+        //Get the caller from the context, its claims were read when the request was authenticated
+        JwtPrincipal principal = jwtService.getPrincipalFromAuthContext();
 
         // Check if JWT claims are present
-        if (jwtAccountIdOpt.isEmpty()) {
+        if (principal.accountId() == null) {
             log.warn("Account ID not found in JWT context for method: {}", joinPoint.getSignature().getName());
             throw new JwtContextException(Messages.Error.Account.JWT_CONTEXT_ERROR);
         }
 
-        if (jwtEmailOpt.isEmpty()) {
+        if (principal.email() == null) {
             log.warn("Email not found in JWT context for method: {}", joinPoint.getSignature().getName());
             throw new JwtContextException(Messages.Error.Account.JWT_CONTEXT_ERROR);
         }
         // Find and validate request body parameter
-        validateRequestBodyParameters(joinPoint, jwtAccountIdOpt.get(), jwtEmailOpt.get());
+        validateRequestBodyParameters(joinPoint, principal.accountId(), principal.email());
     }
 
 //    @After("writeOperations()")
@@ -85,6 +85,13 @@ public class AccountController {
         return ResponseEntity.ok("Logout successful");
     }
 
+    @PostMapping("logout-all")
+    @Operation(summary = "Logout all the sessions of the currently logged in account")
+    public ResponseEntity<?> logoutEverywhere(@RequestBody AccountLogoutRequestDTO accountLogoutDTO) {
+        accountService.logoutEverywhere(accountLogoutDTO.getAccountId());
+        return ResponseEntity.ok("Logout of all sessions successful");
+    }
+
 
     @PutMapping("/update-birthday")
     @Operation(summary = "Set the birthday of the currently logged in account")
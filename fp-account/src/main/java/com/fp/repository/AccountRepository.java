@@ -2,13 +2,21 @@ package com.fp.repository;
 
 import com.fp.dynamodb.repository.DynamoDbRepository;
 import com.fp.entity.Account;
+import com.fp.entity.AccountDeletion;
 import com.fp.exception.business.AccountNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactDeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
+import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -41,13 +49,23 @@ public class AccountRepository extends DynamoDbRepository<Account> {
         if(!account.getAccountId().equals(accountId)){
             throw new AccountNotFoundException("Account ID does not match for email: " + email);
         }
-        //Delete the account
-        Optional<Account> deleteByKey = deleteByKey(key);
-        if (deleteByKey.isEmpty()) {
+        //Delete the account and record its deletion for the purge of its follows, both or neither
+        try {
+            enhancedClient.transactWriteItems(TransactWriteItemsEnhancedRequest.builder()
+                    .addDeleteItem(table, TransactDeleteItemEnhancedRequest.builder()
+                            .key(key)
+                            .conditionExpression(Expression.builder()
+                                    .expression("account_id = :accountId")
+                                    .expressionValues(Map.of(":accountId", AttributeValue.fromS(accountId)))
+                                    .build())
+                            .build())
+                    .addPutItem(getTable(AccountDeletion.class), AccountDeletion.of(accountId, Instant.now()))
+                    .build());
+        } catch (TransactionCanceledException e) {
             throw new AccountNotFoundException("Account not found for email: " + email);
         }
         log.info("Account deleted successfully for email: {}", email);
-        return deleteByKey.get();
+        return account;
     }
 
 
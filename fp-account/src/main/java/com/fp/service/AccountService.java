@@ -28,6 +28,11 @@ public interface AccountService {
 
     void logout();
 
+    /**
+     * Log out every session of the account: all its tokens issued until now are rejected.
+     */
+    void logoutEverywhere(String accountId);
+
     void updateBirthday(UpdateBirthdayRequestDTO birthdayRequestDTO);
 
     void unfollow(UnfollowRequestDTO unfollowRequestDTO);
@@ -1,5 +1,6 @@
 package com.fp.service.impl;
 
+import com.fp.auth.service.TokenEpochService;
 import com.fp.client.FollowServiceClient;
 import com.fp.dto.account.request.AccountVerifyRequestDTO;
 import com.fp.dto.account.request.DeleteAccountRequestDTO;
@@ -41,6 +42,7 @@ public class AccountServiceImpl implements AccountService {
     private final SesService sesService;
     private final EmailSqsService sqsService;
     private final ThreadPoolTaskExecutor taskExecutor;
+    private final TokenEpochService tokenEpochService;
 
     /// Only for testing purposes, not used in production
     public void updateVerificationStatus(String email, boolean status){
@@ -62,6 +64,13 @@ public class AccountServiceImpl implements AccountService {
     public void logout() {
     }
 
+    @Override
+    public void logoutEverywhere(String accountId) {
+        // One write whatever the number of sessions, no need to know their tokens
+        tokenEpochService.invalidateAllTokens(accountId);
+        log.info("Logged out all the sessions of account {}", accountId);
+    }
+
     @Override
     public void updateBirthday(UpdateBirthdayRequestDTO birthdayRequestDTO) {
         try {
@@ -90,7 +99,16 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Account deleteAccountByEmail(DeleteAccountRequestDTO deleteAccountRequestDTO) {
-        return accountRepository.deleteAccount(deleteAccountRequestDTO.getAccountId(), deleteAccountRequestDTO.getEmail());
+        Account account = accountRepository.deleteAccount(deleteAccountRequestDTO.getAccountId(), deleteAccountRequestDTO.getEmail());
+        // The follow service deletes the follow relationships in the background, the request only records the purge.
+        // The deletion was recorded with the account's: a failed request is picked up by the follow service's next poll.
+        try {
+            followServiceClient.requestPurge(account.getAccountId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to request the follow purge of deleted account {}, left to the follow service's poll",
+                    account.getAccountId(), e);
+        }
+        return account;
     }
 
 
@@ -1,6 +1,7 @@
 package com.fp.service.impl;
 
 import com.fp.auth.service.RevokedJwtService;
+import com.fp.auth.service.TokenEpochService;
 import com.fp.constant.Messages;
 import com.fp.dto.auth.request.CreateAccountRequestDTO;
 import com.fp.dto.auth.request.LoginRequestDTO;
@@ -40,6 +41,7 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final RevokedJwtService revokedJwtService;
+    private final TokenEpochService tokenEpochService;
     private final EmailSqsService emailSqsService;
     private final ThreadPoolTaskExecutor taskExecutor;
 
@@ -220,6 +222,10 @@ public class AuthServiceImpl implements AuthService {
             if(!jwtService.isRefreshToken(refreshToken)) {
                 throw new InvalidJwtTypeException(Messages.Error.Auth.INVALID_TOKEN_TYPE);
             }
+            // Issued before the account logged out everywhere
+            if(tokenEpochService.isIssuedBeforeEpoch(jwtService.decode(refreshToken))) {
+                throw new InvalidRefreshTokenException();
+            }
             //Revoke the old refresh token
             //Use jwtUtil to parse the refresh token and extract user information
             Optional<String> emailOpt = jwtService.getEmailFromToken(refreshToken);
@@ -0,0 +1,133 @@
+package com.fp.account;
+
+import com.fp.auth.JwtPrincipal;
+import com.fp.auth.cache.RevokedJwtCache;
+import com.fp.auth.cache.TokenEpochCache;
+import com.fp.auth.service.RevokedJwtService;
+import com.fp.auth.service.TokenEpochService;
+import com.fp.auth.service.impl.RevokedJwtServiceImpl;
+import com.fp.auth.service.impl.TokenEpochServiceImpl;
+import com.fp.auth.strategy.JwtValidationContext;
+import com.fp.auth.strategy.JwtValidationRequest;
+import com.fp.auth.strategy.JwtValidationResult;
+import com.fp.auth.strategy.impl.AccessTokenValidationStrategy;
+import com.fp.auth.strategy.impl.RefreshTokenValidationStrategy;
+import com.fp.auth.strategy.impl.RevokedTokenValidationStrategy;
+import com.fp.auth.strategy.impl.TokenEpochValidationStrategy;
+import com.fp.auth.strategy.impl.VerificationTokenValidationStrategy;
+import com.fp.dynamodb.repository.RevokedJwtRepository;
+import com.fp.dynamodb.repository.TokenEpochRepository;
+import com.fp.entity.RevokedJwt;
+import com.fp.entity.TokenEpoch;
+import com.fp.enumeration.jwt.JwtType;
+import com.fp.properties.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+///
+/// # Benchmark of the per-request JWT post-validation of an access token on an API route.
+///
+/// Compares the previous pipeline (streaming, filtering and sorting the strategies on every request, each strategy
+/// parsing the `type` claim and matching the path again), copied verbatim in `LegacyJwtValidation`, with the chains
+/// compiled by `JwtValidationContext`. Both run over the same revocation and token epoch services.
+/// Reports allocated bytes per request (thread allocation counter) and p50/p99 latency.
+///
+@Slf4j
+class JwtValidationBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+    private static final String REQUEST_URI = "/api/account/profile";
+
+    private JwtValidationContext context;
+    private LegacyJwtValidation legacyValidation;
+    private Jwt jwt;
+    private JwtPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        RevokedJwtRepository revokedJwtRepository = new RevokedJwtRepository() {
+            @Override
+            public Stream<RevokedJwt> scanRevokedIds() {
+                return Stream.empty();
+            }
+        };
+        TokenEpochRepository tokenEpochRepository = new TokenEpochRepository() {
+            @Override
+            public Stream<TokenEpoch> scanEpochs() {
+                return Stream.empty();
+            }
+        };
+        RevokedJwtCache revokedJwtCache = new RevokedJwtCache(revokedJwtRepository, jwtProperties);
+        revokedJwtCache.loadSnapshot();
+        TokenEpochCache tokenEpochCache = new TokenEpochCache(tokenEpochRepository, jwtProperties);
+        tokenEpochCache.reload();
+
+        RevokedJwtService revokedJwtService = new RevokedJwtServiceImpl(revokedJwtRepository, null, revokedJwtCache);
+        TokenEpochService tokenEpochService = new TokenEpochServiceImpl(tokenEpochRepository, tokenEpochCache, jwtProperties);
+
+        context = new JwtValidationContext();
+        context.strategies = List.of(
+                new AccessTokenValidationStrategy(),
+                new RefreshTokenValidationStrategy(),
+                new VerificationTokenValidationStrategy(),
+                new RevokedTokenValidationStrategy(revokedJwtService),
+                new TokenEpochValidationStrategy(tokenEpochService)
+        );
+        context.compile();
+        legacyValidation = new LegacyJwtValidation(revokedJwtService, tokenEpochService);
+        jwt = JwtValidationPipelineTest.jwt(JwtType.ACCESS.getType());
+        principal = JwtPrincipal.from(jwt);
+    }
+
+    @Test
+    void benchmarkAccessTokenValidation() {
+        Result legacy = run("stream + sort per request", () -> legacyValidation.executeStrategy(JwtValidationRequest.builder()
+                .jwt(jwt)
+                .principal(principal)
+                .requestURI(REQUEST_URI)
+                .build()));
+        Result compiled = run("compiled chain", () -> context.executeValidationStrategy(JwtValidationRequest.builder()
+                .jwt(jwt)
+                .principal(principal)
+                .requestURI(REQUEST_URI)
+                .build()));
+
+        assertTrue(compiled.bytesPerRequest() < legacy.bytesPerRequest(),
+                compiled.bytesPerRequest() + " >= " + legacy.bytesPerRequest());
+    }
+
+    private Result run(String name, Supplier<JwtValidationResult> validation) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertTrue(validation.get().isValid());
+        }
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] latencies = new long[ITERATIONS];
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            validation.get();
+            latencies[i] = System.nanoTime() - start;
+        }
+        long bytesPerRequest = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / ITERATIONS;
+        Arrays.sort(latencies);
+        log.info("{}: {} bytes allocated/request, p50={} ns, p99={} ns", name, bytesPerRequest,
+                latencies[ITERATIONS / 2], latencies[ITERATIONS * 99 / 100]);
+        return new Result(bytesPerRequest);
+    }
+
+    private record Result(long bytesPerRequest) {
+    }
+}
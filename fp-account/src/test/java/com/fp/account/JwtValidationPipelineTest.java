@@ -0,0 +1,162 @@
+package com.fp.account;
+
+import com.fp.auth.JwtPrincipal;
+import com.fp.auth.cache.RevokedJwtCache;
+import com.fp.auth.cache.TokenEpochCache;
+import com.fp.auth.service.impl.RevokedJwtServiceImpl;
+import com.fp.auth.service.impl.TokenEpochServiceImpl;
+import com.fp.auth.strategy.JwtValidationContext;
+import com.fp.auth.strategy.JwtValidationRequest;
+import com.fp.auth.strategy.JwtValidationResult;
+import com.fp.auth.strategy.RouteClass;
+import com.fp.auth.strategy.impl.AccessTokenValidationStrategy;
+import com.fp.auth.strategy.impl.RefreshTokenValidationStrategy;
+import com.fp.auth.strategy.impl.RevokedTokenValidationStrategy;
+import com.fp.auth.strategy.impl.TokenEpochValidationStrategy;
+import com.fp.auth.strategy.impl.VerificationTokenValidationStrategy;
+import com.fp.constant.JwtClaimsKey;
+import com.fp.dynamodb.repository.RevokedJwtRepository;
+import com.fp.dynamodb.repository.TokenEpochRepository;
+import com.fp.entity.RevokedJwt;
+import com.fp.entity.TokenEpoch;
+import com.fp.enumeration.jwt.JwtType;
+import com.fp.pattern.core.strategy.Strategy;
+import com.fp.properties.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtValidationPipelineTest {
+
+    private JwtValidationContext context;
+    private RevokedJwtCache revokedJwtCache;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        RevokedJwtRepository revokedJwtRepository = new RevokedJwtRepository() {
+            @Override
+            public Optional<RevokedJwt> findByJti(String jti) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Stream<RevokedJwt> scanRevokedIds() {
+                return Stream.empty();
+            }
+        };
+        TokenEpochRepository tokenEpochRepository = new TokenEpochRepository() {
+            @Override
+            public Optional<TokenEpoch> findByAccountId(String accountId) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Stream<TokenEpoch> scanEpochs() {
+                return Stream.empty();
+            }
+        };
+        revokedJwtCache = new RevokedJwtCache(revokedJwtRepository, jwtProperties);
+        revokedJwtCache.loadSnapshot();
+        TokenEpochCache tokenEpochCache = new TokenEpochCache(tokenEpochRepository, jwtProperties);
+        tokenEpochCache.reload();
+
+        context = new JwtValidationContext();
+        context.strategies = List.of(
+                new AccessTokenValidationStrategy(),
+                new RefreshTokenValidationStrategy(),
+                new VerificationTokenValidationStrategy(),
+                new RevokedTokenValidationStrategy(new RevokedJwtServiceImpl(revokedJwtRepository, null, revokedJwtCache)),
+                new TokenEpochValidationStrategy(new TokenEpochServiceImpl(tokenEpochRepository, tokenEpochCache, jwtProperties))
+        );
+        context.compile();
+    }
+
+    @Test
+    void shouldCompileOneChainPerTypeInPriorityOrder() {
+        assertEquals(List.of("revokedTokenValidationStrategy", "tokenEpochValidationStrategy", "accessTokenValidationStrategy"),
+                names(context.getChain(JwtType.ACCESS, RouteClass.API)));
+        assertEquals(List.of("revokedTokenValidationStrategy", "tokenEpochValidationStrategy", "refreshTokenValidationStrategy"),
+                names(context.getChain(JwtType.REFRESH, RouteClass.REFRESH)));
+        assertEquals(List.of("revokedTokenValidationStrategy", "tokenEpochValidationStrategy", "verificationTokenValidationStrategy"),
+                names(context.getChain(JwtType.VERIFICATION, RouteClass.API)));
+    }
+
+    @Test
+    void shouldAllowEachTypeOnItsRoutesOnly() {
+        assertTrue(validate(JwtType.ACCESS, "/api/account/profile").isValid());
+        assertTrue(validate(JwtType.REFRESH, "/api/auth/refresh").isValid());
+        assertTrue(validate(JwtType.VERIFICATION, "/api/auth/verify").isValid());
+
+        assertEquals(HttpStatus.FORBIDDEN, validate(JwtType.ACCESS, "/api/auth/refresh").getStatus());
+        assertEquals(HttpStatus.FORBIDDEN, validate(JwtType.REFRESH, "/api/account/profile").getStatus());
+        assertEquals(HttpStatus.FORBIDDEN, validate(JwtType.VERIFICATION, "/api/auth/refresh").getStatus());
+    }
+
+    @Test
+    void shouldRejectRevokedTokensFirst() {
+        revokedJwtCache.revoked("jti-1", Instant.now().plusSeconds(3600));
+
+        JwtValidationResult result = validate(JwtType.ACCESS, "/api/auth/refresh");
+        assertFalse(result.isValid());
+        assertEquals(HttpStatus.UNAUTHORIZED, result.getStatus());
+    }
+
+    @Test
+    void shouldRejectUnknownTypesWithoutThrowing() {
+        Jwt jwt = jwt("UNKNOWN");
+
+        JwtValidationResult result = context.executeValidationStrategy(JwtValidationRequest.builder()
+                .jwt(jwt)
+                .requestURI("/api/account/profile")
+                .build());
+        assertFalse(result.isValid());
+        assertEquals(HttpStatus.UNAUTHORIZED, result.getStatus());
+    }
+
+    @Test
+    void shouldReadTheClaimsOnceWithoutPrincipal() {
+        JwtValidationRequest request = JwtValidationRequest.builder()
+                .jwt(jwt(JwtType.ACCESS.getType()))
+                .requestURI("/api/account/profile")
+                .build();
+
+        assertTrue(context.executeValidationStrategy(request).isValid());
+        assertSame(request.getPrincipal(), request.getPrincipal());
+        assertEquals(RouteClass.API, request.getRouteClass());
+    }
+
+    private JwtValidationResult validate(JwtType type, String requestURI) {
+        Jwt jwt = jwt(type.getType());
+        return context.executeValidationStrategy(JwtValidationRequest.builder()
+                .jwt(jwt)
+                .principal(JwtPrincipal.from(jwt))
+                .requestURI(requestURI)
+                .build());
+    }
+
+    private static List<String> names(List<Strategy<JwtValidationRequest, JwtValidationResult>> chain) {
+        return chain.stream().map(Strategy::getStrategyName).toList();
+    }
+
+    static Jwt jwt(String type) {
+        Instant issuedAt = Instant.now().minusSeconds(60);
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("li@example.com")
+                .claim(JwtClaimsKey.ACCOUNT_ID, "48607e34")
+                .claim(JwtClaimsKey.TYPE, type)
+                .jti("jti-1")
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(3600))
+                .build();
+    }
+}
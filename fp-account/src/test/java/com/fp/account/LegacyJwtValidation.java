@@ -0,0 +1,246 @@
+package com.fp.account;
+
+import com.fp.auth.service.RevokedJwtService;
+import com.fp.auth.service.TokenEpochService;
+import com.fp.auth.strategy.JwtValidationRequest;
+import com.fp.auth.strategy.JwtValidationResult;
+import com.fp.auth.strategy.JwtValidationStrategy;
+import com.fp.constant.JwtClaimsKey;
+import com.fp.constant.Messages;
+import com.fp.constant.UrlConstant;
+import com.fp.enumeration.jwt.JwtType;
+import com.fp.pattern.core.strategy.Strategy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+///
+/// # The JWT post-validation pipeline before the compiled chains, the baseline of `JwtValidationBenchmark`.
+///
+/// Copied verbatim from the parent of the `[user-025]` commit (`git show 4f20271^:<path>`), only renamed and nested:
+///
+/// - `executeStrategy` of `JwtValidationContext`,
+/// - `AbstractJwtValidationStrategy`, whose `success()` allocated a result on every call,
+/// - the five strategies of `com.fp.auth.strategy.impl`,
+/// - `isVerificationTokenPath` / `isRefreshTokenPath` of `HttpUtil`.
+///
+/// The revocation and token epoch services and caches are the current ones: the previous caches only differed by
+/// allocating an `Instant` per staleness check, they are not part of the dispatch measured here.
+///
+@Slf4j
+class LegacyJwtValidation {
+    private static final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    private final List<Strategy<JwtValidationRequest, JwtValidationResult>> strategies;
+
+    LegacyJwtValidation(RevokedJwtService revokedJwtService, TokenEpochService tokenEpochService) {
+        this.strategies = List.of(
+                new AccessTokenValidationStrategy(),
+                new RefreshTokenValidationStrategy(),
+                new VerificationTokenValidationStrategy(),
+                new RevokedTokenValidationStrategy(revokedJwtService),
+                new TokenEpochValidationStrategy(tokenEpochService)
+        );
+    }
+
+    /**
+     * `JwtValidationContext.executeStrategy`.
+     */
+    JwtValidationResult executeStrategy(JwtValidationRequest input) {
+        Jwt jwt = input.getJwt();
+        String jwtType = jwt.getClaimAsString(JwtClaimsKey.TYPE);
+        var applicableStrategies = strategies.stream()
+                .filter(s -> s.supports(input))
+                .sorted(Comparator.comparingInt(Strategy::getPriority))
+                .toList();
+
+        //Use the sorted and all applicable strategies to validate the JWT
+        for(var strategy : applicableStrategies) {
+            log.debug("Executing JWT validation strategy: {} (priority: {})",
+                    strategy.getStrategyName(), strategy.getPriority());
+            JwtValidationResult result = strategy.execute(input);
+            if (!result.isValid()) {
+                return result; // Stop at first failure
+            }
+            log.debug("Strategy {} passed validation", strategy.getStrategyName());
+        }
+        return success();
+    }
+
+    /**
+     * `JwtValidationResult.success()`.
+     */
+    private static JwtValidationResult success(){
+        return new JwtValidationResult(true, null, null);
+    }
+
+    private static boolean isVerificationTokenPath(String uri) {
+        return Arrays.stream(UrlConstant.VERIFY_TOKEN_ONLY_PATHS)
+                .anyMatch(pattern -> antPathMatcher.match(pattern, uri));
+    }
+
+    private static boolean isRefreshTokenPath(String uri) {
+        return Arrays.stream(UrlConstant.REFRESH_TOKEN_ONLY_PATHS)
+                .anyMatch(pattern -> antPathMatcher.match(pattern, uri));
+    }
+
+    private abstract static class AbstractJwtValidationStrategy implements JwtValidationStrategy {
+
+        protected abstract JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest);
+
+        @Override
+        public JwtValidationResult postValidateJwt(JwtValidationRequest jwtValidationRequest) {
+            //validate the JWT type based on the implemented strategies.
+            JwtValidationResult jwtValidationResult = validateJwt(jwtValidationRequest);
+            if (!jwtValidationResult.isValid()) {
+                return jwtValidationResult;
+            }
+            //3. If the JWT is valid and not revoked, return success.
+            return success();
+
+        }
+    }
+
+    private static class AccessTokenValidationStrategy extends AbstractJwtValidationStrategy {
+
+        @Override
+        protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
+            String requestURI = jwtValidationRequest.getRequestURI();
+            JwtType jwtType = JwtType.fromString(jwtValidationRequest.getJwt().getClaimAsString(JwtClaimsKey.TYPE));
+            if(isRefreshTokenPath(requestURI) || isVerificationTokenPath(requestURI)){
+                return JwtValidationResult.failure(Messages.Error.Auth.ACCESS_TOKEN_NOT_ALLOWED_ON_PATH + requestURI, HttpStatus.FORBIDDEN);
+            }
+            if(jwtType.equals(JwtType.ACCESS)){
+                return success();
+            }
+            return JwtValidationResult.failure(Messages.Error.Auth.INVALID_TOKEN_TYPE + jwtType, HttpStatus.UNAUTHORIZED);
+        }
+
+        @Override
+        public boolean supports(JwtValidationRequest jwtValidationRequest) {
+            return JwtType.fromString(jwtValidationRequest.getJwt().getClaimAsString(JwtClaimsKey.TYPE)).equals(JwtType.ACCESS);
+        }
+
+        @Override
+        public String getStrategyName() {
+            return "accessTokenValidationStrategy";
+        }
+    }
+
+    private static class RefreshTokenValidationStrategy extends AbstractJwtValidationStrategy {
+
+        @Override
+        protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
+            Jwt jwt = jwtValidationRequest.getJwt();
+            JwtType jwtType = JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE));
+            String requestURI = jwtValidationRequest.getRequestURI();
+            if (JwtType.REFRESH.equals(jwtType) && isRefreshTokenPath(requestURI)) {
+                return success();
+            }
+            return JwtValidationResult.failure(Messages.Error.Auth.REFRESH_TOKEN_NOT_ALLOWED_ON_PATH + requestURI, HttpStatus.FORBIDDEN);
+        }
+
+        @Override
+        public boolean supports(JwtValidationRequest type) {
+            Jwt jwt = type.getJwt();
+            JwtType jwtType = JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE));
+            return jwtType.equals(JwtType.REFRESH);
+        }
+
+        @Override
+        public String getStrategyName() {
+            return "refreshTokenValidationStrategy";
+        }
+    }
+
+    private static class VerificationTokenValidationStrategy extends AbstractJwtValidationStrategy {
+        @Override
+        protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
+            Jwt jwt = jwtValidationRequest.getJwt();
+            JwtType type = JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE));
+            String requestUri = jwtValidationRequest.getRequestURI();
+            if(JwtType.VERIFICATION.equals(type) && isVerificationTokenPath(requestUri)) {
+                return success();
+            }
+            return JwtValidationResult.failure(Messages.Error.Auth.VERIFICATION_TOKEN_NOT_ALLOWED_ON_PATH + requestUri, HttpStatus.FORBIDDEN);
+
+        }
+
+        @Override
+        public boolean supports(JwtValidationRequest type) {
+            Jwt jwt = type.getJwt();
+            JwtType jwtType = JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE));
+            return jwtType.equals(JwtType.VERIFICATION);
+        }
+
+        @Override
+        public String getStrategyName() {
+            return "verificationTokenValidationStrategy";
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class RevokedTokenValidationStrategy extends AbstractJwtValidationStrategy {
+
+        private final RevokedJwtService revokedJwtService;
+
+        @Override
+        protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
+            return revokedJwtService.isTokenRevoked(jwtValidationRequest.getJwt())
+                    ? JwtValidationResult.failure(Messages.Error.Auth.JWT_REVOKED, HttpStatus.UNAUTHORIZED)
+                    : success();
+        }
+
+        @Override
+        public boolean supports(JwtValidationRequest request) {
+            Jwt jwt  = request.getJwt();
+            String requestURI = request.getRequestURI();
+            return jwt != null && requestURI != null && jwt.getId() != null;
+        }
+
+        @Override
+        public String getStrategyName() {
+            return "revokedTokenValidationStrategy";
+        }
+
+        @Override
+        public int getPriority() {
+            return 0; // Higher priority for revoked token checks
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class TokenEpochValidationStrategy extends AbstractJwtValidationStrategy {
+
+        private final TokenEpochService tokenEpochService;
+
+        @Override
+        protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
+            return tokenEpochService.isIssuedBeforeEpoch(jwtValidationRequest.getJwt())
+                    ? JwtValidationResult.failure(Messages.Error.Auth.JWT_ISSUED_BEFORE_LOGOUT, HttpStatus.UNAUTHORIZED)
+                    : success();
+        }
+
+        @Override
+        public boolean supports(JwtValidationRequest request) {
+            Jwt jwt = request.getJwt();
+            return jwt != null && jwt.getIssuedAt() != null && jwt.getClaimAsString(JwtClaimsKey.ACCOUNT_ID) != null;
+        }
+
+        @Override
+        public String getStrategyName() {
+            return "tokenEpochValidationStrategy";
+        }
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+    }
+}
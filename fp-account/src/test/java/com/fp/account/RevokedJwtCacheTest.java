@@ -0,0 +1,169 @@
+package com.fp.account;
+
+import com.fp.auth.cache.JtiBloomFilter;
+import com.fp.auth.cache.RevokedJwtCache;
+import com.fp.dynamodb.repository.RevokedJwtRepository;
+import com.fp.entity.RevokedJwt;
+import com.fp.properties.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevokedJwtCacheTest {
+
+    /// The rows of the revoked tokens table, not named `table`: that is the inherited field of the repository
+    private final Map<String, RevokedJwt> rows = new ConcurrentHashMap<>();
+    /// Revocations not yet visible in the feed index
+    private final Map<String, RevokedJwt> lagging = new ConcurrentHashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final RevokedJwtRepository repository = new RevokedJwtRepository() {
+        @Override
+        public Optional<RevokedJwt> findByJti(String jti) {
+            lookups.incrementAndGet();
+            return Optional.ofNullable(rows.get(jti));
+        }
+
+        @Override
+        public Stream<RevokedJwt> scanRevokedIds() {
+            return rows.values().stream();
+        }
+
+        @Override
+        public Stream<RevokedJwt> findRevokedBetween(long sinceMillis, long untilMillis) {
+            return rows.values().stream()
+                    .filter(revokedJwt -> !lagging.containsKey(revokedJwt.getJti()))
+                    .filter(revokedJwt -> revokedJwt.getRevokedAtMillis() > sinceMillis
+                            && revokedJwt.getRevokedAtMillis() <= untilMillis);
+        }
+    };
+
+    private final JwtProperties jwtProperties = new JwtProperties();
+    private RevokedJwtCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RevokedJwtCache(repository, jwtProperties);
+    }
+
+    @Test
+    void shouldAnswerWithoutLookupOnceLoaded() {
+        revokeRemotely("revoked", Instant.now());
+        cache.loadSnapshot();
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(cache.isRevoked(UUID.randomUUID().toString()));
+        }
+        assertTrue(cache.isRevoked("revoked"));
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    void shouldLeaveExpiredTokensOut() {
+        rows.put("expired", RevokedJwt.builder().jti("expired")
+                .ttl(Instant.now().minusSeconds(60).getEpochSecond()).revokedAtMillis(0L).build());
+        cache.loadSnapshot();
+
+        // Past its exp a token is rejected by the decoder anyway
+        assertFalse(cache.isRevoked("expired"));
+    }
+
+    @Test
+    void shouldApplyLocalRevocationsAtOnce() {
+        cache.loadSnapshot();
+        String jti = UUID.randomUUID().toString();
+        revokeRemotely(jti, Instant.now());
+        cache.revoked(jti, Instant.now().plusSeconds(3600));
+
+        assertTrue(cache.isRevoked(jti));
+
+        // Still revoked in the next filter
+        cache.loadSnapshot();
+        assertTrue(cache.isRevoked(jti));
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    void shouldApplyRemoteRevocationsFromTheFeed() {
+        cache.loadSnapshot();
+        assertFalse(cache.isRevoked("remote"));
+
+        revokeRemotely("remote", Instant.now());
+        cache.pollFeed();
+        assertTrue(cache.isRevoked("remote"));
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    void shouldReadBackForLateRevocations() {
+        cache.loadSnapshot();
+        // Revoked a few seconds ago, e.g. by a node with a late clock, and only indexed now
+        revokeRemotely("late", Instant.now().minusSeconds(3));
+        lagging.put("late", rows.get("late"));
+        cache.pollFeed();
+        assertFalse(cache.isRevoked("late"));
+
+        lagging.clear();
+        cache.pollFeed();
+        assertTrue(cache.isRevoked("late"));
+    }
+
+    @Test
+    void shouldReadTheTableUntilSynced() {
+        revokeRemotely("revoked", Instant.now());
+
+        assertTrue(cache.isRevoked("revoked"));
+        assertFalse(cache.isRevoked("valid"));
+        assertEquals(2, lookups.get());
+
+        cache.loadSnapshot();
+        assertFalse(cache.isRevoked("valid"));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void shouldReadTheTableWhenTheFeedIsStale() throws InterruptedException {
+        jwtProperties.getRevocationCache().setMaxStaleness(Duration.ofMillis(50));
+        cache.loadSnapshot();
+        Thread.sleep(100);
+
+        revokeRemotely("remote", Instant.now());
+        assertTrue(cache.isRevoked("remote"));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void shouldKeepTheFalsePositiveRate() {
+        JtiBloomFilter filter = new JtiBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    private void revokeRemotely(String jti, Instant revokedAt) {
+        rows.put(jti, RevokedJwt.builder()
+                .jti(jti)
+                .ttl(Instant.now().plusSeconds(3600).getEpochSecond())
+                .revokedAt(revokedAt)
+                .revokedAtMillis(revokedAt.toEpochMilli())
+                .revokedBucket(RevokedJwt.bucketOf(revokedAt.toEpochMilli()))
+                .build());
+    }
+}
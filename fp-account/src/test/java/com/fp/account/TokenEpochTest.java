@@ -0,0 +1,127 @@
+package com.fp.account;
+
+import com.fp.auth.cache.TokenEpochCache;
+import com.fp.auth.service.impl.TokenEpochServiceImpl;
+import com.fp.constant.JwtClaimsKey;
+import com.fp.dynamodb.repository.TokenEpochRepository;
+import com.fp.entity.TokenEpoch;
+import com.fp.properties.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenEpochTest {
+    private static final String ACCOUNT_ID = "48607e34-4b9c-4f1c-8dc3-0164e1729fa7";
+
+    /// The rows of the token epochs table, not named `table`: that is the inherited field of the repository
+    private final Map<String, TokenEpoch> rows = new ConcurrentHashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final TokenEpochRepository repository = new TokenEpochRepository() {
+        @Override
+        public boolean advance(TokenEpoch tokenEpoch) {
+            TokenEpoch saved = rows.get(tokenEpoch.getAccountId());
+            if (saved != null && saved.getNotBefore() >= tokenEpoch.getNotBefore()) {
+                return false;
+            }
+            rows.put(tokenEpoch.getAccountId(), tokenEpoch);
+            return true;
+        }
+
+        @Override
+        public Optional<TokenEpoch> findByAccountId(String accountId) {
+            lookups.incrementAndGet();
+            return Optional.ofNullable(rows.get(accountId));
+        }
+
+        @Override
+        public Stream<TokenEpoch> scanEpochs() {
+            return rows.values().stream();
+        }
+    };
+
+    private final JwtProperties jwtProperties = new JwtProperties();
+    private TokenEpochCache cache;
+    private TokenEpochServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TokenEpochCache(repository, jwtProperties);
+        service = new TokenEpochServiceImpl(repository, cache, jwtProperties);
+    }
+
+    @Test
+    void shouldRejectTokensIssuedBeforeLogoutEverywhere() {
+        cache.reload();
+        Jwt before = jwt(Instant.now().minusSeconds(60));
+        assertFalse(service.isIssuedBeforeEpoch(before));
+
+        service.invalidateAllTokens(ACCOUNT_ID);
+
+        assertTrue(service.isIssuedBeforeEpoch(before));
+        assertTrue(service.isIssuedBeforeEpoch(jwt(Instant.now())));
+        assertFalse(service.isIssuedBeforeEpoch(jwt(Instant.now().plusSeconds(2))));
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    void shouldExpireTheEpochWithTheLongestToken() {
+        service.invalidateAllTokens(ACCOUNT_ID);
+
+        TokenEpoch saved = rows.get(ACCOUNT_ID);
+        assertEquals(saved.getNotBefore() + jwtProperties.getRefreshTokenConfig().getExpirationInSeconds(), saved.getTtl());
+    }
+
+    @Test
+    void shouldApplyEpochsFromOtherNodesOnReload() {
+        cache.reload();
+        Jwt token = jwt(Instant.now().minusSeconds(60));
+
+        long notBefore = Instant.now().getEpochSecond();
+        rows.put(ACCOUNT_ID, TokenEpoch.builder().accountId(ACCOUNT_ID).notBefore(notBefore).ttl(notBefore + 3600).build());
+        assertFalse(service.isIssuedBeforeEpoch(token));
+
+        cache.reload();
+        assertTrue(service.isIssuedBeforeEpoch(token));
+    }
+
+    @Test
+    void shouldNeverMoveTheEpochBack() {
+        cache.reload();
+        long later = Instant.now().plusSeconds(30).getEpochSecond();
+        rows.put(ACCOUNT_ID, TokenEpoch.builder().accountId(ACCOUNT_ID).notBefore(later).ttl(later + 3600).build());
+        cache.advanced(ACCOUNT_ID, later);
+
+        service.invalidateAllTokens(ACCOUNT_ID);
+
+        assertEquals(later, rows.get(ACCOUNT_ID).getNotBefore());
+        assertEquals(later, cache.notBefore(ACCOUNT_ID));
+    }
+
+    @Test
+    void shouldReadTheTableUntilLoaded() {
+        long notBefore = Instant.now().getEpochSecond();
+        rows.put(ACCOUNT_ID, TokenEpoch.builder().accountId(ACCOUNT_ID).notBefore(notBefore).ttl(notBefore + 3600).build());
+
+        assertTrue(service.isIssuedBeforeEpoch(jwt(Instant.now().minusSeconds(60))));
+        assertEquals(1, lookups.get());
+    }
+
+    private static Jwt jwt(Instant issuedAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .claim(JwtClaimsKey.ACCOUNT_ID, ACCOUNT_ID)
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(3600))
+                .build();
+    }
+}
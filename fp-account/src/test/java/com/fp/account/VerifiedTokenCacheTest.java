@@ -0,0 +1,94 @@
+package com.fp.account;
+
+import com.fp.auth.JwtPrincipal;
+import com.fp.auth.JwtPrincipalAuthenticationConverter;
+import com.fp.auth.JwtPrincipalAuthenticationToken;
+import com.fp.auth.cache.CachingJwtDecoder;
+import com.fp.constant.JwtClaimsKey;
+import com.fp.enumeration.jwt.JwtType;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+    /// Token value -> expiry; any other token fails the verification
+    private final Map<String, Instant> issued = new ConcurrentHashMap<>();
+
+    private final JwtDecoder delegate = token -> {
+        verifications.incrementAndGet();
+        Instant expiresAt = issued.get(token);
+        if (expiresAt == null) {
+            throw new BadJwtException("Signed JWT rejected: Invalid signature");
+        }
+        return jwt(token, expiresAt);
+    };
+
+    @Test
+    void shouldVerifyEachTokenOnce() {
+        issued.put("a", Instant.now().plusSeconds(3600));
+        issued.put("b", Instant.now().plusSeconds(3600));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("a", decoder.decode("a").getTokenValue());
+            assertEquals("b", decoder.decode("b").getTokenValue());
+        }
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void shouldNotCacheRejectedOrExpiredTokens() {
+        issued.put("expired", Instant.now().minusSeconds(1));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        decoder.decode("expired");
+        decoder.decode("expired");
+        assertEquals(4, verifications.get());
+    }
+
+    @Test
+    void shouldStayBounded() {
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+        for (int i = 0; i < 1000; i++) {
+            issued.put("token-" + i, Instant.now().plusSeconds(3600));
+            decoder.decode("token-" + i);
+        }
+        assertTrue(decoder.size() <= 100, "size: " + decoder.size());
+    }
+
+    @Test
+    void shouldReadThePrincipalOnce() {
+        Jwt jwt = jwt("token", Instant.now().plusSeconds(3600));
+
+        var authentication = new JwtPrincipalAuthenticationConverter().convert(jwt);
+
+        assertInstanceOf(JwtPrincipalAuthenticationToken.class, authentication);
+        assertSame(jwt, authentication.getPrincipal());
+        assertEquals(new JwtPrincipal("48607e34", "li@example.com", JwtType.ACCESS, "jti-1", jwt.getIssuedAt()),
+                ((JwtPrincipalAuthenticationToken) authentication).getJwtPrincipal());
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("li@example.com")
+                .claim(JwtClaimsKey.ACCOUNT_ID, "48607e34")
+                .claim(JwtClaimsKey.TYPE, JwtType.ACCESS.getType())
+                .jti("jti-1")
+                .issuedAt(expiresAt.minusSeconds(7200))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.fp.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.constant.Messages;
+import com.fp.dto.auth.response.AuthResponseDTO;
+import com.fp.util.HttpUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.web.server.authorization.ServerAccessDeniedHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link CustomAccessDeniedHandler}: the same 403 body.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CustomServerAccessDeniedHandler implements ServerAccessDeniedHandler {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, AccessDeniedException accessDeniedException) {
+        ServerHttpRequest request = exchange.getRequest();
+        String requestURI = request.getPath().value();
+        if(log.isDebugEnabled()){
+            log.debug("🔴 Access denied: {} {} from {} - {}",
+                    request.getMethod(), requestURI, request.getRemoteAddress(), accessDeniedException.getMessage());
+        }
+
+        var authResponse = AuthResponseDTO.forbidden(
+                requestURI,
+                Messages.Error.Auth.accessDenied(accessDeniedException.getMessage())
+        );
+        return HttpUtil.writeJson(exchange.getResponse(), HttpStatus.FORBIDDEN, authResponse, objectMapper);
+    }
+}
@@ -0,0 +1,45 @@
+package com.fp.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.constant.Messages;
+import com.fp.dto.auth.response.AuthResponseDTO;
+import com.fp.util.HttpUtil;
+import com.fp.util.UnauthorizedAuthClassifier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link CustomAuthenticationEntryPoint}: the same classified 401 body.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class CustomServerAuthenticationEntryPoint implements ServerAuthenticationEntryPoint {
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException authException) {
+        ServerHttpRequest request = exchange.getRequest();
+        String requestURI = request.getPath().value();
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if(log.isDebugEnabled()){
+            log.debug("🔴 Authentication failed: {} {} from {} - {}",
+                    request.getMethod(), requestURI, request.getRemoteAddress(), authException.getMessage());
+        }
+
+        var authenticationErrorInfo = UnauthorizedAuthClassifier.classifyError(authException, authHeader);
+        AuthResponseDTO authResponse = AuthResponseDTO.unauthorized(
+                requestURI,
+                Messages.Error.Auth.unauthorized(authException.getMessage()),
+                authenticationErrorInfo
+        );
+        return HttpUtil.writeJson(exchange.getResponse(), HttpStatus.UNAUTHORIZED, authResponse, objectMapper);
+    }
+}
@@ -0,0 +1,40 @@
+package com.fp.auth;
+
+import com.fp.constant.JwtClaimsKey;
+import com.fp.enumeration.jwt.JwtType;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+
+/// The caller of a request, read once from its verified JWT.
+///
+/// Built by `JwtPrincipalAuthenticationConverter` when the bearer token is authenticated and carried by the
+/// `JwtPrincipalAuthenticationToken` of the security context, so the filters, aspects and services read typed
+/// fields instead of looking the claims up, or decoding the token, again.
+///
+/// @param accountId the `accountId` claim
+/// @param email the subject
+/// @param type the `type` claim, null if missing or unknown
+/// @param jti the token ID
+/// @param issuedAt the `iat` claim, null if missing
+public record JwtPrincipal(String accountId, String email, JwtType type, String jti, Instant issuedAt) {
+
+    public static JwtPrincipal from(Jwt jwt) {
+        return new JwtPrincipal(
+                jwt.getClaimAsString(JwtClaimsKey.ACCOUNT_ID),
+                jwt.getSubject(),
+                typeOf(jwt.getClaimAsString(JwtClaimsKey.TYPE)),
+                jwt.getId(),
+                jwt.getIssuedAt()
+        );
+    }
+
+    private static JwtType typeOf(String type) {
+        for (JwtType jwtType : JwtType.values()) {
+            if (jwtType.getType().equalsIgnoreCase(type)) {
+                return jwtType;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.fp.auth;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+/// Authenticates a verified JWT as a `JwtPrincipalAuthenticationToken`: the claims are read once, when the bearer
+/// token filter authenticates the request. Same authorities as the default `JwtAuthenticationConverter`.
+public class JwtPrincipalAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+    private final JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        return new JwtPrincipalAuthenticationToken(jwt, authoritiesConverter.convert(jwt));
+    }
+}
@@ -0,0 +1,21 @@
+package com.fp.auth;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/// A `JwtAuthenticationToken` which also holds the `JwtPrincipal` of its token.
+///
+/// Still a `JwtAuthenticationToken` with the `Jwt` as its principal, for the code reading the raw token.
+@Getter
+public class JwtPrincipalAuthenticationToken extends JwtAuthenticationToken {
+    private final JwtPrincipal jwtPrincipal;
+
+    public JwtPrincipalAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities) {
+        super(jwt, authorities, jwt.getSubject());
+        this.jwtPrincipal = JwtPrincipal.from(jwt);
+    }
+}
@@ -0,0 +1,96 @@
+package com.fp.auth.cache;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+///
+/// # `JwtDecoder` remembering the tokens it verified.
+///
+/// A client sends the same token with every request until it expires; the delegate verifies its signature, parses
+/// its JSON and runs the validators once, then the `Jwt` is served from memory until its `exp`. The cache is keyed
+/// by the SHA-256 of the token, so two tokens never share an entry; a token which fails verification is not cached,
+/// it fails again every time.
+///
+/// Bounded: when full, the expired entries are dropped first, then arbitrary ones.
+///
+public class CachingJwtDecoder implements JwtDecoder {
+    private final JwtDecoder delegate;
+    private final int maxEntries;
+    private final Map<TokenHash, Jwt> verified = new ConcurrentHashMap<>();
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        TokenHash hash = TokenHash.of(token);
+        Jwt jwt = verified.get(hash);
+        if (jwt != null && isLive(jwt, Instant.now())) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null) {
+            if (verified.size() >= maxEntries) {
+                evict();
+            }
+            verified.put(hash, jwt);
+        }
+        return jwt;
+    }
+
+    public int size() {
+        return verified.size();
+    }
+
+    private void evict() {
+        Instant now = Instant.now();
+        verified.values().removeIf(jwt -> !isLive(jwt, now));
+        // Still full of live tokens: make room for a tenth of them
+        Iterator<TokenHash> iterator = verified.keySet().iterator();
+        for (int excess = verified.size() - maxEntries * 9 / 10; excess > 0 && iterator.hasNext(); excess--) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static boolean isLive(Jwt jwt, Instant now) {
+        return jwt.getExpiresAt().isAfter(now);
+    }
+
+    private record TokenHash(byte[] digest) {
+        static TokenHash of(String token) {
+            try {
+                return new TokenHash(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TokenHash that && Arrays.equals(digest, that.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(digest);
+        }
+
+        @Override
+        public String toString() {
+            return "TokenHash";
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fp.auth.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+///
+/// # Bloom filter of JWT IDs.
+///
+/// `mightContain` answering false means the ID was never added; true may be a false positive, at the rate the filter
+/// was sized for. Lock-free: adds set bits with CAS and reads never block, so one filter serves every request thread.
+///
+/// The `k` probes are derived from two 64-bit hashes of the ID (Kirsch-Mitzenmacher double hashing).
+///
+public final class JtiBloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions IDs the filter should hold at the given false positive probability
+     * @param falsePositiveProbability e.g. `0.001`
+     */
+    public JtiBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("False positive probability must be in (0, 1): " + falsePositiveProbability);
+        }
+        long n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min((m + 63) >>> 6, Integer.MAX_VALUE - 8);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void add(String jti) {
+        long h1 = hash(jti);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(String jti) {
+        long h1 = hash(jti);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars, finished with the MurmurHash3 mixer for the avalanche.
+     */
+    private static long hash(String jti) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < jti.length(); i++) {
+            hash ^= jti.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
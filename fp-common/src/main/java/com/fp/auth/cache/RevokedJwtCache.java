@@ -0,0 +1,193 @@
+package com.fp.auth.cache;
+
+import com.fp.dynamodb.repository.RevokedJwtRepository;
+import com.fp.entity.RevokedJwt;
+import com.fp.properties.JwtProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+///
+/// # Per-node copy of the revoked tokens table.
+///
+/// Every authenticated request asks whether its token was revoked; almost none was. The answer comes from:
+///
+/// 1. a Bloom filter of all the revoked `jti`s: a miss means "not revoked", without leaving the process;
+/// 2. the set of all the revoked `jti`s with their `exp`, for the filter's hits.
+///
+/// Both are loaded from a snapshot of the table at startup, then every `snapshotInterval`, and kept current in
+/// between by polling the revocation feed (the `revoked-at-index`) every `feedInterval` for the revocations since
+/// the previous poll. Each poll reads `feedOverlap` back again, for the revocations which reach the index late.
+/// Revocations made on this node are written through at once.
+///
+/// A token revoked on another node is rejected here within about one `feedInterval`. Until the first snapshot,
+/// or when the feed has not been read for `maxStaleness`, the local copy is not trusted and every check reads
+/// DynamoDB, so a broken feed never lets a revoked token through.
+///
+@Component
+@Slf4j
+public class RevokedJwtCache {
+    private static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+    private final RevokedJwtRepository revokedJwtRepository;
+    private final JwtProperties.RevocationCacheConfig config;
+
+    /// jti -> exp, in epoch seconds
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile JtiBloomFilter filter;
+    /// Last time the local copy was known complete, from a snapshot or a poll, in epoch millis
+    private volatile long syncedAtMillis;
+    /// The feed is read after this time, in epoch millis of `revoked_at_ms`
+    private long feedCursor;
+    /// The local revocations since the current snapshot started, replayed into the filter it builds
+    private volatile Set<String> revokedDuringSnapshot = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService sync;
+
+    public RevokedJwtCache(RevokedJwtRepository revokedJwtRepository, JwtProperties jwtProperties) {
+        this.revokedJwtRepository = revokedJwtRepository;
+        this.config = jwtProperties.getRevocationCache();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        // One thread: the snapshots and the polls never overlap
+        sync = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revoked-jwt-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sync.scheduleWithFixedDelay(() -> quietly("load a snapshot of", this::loadSnapshot),
+                0, config.getSnapshotInterval().toMillis(), TimeUnit.MILLISECONDS);
+        sync.scheduleWithFixedDelay(() -> quietly("poll", this::pollFeed),
+                config.getFeedInterval().toMillis(), config.getFeedInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sync != null) {
+            sync.shutdownNow();
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        JtiBloomFilter current = filter;
+        if (!config.isEnabled() || current == null || !isSynced()) {
+            Optional<RevokedJwt> revokedJwt = revokedJwtRepository.findByJti(jti);
+            revokedJwt.ifPresent(found -> revoked.put(jti, expiresAt(found.getTtl())));
+            return revokedJwt.isPresent();
+        }
+        if (!current.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Write-through of a revocation saved by this node.
+     * @param expiresAt the token's `exp`, null if it has none
+     */
+    public void revoked(String jti, Instant expiresAt) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        // Recorded before touching the filter: a snapshot swapping the filter in between replays it
+        revokedDuringSnapshot.add(jti);
+        add(jti, expiresAt != null ? expiresAt.getEpochSecond() : 0);
+    }
+
+    /**
+     * Reload all the revoked IDs from the table into a new filter, sized for what it holds now, and drop the
+     * expired ones from the set.
+     */
+    public void loadSnapshot() {
+        Set<String> replay = ConcurrentHashMap.newKeySet();
+        revokedDuringSnapshot = replay;
+        Instant startedAt = Instant.now();
+        long now = startedAt.getEpochSecond();
+        Map<String, Long> live = new ConcurrentHashMap<>();
+        revokedJwtRepository.scanRevokedIds()
+                .filter(revokedJwt -> expiresAt(revokedJwt.getTtl()) > now) // The TTL deletion of DynamoDB lags
+                .forEach(revokedJwt -> live.put(revokedJwt.getJti(), expiresAt(revokedJwt.getTtl())));
+
+        JtiBloomFilter next = new JtiBloomFilter(Math.max(config.getExpectedInsertions(), live.size() * 2L),
+                config.getFalsePositiveProbability());
+        live.keySet().forEach(next::add);
+        revoked.putAll(live);
+        filter = next;
+        replay.forEach(next::add);
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+        // The scan is consistent: anything revoked before it started is in it
+        feedCursor = startedAt.toEpochMilli();
+        syncedAtMillis = feedCursor;
+        log.debug("Loaded {} revoked token IDs into a filter of {} bits", live.size(), next.bitCount());
+    }
+
+    /**
+     * Apply the revocations which reached the feed since the previous poll.
+     */
+    public void pollFeed() {
+        if (filter == null) {
+            return; // Not bootstrapped yet
+        }
+        Instant startedAt = Instant.now();
+        long until = startedAt.toEpochMilli();
+        long since = Math.min(feedCursor, until) - config.getFeedOverlap().toMillis();
+        long[] applied = {0};
+        revokedJwtRepository.findRevokedBetween(since, until).forEach(revokedJwt -> {
+            add(revokedJwt.getJti(), revokedJwt.getTtl());
+            applied[0]++;
+        });
+        feedCursor = until;
+        syncedAtMillis = until;
+        if (applied[0] > 0) {
+            log.debug("Applied {} revocations from the feed", applied[0]);
+        }
+    }
+
+    private void add(String jti, Long ttl) {
+        revoked.put(jti, expiresAt(ttl));
+        JtiBloomFilter current = filter;
+        if (current != null) {
+            current.add(jti);
+        }
+    }
+
+    /**
+     * Checked on every request: compares millis, without allocating instants.
+     */
+    private boolean isSynced() {
+        return System.currentTimeMillis() - syncedAtMillis < config.getMaxStaleness().toMillis();
+    }
+
+    private static void quietly(String action, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.warn("Failed to {} the revoked token IDs", action, e);
+        }
+    }
+
+    /**
+     * `ttl` is 0 for a token without `exp`.
+     */
+    private static long expiresAt(Long ttl) {
+        return ttl == null || ttl <= 0 ? NEVER_EXPIRES : ttl;
+    }
+}
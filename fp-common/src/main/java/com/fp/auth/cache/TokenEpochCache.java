@@ -0,0 +1,117 @@
+package com.fp.auth.cache;
+
+import com.fp.dynamodb.repository.TokenEpochRepository;
+import com.fp.entity.TokenEpoch;
+import com.fp.properties.JwtProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+///
+/// # Per-node copy of the token epochs table.
+///
+/// The table only holds the accounts which logged out everywhere while some of their tokens may still be live,
+/// so the whole of it is reloaded every `refreshInterval` and a check is a map lookup. Epochs advanced on this node
+/// are written through at once; an epoch advanced on another node applies here at the next reload.
+///
+/// Until the first reload, or when the reloads keep failing for `maxStaleness`, every check reads DynamoDB.
+///
+@Component
+@Slf4j
+public class TokenEpochCache {
+    private final TokenEpochRepository tokenEpochRepository;
+    private final JwtProperties.TokenEpochConfig config;
+
+    /// accountId -> notBefore, in epoch seconds
+    private volatile Map<String, Long> epochs = new ConcurrentHashMap<>();
+    /// The epochs advanced on this node since the current reload started, replayed into the map it builds
+    private volatile Map<String, Long> advancedDuringReload = new ConcurrentHashMap<>();
+    /// Last reload, in epoch millis
+    private volatile long loadedAtMillis;
+
+    private ScheduledExecutorService reloader;
+
+    public TokenEpochCache(TokenEpochRepository tokenEpochRepository, JwtProperties jwtProperties) {
+        this.tokenEpochRepository = tokenEpochRepository;
+        this.config = jwtProperties.getTokenEpoch();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-epoch-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Failed to reload the token epochs, loaded at {}", Instant.ofEpochMilli(loadedAtMillis), e);
+            }
+        }, 0, config.getRefreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * The epoch of the account in epoch seconds, 0 if it never logged out everywhere.
+     */
+    public long notBefore(String accountId) {
+        if (!config.isEnabled() || !isFresh()) {
+            Optional<TokenEpoch> tokenEpoch = tokenEpochRepository.findByAccountId(accountId);
+            tokenEpoch.ifPresent(found -> epochs.merge(accountId, found.getNotBefore(), Math::max));
+            return tokenEpoch.map(TokenEpoch::getNotBefore).orElse(0L);
+        }
+        Long notBefore = epochs.get(accountId);
+        return notBefore != null ? notBefore : 0;
+    }
+
+    /**
+     * Write-through of an epoch saved by this node.
+     */
+    public void advanced(String accountId, long notBefore) {
+        // Recorded before touching the map: a reload swapping the map in between replays it
+        advancedDuringReload.merge(accountId, notBefore, Math::max);
+        epochs.merge(accountId, notBefore, Math::max);
+    }
+
+    public void reload() {
+        Map<String, Long> replay = new ConcurrentHashMap<>();
+        advancedDuringReload = replay;
+        Instant startedAt = Instant.now();
+        long now = startedAt.getEpochSecond();
+        Map<String, Long> next = new ConcurrentHashMap<>();
+        tokenEpochRepository.scanEpochs()
+                .filter(tokenEpoch -> tokenEpoch.getTtl() == null || tokenEpoch.getTtl() > now) // The TTL deletion lags
+                .forEach(tokenEpoch -> next.merge(tokenEpoch.getAccountId(), tokenEpoch.getNotBefore(), Math::max));
+        epochs = next;
+        replay.forEach((accountId, notBefore) -> next.merge(accountId, notBefore, Math::max));
+        loadedAtMillis = startedAt.toEpochMilli();
+        log.debug("Loaded {} token epochs", next.size());
+    }
+
+    /**
+     * Checked on every request: compares millis, without allocating instants.
+     */
+    private boolean isFresh() {
+        return System.currentTimeMillis() - loadedAtMillis < config.getMaxStaleness().toMillis();
+    }
+}
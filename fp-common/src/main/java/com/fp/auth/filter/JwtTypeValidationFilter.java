@@ -1,6 +1,8 @@
 package com.fp.auth.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.auth.JwtPrincipal;
+import com.fp.auth.JwtPrincipalAuthenticationToken;
 import com.fp.auth.strategy.JwtValidationContext;
 import com.fp.auth.strategy.JwtValidationRequest;
 import com.fp.auth.strategy.JwtValidationResult;
@@ -53,6 +55,7 @@ public class JwtTypeValidationFilter extends OncePerRequestFilter {
             JwtValidationResult jwtValidationResult = jwtValidationContext.executeValidationStrategy(
                     JwtValidationRequest.builder()
                             .jwt(jwt)
+                            .principal(principalOf(jwtAuth))
                             .requestURI(requestURI)
                             .build()
             );
@@ -66,6 +69,12 @@ public class JwtTypeValidationFilter extends OncePerRequestFilter {
 
     }
 
+    static JwtPrincipal principalOf(JwtAuthenticationToken jwtAuth) {
+        return jwtAuth instanceof JwtPrincipalAuthenticationToken principalAuth
+                ? principalAuth.getJwtPrincipal()
+                : JwtPrincipal.from(jwtAuth.getToken());
+    }
+
     private void handleInvalidTokenError(HttpServletResponse response, JwtValidationResult validationResult, String requestURI) throws IOException {
         if (response.isCommitted()) {
             log.warn("Cannot write error response - response already committed for URI: {}", requestURI);
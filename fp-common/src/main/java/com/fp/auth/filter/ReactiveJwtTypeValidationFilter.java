@@ -0,0 +1,71 @@
+package com.fp.auth.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.auth.strategy.JwtValidationContext;
+import com.fp.auth.strategy.JwtValidationRequest;
+import com.fp.auth.strategy.JwtValidationResult;
+import com.fp.dto.auth.response.AuthResponseDTO;
+import com.fp.util.HttpUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+
+import static com.fp.util.HttpUtil.isPublicPath;
+
+/// WebFlux counterpart of `JwtTypeValidationFilter`: runs the same `JwtValidationContext` strategies
+/// once the bearer token is authenticated.
+///
+/// The strategies are blocking (the revocation check reads DynamoDB), so they run on the bounded elastic
+/// scheduler, never on the event loop.
+///
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveJwtTypeValidationFilter implements WebFilter {
+
+    private final ObjectMapper objectMapper;
+    private final JwtValidationContext jwtValidationContext;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String requestURI = exchange.getRequest().getPath().value();
+        if(isPublicPath(requestURI)) {
+            return chain.filter(exchange);
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .cast(JwtAuthenticationToken.class)
+                .flatMap(jwtAuth -> Mono.fromCallable(() -> jwtValidationContext.executeValidationStrategy(
+                                JwtValidationRequest.builder()
+                                        .jwt(jwtAuth.getToken())
+                                        .principal(JwtTypeValidationFilter.principalOf(jwtAuth))
+                                        .requestURI(requestURI)
+                                        .build()))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .defaultIfEmpty(JwtValidationResult.success())
+                .flatMap(jwtValidationResult -> jwtValidationResult.isValid()
+                        ? chain.filter(exchange)
+                        : handleInvalidTokenError(exchange, jwtValidationResult, requestURI));
+    }
+
+    private Mono<Void> handleInvalidTokenError(ServerWebExchange exchange, JwtValidationResult validationResult, String requestURI) {
+        var resp = AuthResponseDTO.builder()
+                .status(validationResult.getStatus())
+                .requestPath(requestURI)
+                .timestamp(Instant.now())
+                .statusCode(validationResult.getStatus().value())
+                .message(validationResult.getMessage())
+                .build();
+        return HttpUtil.writeJson(exchange.getResponse(), validationResult.getStatus(), resp, objectMapper)
+                .doOnError(e -> log.error("Error writing JWT validation error response for URI: {}", requestURI, e));
+    }
+}
@@ -1,5 +1,6 @@
 package com.fp.auth.service;
 
+import com.fp.auth.JwtPrincipal;
 import com.fp.enumeration.jwt.JwtType;
 import org.springframework.security.oauth2.jwt.*;
 
@@ -50,4 +51,9 @@ public interface JwtService {
     public Optional<String> getEmailFromAuthContext();
 
     public Jwt getJwtFromAuthContext();
+
+    /**
+     * The caller of the current request, as read from its token when it was authenticated.
+     */
+    public JwtPrincipal getPrincipalFromAuthContext();
 }
@@ -0,0 +1,35 @@
+package com.fp.auth.service;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+
+/**
+ * Service interface for the per-account token epochs: invalidating all the tokens of an account at once.
+ */
+public interface TokenEpochService {
+
+    /**
+     * Check if a JWT token was issued before the epoch of its account.
+     *
+     * @param jwt the JWT token to check
+     * @return true if the token is invalidated by the epoch, false otherwise
+     */
+    boolean isIssuedBeforeEpoch(Jwt jwt);
+
+    /**
+     * Check if a token of the account issued at the given time was issued before the epoch of the account.
+     *
+     * @param accountId the `accountId` claim
+     * @param issuedAt the `iat` claim
+     * @return true if the token is invalidated by the epoch, false otherwise
+     */
+    boolean isIssuedBeforeEpoch(String accountId, Instant issuedAt);
+
+    /**
+     * Invalidate every token of the account issued until now, e.g. to log out all its sessions.
+     *
+     * @param accountId the account ID
+     */
+    void invalidateAllTokens(String accountId);
+}
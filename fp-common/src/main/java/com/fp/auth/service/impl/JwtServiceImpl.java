@@ -1,5 +1,7 @@
 package com.fp.auth.service.impl;
 
+import com.fp.auth.JwtPrincipal;
+import com.fp.auth.JwtPrincipalAuthenticationToken;
 import com.fp.constant.JwtClaimsKey;
 import com.fp.enumeration.jwt.JwtType;
 import com.fp.exception.business.AccountNotFoundException;
@@ -119,12 +121,7 @@ public class JwtServiceImpl implements JwtService {
     }
 
     public Optional<String> getAccountIdFromAuthContext() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth instanceof JwtAuthenticationToken jwtAuth) {
-            Jwt jwt = jwtAuth.getToken();
-            return Optional.of(jwt.getClaim(JwtClaimsKey.ACCOUNT_ID));
-        }
-        return Optional.empty();
+        return principalFromAuthContext().map(JwtPrincipal::accountId);
     }
     public Optional<String> getAccountIdFromToken(String token) {
         try {
@@ -147,12 +144,7 @@ public class JwtServiceImpl implements JwtService {
     }
 
     public Optional<String> getEmailFromAuthContext(){
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if(auth instanceof JwtAuthenticationToken jwtAuth) {
-            Jwt jwt = jwtAuth.getToken();
-            return Optional.of(jwt.getSubject());
-        }
-        return Optional.empty();
+        return principalFromAuthContext().map(JwtPrincipal::email);
     }
     public Jwt getJwtFromAuthContext() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -161,4 +153,21 @@ public class JwtServiceImpl implements JwtService {
         }
         throw new AccountNotFoundException("JWT token not found in authentication context");
     }
+
+    public JwtPrincipal getPrincipalFromAuthContext() {
+        return principalFromAuthContext()
+                .orElseThrow(() -> new AccountNotFoundException("JWT token not found in authentication context"));
+    }
+
+    private Optional<JwtPrincipal> principalFromAuthContext() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth instanceof JwtPrincipalAuthenticationToken principalAuth) {
+            return Optional.of(principalAuth.getJwtPrincipal());
+        }
+        if (auth instanceof JwtAuthenticationToken jwtAuth) {
+            // Authenticated by another converter
+            return Optional.of(JwtPrincipal.from(jwtAuth.getToken()));
+        }
+        return Optional.empty();
+    }
 }
@@ -1,5 +1,6 @@
 package com.fp.auth.service.impl;
 
+import com.fp.auth.cache.RevokedJwtCache;
 import com.fp.auth.service.JwtService;
 import com.fp.auth.service.RevokedJwtService;
 import com.fp.dynamodb.repository.RevokedJwtRepository;
@@ -7,22 +8,22 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
 
 @Service
 @RequiredArgsConstructor
 public class RevokedJwtServiceImpl implements RevokedJwtService {
     private final RevokedJwtRepository revokedJwtRepository;
     private final JwtService jwtService;
+    private final RevokedJwtCache revokedJwtCache;
 
     @Override
     public boolean isTokenRevoked(Jwt jwt) {
-        return revokedJwtRepository.exists(jwt);
+        return revokedJwtCache.isRevoked(jwt.getId());
     }
 
     @Override
     public boolean isTokenRevoked(String jti) {
-        return revokedJwtRepository.exists(Key.builder().partitionValue(jti).build());
+        return revokedJwtCache.isRevoked(jti);
     }
 
     @Override
@@ -40,5 +41,6 @@ public class RevokedJwtServiceImpl implements RevokedJwtService {
     @Override
     public void revokeJwt(Jwt jwt, String reason) {
         revokedJwtRepository.revokeJwt(jwt, reason);
+        revokedJwtCache.revoked(jwt.getId(), jwt.getExpiresAt());
     }
 }
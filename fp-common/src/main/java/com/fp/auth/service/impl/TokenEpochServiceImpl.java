@@ -0,0 +1,61 @@
+package com.fp.auth.service.impl;
+
+import com.fp.auth.cache.TokenEpochCache;
+import com.fp.auth.service.TokenEpochService;
+import com.fp.constant.JwtClaimsKey;
+import com.fp.dynamodb.repository.TokenEpochRepository;
+import com.fp.entity.TokenEpoch;
+import com.fp.properties.JwtProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenEpochServiceImpl implements TokenEpochService {
+    private final TokenEpochRepository tokenEpochRepository;
+    private final TokenEpochCache tokenEpochCache;
+    private final JwtProperties jwtProperties;
+
+    @Override
+    public boolean isIssuedBeforeEpoch(Jwt jwt) {
+        return isIssuedBeforeEpoch(jwt.getClaimAsString(JwtClaimsKey.ACCOUNT_ID), jwt.getIssuedAt());
+    }
+
+    @Override
+    public boolean isIssuedBeforeEpoch(String accountId, Instant issuedAt) {
+        if (accountId == null || issuedAt == null) {
+            return false;
+        }
+        return issuedAt.getEpochSecond() < tokenEpochCache.notBefore(accountId);
+    }
+
+    @Override
+    public void invalidateAllTokens(String accountId) {
+        // `iat` has a one second precision: the epoch is rounded up, so a token issued earlier in the same second is
+        // invalid too, as is one issued later in that second
+        long notBefore = Instant.now().getEpochSecond() + 1;
+        TokenEpoch tokenEpoch = TokenEpoch.builder()
+                .accountId(accountId)
+                .notBefore(notBefore)
+                .ttl(notBefore + longestTokenLifetime().toSeconds())
+                .build();
+        if (!tokenEpochRepository.advance(tokenEpoch)) {
+            log.debug("A later token epoch is already saved for account {}", accountId);
+        }
+        tokenEpochCache.advanced(accountId, notBefore);
+    }
+
+    private Duration longestTokenLifetime() {
+        return Stream.of(jwtProperties.getAccessTokenConfig(), jwtProperties.getRefreshTokenConfig(), jwtProperties.getVerifyTokenConfig())
+                .map(JwtProperties.TokenConfig::getExpiration)
+                .max(Duration::compareTo)
+                .orElseThrow();
+    }
+}
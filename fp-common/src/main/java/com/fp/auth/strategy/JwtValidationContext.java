@@ -1,15 +1,17 @@
 package com.fp.auth.strategy;
 
-import com.fp.constant.JwtClaimsKey;
+import com.fp.constant.Messages;
 import com.fp.enumeration.jwt.JwtType;
 import com.fp.pattern.core.strategy.Strategy;
 import com.fp.pattern.core.strategy.StrategyContext;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 ///
 /// # Context for JWT validation strategies.
@@ -17,9 +19,39 @@ import java.util.Comparator;
 /// This class extends the `StrategyContext` to provide a context for JWT validation strategies.
 ///
 /// Use for managing the execution of different JWT validation strategies based on the request.
+///
+/// The applicable strategies are compiled at startup into one array per JWT type and route class, sorted by
+/// priority, so a request only resolves its type and route class once and walks its array.
 @Component
 @Slf4j
 public class JwtValidationContext extends StrategyContext<JwtValidationRequest, JwtValidationResult> {
+    private static final JwtType[] JWT_TYPES = JwtType.values();
+    private static final int ROUTE_CLASSES = RouteClass.values().length;
+
+    /// The chains by `chainIndex(type, routeClass)`
+    private Strategy<JwtValidationRequest, JwtValidationResult>[][] chains;
+
+    /**
+     * Compile the chain of every JWT type and route class from the injected strategies.
+     */
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void compile() {
+        Strategy<JwtValidationRequest, JwtValidationResult>[][] compiled = new Strategy[JWT_TYPES.length * ROUTE_CLASSES][];
+        for (JwtType type : JWT_TYPES) {
+            for (RouteClass routeClass : RouteClass.values()) {
+                int index = chainIndex(type, routeClass);
+                compiled[index] = strategies.stream()
+                        .filter(strategy -> !(strategy instanceof JwtValidationStrategy jwtStrategy)
+                                || jwtStrategy.appliesTo(type, routeClass))
+                        .sorted(Comparator.comparingInt(Strategy::getPriority))
+                        .toArray(Strategy[]::new);
+                log.debug("JWT validation chain for {} tokens on {} routes: {}", type, routeClass,
+                        Arrays.stream(compiled[index]).map(Strategy::getStrategyName).toList());
+            }
+        }
+        chains = compiled;
+    }
 
     /**
      * <h1>The super method can only select the highest priority strategy that supports the input.</h1>
@@ -37,22 +69,23 @@ public class JwtValidationContext extends StrategyContext<JwtValidationRequest,
      */
     @Override
     public JwtValidationResult executeStrategy(JwtValidationRequest input) {
-        Jwt jwt = input.getJwt();
-        String jwtType = jwt.getClaimAsString(JwtClaimsKey.TYPE);
-        var applicableStrategies = strategies.stream()
-                .filter(s -> s.supports(input))
-                .sorted(Comparator.comparingInt(Strategy::getPriority))
-                .toList();
-
-        //Use the sorted and all applicable strategies to validate the JWT
-        for(var strategy : applicableStrategies) {
-            log.debug("Executing JWT validation strategy: {} (priority: {})",
-                    strategy.getStrategyName(), strategy.getPriority());
+        JwtType jwtType = input.getType();
+        if (jwtType == null) {
+            return JwtValidationResult.failure(Messages.Error.Auth.INVALID_TOKEN_TYPE, HttpStatus.UNAUTHORIZED);
+        }
+        //Use the compiled chain of the token type and route class to validate the JWT
+        for (var strategy : chains[chainIndex(jwtType, input.getRouteClass())]) {
+            if (!strategy.supports(input)) {
+                continue;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Executing JWT validation strategy: {} (priority: {})",
+                        strategy.getStrategyName(), strategy.getPriority());
+            }
             JwtValidationResult result = strategy.execute(input);
             if (!result.isValid()) {
                 return result; // Stop at first failure
             }
-            log.debug("Strategy {} passed validation", strategy.getStrategyName());
         }
         return JwtValidationResult.success();
     }
@@ -60,4 +93,15 @@ public class JwtValidationContext extends StrategyContext<JwtValidationRequest,
     public JwtValidationResult executeValidationStrategy(JwtValidationRequest input) {
         return executeStrategy(input);
     }
+
+    /**
+     * The compiled chain of the JWT type and route class, in execution order.
+     */
+    public List<Strategy<JwtValidationRequest, JwtValidationResult>> getChain(JwtType type, RouteClass routeClass) {
+        return List.of(chains[chainIndex(type, routeClass)]);
+    }
+
+    private static int chainIndex(JwtType type, RouteClass routeClass) {
+        return type.ordinal() * ROUTE_CLASSES + routeClass.ordinal();
+    }
 }
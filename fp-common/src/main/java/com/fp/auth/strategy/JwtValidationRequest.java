@@ -1,18 +1,53 @@
 package com.fp.auth.strategy;
 
+import com.fp.auth.JwtPrincipal;
 import com.fp.enumeration.jwt.JwtType;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+///
+/// The input of the JWT validation strategies. The claims and the route class are resolved at most once per
+/// request, however many strategies read them.
+///
 @Getter
-@Builder
 public class JwtValidationRequest {
     private final Jwt jwt;
 
+    /// The claims of `jwt` read once, read from `jwt` on first use when the caller only has the `Jwt`
+    private JwtPrincipal principal;
+
     private final String requestURI;
 
+    /// The route class of `requestURI`, resolved on first use
+    private RouteClass routeClass;
+
+    @Builder
+    public JwtValidationRequest(Jwt jwt, JwtPrincipal principal, String requestURI) {
+        this.jwt = jwt;
+        this.principal = principal;
+        this.requestURI = requestURI;
+    }
+
+    public JwtPrincipal getPrincipal() {
+        if (principal == null && jwt != null) {
+            principal = JwtPrincipal.from(jwt);
+        }
+        return principal;
+    }
+
+    public RouteClass getRouteClass() {
+        if (routeClass == null) {
+            routeClass = RouteClass.of(requestURI);
+        }
+        return routeClass;
+    }
 
+    /**
+     * @return the `type` claim, null if missing or unknown
+     */
+    public JwtType getType() {
+        JwtPrincipal jwtPrincipal = getPrincipal();
+        return jwtPrincipal != null ? jwtPrincipal.type() : null;
+    }
 }
@@ -6,6 +6,9 @@ import org.springframework.http.HttpStatusCode;
 
 @Getter
 public class JwtValidationResult {
+    /// Immutable, so every passing validation shares it
+    private static final JwtValidationResult SUCCESS = new JwtValidationResult(true, null, null);
+
     private final boolean valid;
 
     private final String message;
@@ -13,7 +16,7 @@ public class JwtValidationResult {
     private final HttpStatusCode status;
 
     public static JwtValidationResult success(){
-        return new JwtValidationResult(true, null, null);
+        return SUCCESS;
     }
     public static JwtValidationResult failure(String message, HttpStatusCode code) {
         return new JwtValidationResult(false, message, code);
@@ -22,6 +22,16 @@ public interface JwtValidationStrategy extends Strategy<JwtValidationRequest, Jw
      */
     JwtValidationResult postValidateJwt(JwtValidationRequest jwtValidationRequest);
 
+    /**
+     * Whether the strategy may apply to the tokens of the type on the routes of the class, decided once at startup
+     * when `JwtValidationContext` compiles its chains. `supports` still decides per request.
+     * @param type the JWT type
+     * @param routeClass the route class
+     */
+    default boolean appliesTo(JwtType type, RouteClass routeClass) {
+        return true;
+    }
+
 
     /**
      * Executes the JWT validation strategy.
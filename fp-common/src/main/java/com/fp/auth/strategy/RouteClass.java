@@ -0,0 +1,35 @@
+package com.fp.auth.strategy;
+
+import com.fp.util.HttpUtil;
+
+///
+/// # The classes of routes a JWT validation tells apart.
+///
+/// Resolved once per request from its URI; `JwtValidationContext` compiles one strategy chain per JWT type and
+/// route class.
+///
+public enum RouteClass {
+    /**
+     * Every other protected endpoint, for access tokens only
+     */
+    API,
+    /**
+     * The refresh endpoints, for refresh tokens only
+     */
+    REFRESH,
+    /**
+     * The verification endpoints, for verification tokens only
+     */
+    VERIFICATION
+    ;
+
+    public static RouteClass of(String requestURI) {
+        if (HttpUtil.isRefreshTokenPath(requestURI)) {
+            return REFRESH;
+        }
+        if (HttpUtil.isVerificationTokenPath(requestURI)) {
+            return VERIFICATION;
+        }
+        return API;
+    }
+}
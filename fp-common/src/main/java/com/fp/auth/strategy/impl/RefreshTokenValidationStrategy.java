@@ -3,14 +3,11 @@ package com.fp.auth.strategy.impl;
 import com.fp.auth.strategy.AbstractJwtValidationStrategy;
 import com.fp.auth.strategy.JwtValidationRequest;
 import com.fp.auth.strategy.JwtValidationResult;
-import com.fp.constant.JwtClaimsKey;
+import com.fp.auth.strategy.RouteClass;
 import com.fp.constant.Messages;
 import com.fp.enumeration.jwt.JwtType;
 import com.fp.pattern.annotation.StrategyComponent;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.oauth2.jwt.Jwt;
-
-import static com.fp.util.HttpUtil.isRefreshTokenPath;
 
 @StrategyComponent(
         value = "refreshTokenValidationStrategy",
@@ -23,10 +20,8 @@ public class RefreshTokenValidationStrategy extends AbstractJwtValidationStrateg
 
     @Override
     protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
-        Jwt jwt = jwtValidationRequest.getJwt();
-        JwtType jwtType = JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE));
         String requestURI = jwtValidationRequest.getRequestURI();
-        if (JwtType.REFRESH.equals(jwtType) && isRefreshTokenPath(requestURI)) {
+        if (jwtValidationRequest.getType() == JwtType.REFRESH && jwtValidationRequest.getRouteClass() == RouteClass.REFRESH) {
             return JwtValidationResult.success();
         }
         return JwtValidationResult.failure(Messages.Error.Auth.REFRESH_TOKEN_NOT_ALLOWED_ON_PATH + requestURI, HttpStatus.FORBIDDEN);
@@ -34,9 +29,12 @@ public class RefreshTokenValidationStrategy extends AbstractJwtValidationStrateg
 
     @Override
     public boolean supports(JwtValidationRequest type) {
-        Jwt jwt = type.getJwt();
-        JwtType jwtType = JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE));
-        return jwtType.equals(JwtType.REFRESH);
+        return type.getType() == JwtType.REFRESH;
+    }
+
+    @Override
+    public boolean appliesTo(JwtType type, RouteClass routeClass) {
+        return type == JwtType.REFRESH;
     }
 
 
@@ -1,5 +1,6 @@
 package com.fp.auth.strategy.impl;
 
+import com.fp.auth.JwtPrincipal;
 import com.fp.auth.service.RevokedJwtService;
 import com.fp.auth.strategy.AbstractJwtValidationStrategy;
 import com.fp.auth.strategy.JwtValidationRequest;
@@ -8,7 +9,6 @@ import com.fp.constant.Messages;
 import com.fp.pattern.annotation.StrategyComponent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.oauth2.jwt.Jwt;
 
 @StrategyComponent(
         value = "revokedTokenValidationStrategy",
@@ -22,16 +22,16 @@ public class RevokedTokenValidationStrategy extends AbstractJwtValidationStrateg
 
     @Override
     protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
-        return revokedJwtService.isTokenRevoked(jwtValidationRequest.getJwt())
+        return revokedJwtService.isTokenRevoked(jwtValidationRequest.getPrincipal().jti())
                 ? JwtValidationResult.failure(Messages.Error.Auth.JWT_REVOKED, HttpStatus.UNAUTHORIZED)
                 : JwtValidationResult.success();
     }
 
     @Override
     public boolean supports(JwtValidationRequest request) {
-        Jwt jwt  = request.getJwt();
+        JwtPrincipal principal = request.getPrincipal();
         String requestURI = request.getRequestURI();
-        return jwt != null && requestURI != null && jwt.getId() != null;
+        return principal != null && requestURI != null && principal.jti() != null;
     }
 
     @Override
@@ -0,0 +1,46 @@
+package com.fp.auth.strategy.impl;
+
+import com.fp.auth.JwtPrincipal;
+import com.fp.auth.service.TokenEpochService;
+import com.fp.auth.strategy.AbstractJwtValidationStrategy;
+import com.fp.auth.strategy.JwtValidationRequest;
+import com.fp.auth.strategy.JwtValidationResult;
+import com.fp.constant.Messages;
+import com.fp.pattern.annotation.StrategyComponent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+@StrategyComponent(
+        value = "tokenEpochValidationStrategy",
+        description = "Strategy to reject the tokens issued before the account logged out everywhere",
+        priority = 0 // as cheap as the revoked token check: one lookup in a local map
+)
+@RequiredArgsConstructor
+public class TokenEpochValidationStrategy extends AbstractJwtValidationStrategy {
+
+    private final TokenEpochService tokenEpochService;
+
+    @Override
+    protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
+        JwtPrincipal principal = jwtValidationRequest.getPrincipal();
+        return tokenEpochService.isIssuedBeforeEpoch(principal.accountId(), principal.issuedAt())
+                ? JwtValidationResult.failure(Messages.Error.Auth.JWT_ISSUED_BEFORE_LOGOUT, HttpStatus.UNAUTHORIZED)
+                : JwtValidationResult.success();
+    }
+
+    @Override
+    public boolean supports(JwtValidationRequest request) {
+        JwtPrincipal principal = request.getPrincipal();
+        return principal != null && principal.issuedAt() != null && principal.accountId() != null;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "tokenEpochValidationStrategy";
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+}
@@ -3,14 +3,11 @@ package com.fp.auth.strategy.impl;
 import com.fp.auth.strategy.AbstractJwtValidationStrategy;
 import com.fp.auth.strategy.JwtValidationRequest;
 import com.fp.auth.strategy.JwtValidationResult;
-import com.fp.constant.JwtClaimsKey;
+import com.fp.auth.strategy.RouteClass;
 import com.fp.constant.Messages;
 import com.fp.enumeration.jwt.JwtType;
 import com.fp.pattern.annotation.StrategyComponent;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.oauth2.jwt.Jwt;
-
-import static com.fp.util.HttpUtil.isVerificationTokenPath;
 
 @StrategyComponent(
         value = "verificationTokenValidationStrategy",
@@ -20,10 +17,8 @@ import static com.fp.util.HttpUtil.isVerificationTokenPath;
 public class VerificationTokenValidationStrategy extends AbstractJwtValidationStrategy {
     @Override
     protected JwtValidationResult validateJwt(JwtValidationRequest jwtValidationRequest) {
-        Jwt jwt = jwtValidationRequest.getJwt();
-        JwtType type = JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE));
         String requestUri = jwtValidationRequest.getRequestURI();
-        if(JwtType.VERIFICATION.equals(type) && isVerificationTokenPath(requestUri)) {
+        if(jwtValidationRequest.getType() == JwtType.VERIFICATION && jwtValidationRequest.getRouteClass() == RouteClass.VERIFICATION) {
             return JwtValidationResult.success();
         }
         return JwtValidationResult.failure(Messages.Error.Auth.VERIFICATION_TOKEN_NOT_ALLOWED_ON_PATH + requestUri, HttpStatus.FORBIDDEN);
@@ -32,9 +27,12 @@ public class VerificationTokenValidationStrategy extends AbstractJwtValidationSt
 
     @Override
     public boolean supports(JwtValidationRequest type) {
-        Jwt jwt = type.getJwt();
-        JwtType jwtType = JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE));
-        return jwtType.equals(JwtType.VERIFICATION);
+        return type.getType() == JwtType.VERIFICATION;
+    }
+
+    @Override
+    public boolean appliesTo(JwtType type, RouteClass routeClass) {
+        return type == JwtType.VERIFICATION;
     }
 
     @Override
@@ -1,7 +1,12 @@
 package com.fp.client;
 
+import com.fp.dto.follow.request.BatchFollowRequestDTO;
 import com.fp.dto.follow.request.FollowRequestDTO;
+import com.fp.dto.follow.request.RelationshipStatusRequestDTO;
 import com.fp.dto.follow.request.UnfollowRequestDTO;
+import com.fp.dto.follow.response.BatchFollowResponseDTO;
+import com.fp.dto.follow.response.FollowPurgeStatusDTO;
+import com.fp.dto.follow.response.RelationshipStatusResponseDTO;
 import com.fp.enumeration.api.FollowServiceAPI;
 import com.fp.util.ServiceExceptionHandler;
 import lombok.RequiredArgsConstructor;
@@ -71,4 +76,64 @@ public class FollowServiceClient {
             throw ServiceExceptionHandler.handleFollowServiceWebClientException(e);
         }
     }
+
+    public BatchFollowResponseDTO followAll(BatchFollowRequestDTO batchFollowRequestDTO) {
+        return exchangeBatch(FollowServiceAPI.FOLLOW_ACCOUNTS, batchFollowRequestDTO);
+    }
+
+    public BatchFollowResponseDTO unfollowAll(BatchFollowRequestDTO batchUnfollowRequestDTO) {
+        return exchangeBatch(FollowServiceAPI.UNFOLLOW_ACCOUNTS, batchUnfollowRequestDTO);
+    }
+
+    public RelationshipStatusResponseDTO getRelationships(RelationshipStatusRequestDTO relationshipStatusRequestDTO) {
+        try {
+            return followWebClient.method(FollowServiceAPI.GET_RELATIONSHIPS.getMethod())
+                    .uri(uriBuilder -> uriBuilder
+                            .path(FollowServiceAPI.GET_RELATIONSHIPS.getPath())
+                            .build()
+                    )
+                    .bodyValue(relationshipStatusRequestDTO)
+                    .retrieve()
+                    .bodyToMono(RelationshipStatusResponseDTO.class)
+                    .block();
+        } catch (WebClientResponseException e) {
+            throw ServiceExceptionHandler.handleFollowServiceWebClientException(e);
+        }
+    }
+
+    /**
+     * Request the purge of every follow relationship of a deleted account. Idempotent, the purge runs in the
+     * background of the follow service.
+     */
+    public FollowPurgeStatusDTO requestPurge(String accountId) {
+        try {
+            return followWebClient.method(FollowServiceAPI.REQUEST_PURGE.getMethod())
+                    .uri(uriBuilder -> uriBuilder
+                            .path(FollowServiceAPI.REQUEST_PURGE.getPath())
+                            .queryParam("accountId", accountId)
+                            .build()
+                    )
+                    .retrieve()
+                    .bodyToMono(FollowPurgeStatusDTO.class)
+                    .block();
+        } catch (WebClientResponseException e) {
+            throw ServiceExceptionHandler.handleFollowServiceWebClientException(e);
+        }
+    }
+
+    private BatchFollowResponseDTO exchangeBatch(FollowServiceAPI api, BatchFollowRequestDTO requestDTO) {
+        try {
+            return followWebClient.method(api.getMethod())
+                    .uri(uriBuilder -> uriBuilder
+                            .path(api.getPath())
+                            .build()
+                    )
+                    .bodyValue(requestDTO)
+                    .retrieve()
+                    .bodyToMono(BatchFollowResponseDTO.class)
+                    .block();
+        } catch (WebClientResponseException e) {
+            throw ServiceExceptionHandler.handleFollowServiceWebClientException(e);
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package com.fp.configuration;
 
 import com.fp.properties.DynamoDbProperties;
+import com.fp.dynamodb.repository.AccountDeletionRepository;
 import com.fp.dynamodb.repository.RevokedJwtRepository;
+import com.fp.dynamodb.repository.TokenEpochRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -48,6 +50,18 @@ public class DynamoDbConfiguration {
         return new RevokedJwtRepository();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public TokenEpochRepository tokenEpochRepository() {
+        return new TokenEpochRepository();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AccountDeletionRepository accountDeletionRepository() {
+        return new AccountDeletionRepository();
+    }
+
 
 
 
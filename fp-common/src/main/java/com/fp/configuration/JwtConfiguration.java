@@ -1,5 +1,6 @@
 package com.fp.configuration;
 
+import com.fp.auth.cache.CachingJwtDecoder;
 import com.fp.properties.JwtProperties;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import lombok.extern.slf4j.Slf4j;
@@ -53,9 +54,14 @@ public class JwtConfiguration {
                 jwtProperties.getSecret().getBytes(),
                 "HmacSHA256"
         );
-        return NimbusJwtDecoder.withSecretKey(secretKey)
+        NimbusJwtDecoder nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKey)
                 .macAlgorithm(MacAlgorithm.HS256)
                 .build();
+        // Steps 1 to 4 once per token: the same token comes back with every request until it expires
+        JwtProperties.VerifiedTokenCacheConfig cacheConfig = jwtProperties.getVerifiedTokenCache();
+        return cacheConfig.isEnabled()
+                ? new CachingJwtDecoder(nimbusJwtDecoder, cacheConfig.getMaxEntries())
+                : nimbusJwtDecoder;
     }
 
     @Bean
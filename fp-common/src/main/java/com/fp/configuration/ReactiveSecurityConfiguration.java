@@ -0,0 +1,122 @@
+package com.fp.configuration;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.auth.CustomServerAccessDeniedHandler;
+import com.fp.auth.CustomServerAuthenticationEntryPoint;
+import com.fp.auth.JwtPrincipalAuthenticationConverter;
+import com.fp.auth.filter.ReactiveJwtTypeValidationFilter;
+import com.fp.auth.strategy.JwtValidationContext;
+import com.fp.constant.UrlConstant;
+import com.fp.util.HttpUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher.MatchResult;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import reactor.core.publisher.Mono;
+
+/// WebFlux counterpart of `SecurityConfiguration`, for the services running as a reactive web application.
+///
+/// The same rules on `/api/**`: bearer JWT verified by the shared `JwtDecoder`, then the `JwtValidationContext`
+/// strategies, with the same JSON error bodies. WebFlux has no login page: the other paths are open to local
+/// requests only.
+@Configuration
+@Slf4j
+@ConditionalOnClass(JwtDecoder.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfiguration {
+
+    /**
+     * Adapts the HMAC `JwtDecoder`: the verification is pure CPU, and cached, it does not block the event loop.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveJwtDecoder reactiveJwtDecoder(JwtDecoder jwtDecoder) {
+        return token -> Mono.fromCallable(() -> jwtDecoder.decode(token));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CustomServerAuthenticationEntryPoint customServerAuthenticationEntryPoint(ObjectMapper objectMapper) {
+        return new CustomServerAuthenticationEntryPoint(objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CustomServerAccessDeniedHandler customServerAccessDeniedHandler(ObjectMapper objectMapper) {
+        return new CustomServerAccessDeniedHandler(objectMapper);
+    }
+
+    /**
+     * Default SecurityWebFilterChain of the API paths.
+     * Can be Overridden by defining a bean with the same name.
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "defaultJwtSecurityWebFilterChain")
+    @Order(1)
+    public SecurityWebFilterChain defaultJwtSecurityWebFilterChain(
+            ServerHttpSecurity http,
+            ReactiveJwtDecoder reactiveJwtDecoder,
+            CustomServerAuthenticationEntryPoint customServerAuthenticationEntryPoint,
+            CustomServerAccessDeniedHandler customServerAccessDeniedHandler,
+            ObjectMapper objectMapper,
+            JwtValidationContext jwtValidationContext
+    ) {
+        return http
+                .securityMatcher(ServerWebExchangeMatchers.pathMatchers("/api/**")) // Only Match all API paths
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                // Stateless: no security context kept between requests
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers(UrlConstant.PUBLIC_PATHS).permitAll()
+                        .anyExchange().authenticated()
+                )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt
+                                .jwtDecoder(reactiveJwtDecoder)
+                                .jwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(
+                                        new JwtPrincipalAuthenticationConverter())))
+                        .authenticationEntryPoint(customServerAuthenticationEntryPoint)
+                        .accessDeniedHandler(customServerAccessDeniedHandler)
+                )
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(customServerAuthenticationEntryPoint)
+                        .accessDeniedHandler(customServerAccessDeniedHandler))
+                // Add JWT token type validation filter after the bearer token authentication.
+                // Not a bean: WebFlux would also run every WebFilter bean outside the security chain
+                .addFilterAfter(new ReactiveJwtTypeValidationFilter(objectMapper, jwtValidationContext),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "localSecurityWebFilterChain")
+    @Order(10)
+    public SecurityWebFilterChain localSecurityWebFilterChain(ServerHttpSecurity http) {
+        log.info("Creating default SecurityWebFilterChain for non-API paths");
+        return http
+                .authorizeExchange(exchange -> exchange
+                        .matchers(request -> HttpUtil.isLocalhostExchange(request) ? MatchResult.match() : MatchResult.notMatch())
+                        .permitAll()
+                        .anyExchange().denyAll()
+                )
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ package com.fp.configuration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fp.auth.CustomAccessDeniedHandler;
 import com.fp.auth.CustomAuthenticationEntryPoint;
+import com.fp.auth.JwtPrincipalAuthenticationConverter;
 import com.fp.auth.filter.JwtTypeValidationFilter;
 import com.fp.auth.strategy.JwtValidationContext;
 import com.fp.constant.UrlConstant;
@@ -11,6 +12,7 @@ import com.fp.util.HttpUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -23,6 +25,7 @@ import org.springframework.security.web.SecurityFilterChain;
 @Configuration
 @Slf4j
 @ConditionalOnClass(JwtDecoder.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // WebFlux: ReactiveSecurityConfiguration
 @Order(2)
 public class SecurityConfiguration {
     @Bean
@@ -78,7 +81,9 @@ public class SecurityConfiguration {
                 )
                 // OAuth2 Resource Server configure - specialized in JWT exception handling
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.decoder(jwtDecoder))
+                        .jwt(jwt -> jwt
+                                .decoder(jwtDecoder)
+                                .jwtAuthenticationConverter(new JwtPrincipalAuthenticationConverter()))
                         .authenticationEntryPoint(customAuthenticationEntryPoint)
                         .accessDeniedHandler(customAccessDeniedHandler)
                 )
@@ -34,6 +34,7 @@ public final class Messages {
             public static final String VERIFICATION_TOKEN_NOT_ALLOWED_ON_PATH = "Verification token cannot be used for this endpoint.";
             public static final String REFRESH_TOKEN_NOT_ALLOWED_ON_PATH = "Refresh token cannot be used for this endpoint.";
             public static final String JWT_REVOKED = "JWT token has been revoked.";
+            public static final String JWT_ISSUED_BEFORE_LOGOUT = "JWT token was issued before the account logged out of all sessions.";
             public static final String JWT_CONTEXT_REQUEST_BODY_ERROR = "Cannot extract the fields from the request body needed for validating JWT authentication context.";
 
             private Auth() {}
@@ -60,6 +61,8 @@ public final class Messages {
             public static final String FOLLOW_ALREADY_EXISTS = "Follow relationship already exists.";
             public static final String FOLLOW_NOT_ALLOWED = "You cannot follow this user.";
             public static final String SELF_FOLLOW_NOT_ALLOWED = "You cannot follow yourself.";
+            public static final String PURGE_NOT_FOUND = "No follow purge was requested for this account.";
+            public static final String PURGE_ACCOUNT_NOT_DELETED = "Only the follows of a deleted account can be purged.";
         }
     }
 
@@ -13,13 +13,10 @@ public class PageResponseDTO <T>{
     ///
     /// # Cursor for pagination, indicating the position to start fetching followers.
     ///
-    /// Follow table cursor format: createdAt timestamp:followerId
+    /// Opaque, URL-safe token produced by `CursorCodec`: packed createdAt epoch micros + follower/followee ID,
+    /// base64url encoded and optionally HMAC signed. Clients must pass it back unchanged.
     ///
-    /// Example: 1700000000:uuid-1234-5678-90ab-cdef12345678
-    ///
-    /// createdAt_timestamp: Unix timestamp in milliseconds
-    ///
-    /// followerId: The ID of the follower
+    /// Example: AQEABjij2NIXUv0llwwHQk7orYKCQzXmbxQ
     ///
     private String nextCursor;
     boolean hasMore;
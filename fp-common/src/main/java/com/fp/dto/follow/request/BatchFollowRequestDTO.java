@@ -0,0 +1,31 @@
+package com.fp.dto.follow.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for following or unfollowing several accounts at once, e.g. "follow all suggested" during onboarding.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchFollowRequestDTO {
+    //The account ID of the user making the request
+    private String accountId;
+    //The email of the user making the request
+    private String email;
+
+    /**
+     * The IDs of the accounts to follow / unfollow. Duplicates are ignored.
+     */
+    @NotEmpty(message = "At least one followee ID is required")
+    @Size(max = 100, message = "Cannot follow or unfollow more than 100 accounts at once")
+    private List<String> followeeIds;
+}
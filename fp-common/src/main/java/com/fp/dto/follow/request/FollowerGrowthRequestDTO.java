@@ -0,0 +1,42 @@
+package com.fp.dto.follow.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+///
+/// # Request of the follower growth series of an account.
+///
+/// Buckets are UTC hours or UTC days. `from` and `to` are truncated to the bucket granularity;
+/// when omitted, the series ends with the current bucket and covers the last 90 days or 48 hours.
+///
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowerGrowthRequestDTO {
+
+    /// The ID of the account whose followers are counted.
+    @NotBlank
+    private String accountId;
+
+    @NotNull
+    @Builder.Default
+    private Granularity granularity = Granularity.DAY;
+
+    /// Start of the series, inclusive.
+    private Instant from;
+
+    /// End of the series, exclusive.
+    private Instant to;
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+}
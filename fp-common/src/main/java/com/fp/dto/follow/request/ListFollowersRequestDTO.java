@@ -24,12 +24,9 @@ public class ListFollowersRequestDTO {
     ///
     /// # Cursor for pagination, indicating the position to start fetching followers.
     ///
-    /// cursor format: createdAt Instant timestamp#followerId
-    ///
-    /// Example: 2025-06-29-11:50:3233545Z#uuid-1234-5678-90ab-cdef12345678
-    ///
-    /// createdAt_timestamp: Instant timestamp when the follower was created
+    /// Opaque cursor returned as `nextCursor` by the previous page, see `CursorCodec`.
     ///
+    /// The legacy format `createdAt Instant timestamp#id` is still accepted during migration, while cursors are unsigned.
     ///
     private String cursor;
 
@@ -22,13 +22,9 @@ public class ListFollowingsRequestDTO {
     ///
     /// # Cursor for pagination, indicating the position to start fetching followers.
     ///
-    /// cursor format: createdAt Instant timestamp#followerId
+    /// Opaque cursor returned as `nextCursor` by the previous page, see `CursorCodec`.
     ///
-    /// Example: 2025-06-29-11:50:3233545Z#uuid-1234-5678-90ab-cdef12345678
-    ///
-    /// createdAt_timestamp: Unix timestamp in milliseconds
-    ///
-    /// followerId: The ID of the follower
+    /// The legacy format `createdAt Instant timestamp#id` is still accepted during migration, while cursors are unsigned.
     ///
     private String cursor;
 
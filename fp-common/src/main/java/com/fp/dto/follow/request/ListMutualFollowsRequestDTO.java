@@ -0,0 +1,38 @@
+package com.fp.dto.follow.request;
+
+import com.fp.constant.PageConstant;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+///
+/// # Request of the "followed by people you follow" list.
+///
+/// Lists the accounts the viewer follows which themselves follow the target account,
+/// in account ID order.
+///
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListMutualFollowsRequestDTO {
+
+    /// The ID of the viewing account, whose followings are intersected.
+    @NotBlank
+    private String accountId;
+
+    /// The ID of the viewed account, whose followers are intersected.
+    @NotBlank
+    private String targetId;
+
+    @Min(1) @Max(100)
+    @Builder.Default
+    private Integer limit = PageConstant.DEFAULT_PAGE_SIZE;
+
+    /// Opaque cursor returned as `nextCursor` by the previous page, encoding the last account ID of that page.
+    private String cursor;
+}
@@ -0,0 +1,34 @@
+package com.fp.dto.follow.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+///
+/// # Request of the "who to follow" recommendations.
+///
+/// Ranks the accounts followed by the accounts the viewer follows, excluding the viewer
+/// and the accounts the viewer already follows.
+///
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListRecommendationsRequestDTO {
+
+    /// The ID of the viewing account.
+    @NotBlank
+    private String accountId;
+
+    @Min(1) @Max(100)
+    @Builder.Default
+    private Integer limit = 20;
+
+    /// Weight recent follows higher than old ones, see `fp.follow.recommendation.recency-half-life`.
+    @Builder.Default
+    private Boolean recency = false;
+}
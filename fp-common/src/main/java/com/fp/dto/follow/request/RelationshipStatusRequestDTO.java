@@ -0,0 +1,32 @@
+package com.fp.dto.follow.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for resolving the follow relationships between a viewer and a list of accounts,
+ * e.g. the follow buttons of a search result or follower list page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelationshipStatusRequestDTO {
+    //The account ID of the user viewing the accounts
+    @NotBlank(message = "Viewer ID is required")
+    private String viewerId;
+
+    /**
+     * The IDs of the accounts displayed to the viewer.
+     */
+    @NotEmpty(message = "At least one target ID is required")
+    @Size(max = 500, message = "Cannot resolve more than 500 relationships at once")
+    private List<String> targetIds;
+}
@@ -0,0 +1,45 @@
+package com.fp.dto.follow.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchFollowResponseDTO {
+    /**
+     * Number of relationships that were actually created / deleted.
+     */
+    private int succeeded;
+
+    /**
+     * Per-followee result, in the order of the request.
+     */
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemResult {
+        private String followeeId;
+        private Status status;
+    }
+
+    public enum Status {
+        // the follow relationship was created
+        FOLLOWED,
+        // the follow relationship was deleted
+        UNFOLLOWED,
+        // follow: the relationship already existed
+        ALREADY_FOLLOWING,
+        // unfollow: the relationship did not exist
+        NOT_FOLLOWING,
+        SELF_FOLLOW_NOT_ALLOWED
+    }
+}
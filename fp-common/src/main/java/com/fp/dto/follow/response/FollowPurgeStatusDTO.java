@@ -0,0 +1,47 @@
+package com.fp.dto.follow.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+///
+/// # Progress of the purge of a deleted account's follow relationships.
+///
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowPurgeStatusDTO {
+    private String accountId;
+
+    private Status status;
+
+    /**
+     * Number of follow relationships from the account deleted so far.
+     */
+    private long followingsDeleted;
+
+    /**
+     * Number of follow relationships to the account deleted so far.
+     */
+    private long followersDeleted;
+
+    private Instant requestedAt;
+
+    /**
+     * Null until the purge is complete.
+     */
+    private Instant completedAt;
+
+    public enum Status {
+        // deleting the followings of the account
+        PURGING_FOLLOWINGS,
+        // deleting the followers of the account
+        PURGING_FOLLOWERS,
+        // every follow relationship of the account is deleted
+        COMPLETED
+    }
+}
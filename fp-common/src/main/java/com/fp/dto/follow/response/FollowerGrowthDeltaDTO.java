@@ -0,0 +1,35 @@
+package com.fp.dto.follow.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+///
+/// # Follower change of an account since a point in time.
+///
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowerGrowthDeltaDTO {
+    private String accountId;
+
+    /**
+     * The requested point in time, truncated to the hour, or to the day once the hourly buckets of that day are
+     * pruned.
+     */
+    private Instant since;
+
+    /**
+     * Number of follows received since then.
+     */
+    private long gained;
+
+    /**
+     * Number of unfollows received since then.
+     */
+    private long lost;
+}
@@ -0,0 +1,48 @@
+package com.fp.dto.follow.response;
+
+import com.fp.dto.follow.request.FollowerGrowthRequestDTO.Granularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+///
+/// # Follower growth series of an account.
+///
+/// One bucket per hour or day of the requested range, in chronological order, including the empty ones.
+///
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowerGrowthResponseDTO {
+    private String accountId;
+
+    private Granularity granularity;
+
+    private List<Bucket> buckets;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Bucket {
+        /**
+         * Start of the hour / day, UTC.
+         */
+        private Instant start;
+
+        /**
+         * Number of follows received during the bucket.
+         */
+        private long gained;
+
+        /**
+         * Number of unfollows received during the bucket.
+         */
+        private long lost;
+    }
+}
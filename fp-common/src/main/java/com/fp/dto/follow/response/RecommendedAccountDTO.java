@@ -0,0 +1,30 @@
+package com.fp.dto.follow.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+///
+/// # An account recommended to follow.
+///
+/// Recommended because accounts the viewer follows already follow it.
+///
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecommendedAccountDTO {
+    private String accountId;
+
+    /**
+     * Ranking score: the number of the viewer's followings following the account,
+     * each weighted down by the age of that follow when recency weighting is on.
+     */
+    private double score;
+
+    /**
+     * Number of the viewer's followings following the account.
+     */
+    private int mutualCount;
+}
@@ -0,0 +1,39 @@
+package com.fp.dynamodb.repository;
+
+import com.fp.entity.AccountDeletion;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class AccountDeletionRepository extends DynamoDbRepository<AccountDeletion> {
+
+    /**
+     * Strongly consistent: a purge requested right after the deletion must see it.
+     */
+    public Optional<AccountDeletion> findByAccountId(String accountId) {
+        return Optional.ofNullable(table.getItem(GetItemEnhancedRequest.builder()
+                .key(key(accountId))
+                .consistentRead(true)
+                .build()));
+    }
+
+    /**
+     * The deletions whose purge is not recorded yet. Small: an item lives until the next poll of the follow service.
+     */
+    public Stream<AccountDeletion> scanDeletions() {
+        return table.scan(ScanEnhancedRequest.builder().consistentRead(true).build())
+                .items()
+                .stream();
+    }
+
+    public void remove(String accountId) {
+        deleteByKey(key(accountId));
+    }
+
+    private static Key key(String accountId) {
+        return Key.builder().partitionValue(accountId).build();
+    }
+}
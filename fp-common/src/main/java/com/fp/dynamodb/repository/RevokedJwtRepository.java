@@ -5,19 +5,28 @@ import com.fp.entity.RevokedJwt;
 import com.fp.enumeration.jwt.JwtType;
 import org.springframework.security.oauth2.jwt.Jwt;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
 
 import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public class RevokedJwtRepository extends DynamoDbRepository<RevokedJwt>{
     /**
      * Revoke token
      */
     public void revokeJwt(Jwt jwt, String reason) {
+        Instant revokedAt = Instant.now();
         RevokedJwt revokedJwt = RevokedJwt.builder()
                 .jti(jwt.getId())
                 .ttl(jwt.getExpiresAt() != null ? jwt.getExpiresAt().getEpochSecond() : 0)
                 .reason(reason)
-                .revokedAt(Instant.now())
+                .revokedAt(revokedAt)
+                .revokedAtMillis(revokedAt.toEpochMilli())
+                .revokedBucket(RevokedJwt.bucketOf(revokedAt.toEpochMilli()))
                 .type(JwtType.fromString(jwt.getClaimAsString(JwtClaimsKey.TYPE)))
                 .accountId(jwt.getClaimAsString(JwtClaimsKey.ACCOUNT_ID))
                 .build();
@@ -28,4 +37,39 @@ public class RevokedJwtRepository extends DynamoDbRepository<RevokedJwt>{
     public boolean exists(Jwt jwt) {
         return exists(Key.builder().partitionValue(jwt.getId()).build());
     }
+
+    public Optional<RevokedJwt> findByJti(String jti) {
+        return findByKey(Key.builder().partitionValue(jti).build());
+    }
+
+    /**
+     * All the revoked tokens, with only their `jti` and `ttl`.
+     * Strongly consistent, so a revocation saved before the scan started is in it.
+     */
+    public Stream<RevokedJwt> scanRevokedIds() {
+        return table.scan(ScanEnhancedRequest.builder()
+                        .attributesToProject("jti", "ttl")
+                        .consistentRead(true)
+                        .build())
+                .items()
+                .stream();
+    }
+
+    /**
+     * The revocations made after `sinceMillis` and up to `untilMillis`, by time, read from the
+     * `revoked-at-index`: one query per minute bucket in the range.
+     * The index is eventually consistent, a revocation may show up a moment after it was saved.
+     */
+    public Stream<RevokedJwt> findRevokedBetween(long sinceMillis, long untilMillis) {
+        return LongStream.rangeClosed(RevokedJwt.bucketOf(sinceMillis), RevokedJwt.bucketOf(untilMillis))
+                .boxed()
+                .flatMap(bucket -> table.index(RevokedJwt.REVOKED_AT_INDEX)
+                        .query(QueryEnhancedRequest.builder()
+                                .queryConditional(QueryConditional.sortBetween(
+                                        Key.builder().partitionValue(bucket).sortValue(sinceMillis + 1).build(),
+                                        Key.builder().partitionValue(bucket).sortValue(untilMillis).build()))
+                                .build())
+                        .stream()
+                        .flatMap(page -> page.items().stream()));
+    }
 }
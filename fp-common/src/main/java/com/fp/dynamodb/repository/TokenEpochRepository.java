@@ -0,0 +1,48 @@
+package com.fp.dynamodb.repository;
+
+import com.fp.entity.TokenEpoch;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class TokenEpochRepository extends DynamoDbRepository<TokenEpoch> {
+
+    /**
+     * Move the epoch of the account forward, never back: a later epoch already saved wins.
+     * @return false if a later or equal epoch was already saved
+     */
+    public boolean advance(TokenEpoch tokenEpoch) {
+        try {
+            table.putItem(PutItemEnhancedRequest.builder(TokenEpoch.class)
+                    .item(tokenEpoch)
+                    .conditionExpression(Expression.builder()
+                            .expression("attribute_not_exists(not_before) OR not_before < :notBefore")
+                            .expressionValues(Map.of(":notBefore", AttributeValue.fromN(tokenEpoch.getNotBefore().toString())))
+                            .build())
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    public Optional<TokenEpoch> findByAccountId(String accountId) {
+        return findByKey(Key.builder().partitionValue(accountId).build());
+    }
+
+    /**
+     * All the epochs, strongly consistent. Small: an item lives only as long as the tokens it invalidates.
+     */
+    public Stream<TokenEpoch> scanEpochs() {
+        return table.scan(ScanEnhancedRequest.builder().consistentRead(true).build())
+                .items()
+                .stream();
+    }
+}
@@ -0,0 +1,65 @@
+package com.fp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+import java.time.Duration;
+import java.time.Instant;
+
+///
+/// # The deletion of an account, waiting for the follow service to purge its follow relationships.
+///
+/// Written in the same transaction as the deletion of the account, so no deletion is ever lost to a failed request
+/// to the follow service: it is the outbox the follow service polls, and the proof that a purge request is for an
+/// account which really is deleted. The follow service removes the item once the purge is recorded.
+///
+@Data
+@DynamoDbBean
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AccountDeletion {
+
+    /**
+     * Long enough for any outage of the follow service, after which DynamoDB deletes the item.
+     */
+    public static final Duration RETENTION = Duration.ofDays(30);
+
+    private String accountId;
+
+    /**
+     * Epoch seconds.
+     */
+    private Long deletedAt;
+
+    private Long ttl;
+
+    public static AccountDeletion of(String accountId, Instant deletedAt) {
+        return AccountDeletion.builder()
+                .accountId(accountId)
+                .deletedAt(deletedAt.getEpochSecond())
+                .ttl(deletedAt.plus(RETENTION).getEpochSecond())
+                .build();
+    }
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("account_id")
+    public String getAccountId() {
+        return accountId;
+    }
+
+    @DynamoDbAttribute("deleted_at")
+    public Long getDeletedAt() {
+        return deletedAt;
+    }
+
+    @DynamoDbAttribute("ttl")
+    public Long getTtl() {
+        return ttl;
+    }
+}
@@ -8,7 +8,10 @@ import lombok.NoArgsConstructor;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 
+import java.time.Duration;
 import java.time.Instant;
 
 @Data
@@ -17,6 +20,15 @@ import java.time.Instant;
 @NoArgsConstructor
 @Builder
 public class RevokedJwt {
+    /**
+     * Index of the revocations by time, which every node polls for the revocations made elsewhere.
+     */
+    public static final String REVOKED_AT_INDEX = "revoked-at-index";
+
+    /**
+     * Width of a `revokedBucket`: one index partition per minute of revocations.
+     */
+    public static final Duration BUCKET_WIDTH = Duration.ofMinutes(1);
 
     /**
      * JWT "jti" (JWT ID) claim, which is a unique identifier for the token.
@@ -36,6 +48,17 @@ public class RevokedJwt {
 
     private String reason;
 
+    /**
+     * `revokedAt` in epoch millis, the sort key of the `revoked-at-index`.
+     * `revoked_at` itself is an ISO string, whose order is not the time order.
+     */
+    private Long revokedAtMillis;
+
+    /**
+     * The minute of `revokedAt`, the partition key of the `revoked-at-index`, see `bucketOf`.
+     */
+    private Long revokedBucket;
+
     /**
      * The account ID associated with the revoked token.
      */
@@ -73,4 +96,20 @@ public class RevokedJwt {
     public String getAccountId() {
         return accountId;
     }
+
+    @DynamoDbSecondarySortKey(indexNames = REVOKED_AT_INDEX)
+    @DynamoDbAttribute("revoked_at_ms")
+    public Long getRevokedAtMillis() {
+        return revokedAtMillis;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = REVOKED_AT_INDEX)
+    @DynamoDbAttribute("revoked_bucket")
+    public Long getRevokedBucket() {
+        return revokedBucket;
+    }
+
+    public static long bucketOf(long epochMillis) {
+        return epochMillis / BUCKET_WIDTH.toMillis();
+    }
 }
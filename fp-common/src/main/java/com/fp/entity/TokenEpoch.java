@@ -0,0 +1,50 @@
+package com.fp.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+///
+/// # The token epoch of an account: all its tokens issued before `notBefore` are invalid.
+///
+/// One item per account which logged out everywhere, whatever the number of its sessions.
+///
+@Data
+@DynamoDbBean
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TokenEpoch {
+
+    private String accountId;
+
+    /**
+     * Epoch seconds: a token whose `iat` is before is rejected.
+     */
+    private Long notBefore;
+
+    /**
+     * When every token issued before `notBefore` has expired anyway, DynamoDB then deletes the item.
+     */
+    private Long ttl;
+
+    @DynamoDbPartitionKey
+    @DynamoDbAttribute("account_id")
+    public String getAccountId() {
+        return accountId;
+    }
+
+    @DynamoDbAttribute("not_before")
+    public Long getNotBefore() {
+        return notBefore;
+    }
+
+    @DynamoDbAttribute("ttl")
+    public Long getTtl() {
+        return ttl;
+    }
+}
@@ -10,12 +10,58 @@ public enum FollowServiceAPI {
      */
     GET_FOLLOWER_COUNT_BY_ACCOUNT_ID("/api/follow/count-follower", HttpMethod.GET),
 
+    /**
+     * Endpoint to get the number of accounts an account is following
+     * @apiNote Implementation is in FollowController#getFollowingCountByAccountId(String)
+     */
+    GET_FOLLOWING_COUNT_BY_ACCOUNT_ID("/api/follow/count-following", HttpMethod.GET),
+
     /**
      * @Description: Endpoint to follow an account
      * @apiNote Implementation is in FollowController#followAccount(Long, Long)
      */
     FOLLOW_ACCOUNT("/api/follow", HttpMethod.POST),
-    UNFOLLOW_ACCOUNT("/api/follow", HttpMethod.DELETE);
+    UNFOLLOW_ACCOUNT("/api/follow", HttpMethod.DELETE),
+
+    /**
+     * Endpoint to follow several accounts at once
+     * @apiNote Implementation is in FollowController#followAll(BatchFollowRequestDTO)
+     */
+    FOLLOW_ACCOUNTS("/api/follow/batch", HttpMethod.POST),
+    UNFOLLOW_ACCOUNTS("/api/follow/batch", HttpMethod.DELETE),
+
+    /**
+     * Endpoint resolving the follow relationships between a viewer and a list of accounts
+     * @apiNote Implementation is in FollowController#getRelationships(RelationshipStatusRequestDTO)
+     */
+    GET_RELATIONSHIPS("/api/follow/relationships", HttpMethod.POST),
+
+    /**
+     * Endpoint streaming every follower of an account as newline-delimited JSON
+     * @apiNote Implementation is in FollowController#exportFollowers(String)
+     */
+    EXPORT_FOLLOWERS("/api/follow/followers/export", HttpMethod.GET),
+
+    /**
+     * Endpoint ranking the accounts followed by the accounts a user follows
+     * @apiNote Implementation is in FollowController#listRecommendations(ListRecommendationsRequestDTO)
+     */
+    LIST_RECOMMENDATIONS("/api/follow/recommendations", HttpMethod.GET),
+
+    /**
+     * Endpoints reading the follower growth buckets of an account
+     * @apiNote Implementation is in FollowController#getFollowerGrowth(FollowerGrowthRequestDTO)
+     * and FollowController#getFollowerGrowthSince(String, Instant)
+     */
+    GET_FOLLOWER_GROWTH("/api/follow/growth", HttpMethod.GET),
+    GET_FOLLOWER_GROWTH_SINCE("/api/follow/growth/since", HttpMethod.GET),
+
+    /**
+     * Endpoints purging every follow relationship of a deleted account in the background, and its progress
+     * @apiNote Implementation is in FollowController#requestPurge(String) and FollowController#getPurgeStatus(String)
+     */
+    REQUEST_PURGE("/api/follow/purge", HttpMethod.POST),
+    GET_PURGE_STATUS("/api/follow/purge", HttpMethod.GET);
 
     private final String path;
     private final HttpMethod method;
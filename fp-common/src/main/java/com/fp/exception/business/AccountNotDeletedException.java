@@ -0,0 +1,15 @@
+package com.fp.exception.business;
+
+import com.fp.constant.Messages;
+import com.fp.exception.BusinessException;
+import org.springframework.http.HttpStatus;
+
+public class AccountNotDeletedException extends BusinessException {
+    public AccountNotDeletedException() {
+        super(HttpStatus.CONFLICT, Messages.Error.Follow.PURGE_ACCOUNT_NOT_DELETED);
+    }
+
+    public AccountNotDeletedException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
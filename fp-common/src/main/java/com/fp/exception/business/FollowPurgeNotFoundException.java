@@ -0,0 +1,15 @@
+package com.fp.exception.business;
+
+import com.fp.constant.Messages;
+import com.fp.exception.BusinessException;
+import org.springframework.http.HttpStatus;
+
+public class FollowPurgeNotFoundException extends BusinessException {
+    public FollowPurgeNotFoundException() {
+        super(HttpStatus.NOT_FOUND, Messages.Error.Follow.PURGE_NOT_FOUND);
+    }
+
+    public FollowPurgeNotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.fp.exception.business;
+
+import com.fp.exception.BusinessException;
+import org.springframework.http.HttpStatus;
+
+public class IllegalGrowthRangeException extends BusinessException {
+    public IllegalGrowthRangeException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -27,6 +27,12 @@ public class JwtProperties {
     private TokenConfig refreshTokenConfig = new TokenConfig();
     private TokenConfig verifyTokenConfig = new TokenConfig();
 
+    private RevocationCacheConfig revocationCache = new RevocationCacheConfig();
+
+    private TokenEpochConfig tokenEpoch = new TokenEpochConfig();
+
+    private VerifiedTokenCacheConfig verifiedTokenCache = new VerifiedTokenCacheConfig();
+
     public JwtProperties() {
         // Default values for JWT tokens
         accessTokenConfig.setExpiration(Duration.ofHours(24));
@@ -81,4 +87,85 @@ public class JwtProperties {
         }
     }
 
+    /**
+     * Per-node cache of the revoked token IDs, see `RevokedJwtCache`
+     */
+    @Data
+    public static class RevocationCacheConfig {
+        /**
+         * When disabled every revocation check reads DynamoDB
+         */
+        private boolean enabled = true;
+
+        /**
+         * Revoked IDs the Bloom filter is sized for, it grows with the table on each snapshot
+         */
+        private int expectedInsertions = 100_000;
+
+        /**
+         * False positive rate of the Bloom filter, i.e. share of the valid tokens looked up in the revoked set
+         */
+        private double falsePositiveProbability = 0.001;
+
+        /**
+         * Delay between two polls of the revocation feed: the time a token revoked on another node is still
+         * accepted here
+         */
+        private Duration feedInterval = Duration.ofSeconds(1);
+
+        /**
+         * How far back each poll reads again, for the revocations which reach the feed index late
+         * (index replication, clock skew between the nodes)
+         */
+        private Duration feedOverlap = Duration.ofSeconds(10);
+
+        /**
+         * Delay between two full reloads of the revoked IDs, which also resize the Bloom filter
+         */
+        private Duration snapshotInterval = Duration.ofHours(1);
+
+        /**
+         * Without a successful poll for this long the local set is not trusted, checks read DynamoDB
+         */
+        private Duration maxStaleness = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Per-node cache of the account token epochs, see `TokenEpochCache`
+     */
+    @Data
+    public static class TokenEpochConfig {
+        /**
+         * When disabled every check reads DynamoDB
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between two reloads of the epochs: the time a session logged out on another node is still
+         * accepted here
+         */
+        private Duration refreshInterval = Duration.ofSeconds(5);
+
+        /**
+         * Without a successful reload for this long the cached epochs are not trusted, checks read DynamoDB
+         */
+        private Duration maxStaleness = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Per-node cache of the verified tokens, see `CachingJwtDecoder`
+     */
+    @Data
+    public static class VerifiedTokenCacheConfig {
+        /**
+         * When disabled every request verifies and parses its token
+         */
+        private boolean enabled = true;
+
+        /**
+         * Verified tokens kept until their expiry, about one per active session
+         */
+        private int maxEntries = 50_000;
+    }
+
 }
@@ -1,10 +1,17 @@
 package com.fp.util;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fp.constant.UrlConstant;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
+import java.net.InetSocketAddress;
 
 public class HttpUtil {
     private static final AntPathMatcher antPathMatcher = new AntPathMatcher();
@@ -34,18 +41,54 @@ public class HttpUtil {
                 "localhost".equals(remoteAddr);
     }
 
+    public static boolean isLocalhostExchange(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null && remoteAddress.getAddress().isLoopbackAddress();
+    }
+
+    /**
+     * Write a JSON error body on a WebFlux response, the reactive counterpart of the servlet entry points and filters.
+     */
+    public static Mono<Void> writeJson(ServerHttpResponse response, HttpStatusCode status, Object body, ObjectMapper objectMapper) {
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
     public static boolean isPublicPath(String uri){
-        return Arrays.stream(UrlConstant.PUBLIC_PATHS)
-                .anyMatch(pattern -> antPathMatcher.match(pattern, uri));
+        return matchesAny(UrlConstant.PUBLIC_PATHS, uri);
     }
 
     public static boolean isVerificationTokenPath(String uri) {
-        return Arrays.stream(UrlConstant.VERIFY_TOKEN_ONLY_PATHS)
-                .anyMatch(pattern -> antPathMatcher.match(pattern, uri));
+        return matchesAny(UrlConstant.VERIFY_TOKEN_ONLY_PATHS, uri);
     }
 
     public static boolean isRefreshTokenPath(String uri) {
-        return Arrays.stream(UrlConstant.REFRESH_TOKEN_ONLY_PATHS)
-                .anyMatch(pattern -> antPathMatcher.match(pattern, uri));
+        return matchesAny(UrlConstant.REFRESH_TOKEN_ONLY_PATHS, uri);
+    }
+
+    /**
+     * Called on every authenticated request: a plain loop, and the paths without wildcards are compared as strings
+     * instead of being tokenized by the matcher.
+     */
+    private static boolean matchesAny(String[] patterns, String uri) {
+        if (uri == null) {
+            return false;
+        }
+        for (String pattern : patterns) {
+            if (antPathMatcher.isPattern(pattern) ? antPathMatcher.match(pattern, uri) : pattern.equals(uri)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,98 @@
+package com.fp.common;
+
+import com.fp.exception.business.IllegalPageableCursorException;
+import com.fp.util.CursorCodec;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CursorCodecTest {
+
+    private static final byte[] SECRET = "cursor-test-secret".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testRoundTripUuid() {
+        CursorCodec codec = new CursorCodec();
+        Instant timestamp = Instant.parse("2025-06-29T11:50:32.123456Z");
+        String id = UUID.randomUUID().toString();
+
+        String cursor = codec.encode(timestamp, id);
+
+        assertThat(cursor).hasSize(35).doesNotContain("#", "+", "/", "=");
+        assertThat(codec.decode(cursor)).isEqualTo(new CursorCodec.Cursor(timestamp, id));
+    }
+
+    @Test
+    public void testRoundTripNonUuidAndPreEpoch() {
+        CursorCodec codec = new CursorCodec();
+        Instant timestamp = Instant.parse("1969-12-31T23:59:59.999999Z");
+
+        CursorCodec.Cursor decoded = codec.decode(codec.encode(timestamp, "account-42"));
+
+        assertThat(decoded).isEqualTo(new CursorCodec.Cursor(timestamp, "account-42"));
+    }
+
+    @Test
+    public void testTimestampTruncatedToMicros() {
+        CursorCodec codec = new CursorCodec();
+        String id = UUID.randomUUID().toString();
+
+        CursorCodec.Cursor decoded = codec.decode(codec.encode(Instant.parse("2025-06-29T11:50:32.123456789Z"), id));
+
+        assertThat(decoded.timestamp()).isEqualTo(Instant.parse("2025-06-29T11:50:32.123456Z"));
+    }
+
+    @Test
+    public void testSignedCursor() {
+        CursorCodec codec = new CursorCodec(SECRET, false);
+        Instant timestamp = Instant.now();
+        String id = UUID.randomUUID().toString();
+
+        String cursor = codec.encode(timestamp, id);
+        assertThat(cursor).hasSize(46);
+        assertThat(codec.decode(cursor).id()).isEqualTo(id);
+
+        // flip one character of the payload
+        char[] chars = cursor.toCharArray();
+        chars[5] = chars[5] == 'A' ? 'B' : 'A';
+        assertThatThrownBy(() -> codec.decode(new String(chars)))
+                .isInstanceOf(IllegalPageableCursorException.class);
+        // unsigned cursors are rejected once a secret is configured
+        assertThatThrownBy(() -> codec.decode(new CursorCodec().encode(timestamp, id)))
+                .isInstanceOf(IllegalPageableCursorException.class);
+        // cursors signed with another secret are rejected
+        String foreign = new CursorCodec("other".getBytes(StandardCharsets.UTF_8), false).encode(timestamp, id);
+        assertThatThrownBy(() -> codec.decode(foreign))
+                .isInstanceOf(IllegalPageableCursorException.class);
+    }
+
+    @Test
+    public void testLegacyCursor() {
+        String id = UUID.randomUUID().toString();
+        String legacy = "2025-06-29T11:50:32.123456Z#" + id;
+
+        assertThat(new CursorCodec().decode(legacy))
+                .isEqualTo(new CursorCodec.Cursor(Instant.parse("2025-06-29T11:50:32.123456Z"), id));
+        assertThatThrownBy(() -> new CursorCodec(SECRET, false).decode(legacy))
+                .isInstanceOf(IllegalPageableCursorException.class);
+        // Carries no signature: rejected once the cursors are signed, even while legacy cursors are accepted
+        assertThatThrownBy(() -> new CursorCodec(SECRET, true).decode(legacy))
+                .isInstanceOf(IllegalPageableCursorException.class);
+        assertThatThrownBy(() -> new CursorCodec().decode("not-a-timestamp#" + id))
+                .isInstanceOf(IllegalPageableCursorException.class);
+    }
+
+    @Test
+    public void testMalformedCursor() {
+        CursorCodec codec = new CursorCodec();
+        assertThatThrownBy(() -> codec.decode("!!!"))
+                .isInstanceOf(IllegalPageableCursorException.class);
+        assertThatThrownBy(() -> codec.decode("AQ"))
+                .isInstanceOf(IllegalPageableCursorException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.fp.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+///
+/// # LRU of per-account entries expiring a fixed time after their creation.
+///
+/// The skeleton of the follow caches: an entry is created on the first access after the previous one expired or was
+/// removed, and holds whatever the cache keeps for the account. Thread-safe: the lock is only held to find, create
+/// or remove an entry, the values must be safe for concurrent use themselves.
+///
+/// An entry removed or evicted while in use stays with its users, who keep filling it, but is no longer reachable.
+///
+final class BoundedTtlCache<K, V> {
+    private final long ttlNanos;
+    // Guarded by itself
+    private final Map<K, Entry<V>> entries;
+
+    BoundedTtlCache(int maxEntries, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The live value of the key, created by `factory` when absent or expired.
+     */
+    V get(K key, Supplier<V> factory) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || now - entry.createdAt() > ttlNanos) {
+                entry = new Entry<>(now, factory.get());
+                entries.put(key, entry);
+            }
+            return entry.value();
+        }
+    }
+
+    /**
+     * @return whether the key had an entry, expired or not
+     */
+    boolean remove(K key) {
+        synchronized (entries) {
+            return entries.remove(key) != null;
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry<V>(long createdAt, V value) {
+    }
+}
@@ -0,0 +1,245 @@
+package com.fp.cache;
+
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.properties.FollowProperties;
+import com.fp.strategy.FollowQueryRequest;
+import com.fp.strategy.FollowQueryStrategyContext;
+import com.fp.transaction.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+///
+/// # In-process cache of the leading follower / following pages of hot accounts.
+///
+/// Pages are grouped in chains per (accountId, queryType), bounded by an LRU over the chains.
+/// Within a chain a page is keyed by the shape of its `FollowQueryRequest` (order, page size, cursor):
+///
+/// - the first page of any shape is always cached;
+/// - once a cached page is loaded, the page after it is admitted (up to `pages` deep), so a client walking
+///   the cursor of a cached page stays in the cache, and the page after the one it asks for is prefetched;
+/// - cursors outside the admitted pages go straight to the database.
+///
+/// Every page is loaded once: concurrent requests for the same page wait for the single in-flight load
+/// instead of stampeding Postgres when a hot chain expires or is invalidated.
+///
+/// A follow / unfollow drops the follower's FOLLOWINGS chain and the followee's FOLLOWERS chain after commit.
+/// In-flight loads keep writing into the dropped chain, which is no longer reachable.
+///
+@Component
+@Slf4j
+public class FollowPageCache {
+    private final FollowQueryStrategyContext queryStrategyContext;
+    private final FollowProperties.PageCacheConfig config;
+    private final Executor prefetchExecutor;
+
+    private final BoundedTtlCache<ChainKey, PageChain> chains;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Counter prefetches;
+    private final Counter invalidations;
+
+    public FollowPageCache(FollowQueryStrategyContext queryStrategyContext,
+                           FollowProperties followProperties,
+                           @Qualifier("followPrefetchExecutor") Executor prefetchExecutor,
+                           MeterRegistry meterRegistry) {
+        this.queryStrategyContext = queryStrategyContext;
+        this.config = followProperties.getPageCache();
+        this.prefetchExecutor = prefetchExecutor;
+        this.chains = new BoundedTtlCache<>(config.getMaxEntries(), config.getTtl());
+
+        this.hits = cacheCounter(meterRegistry, "hit");
+        this.misses = cacheCounter(meterRegistry, "miss");
+        this.bypasses = cacheCounter(meterRegistry, "bypass");
+        this.prefetches = Counter.builder("fp.follow.page.cache.prefetches").register(meterRegistry);
+        this.invalidations = Counter.builder("fp.follow.page.cache.invalidations").register(meterRegistry);
+        meterRegistry.gauge("fp.follow.page.cache.size", chains, BoundedTtlCache::size);
+    }
+
+    /**
+     * Get a page, from the cache when it is one of the leading pages of the account.
+     */
+    public List<FollowResponseDTO> getPage(FollowQueryRequest request) {
+        if (!config.isEnabled()) {
+            return queryStrategyContext.executeFollowQuery(request);
+        }
+        PageChain chain = chains.get(new ChainKey(request.getAccountId(), request.getQueryType()), PageChain::new);
+        PageKey key = PageKey.of(request);
+        Slot slot = request.isFirstPage()
+                ? chain.slots.computeIfAbsent(key, k -> new Slot(0))
+                : chain.slots.get(key);
+        if (slot == null) {
+            bypasses.increment();
+            return queryStrategyContext.executeFollowQuery(request);
+        }
+
+        List<FollowResponseDTO> page;
+        if (slot.claim()) {
+            misses.increment();
+            page = fill(chain, key, slot, request);
+        } else {
+            hits.increment();
+            try {
+                page = slot.page.join();
+            } catch (CompletionException e) {
+                // The load this request was waiting for failed, try on our own
+                return queryStrategyContext.executeFollowQuery(request);
+            }
+        }
+
+        if (!request.isFirstPage() && config.isPrefetch()) {
+            prefetchNext(chain, request, page);
+        }
+        return page;
+    }
+
+    /**
+     * Drop the cached pages affected by a follow / unfollow, once the transaction commits.
+     */
+    public void invalidateFollow(String followerId, String followeeId) {
+        TransactionCallbacks.afterCommit(() -> {
+            invalidate(new ChainKey(followerId, QueryType.FOLLOWINGS));
+            invalidate(new ChainKey(followeeId, QueryType.FOLLOWERS));
+        });
+    }
+
+    /**
+     * Drop the cached pages affected by a batch follow / unfollow, once the transaction commits.
+     */
+    public void invalidateFollowAll(String followerId, Collection<String> followeeIds) {
+        if (followeeIds.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            invalidate(new ChainKey(followerId, QueryType.FOLLOWINGS));
+            followeeIds.forEach(followeeId -> invalidate(new ChainKey(followeeId, QueryType.FOLLOWERS)));
+        });
+    }
+
+    private void invalidate(ChainKey key) {
+        if (chains.remove(key)) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Load the page of a claimed slot, publish it and admit the page after it.
+     */
+    private List<FollowResponseDTO> fill(PageChain chain, PageKey key, Slot slot, FollowQueryRequest request) {
+        List<FollowResponseDTO> page;
+        try {
+            page = Collections.unmodifiableList(queryStrategyContext.executeFollowQuery(request));
+        } catch (RuntimeException e) {
+            chain.slots.remove(key, slot);
+            slot.page.completeExceptionally(e);
+            throw e;
+        }
+        slot.page.complete(page);
+        if (slot.depth + 1 < config.getPages() && page.size() == request.getPageable().getPageSize()) {
+            chain.slots.putIfAbsent(PageKey.of(nextRequest(request, page)), new Slot(slot.depth + 1));
+        }
+        return page;
+    }
+
+    private void prefetchNext(PageChain chain, FollowQueryRequest request, List<FollowResponseDTO> page) {
+        if (page.size() < request.getPageable().getPageSize()) {
+            return;
+        }
+        FollowQueryRequest next = nextRequest(request, page);
+        PageKey nextKey = PageKey.of(next);
+        Slot nextSlot = chain.slots.get(nextKey);
+        if (nextSlot == null || nextSlot.claimed.get()) {
+            return;
+        }
+        try {
+            // The slot is claimed inside the task, so a rejected or not yet started prefetch never blocks a reader
+            prefetchExecutor.execute(() -> {
+                if (nextSlot.claim()) {
+                    prefetches.increment();
+                    try {
+                        fill(chain, nextKey, nextSlot, next);
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to prefetch {} page of account {}", next.getQueryType(), next.getAccountId(), e);
+                    }
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.debug("Prefetch executor saturated, skipping prefetch of account {}", next.getAccountId());
+        }
+    }
+
+    private static FollowQueryRequest nextRequest(FollowQueryRequest request, List<FollowResponseDTO> page) {
+        FollowResponseDTO lastOne = page.get(page.size() - 1);
+        return FollowQueryRequest.builder()
+                .accountId(request.getAccountId())
+                .queryType(request.getQueryType())
+                .isDescending(request.isDescending())
+                .isFirstPage(false)
+                .cursorTimestamp(lastOne.getCreatedAt())
+                .cursorId(switch (request.getQueryType()) {
+                    case FOLLOWERS -> lastOne.getFollowerId();
+                    case FOLLOWINGS -> lastOne.getFolloweeId();
+                })
+                .pageable(request.getPageable())
+                .build();
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("fp.follow.page.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record ChainKey(String accountId, QueryType queryType) {
+    }
+
+    /**
+     * Shape of a page within a chain. The cursor is null for the first page.
+     */
+    private record PageKey(boolean descending, int limit, Instant cursorTimestamp, String cursorId) {
+        static PageKey of(FollowQueryRequest request) {
+            return request.isFirstPage()
+                    ? new PageKey(request.isDescending(), request.getPageable().getPageSize(), null, null)
+                    : new PageKey(request.isDescending(), request.getPageable().getPageSize(),
+                    request.getCursorTimestamp(), request.getCursorId());
+        }
+    }
+
+    private static final class PageChain {
+        private final ConcurrentMap<PageKey, Slot> slots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A cached page. The first request claiming the slot loads it, every other request waits for that load.
+     */
+    private static final class Slot {
+        private final int depth;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<List<FollowResponseDTO>> page = new CompletableFuture<>();
+
+        private Slot(int depth) {
+            this.depth = depth;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
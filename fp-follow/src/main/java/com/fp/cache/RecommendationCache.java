@@ -0,0 +1,69 @@
+package com.fp.cache;
+
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+import com.fp.properties.FollowProperties;
+import com.fp.transaction.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+///
+/// # Per-viewer cache of "who to follow" recommendations.
+///
+/// Recommendations are computed once per viewer, limit and weighting, then kept for `ttl`, in an LRU bounded
+/// by the number of viewers. A follow / unfollow of the viewer drops the viewer's entry after commit, so an account
+/// just followed disappears from the recommendations at once; follows of the viewer's followings are only
+/// picked up when the entry expires.
+///
+@Component
+public class RecommendationCache {
+    private final FollowProperties.RecommendationConfig config;
+    private final BoundedTtlCache<String, ViewerEntry> viewers;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecommendationCache(FollowProperties followProperties, MeterRegistry meterRegistry) {
+        this.config = followProperties.getRecommendation();
+        this.viewers = new BoundedTtlCache<>(config.getMaxViewers(), config.getTtl());
+        this.hits = Counter.builder("fp.follow.recommendation.cache.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("fp.follow.recommendation.cache.lookups").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Get the cached recommendations of a viewer, computing them on a miss.
+     */
+    public List<RecommendedAccountDTO> get(String viewerId, int limit, boolean recency,
+                                           Supplier<List<RecommendedAccountDTO>> loader) {
+        ViewerEntry entry = viewers.get(viewerId, ViewerEntry::new);
+        Shape shape = new Shape(limit, recency);
+        List<RecommendedAccountDTO> recommendations = entry.recommendations.get(shape);
+        if (recommendations != null) {
+            hits.increment();
+            return recommendations;
+        }
+        misses.increment();
+        recommendations = List.copyOf(loader.get());
+        entry.recommendations.put(shape, recommendations);
+        return recommendations;
+    }
+
+    /**
+     * Drop the cached recommendations of a viewer, once the transaction commits.
+     */
+    public void invalidate(String viewerId) {
+        TransactionCallbacks.afterCommit(() -> viewers.remove(viewerId));
+    }
+
+    private record Shape(int limit, boolean recency) {
+    }
+
+    private static final class ViewerEntry {
+        private final Map<Shape, List<RecommendedAccountDTO>> recommendations = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,105 @@
+package com.fp.cache;
+
+import com.fp.properties.FollowProperties;
+import com.fp.transaction.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+///
+/// # Short-lived per-viewer cache of relationship statuses.
+///
+/// A viewer scrolling a list re-checks mostly the same accounts, so the statuses resolved for a viewer are kept
+/// for a few seconds, in an LRU bounded by the number of viewers. Disabled by default.
+///
+/// A status is a bit mask of `FOLLOWING` (viewer follows target) and `FOLLOWED_BY` (target follows viewer).
+/// A follow / unfollow drops the entries of both accounts after commit. Statuses loaded concurrently with the
+/// invalidation are stored into the dropped entry, which is no longer reachable.
+///
+@Component
+public class RelationshipStatusCache {
+    public static final int FOLLOWING = 1;
+    public static final int FOLLOWED_BY = 1 << 1;
+
+    private final FollowProperties.RelationshipCacheConfig config;
+    private final BoundedTtlCache<String, ViewerEntry> viewers;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RelationshipStatusCache(FollowProperties followProperties, MeterRegistry meterRegistry) {
+        this.config = followProperties.getRelationshipCache();
+        this.viewers = new BoundedTtlCache<>(config.getMaxViewers(), config.getTtl());
+        this.hits = Counter.builder("fp.follow.relationship.cache.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("fp.follow.relationship.cache.lookups").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Look up the cached statuses of a viewer.
+     * @return the lookup, holding the cached statuses and storing the resolved ones into the same viewer entry
+     */
+    public Lookup lookup(String viewerId, Collection<String> targetIds) {
+        if (!config.isEnabled()) {
+            return new Lookup(null, new HashMap<>());
+        }
+        ViewerEntry entry = viewers.get(viewerId, ViewerEntry::new);
+        Map<String, Integer> cached = new HashMap<>();
+        for (String targetId : targetIds) {
+            Integer status = entry.statuses.get(targetId);
+            if (status != null) {
+                cached.put(targetId, status);
+            }
+        }
+        hits.increment(cached.size());
+        misses.increment(targetIds.size() - cached.size());
+        return new Lookup(entry, cached);
+    }
+
+    /**
+     * Drop the cached statuses of the given accounts, once the transaction commits.
+     */
+    public void invalidate(String accountId, Collection<String> otherAccountIds) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            viewers.remove(accountId);
+            otherAccountIds.forEach(viewers::remove);
+        });
+    }
+
+    public static final class Lookup {
+        private final ViewerEntry entry;
+        private final Map<String, Integer> statuses;
+
+        private Lookup(ViewerEntry entry, Map<String, Integer> statuses) {
+            this.entry = entry;
+            this.statuses = statuses;
+        }
+
+        /**
+         * The cached statuses by target ID, missing targets are absent.
+         */
+        public Map<String, Integer> statuses() {
+            return statuses;
+        }
+
+        /**
+         * Cache statuses resolved from the database.
+         */
+        public void store(Map<String, Integer> resolved) {
+            if (entry != null) {
+                entry.statuses.putAll(resolved);
+            }
+        }
+    }
+
+    private static final class ViewerEntry {
+        private final Map<String, Integer> statuses = new ConcurrentHashMap<>();
+    }
+}
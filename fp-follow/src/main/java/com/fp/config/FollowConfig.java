@@ -0,0 +1,94 @@
+package com.fp.config;
+
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowTables;
+import com.fp.replica.ReplicaContext;
+import com.fp.shard.ShardContext;
+import com.fp.util.CursorCodec;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/// Follow service configuration.
+///
+/// Enables the scheduled jobs (counter flush, reconciliation) of the follow service
+/// and provides the executors of the page cache prefetches, of the shard mirrors and of the purges, and the pool of the
+/// recommendation scoring.
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(FollowProperties.class)
+public class FollowConfig {
+
+    @Bean
+    public CursorCodec cursorCodec(FollowProperties followProperties) {
+        var cursorConfig = followProperties.getCursor();
+        byte[] secret = cursorConfig.getSecret() == null ? null : cursorConfig.getSecret().getBytes(StandardCharsets.UTF_8);
+        return new CursorCodec(secret, cursorConfig.isAcceptLegacy());
+    }
+
+    @Bean
+    public FollowTables followTables(FollowProperties followProperties) {
+        return new FollowTables(followProperties.getPartitioning().isEnabled());
+    }
+
+    @Bean("followPrefetchExecutor")
+    public ThreadPoolTaskExecutor followPrefetchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("follow-prefetch-");
+        // A prefetch is only an optimization: when saturated it is rejected (and skipped) rather than run by the caller
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // The prefetch reads the shard of the page it follows
+        executor.setTaskDecorator(task -> ShardContext.wrap(ReplicaContext.wrap(task)));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Mirrors the follows committed on the follower's shard to the other shards, see `FollowShardWriter`.
+     * A mirror is never lost when saturated: rejected, its outbox row is replayed by the sweep.
+     */
+    @Bean("followMirrorExecutor")
+    public ThreadPoolTaskExecutor followMirrorExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("follow-mirror-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * A single purge at a time per instance, off the scheduler thread the counter flushes run on.
+     * No queue: a poll while a purge is running is rejected, the running purge drains the pending ones anyway.
+     */
+    @Bean("followPurgeExecutor")
+    public ThreadPoolTaskExecutor followPurgeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("follow-purge-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Dedicated rather than the common pool: the scoring is CPU bound and must not compete with parallel streams.
+     */
+    @Bean(name = "followRecommendationPool", destroyMethod = "shutdown")
+    public ForkJoinPool followRecommendationPool(FollowProperties followProperties) {
+        return new ForkJoinPool(followProperties.getRecommendation().getParallelism());
+    }
+}
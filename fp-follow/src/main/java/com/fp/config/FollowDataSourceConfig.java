@@ -0,0 +1,85 @@
+package com.fp.config;
+
+import com.fp.properties.FollowProperties;
+import com.fp.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Datasource of the follow store, when sharded or read from replicas.
+///
+/// Replaces the `spring.datasource` one: a Hikari pool per shard and role (`follow-primary`, `follow-replica`,
+/// `follow-shard-N-primary`, ...) behind a `ShardRoutingDataSource`, which JPA, the JDBC fragments and the
+/// transaction manager all use. Each pool publishes the `hikaricp.*` meters tagged with its name.
+@Configuration
+@ConditionalOnExpression("${fp.follow.sharding.enabled:false} or ${fp.follow.replica.enabled:false}")
+public class FollowDataSourceConfig {
+    // spring.datasource.hikari.* is not bound to the pools built here: the Hikari default
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public ShardRoutingDataSource followRoutingDataSource(FollowProperties followProperties,
+                                                          DataSourceProperties dataSourceProperties,
+                                                          MeterRegistry meterRegistry) {
+        var sharding = followProperties.getSharding();
+        var replica = followProperties.getReplica();
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        Map<Integer, DataSource> primaries = new HashMap<>();
+        Map<Integer, DataSource> replicas = new HashMap<>();
+        if (sharding.isEnabled()) {
+            List<FollowProperties.ShardingConfig.ShardConfig> shards = sharding.getShards();
+            for (int shard = 0; shard < shards.size(); shard++) {
+                var config = shards.get(shard);
+                primaries.put(shard, pool("follow-shard-" + shard + "-primary", config.getUrl(), config.getUsername(),
+                        config.getPassword(), config.getMaximumPoolSize(), false, metrics));
+                if (replica.isEnabled() && shard < replica.getUrls().size() && !replica.getUrls().get(shard).isBlank()) {
+                    replicas.put(shard, pool("follow-shard-" + shard + "-replica", replica.getUrls().get(shard), config.getUsername(),
+                            config.getPassword(), replica.getMaximumPoolSize(), true, metrics));
+                }
+            }
+        } else {
+            primaries.put(0, pool("follow-primary", dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword(), DEFAULT_POOL_SIZE, false, metrics));
+            if (replica.isEnabled() && !replica.getUrls().isEmpty() && !replica.getUrls().get(0).isBlank()) {
+                replicas.put(0, pool("follow-replica", replica.getUrls().get(0), dataSourceProperties.determineUsername(),
+                        dataSourceProperties.determinePassword(), replica.getMaximumPoolSize(), true, metrics));
+            }
+        }
+        return new ShardRoutingDataSource(primaries, replicas);
+    }
+
+    /**
+     * Acquires the connection at the first statement, once the transaction is known to be read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource followRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(followRoutingDataSource);
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password,
+                                         int maximumPoolSize, boolean readOnly, MicrometerMetricsTrackerFactory metrics) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setDriverClassName("org.postgresql.Driver");
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setMaximumPoolSize(maximumPoolSize);
+        pool.setReadOnly(readOnly);
+        pool.setMetricsTrackerFactory(metrics);
+        return pool;
+    }
+}
@@ -0,0 +1,73 @@
+package com.fp.config;
+
+import com.fp.properties.FollowProperties;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/// Reactive follow endpoints, with the `reactive` profile.
+///
+/// The application runs on WebFlux (`application-reactive.yml`) and the follower / following pages are read through
+/// an R2DBC pool of the follow database, next to the JDBC `DataSource` that the jobs and the other services keep using.
+/// Spring Boot's own R2DBC auto-configuration is excluded (`application.yml`): it would also register a reactive
+/// transaction manager, making `@Transactional` ambiguous.
+///
+/// Not sharded: with sharding enabled the application refuses to start with this profile.
+@Configuration
+@Profile("reactive")
+public class ReactiveFollowConfig {
+    private static final String JDBC_PREFIX = "jdbc:";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool followConnectionFactory(FollowProperties followProperties, DataSourceProperties dataSourceProperties) {
+        if (followProperties.getSharding().isEnabled()) {
+            throw new IllegalStateException("The reactive follow endpoints do not support sharding");
+        }
+        var reactive = followProperties.getReactive();
+        String url = reactive.getUrl().isBlank()
+                ? toR2dbcUrl(readUrl(followProperties.getReplica(), dataSourceProperties))
+                : reactive.getUrl();
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword())
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("follow-reactive")
+                .initialSize(reactive.getInitialPoolSize())
+                .maxSize(reactive.getMaximumPoolSize())
+                .maxIdleTime(reactive.getMaxIdleTime())
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient followDatabaseClient(ConnectionFactory followConnectionFactory) {
+        return DatabaseClient.create(followConnectionFactory);
+    }
+
+    /**
+     * Pages are read-only: from the replica when the blocking reads would be, so both paths are compared on the same database.
+     */
+    private static String readUrl(FollowProperties.ReplicaConfig replica, DataSourceProperties dataSourceProperties) {
+        if (replica.isEnabled() && !replica.getUrls().isEmpty() && !replica.getUrls().get(0).isBlank()) {
+            return replica.getUrls().get(0);
+        }
+        return dataSourceProperties.determineUrl();
+    }
+
+    /**
+     * `jdbc:postgresql://host:5432/db?...` to `r2dbc:postgresql://host:5432/db?...`.
+     */
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith(JDBC_PREFIX)) {
+            throw new IllegalStateException("Cannot derive the R2DBC URL from " + jdbcUrl + ", set fp.follow.reactive.url");
+        }
+        return "r2dbc:" + jdbcUrl.substring(JDBC_PREFIX.length());
+    }
+}
@@ -3,8 +3,18 @@ package com.fp.controller;
 
 import com.fp.dto.common.PageResponseDTO;
 import com.fp.dto.follow.request.*;
+import com.fp.dto.follow.response.BatchFollowResponseDTO;
+import com.fp.dto.follow.response.FollowPurgeStatusDTO;
 import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.dto.follow.response.FollowerGrowthDeltaDTO;
+import com.fp.dto.follow.response.FollowerGrowthResponseDTO;
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+import com.fp.dto.follow.response.RelationshipStatusResponseDTO;
+import com.fp.service.FollowExportService;
+import com.fp.service.FollowPurgeService;
+import com.fp.service.FollowRecommendationService;
 import com.fp.service.FollowService;
+import com.fp.service.FollowerGrowthService;
 import com.fp.sqs.impl.MessageFactory;
 import com.fp.sqs.service.SqsService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,17 +22,32 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.List;
 
 @Tag(name = "API for Follow Management")
 @RestController
 @RequestMapping("/api/follow")
+@Profile("!reactive") // The pages are served by ReactiveFollowController on WebFlux
 @RequiredArgsConstructor
 public class FollowController {
 
     private final FollowService followService;
 
+    private final FollowExportService followExportService;
+
+    private final FollowRecommendationService followRecommendationService;
+
+    private final FollowerGrowthService followerGrowthService;
+
+    private final FollowPurgeService followPurgeService;
+
 
     @GetMapping("/count-follower")
     @Operation(summary = "get the number of followers for an account")
@@ -31,6 +56,26 @@ public class FollowController {
         return ResponseEntity.ok(followerCount);
     }
 
+    @GetMapping("/count-following")
+    @Operation(summary = "get the number of accounts an account is following")
+    public ResponseEntity<Long> getFollowingCountByAccountId(@RequestParam String accountId) {
+        Long followingCount = followService.getFollowingCount(accountId);
+        return ResponseEntity.ok(followingCount);
+    }
+
+
+    @GetMapping("/growth")
+    @Operation(summary = "Get the followers gained and lost by an account per hour or per day")
+    public ResponseEntity<FollowerGrowthResponseDTO> getFollowerGrowth(@Valid FollowerGrowthRequestDTO requestDTO) {
+        return ResponseEntity.ok(followerGrowthService.getFollowerGrowth(requestDTO));
+    }
+
+    @GetMapping("/growth/since")
+    @Operation(summary = "Get the followers gained and lost by an account since a point in time")
+    public ResponseEntity<FollowerGrowthDeltaDTO> getFollowerGrowthSince(@RequestParam String accountId, @RequestParam Instant since) {
+        return ResponseEntity.ok(followerGrowthService.getFollowerGrowthSince(accountId, since));
+    }
+
 
     @PostMapping
     @Operation(summary = "Follow an account")
@@ -48,6 +93,41 @@ public class FollowController {
     }
 
 
+    @PostMapping("/batch")
+    @Operation(summary = "Follow several accounts at once")
+    public ResponseEntity<BatchFollowResponseDTO> followAll(@Valid @RequestBody BatchFollowRequestDTO batchFollowRequestDTO){
+        return ResponseEntity.ok(followService.followAll(batchFollowRequestDTO));
+    }
+
+
+    @DeleteMapping("/batch")
+    @Operation(summary = "Unfollow several accounts at once")
+    public ResponseEntity<BatchFollowResponseDTO> unfollowAll(@Valid @RequestBody BatchFollowRequestDTO batchUnfollowRequestDTO){
+        return ResponseEntity.ok(followService.unfollowAll(batchUnfollowRequestDTO));
+    }
+
+
+    @PostMapping("/relationships")
+    @Operation(summary = "Check whether a viewer follows, and is followed by, each account of a list")
+    public ResponseEntity<RelationshipStatusResponseDTO> getRelationships(@Valid @RequestBody RelationshipStatusRequestDTO relationshipStatusRequestDTO){
+        return ResponseEntity.ok(followService.getRelationships(relationshipStatusRequestDTO));
+    }
+
+
+    @PostMapping("/purge")
+    @Operation(summary = "Delete every follow relationship of a deleted account in the background")
+    public ResponseEntity<FollowPurgeStatusDTO> requestPurge(@RequestParam String accountId){
+        return ResponseEntity.accepted().body(followPurgeService.requestPurge(accountId));
+    }
+
+
+    @GetMapping("/purge")
+    @Operation(summary = "Get the progress of the purge of a deleted account's follow relationships")
+    public ResponseEntity<FollowPurgeStatusDTO> getPurgeStatus(@RequestParam String accountId){
+        return ResponseEntity.ok(followPurgeService.getPurgeStatus(accountId));
+    }
+
+
     @GetMapping("/followers")
     @Operation(summary = "Get a list of followers of an account with cursor pagination")
     public ResponseEntity<PageResponseDTO<FollowResponseDTO>> listFollower(@Valid ListFollowersRequestDTO listFollowersRequestDTO){
@@ -55,6 +135,30 @@ public class FollowController {
     }
 
 
+    @GetMapping(value = "/followers/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream every follower of an account as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportFollowers(@RequestParam String accountId){
+        StreamingResponseBody body = outputStream -> followExportService.exportFollowers(accountId, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+
+    @GetMapping("/mutual")
+    @Operation(summary = "Get the accounts a user follows which also follow another account")
+    public ResponseEntity<PageResponseDTO<String>> listMutualFollows(@Valid ListMutualFollowsRequestDTO requestDTO){
+        return ResponseEntity.ok(followService.listMutualFollows(requestDTO));
+    }
+
+
+    @GetMapping("/recommendations")
+    @Operation(summary = "Get the accounts most followed by the accounts a user follows")
+    public ResponseEntity<List<RecommendedAccountDTO>> listRecommendations(@Valid ListRecommendationsRequestDTO requestDTO){
+        return ResponseEntity.ok(followRecommendationService.listRecommendations(requestDTO));
+    }
+
+
     @GetMapping("/following")
     @Operation(summary = "Get a list of accounts that a user is following")
     public ResponseEntity<PageResponseDTO<FollowResponseDTO>> listFollowing(@Valid ListFollowingsRequestDTO requestDTO){
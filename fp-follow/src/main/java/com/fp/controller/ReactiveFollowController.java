@@ -0,0 +1,46 @@
+package com.fp.controller;
+
+import com.fp.dto.common.PageResponseDTO;
+import com.fp.dto.follow.request.ListFollowersRequestDTO;
+import com.fp.dto.follow.request.ListFollowingsRequestDTO;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.service.ReactiveFollowService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+///
+/// WebFlux counterpart of the page endpoints of `FollowController`, with the `reactive` profile: same paths,
+/// parameters and responses, so the same load can be replayed against both. The other follow endpoints are only
+/// served by the blocking application.
+///
+@Tag(name = "API for Follow Management")
+@RestController
+@RequestMapping("/api/follow")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveFollowController {
+
+    private final ReactiveFollowService reactiveFollowService;
+
+
+    @GetMapping("/followers")
+    @Operation(summary = "Get a list of followers of an account with cursor pagination")
+    public Mono<ResponseEntity<PageResponseDTO<FollowResponseDTO>>> listFollower(@Valid ListFollowersRequestDTO listFollowersRequestDTO){
+        return reactiveFollowService.listFollowers(listFollowersRequestDTO).map(ResponseEntity::ok);
+    }
+
+
+    @GetMapping("/following")
+    @Operation(summary = "Get a list of accounts that a user is following")
+    public Mono<ResponseEntity<PageResponseDTO<FollowResponseDTO>>> listFollowing(@Valid ListFollowingsRequestDTO requestDTO){
+        return reactiveFollowService.listFollowings(requestDTO).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,53 @@
+package com.fp.counter;
+
+import java.util.Arrays;
+
+///
+/// # The snapshot of the `follows` table a counter row was counted at.
+///
+/// The `pg_snapshot` stored with the row, in its text form `xmin:xmax:xip,...`. The follows written by a transaction
+/// it includes are counted by the row, so are their deltas, see `FollowCountService`. Same rules as
+/// `pg_visible_in_snapshot`, which the flush applies in the database.
+///
+public final class CountedSnapshot {
+    private final long xmin;
+    private final long xmax;
+    // Sorted by PostgreSQL
+    private final long[] inProgress;
+
+    private CountedSnapshot(long xmin, long xmax, long[] inProgress) {
+        this.xmin = xmin;
+        this.xmax = xmax;
+        this.inProgress = inProgress;
+    }
+
+    /**
+     * @return null for a row counted before the snapshots were stored: it includes no delta
+     */
+    public static CountedSnapshot parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String[] parts = text.split(":", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Not a pg_snapshot: " + text);
+        }
+        long[] inProgress = parts[2].isEmpty()
+                ? new long[0]
+                : Arrays.stream(parts[2].split(",")).mapToLong(Long::parseLong).toArray();
+        return new CountedSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+    }
+
+    /**
+     * Whether the changes of the committed transaction are counted.
+     */
+    public boolean includes(long transactionId) {
+        if (transactionId == FollowCountDelta.NO_TRANSACTION) {
+            return false;
+        }
+        if (transactionId < xmin) {
+            return true;
+        }
+        return transactionId < xmax && Arrays.binarySearch(inProgress, transactionId) < 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.fp.counter;
+
+///
+/// Pending, not yet flushed change of the counters of one account, made by one transaction.
+///
+/// @param shard the shard the transaction wrote its follows to, the one storing the counter row
+/// @param transactionId the PostgreSQL ID of the transaction, `NO_TRANSACTION` when recorded outside of one
+/// @param followers change of the follower count
+/// @param followings change of the following count
+///
+public record FollowCountDelta(int shard, long transactionId, long followers, long followings) {
+    /// Never the ID of a transaction: the change is counted by no snapshot
+    public static final long NO_TRANSACTION = 0;
+
+    public boolean isZero() {
+        return followers == 0 && followings == 0;
+    }
+
+    /**
+     * Whether both changes were made by the same transaction, and can be added up.
+     */
+    public boolean sameTransaction(FollowCountDelta other) {
+        return shard == other.shard && transactionId == other.transactionId;
+    }
+
+    public FollowCountDelta plus(FollowCountDelta other) {
+        return new FollowCountDelta(shard, transactionId, followers + other.followers, followings + other.followings);
+    }
+}
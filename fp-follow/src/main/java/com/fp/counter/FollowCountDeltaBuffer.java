@@ -0,0 +1,108 @@
+package com.fp.counter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+///
+/// # Striped in-memory buffer of follower / following count deltas.
+///
+/// Accounts are spread over a fixed number of stripes by hash, each stripe guarded by its own monitor,
+/// so concurrent follows of different accounts rarely contend. A flush drains every stripe by swapping
+/// its map, which keeps the critical section independent of the database round trip.
+///
+/// The deltas of an account are kept per transaction: whether a delta is already counted by a counter row depends on
+/// its transaction, see `FollowCountService`. Only the deltas of the same transaction are added up.
+///
+public class FollowCountDeltaBuffer {
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public FollowCountDeltaBuffer(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Add a delta to the pending counters of an account.
+     */
+    public void add(String accountId, FollowCountDelta delta) {
+        Stripe stripe = stripeOf(accountId);
+        synchronized (stripe) {
+            List<FollowCountDelta> pending = stripe.deltas.computeIfAbsent(accountId, id -> new ArrayList<>(2));
+            int last = pending.size() - 1;
+            if (last >= 0 && pending.get(last).sameTransaction(delta)) {
+                pending.set(last, pending.get(last).plus(delta));
+            } else {
+                pending.add(delta);
+            }
+        }
+    }
+
+    /**
+     * Get the pending deltas of an account which have not been flushed yet.
+     */
+    public List<FollowCountDelta> pending(String accountId) {
+        Stripe stripe = stripeOf(accountId);
+        synchronized (stripe) {
+            List<FollowCountDelta> pending = stripe.deltas.get(accountId);
+            return pending == null ? List.of() : List.copyOf(pending);
+        }
+    }
+
+    /**
+     * Drop the pending deltas of an account, e.g. after its counters have been deleted.
+     */
+    public void discard(String accountId) {
+        Stripe stripe = stripeOf(accountId);
+        synchronized (stripe) {
+            stripe.deltas.remove(accountId);
+        }
+    }
+
+    /**
+     * Atomically take all pending deltas out of the buffer, stripe by stripe.
+     * @return the drained non-zero deltas keyed by account ID
+     */
+    public Map<String, List<FollowCountDelta>> drain() {
+        Map<String, List<FollowCountDelta>> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<String, List<FollowCountDelta>> deltas;
+            synchronized (stripe) {
+                if (stripe.deltas.isEmpty()) {
+                    continue;
+                }
+                deltas = stripe.deltas;
+                stripe.deltas = new HashMap<>();
+            }
+            deltas.forEach((accountId, pending) -> {
+                List<FollowCountDelta> nonZero = pending.stream().filter(delta -> !delta.isZero()).toList();
+                if (!nonZero.isEmpty()) {
+                    drained.put(accountId, nonZero);
+                }
+            });
+        }
+        return drained;
+    }
+
+    /**
+     * Put drained deltas back into the buffer, e.g. when a flush failed.
+     */
+    public void restore(Map<String, List<FollowCountDelta>> deltas) {
+        deltas.forEach((accountId, pending) -> pending.forEach(delta -> add(accountId, delta)));
+    }
+
+    private Stripe stripeOf(String accountId) {
+        int h = accountId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Stripe {
+        private Map<String, List<FollowCountDelta>> deltas = new HashMap<>();
+    }
+}
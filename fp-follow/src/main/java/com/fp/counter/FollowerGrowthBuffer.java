@@ -0,0 +1,88 @@
+package com.fp.counter;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+///
+/// # Striped in-memory buffer of follower growth, per account and UTC hour.
+///
+/// Same layout as `FollowCountDeltaBuffer`: accounts are spread over lock stripes by hash and a flush swaps
+/// the map of each stripe. Gains and losses are kept apart, a follow and an unfollow within the same hour
+/// are both reported.
+///
+public class FollowerGrowthBuffer {
+    private final Stripe[] stripes;
+    private final int mask;
+
+    ///
+    /// A buffered hour of an account.
+    ///
+    /// @param hour the start of the UTC hour
+    ///
+    public record HourKey(String accountId, Instant hour) {
+    }
+
+    ///
+    /// Pending, not yet flushed growth of one hour.
+    ///
+    public record Growth(long gained, long lost) {
+    }
+
+    public FollowerGrowthBuffer(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Add gained / lost followers to the pending hour of an account.
+     * @param hour the start of the UTC hour, see `GrowthBuckets.truncate`
+     */
+    public void add(String accountId, Instant hour, long gained, long lost) {
+        Stripe stripe = stripeOf(accountId);
+        synchronized (stripe) {
+            long[] pending = stripe.growth.computeIfAbsent(new HourKey(accountId, hour), key -> new long[2]);
+            pending[0] += gained;
+            pending[1] += lost;
+        }
+    }
+
+    /**
+     * Atomically take all pending growth out of the buffer, stripe by stripe.
+     */
+    public Map<HourKey, Growth> drain() {
+        Map<HourKey, Growth> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<HourKey, long[]> growth;
+            synchronized (stripe) {
+                if (stripe.growth.isEmpty()) {
+                    continue;
+                }
+                growth = stripe.growth;
+                stripe.growth = new HashMap<>();
+            }
+            growth.forEach((key, pending) -> drained.put(key, new Growth(pending[0], pending[1])));
+        }
+        return drained;
+    }
+
+    /**
+     * Put drained growth back into the buffer, e.g. when a flush failed.
+     */
+    public void restore(Map<HourKey, Growth> growth) {
+        growth.forEach((key, pending) -> add(key.accountId(), key.hour(), pending.gained(), pending.lost()));
+    }
+
+    private Stripe stripeOf(String accountId) {
+        int h = accountId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Stripe {
+        private Map<HourKey, long[]> growth = new HashMap<>();
+    }
+}
@@ -0,0 +1,73 @@
+package com.fp.counter;
+
+import com.fp.dto.follow.request.FollowerGrowthRequestDTO.Granularity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+///
+/// # UTC bucket arithmetic of the follower growth table.
+///
+public final class GrowthBuckets {
+
+    ///
+    /// The buckets of one granularity starting within `[from, to)`.
+    ///
+    public record Range(Granularity granularity, Instant from, Instant to) {
+    }
+
+    private GrowthBuckets() {
+    }
+
+    public static Instant truncate(Instant instant, Granularity granularity) {
+        return instant.truncatedTo(unit(granularity));
+    }
+
+    public static Duration length(Granularity granularity) {
+        return unit(granularity).getDuration();
+    }
+
+    /**
+     * Cover `[since, now]` with as few buckets as possible: the hours left of the first day,
+     * the whole days in between, then the hours of the current day.
+     *
+     * @param since the start, truncated to the hour, or to the day when its hour is older than `hoursKeptSince`
+     * @param hoursKeptSince the start of the hourly buckets not pruned yet, before the current day
+     * @return at most three ranges, of at most 24 hours, the number of whole days, and 24 hours
+     */
+    public static List<Range> since(Instant since, Instant now, Instant hoursKeptSince) {
+        Instant sinceHour = truncate(since, Granularity.HOUR);
+        if (sinceHour.isBefore(hoursKeptSince)) {
+            // The hours of the first day may be pruned already: the whole day it starts in instead
+            sinceHour = truncate(sinceHour, Granularity.DAY);
+        }
+        Instant firstWholeDay = truncate(sinceHour, Granularity.DAY).plus(1, ChronoUnit.DAYS);
+        Instant today = truncate(now, Granularity.DAY);
+        Instant end = truncate(now, Granularity.HOUR).plus(1, ChronoUnit.HOURS);
+        List<Range> ranges = new ArrayList<>(3);
+        if (sinceHour.equals(truncate(sinceHour, Granularity.DAY)) && sinceHour.isBefore(today)) {
+            // Starts on a day boundary: the first day is whole as well
+            firstWholeDay = sinceHour;
+        }
+        if (!firstWholeDay.isBefore(today)) {
+            ranges.add(new Range(Granularity.HOUR, sinceHour, end));
+            return ranges;
+        }
+        if (sinceHour.isBefore(firstWholeDay)) {
+            ranges.add(new Range(Granularity.HOUR, sinceHour, firstWholeDay));
+        }
+        ranges.add(new Range(Granularity.DAY, firstWholeDay, today));
+        ranges.add(new Range(Granularity.HOUR, today, end));
+        return ranges;
+    }
+
+    private static ChronoUnit unit(Granularity granularity) {
+        return switch (granularity) {
+            case HOUR -> ChronoUnit.HOURS;
+            case DAY -> ChronoUnit.DAYS;
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.fp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+///
+/// # Progress of the purge of a deleted account's follow relationships.
+///
+/// Written by `FollowPurgeService` in the transaction of every deleted chunk, so the progress never gets ahead of
+/// or behind the `follows` table.
+///
+@Entity
+@Table(name = "follow_purges")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class FollowPurge {
+    @Id
+    private String accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Phase phase;
+
+    /// Last counterpart deleted in the current phase, null at its start.
+    private String lastCounterpart;
+
+    /// Number of rows deleted with accountId == followerId.
+    @Column(nullable = false)
+    private long followingsDeleted;
+
+    /// Number of rows deleted with accountId == followeeId.
+    @Column(nullable = false)
+    private long followersDeleted;
+
+    /// Claim of the instance purging the account, and until when it holds.
+    private String leaseOwner;
+
+    private Instant leaseUntil;
+
+    @Column(nullable = false)
+    private Instant requestedAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    private Instant completedAt;
+
+    public enum Phase {
+        FOLLOWINGS,
+        FOLLOWERS,
+        DONE
+    }
+}
@@ -0,0 +1,55 @@
+package com.fp.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+///
+/// # Dictionary of account IDs.
+///
+/// Interns every account UUID once and hands out dense int IDs (0, 1, 2, ...), so the adjacency arrays
+/// hold 4-byte ints instead of 36-character strings. Not thread-safe, guarded by the owning `FollowGraphIndex`.
+///
+final class AccountDictionary {
+    static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids;
+    private String[] accountIds;
+    private int size;
+
+    AccountDictionary(int expectedSize) {
+        this.ids = new HashMap<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+        this.accountIds = new String[Math.max(16, expectedSize)];
+    }
+
+    /**
+     * Get the int ID of an account, assigning the next one if the account is new.
+     */
+    int intern(String accountId) {
+        Integer id = ids.get(accountId);
+        if (id != null) {
+            return id;
+        }
+        if (size == accountIds.length) {
+            accountIds = Arrays.copyOf(accountIds, size + (size >> 1));
+        }
+        accountIds[size] = accountId;
+        ids.put(accountId, size);
+        return size++;
+    }
+
+    /**
+     * @return the int ID of the account, or UNKNOWN if it was never interned
+     */
+    int idOf(String accountId) {
+        return ids.getOrDefault(accountId, UNKNOWN);
+    }
+
+    String accountIdOf(int id) {
+        return accountIds[id];
+    }
+
+    int size() {
+        return size;
+    }
+}
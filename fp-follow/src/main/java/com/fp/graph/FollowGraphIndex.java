@@ -0,0 +1,403 @@
+package com.fp.graph;
+
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowRepository;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardMap;
+import com.fp.shard.ShardRouter;
+import com.fp.transaction.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+///
+/// # Optional in-memory index of the follow graph.
+///
+/// Account IDs are interned into dense ints by an `AccountDictionary`, and the graph is kept in CSR layout, follower ->
+/// followees, every row sorted, with the creation minute of every follow for the recency weighting of `recommend()`:
+/// 8 bytes per follow relationship instead of a `Follow` entity with two UUID strings.
+///
+/// The CSR arrays are immutable. Follows / unfollows committed by this instance are applied to a small overlay
+/// of sorted `added` / `removed` rows per touched node, which `compact()` folds into fresh CSR arrays.
+/// `rebuild()` reloads the whole graph with a streaming scan of the follows table, which also picks up the writes
+/// served by other instances. Both build the new arrays outside of the lock; writes arriving meanwhile are applied
+/// to the current overlay and replayed onto the new arrays when they are swapped in.
+///
+/// Between two rebuilds, the index misses the writes served by the other instances: it only serves the
+/// recommendations, which tolerate that staleness. The relationship checks, the lists and the counts are read from
+/// the database.
+///
+/// Disabled by default (`fp.follow.graph.enabled`). Until the first rebuild completes, `isReady()` is false
+/// and callers must fall back to the database.
+///
+@Component
+@Slf4j
+public class FollowGraphIndex {
+    private final FollowRepository followRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final FollowProperties.GraphConfig config;
+    private final ShardRouter shardRouter;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes rebuild and compaction
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    // Guarded by lock
+    private AccountDictionary dictionary = new AccountDictionary(0);
+    private CsrGraph forward = CsrGraph.EMPTY;
+    private final Map<Integer, Delta> forwardDeltas = new HashMap<>();
+    private List<Edge> pendingDuringBuild;
+
+    private volatile boolean ready;
+
+    public FollowGraphIndex(FollowRepository followRepository,
+                            TransactionTemplate transactionTemplate,
+                            FollowProperties followProperties,
+                            ShardRouter shardRouter) {
+        this.followRepository = followRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.config = followProperties.getGraph();
+        this.shardRouter = shardRouter;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Rank the accounts followed by the viewer's followings, see `FriendsOfFriendsTask`.
+     * The viewer and the accounts the viewer already follows are excluded.
+     *
+     * @param limit the number of accounts to return
+     * @param recencyHalfLife the age at which a follow counts for half a point, null to count every follow as one point
+     * @param pool the pool the scoring is forked in
+     * @return the best accounts, best first
+     */
+    public List<RecommendedAccountDTO> recommend(String viewerId, int limit, Duration recencyHalfLife, ForkJoinPool pool) {
+        lock.readLock().lock();
+        try {
+            int viewer = dictionary.idOf(viewerId);
+            if (viewer == AccountDictionary.UNKNOWN) {
+                return List.of();
+            }
+            int[] followings = neighbors(forward, forwardDeltas, viewer);
+            if (followings.length == 0) {
+                return List.of();
+            }
+            int nodeCount = dictionary.size();
+            // A few leaves per worker so that a skewed range does not hold up the whole computation
+            int leafSize = Math.max(1, nodeCount / (pool.getParallelism() * 4) + 1);
+            double halfLifeMinutes = recencyHalfLife == null ? 0 : recencyHalfLife.toMinutes();
+            CsrGraph graph = forward;
+            Map<Integer, Delta> deltas = forwardDeltas;
+            List<FriendsOfFriendsTask.Candidate> best = pool.invoke(new FriendsOfFriendsTask(
+                    (node, from, to, visitor) -> forEachNeighbor(graph, deltas, node, from, to, visitor),
+                    viewer, followings, toStamp(Instant.now()), halfLifeMinutes, limit, 0, nodeCount, leafSize));
+            return best.stream()
+                    .map(candidate -> new RecommendedAccountDTO(dictionary.accountIdOf(candidate.node()),
+                            candidate.score(), candidate.mutualCount()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void recordFollow(String followerId, String followeeId) {
+        afterCommit(List.of(new Edge(followerId, followeeId, true, toStamp(Instant.now()))));
+    }
+
+    public void recordUnfollow(String followerId, String followeeId) {
+        afterCommit(List.of(new Edge(followerId, followeeId, false, 0)));
+    }
+
+    public void recordFollowAll(String followerId, Collection<String> followeeIds) {
+        int stamp = toStamp(Instant.now());
+        afterCommit(followeeIds.stream().map(followeeId -> new Edge(followerId, followeeId, true, stamp)).toList());
+    }
+
+    public void recordUnfollowAll(String followerId, Collection<String> followeeIds) {
+        afterCommit(followeeIds.stream().map(followeeId -> new Edge(followerId, followeeId, false, 0)).toList());
+    }
+
+    /**
+     * Reload the whole graph from the follows table, of every shard when sharded.
+     */
+    public void rebuild() {
+        buildLock.lock();
+        try {
+            startBuild();
+            try {
+                long start = System.currentTimeMillis();
+                EdgeList edges = new EdgeList(config.getFetchSize());
+                AccountDictionary scanned = new AccountDictionary(dictionary.size());
+                ShardMap shardMap = shardRouter.map();
+                for (int shard : shardRouter.shards()) {
+                    // A follow between two shards is stored on both: only taken from the shard of its follower
+                    ShardContext.run(shard, () -> readOnlyTransaction.executeWithoutResult(status -> followRepository.streamEdges(config.getFetchSize(),
+                            (followerId, followeeId, createdAt) -> {
+                                if (shardMap.shardOf(followerId) == shard) {
+                                    edges.add(scanned.intern(followerId), scanned.intern(followeeId), toStamp(createdAt));
+                                }
+                            })));
+                }
+                int nodeCount = scanned.size();
+                CsrGraph newForward = CsrGraph.build(nodeCount, edges.sources, edges.destinations, edges.stamps, edges.size);
+                finishBuild(scanned, newForward);
+                ready = true;
+                log.info("Follow graph rebuilt: {} accounts, {} follows in {} ms",
+                        nodeCount, edges.size, System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                abortBuild();
+                throw e;
+            }
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * Fold the overlay into fresh CSR arrays once it has grown past the configured threshold.
+     * @return whether a compaction ran
+     */
+    public boolean compact() {
+        if (!ready || !buildLock.tryLock()) {
+            return false;
+        }
+        try {
+            Map<Integer, Delta> forwardSnapshot;
+            CsrGraph baseForward;
+            AccountDictionary currentDictionary;
+            int nodeCount;
+            lock.writeLock().lock();
+            try {
+                if (forwardDeltas.size() < config.getCompactThreshold()) {
+                    return false;
+                }
+                forwardSnapshot = copy(forwardDeltas);
+                baseForward = forward;
+                currentDictionary = dictionary;
+                nodeCount = dictionary.size();
+                pendingDuringBuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                CsrGraph newForward = compact(baseForward, forwardSnapshot, nodeCount);
+                finishBuild(currentDictionary, newForward);
+                return true;
+            } catch (RuntimeException e) {
+                abortBuild();
+                throw e;
+            }
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private void startBuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Swap in the new arrays, drop the overlay and replay the writes which arrived during the build.
+     * Replaying is idempotent: an edge already in the new arrays is not added twice.
+     */
+    private void finishBuild(AccountDictionary newDictionary, CsrGraph newForward) {
+        lock.writeLock().lock();
+        try {
+            dictionary = newDictionary;
+            forward = newForward;
+            forwardDeltas.clear();
+            List<Edge> pending = pendingDuringBuild;
+            pendingDuringBuild = null;
+            pending.forEach(this::applyLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void abortBuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringBuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(List<Edge> edges) {
+        if (!config.isEnabled() || edges.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringBuild != null) {
+                pendingDuringBuild.addAll(edges);
+            }
+            edges.forEach(this::applyLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(Edge edge) {
+        int follower = dictionary.intern(edge.followerId());
+        int followee = dictionary.intern(edge.followeeId());
+        update(forward, forwardDeltas, follower, followee, edge.follow(), edge.stamp());
+    }
+
+    /**
+     * Keep the overlay invariants: `added` never overlaps the base row, `removed` is a subset of it.
+     * A base edge unfollowed then followed again keeps its base stamp until the next rebuild.
+     */
+    private static void update(CsrGraph base, Map<Integer, Delta> deltas, int node, int target, boolean follow, int stamp) {
+        boolean inBase = base.contains(node, target);
+        Delta delta = deltas.computeIfAbsent(node, n -> new Delta(SortedInts.EMPTY, SortedInts.EMPTY, SortedInts.EMPTY));
+        int addedIndex = Arrays.binarySearch(delta.added, target);
+        if (follow) {
+            if (inBase) {
+                delta.removed = SortedInts.remove(delta.removed, target);
+            } else if (addedIndex < 0) {
+                delta.added = SortedInts.insertAt(delta.added, -addedIndex - 1, target);
+                delta.addedStamps = SortedInts.insertAt(delta.addedStamps, -addedIndex - 1, stamp);
+            }
+        } else {
+            if (inBase) {
+                delta.removed = SortedInts.insert(delta.removed, target);
+            } else if (addedIndex >= 0) {
+                delta.added = SortedInts.removeAt(delta.added, addedIndex);
+                delta.addedStamps = SortedInts.removeAt(delta.addedStamps, addedIndex);
+            }
+        }
+        if (delta.added.length == 0 && delta.removed.length == 0) {
+            deltas.remove(node);
+        }
+    }
+
+    private static int degree(CsrGraph graph, Map<Integer, Delta> deltas, int node) {
+        Delta delta = deltas.get(node);
+        return graph.degree(node) + (delta == null ? 0 : delta.added.length - delta.removed.length);
+    }
+
+    private static int[] neighbors(CsrGraph graph, Map<Integer, Delta> deltas, int node) {
+        Delta delta = deltas.get(node);
+        return delta == null ? graph.neighbors(node) : graph.neighbors(node, delta.added, delta.addedStamps, delta.removed);
+    }
+
+    private static void forEachNeighbor(CsrGraph graph, Map<Integer, Delta> deltas, int node, int from, int to,
+                                        CsrGraph.NeighborVisitor visitor) {
+        Delta delta = deltas.get(node);
+        if (delta == null) {
+            graph.forEachNeighbor(node, from, to, SortedInts.EMPTY, SortedInts.EMPTY, SortedInts.EMPTY, visitor);
+        } else {
+            graph.forEachNeighbor(node, from, to, delta.added, delta.addedStamps, delta.removed, visitor);
+        }
+    }
+
+    private static CsrGraph compact(CsrGraph base, Map<Integer, Delta> deltas, int nodeCount) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] = offsets[node] + degree(base, deltas, node);
+        }
+        int[] targets = new int[offsets[nodeCount]];
+        int[] stamps = base.hasStamps() ? new int[targets.length] : null;
+        int[] size = new int[1];
+        for (int node = 0; node < nodeCount; node++) {
+            forEachNeighbor(base, deltas, node, 0, Integer.MAX_VALUE, (target, stamp) -> {
+                if (stamps != null) {
+                    stamps[size[0]] = stamp;
+                }
+                targets[size[0]++] = target;
+            });
+        }
+        return new CsrGraph(offsets, targets, stamps);
+    }
+
+    private static Map<Integer, Delta> copy(Map<Integer, Delta> deltas) {
+        Map<Integer, Delta> copy = new HashMap<>(deltas.size() * 2);
+        // The arrays are never mutated in place, copying the references is enough
+        deltas.forEach((node, delta) -> copy.put(node, new Delta(delta.added, delta.addedStamps, delta.removed)));
+        return copy;
+    }
+
+    /**
+     * Epoch minutes fit an int until the year 6053.
+     */
+    private static int toStamp(Instant instant) {
+        return (int) (instant.getEpochSecond() / 60);
+    }
+
+    private void afterCommit(List<Edge> edges) {
+        if (config.isEnabled()) {
+            TransactionCallbacks.afterCommit(() -> apply(edges));
+        }
+    }
+
+    private record Edge(String followerId, String followeeId, boolean follow, int stamp) {
+    }
+
+    private static final class Delta {
+        private int[] added;
+        // Parallel to added
+        private int[] addedStamps;
+        private int[] removed;
+
+        private Delta(int[] added, int[] addedStamps, int[] removed) {
+            this.added = added;
+            this.addedStamps = addedStamps;
+            this.removed = removed;
+        }
+    }
+
+    /**
+     * Growable parallel int arrays collecting the edges of a scan.
+     */
+    private static final class EdgeList {
+        private int[] sources;
+        private int[] destinations;
+        private int[] stamps;
+        private int size;
+
+        private EdgeList(int initialCapacity) {
+            this.sources = new int[Math.max(16, initialCapacity)];
+            this.destinations = new int[sources.length];
+            this.stamps = new int[sources.length];
+        }
+
+        private void add(int source, int destination, int stamp) {
+            if (size == sources.length) {
+                int capacity = size + (size >> 1);
+                sources = Arrays.copyOf(sources, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+                stamps = Arrays.copyOf(stamps, capacity);
+            }
+            sources[size] = source;
+            destinations[size] = destination;
+            stamps[size] = stamp;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.fp.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveTask;
+
+///
+/// # Fork-join scoring of friends-of-friends candidates.
+///
+/// A candidate scores one point per followee of the viewer who follows it, decayed by the age of that follow
+/// when a half-life is given. The candidate ID space `[from, to)` is split in halves down to `leafSize` wide
+/// ranges. A leaf scans, for each followee of the viewer, only the part of its row within its range (a binary
+/// search to the range start, then a sequential scan), so the ranges being disjoint, the score of a candidate is
+/// complete within a single leaf. Each leaf keeps its best `limit` candidates in a bounded min-heap and parents
+/// merge the lists of their two children.
+///
+/// The rows must not change while the task runs: the caller holds the read lock of the index.
+///
+final class FriendsOfFriendsTask extends RecursiveTask<List<FriendsOfFriendsTask.Candidate>> {
+    private static final double LN_2 = Math.log(2);
+
+    static final Comparator<Candidate> BEST_FIRST = Comparator.comparingDouble(Candidate::score).reversed()
+            .thenComparing(Comparator.comparingInt(Candidate::mutualCount).reversed())
+            .thenComparingInt(Candidate::node);
+
+    ///
+    /// Visits the row of a node within a range of targets, see `CsrGraph.forEachNeighbor`.
+    ///
+    @FunctionalInterface
+    interface Rows {
+        void forEachNeighbor(int node, int from, int to, CsrGraph.NeighborVisitor visitor);
+    }
+
+    record Candidate(int node, double score, int mutualCount) {
+    }
+
+    private final Rows rows;
+    private final int viewer;
+    private final int[] followings;
+    private final int nowMinutes;
+    private final double halfLifeMinutes;
+    private final int limit;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+
+    /**
+     * @param rows the forward rows, follower -> followees
+     * @param viewer the viewer node
+     * @param followings the sorted followees of the viewer
+     * @param nowMinutes the current time in epoch minutes
+     * @param halfLifeMinutes the age at which a follow counts for half a point, 0 to count every follow as one point
+     * @param limit the number of candidates to keep
+     * @param from the first candidate node of the range
+     * @param to the candidate node after the range
+     * @param leafSize the width of the ranges scored without splitting
+     */
+    FriendsOfFriendsTask(Rows rows, int viewer, int[] followings, int nowMinutes, double halfLifeMinutes,
+                         int limit, int from, int to, int leafSize) {
+        this.rows = rows;
+        this.viewer = viewer;
+        this.followings = followings;
+        this.nowMinutes = nowMinutes;
+        this.halfLifeMinutes = halfLifeMinutes;
+        this.limit = limit;
+        this.from = from;
+        this.to = to;
+        this.leafSize = leafSize;
+    }
+
+    @Override
+    protected List<Candidate> compute() {
+        if (to - from <= leafSize) {
+            return score();
+        }
+        int middle = (from + to) >>> 1;
+        FriendsOfFriendsTask left = new FriendsOfFriendsTask(rows, viewer, followings, nowMinutes, halfLifeMinutes, limit, from, middle, leafSize);
+        FriendsOfFriendsTask right = new FriendsOfFriendsTask(rows, viewer, followings, nowMinutes, halfLifeMinutes, limit, middle, to, leafSize);
+        left.fork();
+        List<Candidate> rightBest = right.compute();
+        return merge(left.join(), rightBest);
+    }
+
+    private List<Candidate> score() {
+        ScoreTable table = new ScoreTable();
+        CsrGraph.NeighborVisitor visitor = halfLifeMinutes > 0
+                ? (target, stamp) -> table.add(target, Math.exp(-LN_2 * Math.max(0, nowMinutes - stamp) / halfLifeMinutes))
+                : (target, stamp) -> table.add(target, 1);
+        for (int following : followings) {
+            rows.forEachNeighbor(following, from, to, visitor);
+        }
+
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        for (int slot = 0; slot < table.keys.length; slot++) {
+            int node = table.keys[slot];
+            if (node == ScoreTable.FREE || node == viewer || SortedInts.contains(followings, node)) {
+                continue;
+            }
+            Candidate candidate = new Candidate(node, table.scores[slot], table.counts[slot]);
+            if (heap.size() < limit) {
+                heap.add(candidate);
+            } else if (BEST_FIRST.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        List<Candidate> best = new ArrayList<>(heap);
+        best.sort(BEST_FIRST);
+        return best;
+    }
+
+    private List<Candidate> merge(List<Candidate> left, List<Candidate> right) {
+        List<Candidate> merged = new ArrayList<>(Math.min(limit, left.size() + right.size()));
+        int l = 0;
+        int r = 0;
+        while (merged.size() < limit && (l < left.size() || r < right.size())) {
+            if (r == right.size() || l < left.size() && BEST_FIRST.compare(left.get(l), right.get(r)) <= 0) {
+                merged.add(left.get(l++));
+            } else {
+                merged.add(right.get(r++));
+            }
+        }
+        return merged;
+    }
+
+    ///
+    /// Open addressing map of candidate node -> (score, mutual count), without boxing.
+    ///
+    private static final class ScoreTable {
+        private static final int FREE = -1;
+
+        private int[] keys = new int[1024];
+        private double[] scores = new double[keys.length];
+        private int[] counts = new int[keys.length];
+        private int size;
+
+        private ScoreTable() {
+            Arrays.fill(keys, FREE);
+        }
+
+        private void add(int key, double score) {
+            int slot = slot(keys, key);
+            if (keys[slot] == FREE) {
+                if (size + 1 > keys.length >> 1) {
+                    grow();
+                    slot = slot(keys, key);
+                }
+                keys[slot] = key;
+                size++;
+            }
+            scores[slot] += score;
+            counts[slot]++;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldScores = scores;
+            int[] oldCounts = counts;
+            keys = new int[oldKeys.length << 1];
+            scores = new double[keys.length];
+            counts = new int[keys.length];
+            Arrays.fill(keys, FREE);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    scores[slot] = oldScores[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int slot(int[] keys, int key) {
+            int mask = keys.length - 1;
+            // Fibonacci hashing spreads the dense node IDs over the table
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (keys[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.fp.graph;
+
+import java.util.Arrays;
+
+///
+/// # Operations on sorted, duplicate-free int arrays.
+///
+final class SortedInts {
+    static final int[] EMPTY = new int[0];
+
+    private SortedInts() {
+    }
+
+    /**
+     * @return the array with the value inserted, or the same array if it was already present
+     */
+    static int[] insert(int[] values, int value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return values;
+        }
+        return insertAt(values, -index - 1, value);
+    }
+
+    /**
+     * @return the array without the value, or the same array if it was absent
+     */
+    static int[] remove(int[] values, int value) {
+        int index = Arrays.binarySearch(values, value);
+        return index < 0 ? values : removeAt(values, index);
+    }
+
+    /**
+     * @return a copy of the array with the value inserted at the index
+     */
+    static int[] insertAt(int[] values, int index, int value) {
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(values, index, result, index + 1, values.length - index);
+        return result;
+    }
+
+    /**
+     * @return a copy of the array without the value at the index
+     */
+    static int[] removeAt(int[] values, int index) {
+        if (values.length == 1) {
+            return EMPTY;
+        }
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    /**
+     * @return the index of the first value not below the bound in values[from, to)
+     */
+    static int lowerBound(int[] values, int from, int to, int bound) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    static boolean contains(int[] values, int value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+}
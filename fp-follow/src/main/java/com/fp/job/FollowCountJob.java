@@ -0,0 +1,32 @@
+package com.fp.job;
+
+import com.fp.service.FollowCountService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+///
+/// # Scheduled jobs of the materialized follow counters.
+///
+/// - Flush: periodically writes the striped in-memory deltas to the `follow_counts` table.
+/// - Reconciliation: repairs counter drift (e.g. lost deltas after a crash) against the `follows` table.
+///
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FollowCountJob {
+    private final FollowCountService followCountService;
+
+    @Scheduled(fixedDelayString = "${fp.follow.count.flush-interval:1000}")
+    public void flushDeltas() {
+        followCountService.flush();
+    }
+
+    @Scheduled(cron = "${fp.follow.count.reconcile-cron:0 0 3 * * *}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        int repaired = followCountService.reconcile();
+        log.info("Follow count reconciliation repaired {} accounts in {} ms", repaired, System.currentTimeMillis() - start);
+    }
+}
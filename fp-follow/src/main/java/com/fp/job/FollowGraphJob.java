@@ -0,0 +1,47 @@
+package com.fp.job;
+
+import com.fp.graph.FollowGraphIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+///
+/// # Jobs of the in-memory follow graph index.
+///
+/// - Warm-up: loads the graph once the application is ready, requests fall back to the database meanwhile.
+/// - Compaction: folds the follow / unfollow overlay into the CSR arrays.
+/// - Rebuild: reloads the graph, picking up the writes served by other instances.
+///
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FollowGraphJob {
+    private final FollowGraphIndex followGraphIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${fp.follow.graph.compact-interval:60000}")
+    public void compact() {
+        if (followGraphIndex.isEnabled() && followGraphIndex.compact()) {
+            log.debug("Follow graph overlay compacted");
+        }
+    }
+
+    @Scheduled(cron = "${fp.follow.graph.rebuild-cron:0 30 4 * * *}")
+    public void rebuild() {
+        if (!followGraphIndex.isEnabled()) {
+            return;
+        }
+        try {
+            followGraphIndex.rebuild();
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild the follow graph index", e);
+        }
+    }
+}
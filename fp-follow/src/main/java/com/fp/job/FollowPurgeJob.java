@@ -0,0 +1,52 @@
+package com.fp.job;
+
+import com.fp.service.FollowPurgeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+///
+/// # Runs the purges of deleted accounts.
+///
+/// Polls for the deleted accounts whose purge is not recorded yet, then for the pending purges, including those
+/// left behind by a crashed instance once their lease has expired.
+/// The purges run on their own executor: a large one takes minutes and must not hold back the other jobs.
+///
+@Component
+@Slf4j
+public class FollowPurgeJob {
+    private final FollowPurgeService followPurgeService;
+    private final ThreadPoolTaskExecutor followPurgeExecutor;
+
+    public FollowPurgeJob(FollowPurgeService followPurgeService,
+                          @Qualifier("followPurgeExecutor") ThreadPoolTaskExecutor followPurgeExecutor) {
+        this.followPurgeService = followPurgeService;
+        this.followPurgeExecutor = followPurgeExecutor;
+    }
+
+    @Scheduled(fixedDelayString = "${fp.follow.purge.poll-interval:5000}")
+    public void purgePending() {
+        try {
+            followPurgeExecutor.execute(() -> {
+                try {
+                    int requested = followPurgeService.requestDeletedAccountPurges();
+                    if (requested > 0) {
+                        log.info("Recorded the follow purges of {} deleted accounts", requested);
+                    }
+                } catch (RuntimeException e) {
+                    // Still run the purges already recorded
+                    log.error("Failed to poll the deleted accounts", e);
+                }
+                int completed = followPurgeService.purgePending();
+                if (completed > 0) {
+                    log.info("Completed {} follow purges", completed);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.debug("Follow purges still running, skipping this poll");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.fp.job;
+
+import com.fp.service.FollowerGrowthService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+///
+/// # Scheduled jobs of the follower growth buckets.
+///
+/// - Flush: periodically writes the buffered growth to the `follower_growth_buckets` table.
+/// - Prune: deletes the hourly and daily buckets past their retention.
+///
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FollowerGrowthJob {
+    private final FollowerGrowthService followerGrowthService;
+
+    @Scheduled(fixedDelayString = "${fp.follow.growth.flush-interval:5000}")
+    public void flush() {
+        followerGrowthService.flush();
+    }
+
+    @Scheduled(cron = "${fp.follow.growth.prune-cron:0 15 3 * * *}")
+    public void prune() {
+        long start = System.currentTimeMillis();
+        int pruned = followerGrowthService.prune();
+        log.info("Follower growth pruning deleted {} buckets in {} ms", pruned, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,31 @@
+package com.fp.job;
+
+import com.fp.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+///
+/// # Reload of the follow shard directory.
+///
+/// Picks up the bucket moves driven by other instances. A failed reload keeps the current assignment.
+///
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ShardDirectoryJob {
+    private final ShardRouter shardRouter;
+
+    @Scheduled(fixedDelayString = "${fp.follow.sharding.refresh-interval:10000}")
+    public void refresh() {
+        if (!shardRouter.isSharded()) {
+            return;
+        }
+        try {
+            shardRouter.refresh();
+        } catch (RuntimeException e) {
+            log.error("Failed to reload the follow shard directory", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.fp.job;
+
+import com.fp.properties.FollowProperties;
+import com.fp.shard.FollowShardWriter;
+import com.fp.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+///
+/// # Replay of the follow mirrors left pending in the outbox of the shards.
+///
+/// A mirror is applied right after its commit; its outbox row outlives it only when the instance crashed, the mirror
+/// failed or the mirror executor was saturated. Replaying a mirror another instance is applying is harmless.
+///
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ShardMirrorJob {
+    private final ShardRouter shardRouter;
+    private final FollowShardWriter followShardWriter;
+    private final FollowProperties followProperties;
+
+    @Scheduled(fixedDelayString = "${fp.follow.sharding.mirror-sweep-interval:60000}")
+    public void sweep() {
+        if (!shardRouter.isSharded()) {
+            return;
+        }
+        var config = followProperties.getSharding();
+        try {
+            int replayed = followShardWriter.sweep(Duration.ofMillis(config.getMirrorSweepInterval()), config.getCopyBatchSize());
+            if (replayed > 0) {
+                log.info("Replayed {} pending follow mirrors", replayed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to replay the pending follow mirrors", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fp.pagination;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+///
+/// # Keyset pagination engine.
+///
+/// Builds the seek query of a `KeysetQuery` shape once and caches the SQL text per shape:
+///
+/// ```sql
+/// SELECT followee_id, follower_id, created_at FROM follows
+/// WHERE followee_id = ? AND (created_at, follower_id) < (?, ?)
+/// ORDER BY created_at DESC, follower_id DESC
+/// LIMIT ?
+/// ```
+///
+/// The seek predicate is a row-value comparison whose operator is derived from the direction (`<` for DESC,
+/// `>` for ASC), so the predicate and the ORDER BY can never disagree. With an index on
+/// `(filter column, key columns...)` PostgreSQL turns it into a single index range scan that starts right after
+/// the cursor, so deep pages cost the same as the first one.
+///
+/// Since the SQL text of a shape never changes, the PostgreSQL driver's per-connection statement cache
+/// promotes it to a server-side prepared statement after a few executions: no re-parse, no re-plan.
+///
+@Component
+@RequiredArgsConstructor
+public class KeysetPaginationEngine {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentMap<KeysetQuery, String> sqlCache = new ConcurrentHashMap<>();
+
+    /**
+     * Fetch one page of the given shape.
+     * @param query the shape of the page query
+     * @param rowMapper maps a row of the selected columns
+     * @param filterValue the value of the filter column
+     * @param cursor the key values of the last row of the previous page, in key column order; ignored for a first page
+     * @param limit the maximum number of rows
+     */
+    public <T> List<T> fetch(KeysetQuery query, RowMapper<T> rowMapper, Object filterValue, List<?> cursor, int limit) {
+        if (query.seek() && (cursor == null || cursor.size() != query.keyColumns().size())) {
+            throw new IllegalArgumentException("The cursor must hold one value per key column: " + query.keyColumns());
+        }
+        return jdbcTemplate.query(sql(query), ps -> {
+            int index = 1;
+            bind(ps, index++, filterValue);
+            if (query.seek()) {
+                for (Object value : cursor) {
+                    bind(ps, index++, value);
+                }
+            }
+            ps.setInt(index, limit);
+        }, rowMapper);
+    }
+
+    /**
+     * The SQL text of a shape, built on first use.
+     */
+    public String sql(KeysetQuery query) {
+        return sqlCache.computeIfAbsent(query, KeysetPaginationEngine::buildSql);
+    }
+
+    private static String buildSql(KeysetQuery query) {
+        String keys = String.join(", ", query.keyColumns());
+        String direction = query.descending() ? " DESC" : " ASC";
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT ").append(String.join(", ", query.selectColumns()))
+                .append(" FROM ").append(query.table())
+                .append(" WHERE ").append(query.filterColumn()).append(" = ?");
+        if (query.seek()) {
+            String placeholders = String.join(", ", query.keyColumns().stream().map(column -> "?").toList());
+            sql.append(" AND (").append(keys).append(query.descending() ? ") < (" : ") > (").append(placeholders).append(')');
+        }
+        sql.append(" ORDER BY ")
+                .append(String.join(", ", query.keyColumns().stream().map(column -> column + direction).toList()))
+                .append(" LIMIT ?");
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value instanceof Instant instant) {
+            ps.setTimestamp(index, Timestamp.from(instant));
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+}
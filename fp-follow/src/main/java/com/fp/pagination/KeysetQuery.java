@@ -0,0 +1,34 @@
+package com.fp.pagination;
+
+import java.util.List;
+
+///
+/// # Shape of a keyset (seek) page query.
+///
+/// A shape is everything that determines the SQL text: the table, the selected columns, the equality filter,
+/// the key columns the rows are ordered by (most significant first, the last one must be unique within the filter)
+/// and the direction. Values (filter value, cursor, limit) are bound as parameters, so one shape maps to exactly
+/// one SQL string and one prepared statement.
+///
+/// @param table the table to page through
+/// @param selectColumns the columns to fetch
+/// @param filterColumn the column compared for equality with the filter value, e.g. the account ID
+/// @param keyColumns the ordering key, e.g. `created_at, follower_id`
+/// @param descending whether the page walks the key in descending order
+/// @param seek whether the page continues after a cursor; false for the first page
+///
+public record KeysetQuery(String table,
+                          List<String> selectColumns,
+                          String filterColumn,
+                          List<String> keyColumns,
+                          boolean descending,
+                          boolean seek) {
+
+    public KeysetQuery {
+        if (keyColumns.isEmpty()) {
+            throw new IllegalArgumentException("A keyset query needs at least one key column");
+        }
+        selectColumns = List.copyOf(selectColumns);
+        keyColumns = List.copyOf(keyColumns);
+    }
+}
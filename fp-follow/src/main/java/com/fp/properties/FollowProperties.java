@@ -0,0 +1,402 @@
+package com.fp.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+///
+/// # Configuration properties of the follow service.
+///
+@ConfigurationProperties(prefix = "fp.follow")
+@Data
+public class FollowProperties {
+
+    private CountConfig count = new CountConfig();
+
+    private CursorConfig cursor = new CursorConfig();
+
+    private PageCacheConfig pageCache = new PageCacheConfig();
+
+    private ExportConfig export = new ExportConfig();
+
+    private RelationshipCacheConfig relationshipCache = new RelationshipCacheConfig();
+
+    private MutualConfig mutual = new MutualConfig();
+
+    private GraphConfig graph = new GraphConfig();
+
+    private RecommendationConfig recommendation = new RecommendationConfig();
+
+    private GrowthConfig growth = new GrowthConfig();
+
+    private PartitioningConfig partitioning = new PartitioningConfig();
+
+    private ShardingConfig sharding = new ShardingConfig();
+
+    private ReplicaConfig replica = new ReplicaConfig();
+
+    private PurgeConfig purge = new PurgeConfig();
+
+    private ReactiveConfig reactive = new ReactiveConfig();
+
+    /**
+     * Materialized follower / following counter configuration.
+     */
+    @Data
+    public static class CountConfig {
+        /**
+         * Number of lock stripes of the in-memory delta buffer. Rounded up to a power of two.
+         */
+        private int stripes = 64;
+
+        /**
+         * Interval in milliseconds between two flushes of the pending deltas to the follow_counts table.
+         */
+        private long flushInterval = 1000;
+
+        /**
+         * Maximum number of statements per JDBC batch when flushing deltas.
+         */
+        private int flushBatchSize = 500;
+
+        /**
+         * Cron expression of the reconciliation job which repairs counter drift against the follows table.
+         */
+        private String reconcileCron = "0 0 3 * * *";
+
+        /**
+         * Number of counter rows recomputed per reconciliation statement.
+         */
+        private int reconcileBatchSize = 500;
+    }
+
+    /**
+     * Pagination cursor configuration.
+     */
+    @Data
+    public static class CursorConfig {
+        /**
+         * HMAC secret used to sign the pagination cursors. Cursors are unsigned when empty.
+         */
+        private String secret;
+
+        /**
+         * Whether the legacy 'timestamp#id' cursor format is still accepted. Only while the cursors are unsigned:
+         * legacy cursors carry no signature and are always rejected once a secret is set.
+         */
+        private boolean acceptLegacy = true;
+    }
+
+    /**
+     * In-process cache of the first follower / following pages of hot accounts.
+     */
+    @Data
+    public static class PageCacheConfig {
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of (account, query type) page chains kept, least recently used are evicted first.
+         */
+        private int maxEntries = 10_000;
+
+        /**
+         * Number of leading pages cached per (account, query type, order, page size), including the first page.
+         */
+        private int pages = 3;
+
+        /**
+         * Whether the next page is loaded in the background while a client walks the cached pages.
+         */
+        private boolean prefetch = true;
+
+        /**
+         * Maximum age of a page chain. Local writes invalidate immediately, this bounds the staleness
+         * caused by writes served by other instances.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Streaming follower export configuration.
+     */
+    @Data
+    public static class ExportConfig {
+        /**
+         * Number of rows fetched from the database cursor per round trip, and written between two flushes.
+         */
+        private int fetchSize = 1000;
+    }
+
+    /**
+     * Per-viewer cache of the batch relationship status checks.
+     */
+    @Data
+    public static class RelationshipCacheConfig {
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of viewers kept, least recently used are evicted first.
+         */
+        private int maxViewers = 10_000;
+
+        /**
+         * Maximum age of the statuses cached for a viewer.
+         */
+        private Duration ttl = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Mutual follows ("followed by people you follow") intersection configuration.
+     */
+    @Data
+    public static class MutualConfig {
+        /**
+         * Above this ratio between the larger and the smaller side, the smaller side is probed against the larger one
+         * instead of merging both.
+         */
+        private double skewRatio = 32;
+
+        /**
+         * Number of IDs of the smaller side probed per statement.
+         */
+        private int probeBatchSize = 500;
+
+        /**
+         * Number of rows fetched per round trip from each streamed side.
+         */
+        private int fetchSize = 1000;
+    }
+
+    /**
+     * In-memory follow graph index configuration.
+     */
+    @Data
+    public static class GraphConfig {
+        private boolean enabled = false;
+
+        /**
+         * Number of rows fetched per round trip by the full scan of the follows table.
+         */
+        private int fetchSize = 10_000;
+
+        /**
+         * Number of overlay rows (accounts touched by a follow / unfollow since the last compaction)
+         * above which the overlay is folded into fresh CSR arrays.
+         */
+        private int compactThreshold = 50_000;
+
+        /**
+         * Interval in milliseconds between two compaction checks.
+         */
+        private long compactInterval = 60_000;
+
+        /**
+         * Cron expression of the full reload, which also picks up writes served by other instances.
+         */
+        private String rebuildCron = "0 30 4 * * *";
+    }
+
+    /**
+     * "Who to follow" recommendations configuration.
+     */
+    @Data
+    public static class RecommendationConfig {
+        /**
+         * Number of threads scoring the candidates over the in-memory follow graph.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Age at which a follow counts for half a point when the recency weighting is requested.
+         */
+        private Duration recencyHalfLife = Duration.ofDays(7);
+
+        /**
+         * Maximum number of viewers whose recommendations are cached.
+         */
+        private int maxViewers = 10_000;
+
+        /**
+         * Time to live of cached recommendations, which bounds staleness from the follows of the viewer's
+         * followings. The viewer's own follows drop them immediately.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Follower growth buckets configuration.
+     */
+    @Data
+    public static class GrowthConfig {
+        /**
+         * Number of lock stripes of the in-memory growth buffer. Rounded up to a power of two.
+         */
+        private int stripes = 64;
+
+        /**
+         * Interval in milliseconds between two flushes of the buffered growth to the follower_growth_buckets table.
+         */
+        private long flushInterval = 5000;
+
+        /**
+         * Maximum number of statements per JDBC batch when flushing.
+         */
+        private int flushBatchSize = 500;
+
+        /**
+         * How long hourly buckets are kept. At least one day: "since" deltas read the hours of the current day, and
+         * those of their first day while kept, its daily bucket afterwards.
+         */
+        private Duration hourlyRetention = Duration.ofDays(7);
+
+        /**
+         * How long daily buckets are kept, and how far back a series or a "since" delta may start.
+         */
+        private Duration dailyRetention = Duration.ofDays(400);
+
+        /**
+         * Maximum number of buckets of a series.
+         */
+        private int maxBuckets = 400;
+
+        /**
+         * Cron expression of the job deleting the buckets past their retention.
+         */
+        private String pruneCron = "0 15 3 * * *";
+    }
+
+    /**
+     * Hash-partitioned follows layout configuration, see `FollowTables`.
+     */
+    @Data
+    public static class PartitioningConfig {
+        /**
+         * Whether the migration in db/partitioning has run: the following direction is then read
+         * from the follows_by_follower mirror.
+         */
+        private boolean enabled = false;
+    }
+
+    /**
+     * Application-level sharding of the follow store across several databases, see `ShardRouter`.
+     */
+    @Data
+    public static class ShardingConfig {
+        private boolean enabled = false;
+
+        /**
+         * Number of virtual buckets accounts are hashed to. Buckets, not accounts, are assigned to shards and moved
+         * by the rebalancer. Must never change once data has been written.
+         */
+        private int virtualBuckets = 1024;
+
+        /**
+         * Interval in milliseconds between two reloads of the bucket directory. The rebalancer waits twice this
+         * long between two steps of a move, so every instance has seen the previous one.
+         */
+        private long refreshInterval = 10_000;
+
+        /**
+         * Number of rows read and written per round trip when the rebalancer copies a bucket.
+         */
+        private int copyBatchSize = 1000;
+
+        /**
+         * Interval in milliseconds between two replays of the follow mirrors left pending in the outbox of a shard,
+         * e.g. by a crash, see `FollowShardWriter`. Only the mirrors pending for longer than this are replayed.
+         */
+        private long mirrorSweepInterval = 60_000;
+
+        /**
+         * The shard databases, by shard number. The first one also holds the bucket directory.
+         */
+        private List<ShardConfig> shards = new ArrayList<>();
+
+        @Data
+        public static class ShardConfig {
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            private int maximumPoolSize = 10;
+        }
+    }
+
+    /**
+     * Read replica routing configuration, see `ShardRoutingDataSource`.
+     */
+    @Data
+    public static class ReplicaConfig {
+        private boolean enabled = false;
+
+        /**
+         * JDBC URL of the replica of each shard, by shard number; the first one only when not sharded.
+         * Replicas use the credentials of their primary. A shard without replica reads from its primary.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        private int maximumPoolSize = 10;
+
+        /**
+         * How long after a follow / unfollow the reads of the accounts involved stay on the primary,
+         * so users see their own writes despite the replication lag. Tracked per instance.
+         */
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        /**
+         * Maximum number of recently written accounts tracked for the read-your-writes window. Past it, all reads
+         * go to the primary until the window of the latest write expires.
+         */
+        private int maxTrackedAccounts = 100_000;
+    }
+
+    /**
+     * Purge of the follow relationships of deleted accounts, see `FollowPurgeService`.
+     */
+    @Data
+    public static class PurgeConfig {
+        /**
+         * Interval in milliseconds between two polls for pending purges.
+         */
+        private long pollInterval = 5000;
+
+        /**
+         * Number of follow rows deleted per transaction.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Maximum number of follow rows deleted per second by an instance, to spare the database and the replicas.
+         */
+        private int maxRowsPerSecond = 2000;
+
+        /**
+         * How long a purge stays claimed by an instance without progress. Past it, another instance resumes the
+         * purge from its last committed chunk.
+         */
+        private Duration lease = Duration.ofMinutes(2);
+    }
+
+    /**
+     * R2DBC pool of the reactive follow endpoints, only used with the `reactive` profile, see `ReactiveFollowConfig`.
+     */
+    @Data
+    public static class ReactiveConfig {
+        /**
+         * R2DBC URL of the follow database. Empty to derive it from `spring.datasource.url`, or from the first
+         * replica URL when reading from replicas. Uses the credentials of `spring.datasource`.
+         */
+        private String url = "";
+
+        private int initialPoolSize = 10;
+
+        private int maximumPoolSize = 20;
+
+        private Duration maxIdleTime = Duration.ofMinutes(30);
+    }
+}
@@ -0,0 +1,112 @@
+package com.fp.replica;
+
+import com.fp.properties.FollowProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+///
+/// # Accounts recently followed / unfollowed, whose reads must not be served by a lagging replica.
+///
+/// A follow records both accounts: the follower reading its followings and anyone reading the followee's followers
+/// or counts see the new row. Recorded when written, not after commit, so no read in between can reach a replica;
+/// a rolled back write merely pins the accounts to the primary for nothing.
+///
+/// Per instance: reads served by another instance are only covered when the load balancer keeps a user on the same
+/// instance. At most `maxTrackedAccounts` accounts are tracked, and only the accounts whose window has expired are
+/// forgotten: when more accounts are written within a window, all reads go to the primary until the window of the
+/// latest of them expires.
+///
+@Component
+public class ReadYourWritesTracker {
+    private final FollowProperties.ReplicaConfig config;
+    private final long windowNanos;
+    private final int maxTrackedAccounts;
+    // Account ID -> System.nanoTime() of its last write, in the order of the writes, guarded by itself
+    private final Map<String, Long> writes = new LinkedHashMap<>();
+    // System.nanoTime() until which all accounts require the primary, after an overflow; guarded by writes
+    private long allPinnedUntil;
+    private boolean allPinned;
+
+    private final Counter pinnedReads;
+    private final Counter overflows;
+
+    public ReadYourWritesTracker(FollowProperties followProperties, MeterRegistry meterRegistry) {
+        this.config = followProperties.getReplica();
+        this.windowNanos = config.getReadYourWritesWindow().toNanos();
+        this.maxTrackedAccounts = config.getMaxTrackedAccounts();
+        this.pinnedReads = Counter.builder("fp.follow.replica.pinned.reads").register(meterRegistry);
+        this.overflows = Counter.builder("fp.follow.replica.tracker.overflows").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled() && windowNanos > 0;
+    }
+
+    /**
+     * Record a write of the given accounts.
+     */
+    public void recordWrite(String accountId, Collection<String> otherAccountIds) {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (writes) {
+            track(accountId, now);
+            otherAccountIds.forEach(otherAccountId -> track(otherAccountId, now));
+            evictExpired(now);
+            if (writes.size() > maxTrackedAccounts) {
+                // Every tracked account was written at `now` at the latest: pinning all of them until then covers them
+                writes.clear();
+                allPinned = true;
+                allPinnedUntil = now + windowNanos;
+                overflows.increment();
+            }
+        }
+    }
+
+    /**
+     * Whether the reads of the account must go to the primary: it was written within the window.
+     */
+    public boolean requiresPrimary(String accountId) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Long writtenAt;
+        boolean pinned;
+        synchronized (writes) {
+            long now = System.nanoTime();
+            if (allPinned && now - allPinnedUntil >= 0) {
+                allPinned = false;
+            }
+            writtenAt = writes.get(accountId);
+            if (writtenAt != null && now - writtenAt >= windowNanos) {
+                writes.remove(accountId);
+                writtenAt = null;
+            }
+            pinned = allPinned || writtenAt != null;
+        }
+        if (pinned) {
+            pinnedReads.increment();
+        }
+        return pinned;
+    }
+
+    private void track(String accountId, long now) {
+        // Moved to the end, the map stays ordered by write time
+        writes.remove(accountId);
+        writes.put(accountId, now);
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Long> writtenAts = writes.values().iterator();
+        while (writtenAts.hasNext() && now - writtenAts.next() >= windowNanos) {
+            writtenAts.remove();
+        }
+    }
+}
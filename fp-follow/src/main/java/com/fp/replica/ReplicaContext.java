@@ -0,0 +1,55 @@
+package com.fp.replica;
+
+///
+/// # Whether the current thread must read from the primary.
+///
+/// Set by `ShardRoutingAspect` around the reads of an account within its read-your-writes window, read by
+/// `ShardRoutingDataSource` when a read-only transaction acquires its connection.
+///
+public final class ReplicaContext {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Require the primary from now on, if `required`; a requirement already in place is kept.
+     * @return the previous state, to pass to `restore`
+     */
+    public static boolean enter(boolean required) {
+        boolean previous = isPrimaryRequired();
+        if (required && !previous) {
+            PRIMARY_REQUIRED.set(true);
+        }
+        return previous;
+    }
+
+    public static void restore(boolean previous) {
+        if (previous) {
+            PRIMARY_REQUIRED.set(true);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * Carry the requirement over to a task run by another thread, e.g. a page prefetch.
+     */
+    public static Runnable wrap(Runnable task) {
+        if (!isPrimaryRequired()) {
+            return task;
+        }
+        return () -> {
+            boolean previous = enter(true);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
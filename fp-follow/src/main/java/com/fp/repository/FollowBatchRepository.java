@@ -0,0 +1,61 @@
+package com.fp.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+
+///
+/// # Batch operations on the follows table.
+///
+/// Custom Spring Data fragment of `FollowRepository`, each operation is a single statement.
+///
+/// The writes also return the ID of their transaction, bound to it for the count deltas, see `TransactionIds`.
+///
+public interface FollowBatchRepository {
+
+    /**
+     * Insert a follow relationship in a single statement.
+     *
+     * Unlike `save()`, which merges the entity with assigned `@IdClass` keys and therefore SELECTs first,
+     * this is one `INSERT ... ON CONFLICT DO NOTHING` round trip.
+     *
+     * @return 1 if the relationship was created, 0 if it already existed
+     */
+    int insertIfAbsent(String followerId, String followeeId, Instant createdAt);
+
+    /**
+     * Delete a follow relationship in a single statement, without loading the entity first.
+     *
+     * @return 1 if the relationship was deleted, 0 if it did not exist
+     */
+    int deleteIfPresent(String followerId, String followeeId);
+
+    /**
+     * Insert the follow relationships from one follower to many followees in one statement.
+     * Already existing relationships are skipped.
+     *
+     * @return the followee IDs whose relationship was actually created
+     */
+    Set<String> insertAllIfAbsent(String followerId, Collection<String> followeeIds, Instant createdAt);
+
+    /**
+     * Delete the follow relationships from one follower to many followees in one statement.
+     *
+     * @return the followee IDs whose relationship was actually deleted
+     */
+    Set<String> deleteAllIfPresent(String followerId, Collection<String> followeeIds);
+
+    /**
+     * Find which of the candidates a follower follows, in one statement.
+     *
+     * @return the candidate IDs followed by the follower
+     */
+    Set<String> findFolloweesAmong(String followerId, Collection<String> candidateIds);
+
+    /**
+     * Find which of the candidates follow a followee, in one statement.
+     *
+     * @return the candidate IDs following the followee
+     */
+    Set<String> findFollowersAmong(String followeeId, Collection<String> candidateIds);
+}
@@ -0,0 +1,151 @@
+package com.fp.repository;
+
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.transaction.TransactionIds;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+public class FollowBatchRepositoryImpl implements FollowBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO follows (follower_id, followee_id, created_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (follower_id, followee_id) DO NOTHING
+            RETURNING followee_id, pg_current_xact_id()::text::bigint
+            """;
+
+    private static final String DELETE_SQL = """
+            DELETE FROM follows
+            WHERE follower_id = ? AND followee_id = ?
+            RETURNING followee_id, pg_current_xact_id()::text::bigint
+            """;
+
+    private static final String INSERT_ALL_SQL = """
+            INSERT INTO follows (follower_id, followee_id, created_at)
+            SELECT ?, t.followee_id, ?
+            FROM unnest(?::varchar[]) AS t(followee_id)
+            ON CONFLICT (follower_id, followee_id) DO NOTHING
+            RETURNING followee_id, pg_current_xact_id()::text::bigint
+            """;
+
+    private static final String DELETE_ALL_SQL = """
+            DELETE FROM follows
+            WHERE follower_id = ? AND followee_id = ANY(?::varchar[])
+            RETURNING followee_id, pg_current_xact_id()::text::bigint
+            """;
+
+    // Both lookups are primary key (follower_id, followee_id) probes, one per candidate.
+    // Filtered on the follower, read from the table partitioned on follower_id when partitioned.
+    private static final String FIND_FOLLOWEES_AMONG_SQL = """
+            SELECT followee_id
+            FROM %s
+            WHERE follower_id = ? AND followee_id = ANY(?::varchar[])
+            """;
+
+    private static final String FIND_FOLLOWERS_AMONG_SQL = """
+            SELECT follower_id
+            FROM follows
+            WHERE follower_id = ANY(?::varchar[]) AND followee_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String findFolloweesAmongSql;
+
+    public FollowBatchRepositoryImpl(JdbcTemplate jdbcTemplate, FollowTables followTables) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.findFolloweesAmongSql = FIND_FOLLOWEES_AMONG_SQL.formatted(followTables.tableFor(QueryType.FOLLOWINGS));
+    }
+
+    @Override
+    public int insertIfAbsent(String followerId, String followeeId, Instant createdAt) {
+        return jdbcTemplate.execute(INSERT_SQL, (PreparedStatement ps) -> {
+            ps.setString(1, followerId);
+            ps.setString(2, followeeId);
+            ps.setTimestamp(3, Timestamp.from(createdAt));
+            return collectWrittenIds(ps).size();
+        });
+    }
+
+    @Override
+    public int deleteIfPresent(String followerId, String followeeId) {
+        return jdbcTemplate.execute(DELETE_SQL, (PreparedStatement ps) -> {
+            ps.setString(1, followerId);
+            ps.setString(2, followeeId);
+            return collectWrittenIds(ps).size();
+        });
+    }
+
+    @Override
+    public Set<String> insertAllIfAbsent(String followerId, Collection<String> followeeIds, Instant createdAt) {
+        return jdbcTemplate.execute(INSERT_ALL_SQL, (PreparedStatement ps) -> {
+            Array array = ps.getConnection().createArrayOf("varchar", followeeIds.toArray());
+            ps.setString(1, followerId);
+            ps.setTimestamp(2, Timestamp.from(createdAt));
+            ps.setArray(3, array);
+            return collectWrittenIds(ps);
+        });
+    }
+
+    @Override
+    public Set<String> deleteAllIfPresent(String followerId, Collection<String> followeeIds) {
+        return jdbcTemplate.execute(DELETE_ALL_SQL, (PreparedStatement ps) -> {
+            Array array = ps.getConnection().createArrayOf("varchar", followeeIds.toArray());
+            ps.setString(1, followerId);
+            ps.setArray(2, array);
+            return collectWrittenIds(ps);
+        });
+    }
+
+    @Override
+    public Set<String> findFolloweesAmong(String followerId, Collection<String> candidateIds) {
+        return jdbcTemplate.execute(findFolloweesAmongSql, (PreparedStatement ps) -> {
+            Array array = ps.getConnection().createArrayOf("varchar", candidateIds.toArray());
+            ps.setString(1, followerId);
+            ps.setArray(2, array);
+            return collectIds(ps);
+        });
+    }
+
+    @Override
+    public Set<String> findFollowersAmong(String followeeId, Collection<String> candidateIds) {
+        return jdbcTemplate.execute(FIND_FOLLOWERS_AMONG_SQL, (PreparedStatement ps) -> {
+            Array array = ps.getConnection().createArrayOf("varchar", candidateIds.toArray());
+            ps.setArray(1, array);
+            ps.setString(2, followeeId);
+            return collectIds(ps);
+        });
+    }
+
+    /**
+     * Collect the IDs of the written rows, and bind the ID of the transaction which wrote them.
+     */
+    private static Set<String> collectWrittenIds(PreparedStatement ps) throws SQLException {
+        Set<String> ids = new HashSet<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+                TransactionIds.bind(rs.getLong(2));
+            }
+        }
+        return ids;
+    }
+
+    private static Set<String> collectIds(PreparedStatement ps) throws SQLException {
+        Set<String> ids = new HashSet<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        }
+        return ids;
+    }
+}
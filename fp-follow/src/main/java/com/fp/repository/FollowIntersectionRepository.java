@@ -0,0 +1,39 @@
+package com.fp.repository;
+
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+
+import java.util.List;
+
+///
+/// # Intersections of follow lists, computed without loading either list.
+///
+/// Custom Spring Data fragment of `FollowRepository`. Each side is streamed from the follows table in account ID
+/// order (byte order, `COLLATE "C"`, which is also `String.compareTo` order for ASCII IDs) through a server-side
+/// cursor, so memory only depends on the fetch size and the page size.
+///
+public interface FollowIntersectionRepository {
+
+    /**
+     * One side of an intersection: the followings or the followers of an account.
+     */
+    record Side(QueryType type, String accountId) {
+    }
+
+    /**
+     * Intersect two sides by merging both ordered streams.
+     *
+     * @param afterId exclusive lower bound of the returned account IDs, empty for the first page
+     * @param limit the maximum number of account IDs to return
+     * @return the account IDs present on both sides, ascending
+     */
+    List<String> intersectSorted(Side left, Side right, String afterId, int limit);
+
+    /**
+     * Intersect two sides by streaming the driving side and probing the other side chunk by chunk.
+     *
+     * @param afterId exclusive lower bound of the returned account IDs, empty for the first page
+     * @param limit the maximum number of account IDs to return
+     * @return the account IDs present on both sides, ascending
+     */
+    List<String> intersectByProbe(Side driving, Side probed, String afterId, int limit);
+}
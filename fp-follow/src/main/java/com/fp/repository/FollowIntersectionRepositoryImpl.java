@@ -0,0 +1,186 @@
+package com.fp.repository;
+
+import com.fp.properties.FollowProperties;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardRouter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class FollowIntersectionRepositoryImpl implements FollowIntersectionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate otherShardTransaction;
+    private final FollowProperties.MutualConfig mutualConfig;
+    private final FollowTables followTables;
+    private final ShardRouter shardRouter;
+
+    public FollowIntersectionRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                            PlatformTransactionManager transactionManager,
+                                            FollowProperties followProperties,
+                                            FollowTables followTables,
+                                            ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        // PostgreSQL only streams through a cursor when auto-commit is off
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.otherShardTransaction = new TransactionTemplate(transactionManager);
+        this.otherShardTransaction.setReadOnly(true);
+        this.otherShardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mutualConfig = followProperties.getMutual();
+        this.followTables = followTables;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public List<String> intersectSorted(Side left, Side right, String afterId, int limit) {
+        return withConnections(left, right, (leftConnection, rightConnection) -> {
+            List<String> result = new ArrayList<>(limit);
+            try (PreparedStatement leftPs = prepareStream(leftConnection, left, afterId);
+                 PreparedStatement rightPs = prepareStream(rightConnection, right, afterId);
+                 ResultSet leftRs = leftPs.executeQuery();
+                 ResultSet rightRs = rightPs.executeQuery()) {
+                boolean hasLeft = leftRs.next();
+                boolean hasRight = rightRs.next();
+                while (hasLeft && hasRight && result.size() < limit) {
+                    String leftId = leftRs.getString(1);
+                    int comparison = leftId.compareTo(rightRs.getString(1));
+                    if (comparison == 0) {
+                        result.add(leftId);
+                        hasLeft = leftRs.next();
+                        hasRight = rightRs.next();
+                    } else if (comparison < 0) {
+                        hasLeft = leftRs.next();
+                    } else {
+                        hasRight = rightRs.next();
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<String> intersectByProbe(Side driving, Side probed, String afterId, int limit) {
+        int chunkSize = mutualConfig.getProbeBatchSize();
+        return withConnections(driving, probed, (drivingConnection, probedConnection) -> {
+            List<String> result = new ArrayList<>(limit);
+            try (PreparedStatement drivingPs = prepareStream(drivingConnection, driving, afterId);
+                 PreparedStatement probePs = probedConnection.prepareStatement(probeSql(probed));
+                 ResultSet drivingRs = drivingPs.executeQuery()) {
+                List<String> chunk = new ArrayList<>(chunkSize);
+                boolean hasMore = true;
+                while (hasMore && result.size() < limit) {
+                    chunk.clear();
+                    while (chunk.size() < chunkSize && (hasMore = drivingRs.next())) {
+                        chunk.add(drivingRs.getString(1));
+                    }
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    Set<String> found = probe(probedConnection, probePs, probed, chunk);
+                    for (String id : chunk) {
+                        if (found.contains(id) && result.size() < limit) {
+                            result.add(id);
+                        }
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Run the action with a connection to the shard of each side, in read-only transactions.
+     * A single connection when both sides are on the same shard, as they always are when not sharded.
+     */
+    private <T> T withConnections(Side first, Side second, ConnectionPairCallback<T> action) {
+        int firstShard = shardRouter.shardOf(first.accountId());
+        int secondShard = shardRouter.shardOf(second.accountId());
+        return ShardContext.call(firstShard, () -> readOnlyTransaction.execute(status -> jdbcTemplate.execute((ConnectionCallback<T>) firstConnection -> {
+            if (secondShard == firstShard) {
+                return action.doInConnections(firstConnection, firstConnection);
+            }
+            // Suspends the first transaction, whose connection and open cursors stay usable
+            return ShardContext.call(secondShard, () -> otherShardTransaction.execute(otherStatus -> jdbcTemplate.execute(
+                    (ConnectionCallback<T>) secondConnection -> action.doInConnections(firstConnection, secondConnection))));
+        })));
+    }
+
+    @FunctionalInterface
+    private interface ConnectionPairCallback<T> {
+        T doInConnections(Connection first, Connection second) throws SQLException;
+    }
+
+    private PreparedStatement prepareStream(Connection connection, Side side, String afterId) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(streamSql(side), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(mutualConfig.getFetchSize());
+        ps.setString(1, side.accountId());
+        ps.setString(2, afterId == null ? "" : afterId);
+        return ps;
+    }
+
+    private static Set<String> probe(Connection connection, PreparedStatement ps, Side probed, List<String> ids) throws SQLException {
+        Array array = connection.createArrayOf("varchar", ids.toArray());
+        ps.setString(1, probed.accountId());
+        ps.setArray(2, array);
+        Set<String> found = new HashSet<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                found.add(rs.getString(1));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The IDs of one side in byte order, served by the (filter column, id column COLLATE "C") indexes.
+     */
+    private String streamSql(Side side) {
+        String filterColumn = filterColumn(side);
+        String idColumn = idColumn(side);
+        return "SELECT " + idColumn + " FROM " + table(side)
+                + " WHERE " + filterColumn + " = ? AND " + idColumn + " COLLATE \"C\" > ?"
+                + " ORDER BY " + idColumn + " COLLATE \"C\"";
+    }
+
+    /**
+     * Which of the given IDs are on the side: a primary key probe per ID.
+     */
+    private String probeSql(Side side) {
+        String idColumn = idColumn(side);
+        return "SELECT " + idColumn + " FROM " + table(side)
+                + " WHERE " + filterColumn(side) + " = ? AND " + idColumn + " = ANY(?::varchar[])";
+    }
+
+    private String table(Side side) {
+        return followTables.tableFor(side.type());
+    }
+
+    private static String filterColumn(Side side) {
+        return switch (side.type()) {
+            case FOLLOWERS -> "followee_id";
+            case FOLLOWINGS -> "follower_id";
+        };
+    }
+
+    private static String idColumn(Side side) {
+        return switch (side.type()) {
+            case FOLLOWERS -> "follower_id";
+            case FOLLOWINGS -> "followee_id";
+        };
+    }
+}
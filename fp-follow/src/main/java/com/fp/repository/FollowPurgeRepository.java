@@ -0,0 +1,50 @@
+package com.fp.repository;
+
+import com.fp.entity.FollowPurge;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface FollowPurgeRepository extends JpaRepository<FollowPurge, String> {
+
+    ///
+    /// Record the purge of an account. A purge in progress is left untouched, a completed one starts over,
+    /// so a replayed request also removes the follows created since.
+    ///
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO follow_purges (account_id, phase, requested_at, updated_at)
+            VALUES (:accountId, 'FOLLOWINGS', now(), now())
+            ON CONFLICT (account_id) DO UPDATE
+                SET phase = 'FOLLOWINGS',
+                    last_counterpart = NULL,
+                    requested_at = now(),
+                    updated_at = now(),
+                    completed_at = NULL
+                WHERE follow_purges.phase = 'DONE'
+            """, nativeQuery = true)
+    int request(@Param("accountId") String accountId);
+
+    ///
+    /// Lock the oldest pending purge which no instance holds. Skips the rows locked by a concurrent claim.
+    ///
+    @Query(value = """
+            SELECT account_id FROM follow_purges
+            WHERE phase <> 'DONE' AND (lease_until IS NULL OR lease_until < now())
+            ORDER BY requested_at
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<String> lockNextUnclaimed();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM FollowPurge p WHERE p.accountId = :accountId")
+    Optional<FollowPurge> findForUpdate(@Param("accountId") String accountId);
+}
@@ -0,0 +1,24 @@
+package com.fp.repository;
+
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+
+import java.time.Duration;
+import java.util.List;
+
+///
+/// # Friends-of-friends aggregation on the follows table.
+///
+/// Custom Spring Data fragment of `FollowRepository`, used when the in-memory follow graph is not available.
+///
+public interface FollowRecommendationRepository {
+
+    /**
+     * Rank the accounts followed by the viewer's followings in one statement, by the number of the viewer's
+     * followings following them. The viewer and the accounts the viewer already follows are excluded.
+     * When sharded, one aggregation per shard merged in memory instead.
+     *
+     * @param recencyHalfLife the age at which a follow counts for half a point, null to count every follow as one point
+     * @return the best accounts, best first
+     */
+    List<RecommendedAccountDTO> findFriendsOfFriends(String viewerId, int limit, Duration recencyHalfLife);
+}
@@ -0,0 +1,121 @@
+package com.fp.repository;
+
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardRouter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class FollowRecommendationRepositoryImpl implements FollowRecommendationRepository {
+
+    // f1: the viewer's followings, f2: their followings, f3: excludes the accounts the viewer already follows.
+    // Both joins walk the primary key (follower_id, followee_id). Every alias is filtered on follower_id,
+    // so each is read from the table partitioned on it when partitioned.
+    private static final String FRIENDS_OF_FRIENDS_SQL = """
+            SELECT f2.followee_id AS account_id, %1$s AS score, count(*) AS mutual_count
+            FROM %2$s f1
+            JOIN %2$s f2 ON f2.follower_id = f1.followee_id
+            WHERE f1.follower_id = ?
+              AND f2.followee_id <> f1.follower_id
+              AND NOT EXISTS (SELECT 1 FROM %2$s f3 WHERE f3.follower_id = f1.follower_id AND f3.followee_id = f2.followee_id)
+            GROUP BY f2.followee_id
+            ORDER BY score DESC, mutual_count DESC, account_id
+            LIMIT ?
+            """;
+
+    // Sharded: the followings of the viewer's followings stored on one shard, aggregated per account.
+    // Each following's row is complete on its own shard, the partial aggregates of the shards add up.
+    private static final String SHARD_AGGREGATE_SQL = """
+            SELECT f2.followee_id AS account_id, %1$s AS score, count(*) AS mutual_count
+            FROM %2$s f2
+            WHERE f2.follower_id = ANY(?::varchar[])
+            GROUP BY f2.followee_id
+            """;
+
+    private static final String FOLLOWINGS_SQL = "SELECT followee_id FROM %s WHERE follower_id = ?";
+
+    private static final Comparator<RecommendedAccountDTO> BEST_FIRST = Comparator.comparingDouble(RecommendedAccountDTO::getScore).reversed()
+            .thenComparing(Comparator.comparingInt(RecommendedAccountDTO::getMutualCount).reversed())
+            .thenComparing(RecommendedAccountDTO::getAccountId);
+
+    private static final String COUNT_SCORE = "count(*)";
+
+    private static final String RECENCY_SCORE = "sum(exp(-ln(2) * extract(epoch FROM now() - f2.created_at) / ?))";
+
+    private static final RowMapper<RecommendedAccountDTO> ROW_MAPPER = (rs, rowNum) -> new RecommendedAccountDTO(
+            rs.getString("account_id"),
+            rs.getDouble("score"),
+            rs.getInt("mutual_count")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String countSql;
+    private final String recencySql;
+    private final String shardCountSql;
+    private final String shardRecencySql;
+    private final String followingsSql;
+    private final ShardRouter shardRouter;
+
+    public FollowRecommendationRepositoryImpl(JdbcTemplate jdbcTemplate, FollowTables followTables, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        String table = followTables.tableFor(QueryType.FOLLOWINGS);
+        this.countSql = FRIENDS_OF_FRIENDS_SQL.formatted(COUNT_SCORE, table);
+        this.recencySql = FRIENDS_OF_FRIENDS_SQL.formatted(RECENCY_SCORE, table);
+        this.shardCountSql = SHARD_AGGREGATE_SQL.formatted(COUNT_SCORE, table);
+        this.shardRecencySql = SHARD_AGGREGATE_SQL.formatted(RECENCY_SCORE, table);
+        this.followingsSql = FOLLOWINGS_SQL.formatted(table);
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public List<RecommendedAccountDTO> findFriendsOfFriends(String viewerId, int limit, Duration recencyHalfLife) {
+        if (shardRouter.isSharded()) {
+            return findFriendsOfFriendsAcrossShards(viewerId, limit, recencyHalfLife);
+        }
+        if (recencyHalfLife == null) {
+            return jdbcTemplate.query(countSql, ROW_MAPPER, viewerId, limit);
+        }
+        return jdbcTemplate.query(recencySql, ROW_MAPPER, (double) recencyHalfLife.toSeconds(), viewerId, limit);
+    }
+
+    /**
+     * The viewer's followings are read from the viewer's shard, their followings from the shard of each,
+     * with one aggregation per shard. The exclusions and the ranking are applied to the merged aggregates.
+     */
+    private List<RecommendedAccountDTO> findFriendsOfFriendsAcrossShards(String viewerId, int limit, Duration recencyHalfLife) {
+        List<String> followings = ShardContext.call(shardRouter.shardOf(viewerId),
+                () -> jdbcTemplate.queryForList(followingsSql, String.class, viewerId));
+        Set<String> excluded = new HashSet<>(followings);
+        excluded.add(viewerId);
+
+        Map<String, RecommendedAccountDTO> merged = new HashMap<>();
+        for (Map.Entry<Integer, List<String>> shard : shardRouter.groupByShard(followings).entrySet()) {
+            String[] followers = shard.getValue().toArray(String[]::new);
+            List<RecommendedAccountDTO> partial = ShardContext.call(shard.getKey(), () -> recencyHalfLife == null
+                    ? jdbcTemplate.query(shardCountSql, ROW_MAPPER, (Object) followers)
+                    : jdbcTemplate.query(shardRecencySql, ROW_MAPPER, (double) recencyHalfLife.toSeconds(), followers));
+            for (RecommendedAccountDTO candidate : partial) {
+                if (!excluded.contains(candidate.getAccountId())) {
+                    merged.merge(candidate.getAccountId(), candidate, (total, more) -> {
+                        total.setScore(total.getScore() + more.getScore());
+                        total.setMutualCount(total.getMutualCount() + more.getMutualCount());
+                        return total;
+                    });
+                }
+            }
+        }
+        List<RecommendedAccountDTO> ranked = new ArrayList<>(merged.values());
+        ranked.sort(BEST_FIRST);
+        return ranked.subList(0, Math.min(limit, ranked.size()));
+    }
+}
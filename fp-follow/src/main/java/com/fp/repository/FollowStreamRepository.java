@@ -0,0 +1,41 @@
+package com.fp.repository;
+
+import com.fp.dto.follow.response.FollowResponseDTO;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+///
+/// # Streaming reads of the follows table.
+///
+/// Custom Spring Data fragment of `FollowRepository`. Rows are read through a server-side cursor,
+/// `fetchSize` rows at a time, so memory stays constant whatever the number of rows.
+///
+public interface FollowStreamRepository {
+
+    /**
+     * Stream every follower of an account, oldest first, to the consumer as the rows are read.
+     * <p>
+     * Must run inside a transaction: PostgreSQL only uses a cursor when auto-commit is off,
+     * otherwise the driver buffers the whole result set.
+     *
+     * @param accountId the followee ID
+     * @param fetchSize the number of rows fetched per round trip
+     * @param consumer called for every row; the query is aborted if it throws
+     */
+    void streamFollowers(String accountId, int fetchSize, Consumer<FollowResponseDTO> consumer);
+
+    /**
+     * Stream every follow relationship of the table, in no particular order.
+     * Same transaction requirement as {@link #streamFollowers}.
+     *
+     * @param fetchSize the number of rows fetched per round trip
+     * @param consumer called with the follower ID, the followee ID and the creation time of every row
+     */
+    void streamEdges(int fetchSize, EdgeConsumer consumer);
+
+    @FunctionalInterface
+    interface EdgeConsumer {
+        void accept(String followerId, String followeeId, Instant createdAt);
+    }
+}
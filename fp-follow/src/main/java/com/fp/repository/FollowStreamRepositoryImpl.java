@@ -0,0 +1,52 @@
+package com.fp.repository;
+
+import com.fp.dto.follow.response.FollowResponseDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class FollowStreamRepositoryImpl implements FollowStreamRepository {
+
+    // Matches the (followee_id, created_at, follower_id) index: no sort, the first rows stream out immediately
+    private static final String FOLLOWERS_SQL = """
+            SELECT followee_id, follower_id, created_at
+            FROM follows
+            WHERE followee_id = ?
+            ORDER BY created_at, follower_id
+            """;
+
+    private static final String EDGES_SQL = "SELECT follower_id, followee_id, created_at FROM follows";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void streamFollowers(String accountId, int fetchSize, Consumer<FollowResponseDTO> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FOLLOWERS_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setString(1, accountId);
+            return ps;
+        }, (ResultSet rs) -> {
+            consumer.accept(new FollowResponseDTO(
+                    rs.getString(1),
+                    rs.getString(2),
+                    rs.getTimestamp(3).toInstant()
+            ));
+        });
+    }
+
+    @Override
+    public void streamEdges(int fetchSize, EdgeConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(EDGES_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (ResultSet rs) -> {
+            consumer.accept(rs.getString(1), rs.getString(2), rs.getTimestamp(3).toInstant());
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.fp.repository;
+
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+
+///
+/// # Tables serving each direction of the follow graph.
+///
+/// Unpartitioned, both directions read `follows`. With the hash-partitioned layout
+/// (`db/partitioning/*.sql`), `follows` is partitioned on `followee_id` and the following direction reads
+/// the `follows_by_follower` mirror partitioned on `follower_id`, so that a query filtered on one account
+/// always prunes to a single partition.
+///
+/// Writes always go to `follows`, the mirror is maintained by a trigger.
+///
+public final class FollowTables {
+    public static final String FOLLOWS = "follows";
+    public static final String FOLLOWS_BY_FOLLOWER = "follows_by_follower";
+
+    public static final FollowTables UNPARTITIONED = new FollowTables(false);
+
+    private final boolean partitioned;
+
+    public FollowTables(boolean partitioned) {
+        this.partitioned = partitioned;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * The table to read the rows of one account from: filtered on `followee_id` for FOLLOWERS,
+     * on `follower_id` for FOLLOWINGS.
+     */
+    public String tableFor(QueryType direction) {
+        return switch (direction) {
+            case FOLLOWERS -> FOLLOWS;
+            case FOLLOWINGS -> partitioned ? FOLLOWS_BY_FOLLOWER : FOLLOWS;
+        };
+    }
+}
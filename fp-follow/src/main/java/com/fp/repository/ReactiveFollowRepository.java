@@ -0,0 +1,77 @@
+package com.fp.repository;
+
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.pagination.KeysetPaginationEngine;
+import com.fp.pagination.KeysetQuery;
+import com.fp.strategy.FollowQueryRequest;
+import com.fp.strategy.FollowQueryStrategyType;
+import com.fp.strategy.impl.KeysetFollowQueryStrategy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+///
+/// # R2DBC repository of the follower / following pages.
+///
+/// Runs the exact keyset SQL of `KeysetFollowQueryStrategy`, built by `KeysetPaginationEngine`, with its `?`
+/// placeholders turned into the `$n` markers of the PostgreSQL R2DBC driver. The rows are emitted as the driver
+/// decodes them, without a thread waiting on the socket.
+///
+@Repository
+@Profile("reactive")
+public class ReactiveFollowRepository {
+    private final DatabaseClient databaseClient;
+
+    private final Map<FollowQueryStrategyType, String> queries = new EnumMap<>(FollowQueryStrategyType.class);
+
+    public ReactiveFollowRepository(DatabaseClient databaseClient, KeysetPaginationEngine paginationEngine, FollowTables followTables) {
+        this.databaseClient = databaseClient;
+        for (FollowQueryStrategyType type : FollowQueryStrategyType.values()) {
+            KeysetQuery query = KeysetFollowQueryStrategy.toKeysetQuery(type, followTables);
+            queries.put(type, toIndexedMarkers(paginationEngine.sql(query)));
+        }
+    }
+
+    /**
+     * One page of followers or followings, in the order of the keyset.
+     */
+    public Flux<FollowResponseDTO> findPage(FollowQueryRequest request) {
+        FollowQueryStrategyType type = request.getStrategyType();
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(queries.get(type))
+                .bind(0, request.getAccountId());
+        int index = 1;
+        if (!type.isFirstPage()) {
+            spec = spec.bind(index++, request.getCursorTimestamp())
+                    .bind(index++, request.getCursorId());
+        }
+        return spec.bind(index, request.getPageable().getPageSize())
+                .map((row, metadata) -> new FollowResponseDTO(
+                        row.get("followee_id", String.class),
+                        row.get("follower_id", String.class),
+                        row.get("created_at", Instant.class)
+                ))
+                .all();
+    }
+
+    /**
+     * The keyset SQL has no literal and no `?` other than its parameters.
+     */
+    public static String toIndexedMarkers(String sql) {
+        StringBuilder indexed = new StringBuilder(sql.length() + 8);
+        int marker = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                indexed.append('$').append(++marker);
+            } else {
+                indexed.append(c);
+            }
+        }
+        return indexed.toString();
+    }
+}
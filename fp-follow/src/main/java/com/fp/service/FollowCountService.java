@@ -0,0 +1,84 @@
+package com.fp.service;
+
+import java.util.Collection;
+
+///
+/// # Materialized follower / following counter store.
+///
+/// Follow and unfollow record deltas in memory; the deltas are flushed to the `follow_counts` table
+/// in batches and a reconciliation job repairs any drift against the `follows` table.
+///
+/// A counter row is seeded from the `follows` table when missing, and recomputed by the reconciliation, while deltas
+/// of follows the count may already include are pending, on any instance. So a delta is tagged with the ID of the
+/// transaction which wrote its follow, and the row stores the snapshot it was counted at: a flush only applies the
+/// deltas of the transactions the snapshot does not include, a read only adds those. Each transaction writing follows
+/// records the deltas of the accounts whose counter row is stored on its shard. A delta recorded on another shard,
+/// before the bucket of its account moved, is counted by the row seeded on the new shard, and dropped.
+///
+/// So the rows are only seeded when read. A delta finding no row is dropped: the follow of a never read account is
+/// counted by its seed, that of a purged account goes with it.
+///
+public interface FollowCountService {
+
+    /**
+     * Get the number of followers of an account in O(1), independent of the number of followers.
+     */
+    long getFollowerCount(String accountId);
+
+    /**
+     * Get the number of accounts an account is following in O(1).
+     */
+    long getFollowingCount(String accountId);
+
+    /**
+     * Record a new follow relationship. Applied once the surrounding transaction commits.
+     */
+    void recordFollow(String followerId, String followeeId);
+
+    /**
+     * Record a removed follow relationship. Applied once the surrounding transaction commits.
+     */
+    void recordUnfollow(String followerId, String followeeId);
+
+    /**
+     * Record new follow relationships from one follower to many followees in one pass.
+     */
+    void recordFollowAll(String followerId, Collection<String> followeeIds);
+
+    /**
+     * Record removed follow relationships from one follower to many followees in one pass.
+     */
+    void recordUnfollowAll(String followerId, Collection<String> followeeIds);
+
+    /**
+     * Record the followings of a deleted account removed by its purge: each followee lost a follower.
+     * The counters of the deleted account itself are dropped by `forget` instead.
+     * Called after the deletion, in its transaction, on every shard: records the followees whose counter row is
+     * stored on the shard of the transaction.
+     */
+    void recordPurgedFollowings(String accountId, Collection<String> followeeIds);
+
+    /**
+     * Record the followers of a deleted account removed by its purge: each follower follows one account less.
+     * Called like `recordPurgedFollowings`.
+     */
+    void recordPurgedFollowers(String accountId, Collection<String> followerIds);
+
+    /**
+     * Delete the counter row of a purged account and drop its pending delta.
+     */
+    void forget(String accountId);
+
+    /**
+     * Flush the pending deltas to the follow_counts table in JDBC batches.
+     * @return the number of flushed accounts
+     */
+    int flush();
+
+    /**
+     * Recompute every counter row from the follows table and repair the rows that drifted.
+     * Safe alongside the writes and the flushes of any instance.
+     * @return the number of repaired accounts
+     */
+    int reconcile();
+}
@@ -0,0 +1,20 @@
+package com.fp.service;
+
+import java.io.OutputStream;
+
+///
+/// # Bulk export of follow relationships.
+///
+/// For analytics pulls and fan-out jobs which need a whole follower list at once, without paging.
+///
+public interface FollowExportService {
+
+    /**
+     * Write every follower of an account to the output stream as newline-delimited JSON,
+     * one `FollowResponseDTO` per line, oldest first.
+     * <p>
+     * Rows are written as they are read from the database: memory use is bounded by the fetch size,
+     * and a slow reader slows down the database cursor instead of buffering the rest of the list.
+     */
+    void exportFollowers(String accountId, OutputStream outputStream);
+}
@@ -0,0 +1,42 @@
+package com.fp.service;
+
+import com.fp.dto.follow.response.FollowPurgeStatusDTO;
+
+///
+/// # Purge of the follow relationships of deleted accounts.
+///
+/// A purge is recorded on request and run in the background: the followings, then the followers of the account are
+/// deleted in bounded keyset chunks, one short transaction each, at a throttled rate, so a large account never holds
+/// long locks or floods the WAL. The progress is committed with every chunk and a crashed purge is resumed by the
+/// next instance claiming it.
+///
+/// Only a deleted account is purged: the account service records the deletion in the same transaction as the
+/// deletion of the account, and the deletions are polled, so a purge is never lost to a failed request.
+///
+public interface FollowPurgeService {
+
+    /**
+     * Record the purge of a deleted account. Idempotent: a purge in progress is kept, a completed one runs again.
+     * @throws com.fp.exception.business.AccountNotDeletedException when the account was not deleted
+     */
+    FollowPurgeStatusDTO requestPurge(String accountId);
+
+    /**
+     * Record the purges of the accounts deleted since the last call, whose request from the account service may
+     * have failed, and remove their deletions from the outbox.
+     * @return the number of purges recorded
+     */
+    int requestDeletedAccountPurges();
+
+    /**
+     * Get the progress of the purge of an account.
+     * @throws com.fp.exception.business.FollowPurgeNotFoundException when none was requested
+     */
+    FollowPurgeStatusDTO getPurgeStatus(String accountId);
+
+    /**
+     * Claim and run the pending purges until none is left. Blocks for as long as the purges take.
+     * @return the number of completed purges
+     */
+    int purgePending();
+}
@@ -0,0 +1,21 @@
+package com.fp.service;
+
+import com.fp.dto.follow.request.ListRecommendationsRequestDTO;
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+
+import java.util.List;
+
+///
+/// # "Who to follow" recommendations.
+///
+/// Friends-of-friends ranking: an account scores one point per account the viewer follows which follows it.
+///
+public interface FollowRecommendationService {
+
+    /**
+     * Rank the accounts followed by the viewer's followings, excluding the viewer and the accounts the viewer
+     * already follows.
+     * @return the best accounts, best first
+     */
+    List<RecommendedAccountDTO> listRecommendations(ListRecommendationsRequestDTO listRecommendationsRequestDTO);
+}
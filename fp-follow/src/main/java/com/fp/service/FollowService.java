@@ -2,16 +2,43 @@ package com.fp.service;
 
 import com.fp.dto.common.PageResponseDTO;
 import com.fp.dto.follow.request.*;
+import com.fp.dto.follow.response.BatchFollowResponseDTO;
 import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.dto.follow.response.RelationshipStatusResponseDTO;
 
 public interface FollowService {
 
     Long getFollowerCount(String accountId);
 
+    Long getFollowingCount(String accountId);
+
     void follow(FollowRequestDTO followRequestDTO);
 
     void unfollow(UnfollowRequestDTO unfollowRequestDTO);
 
+    /**
+     * Follow many accounts at once with a single multi-row insert.
+     * @return the per-followee result
+     */
+    BatchFollowResponseDTO followAll(BatchFollowRequestDTO batchFollowRequestDTO);
+
+    /**
+     * Unfollow many accounts at once with a single multi-row delete.
+     * @return the per-followee result
+     */
+    BatchFollowResponseDTO unfollowAll(BatchFollowRequestDTO batchUnfollowRequestDTO);
+
+    /**
+     * Resolve whether the viewer follows, and is followed by, each of the target accounts.
+     * @return both directions as bitsets aligned with the target IDs
+     */
+    RelationshipStatusResponseDTO getRelationships(RelationshipStatusRequestDTO relationshipStatusRequestDTO);
+
+    /**
+     * List the accounts the viewer follows which follow the target account, in account ID order.
+     */
+    PageResponseDTO<String> listMutualFollows(ListMutualFollowsRequestDTO listMutualFollowsRequestDTO);
+
     PageResponseDTO<FollowResponseDTO> listFollowers(ListFollowersRequestDTO listFollowersRequestDTO);
 
     PageResponseDTO<FollowResponseDTO> listFollowings(ListFollowingsRequestDTO listFollowingsRequestDTO);
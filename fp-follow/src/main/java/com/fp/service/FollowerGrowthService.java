@@ -0,0 +1,66 @@
+package com.fp.service;
+
+import com.fp.dto.follow.request.FollowerGrowthRequestDTO;
+import com.fp.dto.follow.response.FollowerGrowthDeltaDTO;
+import com.fp.dto.follow.response.FollowerGrowthResponseDTO;
+
+import java.time.Instant;
+import java.util.Collection;
+
+///
+/// # Pre-aggregated follower growth.
+///
+/// Follow and unfollow record the gained / lost follower of the followee in memory, per UTC hour; the buffer is
+/// flushed to hourly and daily rows of the `follower_growth_buckets` table. Reads only touch those rows, a
+/// bounded number per request, and lag behind the writes by at most the flush interval.
+///
+public interface FollowerGrowthService {
+
+    /**
+     * Record a new follow relationship. Applied once the surrounding transaction commits.
+     */
+    void recordFollow(String followerId, String followeeId);
+
+    /**
+     * Record a removed follow relationship. Applied once the surrounding transaction commits.
+     */
+    void recordUnfollow(String followerId, String followeeId);
+
+    /**
+     * Record new follow relationships from one follower to many followees in one pass.
+     */
+    void recordFollowAll(String followerId, Collection<String> followeeIds);
+
+    /**
+     * Record removed follow relationships from one follower to many followees in one pass.
+     */
+    void recordUnfollowAll(String followerId, Collection<String> followeeIds);
+
+    /**
+     * Delete every bucket of a purged account.
+     */
+    void forget(String accountId);
+
+    /**
+     * Get the hourly or daily growth series of an account, one bucket per hour / day including the empty ones.
+     */
+    FollowerGrowthResponseDTO getFollowerGrowth(FollowerGrowthRequestDTO followerGrowthRequestDTO);
+
+    /**
+     * Get the followers gained and lost by an account since a point in time, truncated to the hour, or to the day
+     * once the hourly buckets of that day are pruned.
+     */
+    FollowerGrowthDeltaDTO getFollowerGrowthSince(String accountId, Instant since);
+
+    /**
+     * Flush the buffered growth to the follower_growth_buckets table in JDBC batches.
+     * @return the number of flushed account hours
+     */
+    int flush();
+
+    /**
+     * Delete the buckets past their retention.
+     * @return the number of deleted buckets
+     */
+    int prune();
+}
@@ -0,0 +1,20 @@
+package com.fp.service;
+
+import com.fp.dto.common.PageResponseDTO;
+import com.fp.dto.follow.request.ListFollowersRequestDTO;
+import com.fp.dto.follow.request.ListFollowingsRequestDTO;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import reactor.core.publisher.Mono;
+
+///
+/// # Non-blocking follower / following pages.
+///
+/// Same keyset pages and cursors as `FollowService`, read through R2DBC without holding a thread during the
+/// database round trip. Only active with the `reactive` profile, see `ReactiveFollowConfig`.
+///
+public interface ReactiveFollowService {
+
+    Mono<PageResponseDTO<FollowResponseDTO>> listFollowers(ListFollowersRequestDTO listFollowersRequestDTO);
+
+    Mono<PageResponseDTO<FollowResponseDTO>> listFollowings(ListFollowingsRequestDTO listFollowingsRequestDTO);
+}
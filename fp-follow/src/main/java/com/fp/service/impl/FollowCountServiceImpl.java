@@ -0,0 +1,430 @@
+package com.fp.service.impl;
+
+import com.fp.counter.CountedSnapshot;
+import com.fp.counter.FollowCountDelta;
+import com.fp.counter.FollowCountDeltaBuffer;
+import com.fp.properties.FollowProperties;
+import com.fp.service.FollowCountService;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardKey;
+import com.fp.shard.ShardRouter;
+import com.fp.transaction.TransactionCallbacks;
+import com.fp.transaction.TransactionIds;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@Slf4j
+public class FollowCountServiceImpl implements FollowCountService {
+
+    private static final String FIND_SQL = """
+            SELECT follower_count, following_count, counted_snapshot::text
+            FROM follow_counts
+            WHERE account_id = ?
+            """;
+
+    // The deltas of the transactions the snapshot of the row includes are already counted. Correlated to the row:
+    // an update waiting for the lock of a reconciliation is re-evaluated against the snapshot the reconciliation wrote.
+    private static final String APPLY_DELTAS_SQL = """
+            UPDATE follow_counts c
+            SET (follower_count, following_count) = (
+                    SELECT c.follower_count + coalesce(sum(d.followers), 0),
+                           c.following_count + coalesce(sum(d.followings), 0)
+                    FROM unnest(?::bigint[], ?::bigint[], ?::bigint[]) AS d (xid, followers, followings)
+                    WHERE c.counted_snapshot IS NULL OR d.xid = 0
+                       OR NOT pg_visible_in_snapshot(d.xid::text::xid8, c.counted_snapshot)),
+                updated_at = now()
+            WHERE c.account_id = ?
+            """;
+
+    // Serializes the seed of a counter row with the flushes finding it missing, see flushShard. Sorted by key, so
+    // concurrent flushes take the locks in the same order.
+    private static final String LOCK_ACCOUNTS_SQL = """
+            SELECT pg_advisory_xact_lock(k.key)
+            FROM (SELECT hashtextextended(a.account_id, 0) AS key
+                  FROM unnest(?::varchar[]) AS a(account_id)
+                  ORDER BY 1) AS k
+            """;
+
+    // The counts and the snapshot of the same statement
+    private static final String SEED_SQL = """
+            INSERT INTO follow_counts (account_id, follower_count, following_count, counted_snapshot, updated_at)
+            SELECT ?,
+                   (SELECT count(*) FROM follows f WHERE f.followee_id = ?),
+                   (SELECT count(*) FROM follows f WHERE f.follower_id = ?),
+                   pg_current_snapshot(),
+                   now()
+            ON CONFLICT (account_id) DO NOTHING
+            """;
+
+    private static final String CURRENT_TRANSACTION_SQL = "SELECT pg_current_xact_id()::text::bigint";
+
+    private static final String DELETE_SQL = "DELETE FROM follow_counts WHERE account_id = ?";
+
+    // Keyset scan over the counter rows, used by the reconciliation job
+    private static final String SCAN_ACCOUNTS_SQL = "SELECT account_id FROM follow_counts WHERE account_id > ? ORDER BY account_id LIMIT ?";
+
+    // A statement of its own, before the recount: the recount's snapshot then includes every flush of the rows
+    // committed before, and the flushes after wait for the snapshot it writes.
+    private static final String LOCK_ROWS_SQL = """
+            SELECT account_id
+            FROM follow_counts
+            WHERE account_id = ANY(?::varchar[])
+            ORDER BY account_id
+            FOR UPDATE
+            """;
+
+    // Every row gets the snapshot, also those whose counts were right: the deltas they counted since are then skipped
+    private static final String RECOUNT_SQL = """
+            WITH actual AS (
+                SELECT c.account_id,
+                       c.follower_count AS counted_followers,
+                       c.following_count AS counted_followings,
+                       (SELECT count(*) FROM follows f WHERE f.followee_id = c.account_id) AS follower_count,
+                       (SELECT count(*) FROM follows f WHERE f.follower_id = c.account_id) AS following_count
+                FROM follow_counts c
+                WHERE c.account_id = ANY(?::varchar[])
+            )
+            UPDATE follow_counts c
+            SET follower_count = a.follower_count,
+                following_count = a.following_count,
+                counted_snapshot = pg_current_snapshot(),
+                updated_at = now()
+            FROM actual a
+            WHERE c.account_id = a.account_id
+            RETURNING a.follower_count <> a.counted_followers OR a.following_count <> a.counted_followings
+            """;
+
+    private static final RowMapper<Counted> COUNTED_ROW_MAPPER = (rs, rowNum) ->
+            new Counted(rs.getLong(1), rs.getLong(2), CountedSnapshot.parse(rs.getString(3)));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // Read-write transaction of its own: the counts are read in read-only transactions, possibly on a replica
+    private final TransactionTemplate seedTransaction;
+    private final FollowProperties.CountConfig countConfig;
+    private final FollowCountDeltaBuffer deltaBuffer;
+    private final ShardRouter shardRouter;
+
+    /**
+     * One flush at a time, the drained deltas of a flush are restored if it fails.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public FollowCountServiceImpl(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  FollowProperties followProperties,
+                                  ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.seedTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.seedTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.countConfig = followProperties.getCount();
+        this.deltaBuffer = new FollowCountDeltaBuffer(countConfig.getStripes());
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ShardKey("#accountId")
+    public long getFollowerCount(String accountId) {
+        Counted counted = loadOrSeed(accountId);
+        return counted.followers() + notCounted(accountId, counted.snapshot()).followers();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ShardKey("#accountId")
+    public long getFollowingCount(String accountId) {
+        Counted counted = loadOrSeed(accountId);
+        return counted.followings() + notCounted(accountId, counted.snapshot()).followings();
+    }
+
+    @Override
+    public void recordFollow(String followerId, String followeeId) {
+        recordFollowAll(followerId, List.of(followeeId));
+    }
+
+    @Override
+    public void recordUnfollow(String followerId, String followeeId) {
+        recordUnfollowAll(followerId, List.of(followeeId));
+    }
+
+    @Override
+    public void recordFollowAll(String followerId, Collection<String> followeeIds) {
+        record(followerId, followeeIds, 1, true);
+    }
+
+    @Override
+    public void recordUnfollowAll(String followerId, Collection<String> followeeIds) {
+        record(followerId, followeeIds, -1, true);
+    }
+
+    @Override
+    public void recordPurgedFollowings(String accountId, Collection<String> followeeIds) {
+        record(accountId, followeeIds, -1, false);
+    }
+
+    @Override
+    public void recordPurgedFollowers(String accountId, Collection<String> followerIds) {
+        List<String> local = onCurrentShard(followerIds);
+        if (local.isEmpty()) {
+            return;
+        }
+        int shard = currentShard();
+        long transactionId = currentTransactionId();
+        TransactionCallbacks.afterCommit(() -> local.forEach(followerId ->
+                deltaBuffer.add(followerId, new FollowCountDelta(shard, transactionId, 0, -1))));
+    }
+
+    @Override
+    @ShardKey("#accountId")
+    public void forget(String accountId) {
+        jdbcTemplate.update(DELETE_SQL, accountId);
+        TransactionCallbacks.afterCommit(() -> deltaBuffer.discard(accountId));
+    }
+
+    @Override
+    public int flush() {
+        if (!flushLock.tryLock()) {
+            // Another flush is running, the deltas will be picked up next time.
+            return 0;
+        }
+        try {
+            return doFlush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Runs alongside the flushes, of this instance and the others: the snapshot written with the recounted rows
+     * tells the flushes which of their deltas the recount already includes.
+     */
+    @Override
+    public int reconcile() {
+        int repaired = 0;
+        for (int shard : shardRouter.shards()) {
+            repaired += ShardContext.call(shard, this::reconcileShard);
+        }
+        return repaired;
+    }
+
+    private int reconcileShard() {
+        int repaired = 0;
+        String after = "";
+        List<String> accountIds;
+        do {
+            accountIds = jdbcTemplate.queryForList(SCAN_ACCOUNTS_SQL, String.class, after, countConfig.getReconcileBatchSize());
+            if (!accountIds.isEmpty()) {
+                String[] batch = accountIds.toArray(String[]::new);
+                repaired += Objects.requireNonNull(transactionTemplate.execute(status -> {
+                    jdbcTemplate.queryForList(LOCK_ROWS_SQL, String.class, (Object) batch);
+                    return (int) jdbcTemplate.queryForList(RECOUNT_SQL, Boolean.class, (Object) batch).stream()
+                            .filter(Boolean.TRUE::equals)
+                            .count();
+                }));
+                after = accountIds.get(accountIds.size() - 1);
+            }
+        } while (accountIds.size() == countConfig.getReconcileBatchSize());
+        return repaired;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        log.info("Flushed follow count deltas of {} accounts on shutdown", flushed);
+    }
+
+    private int doFlush() {
+        Map<String, List<FollowCountDelta>> drained = deltaBuffer.drain();
+        if (drained.isEmpty()) {
+            return 0;
+        }
+        // Each counter row lives on the shard of its account, one transaction per shard
+        int flushed = 0;
+        for (Map.Entry<Integer, List<Map.Entry<String, List<FollowCountDelta>>>> shard
+                : shardRouter.groupByShard(drained.entrySet(), Map.Entry::getKey).entrySet()) {
+            flushed += ShardContext.call(shard.getKey(), () -> flushShard(shard.getKey(), shard.getValue()));
+        }
+        return flushed;
+    }
+
+    private int flushShard(int shard, List<Map.Entry<String, List<FollowCountDelta>>> entries) {
+        List<String> dropped;
+        try {
+            dropped = transactionTemplate.execute(status -> {
+                List<Map.Entry<String, List<FollowCountDelta>>> missing = applyDeltas(shard, entries);
+                if (missing.isEmpty()) {
+                    return List.<String>of();
+                }
+                // A row seeded concurrently is not visible yet: wait for its seed, whose snapshot then decides which
+                // deltas it counted. Still missing, the account was never read or was purged: its seed will count
+                // the follows of the deltas.
+                jdbcTemplate.query(LOCK_ACCOUNTS_SQL, rs -> {
+                }, (Object) missing.stream().map(Map.Entry::getKey).toArray(String[]::new));
+                return applyDeltas(shard, missing).stream().map(Map.Entry::getKey).toList();
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to flush follow count deltas of {} accounts, will retry", entries.size(), e);
+            Map<String, List<FollowCountDelta>> failed = new HashMap<>();
+            entries.forEach(entry -> failed.put(entry.getKey(), entry.getValue()));
+            deltaBuffer.restore(failed);
+            return 0;
+        }
+        if (dropped != null && !dropped.isEmpty()) {
+            log.debug("Dropped the follow count deltas of {} accounts without counter row", dropped.size());
+        }
+        log.debug("Flushed follow count deltas of {} accounts", entries.size());
+        return entries.size();
+    }
+
+    /**
+     * Apply the deltas as JDBC batches, one statement per account.
+     * @return the entries of the accounts which have no counter row
+     */
+    private List<Map.Entry<String, List<FollowCountDelta>>> applyDeltas(int shard, List<Map.Entry<String, List<FollowCountDelta>>> entries) {
+        int[][] updated = jdbcTemplate.batchUpdate(APPLY_DELTAS_SQL, entries, countConfig.getFlushBatchSize(), (ps, entry) -> {
+            // Recorded on another shard, e.g. before the bucket of the account moved: the transaction IDs of another
+            // database, and follows the seed of the row on this shard counted
+            List<FollowCountDelta> deltas = entry.getValue().stream().filter(delta -> delta.shard() == shard).toList();
+            ps.setArray(1, array(ps, deltas.stream().map(FollowCountDelta::transactionId).toArray()));
+            ps.setArray(2, array(ps, deltas.stream().map(FollowCountDelta::followers).toArray()));
+            ps.setArray(3, array(ps, deltas.stream().map(FollowCountDelta::followings).toArray()));
+            ps.setString(4, entry.getKey());
+        });
+        List<Map.Entry<String, List<FollowCountDelta>>> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int rows : batch) {
+                if (rows == 0) {
+                    missing.add(entries.get(index));
+                }
+                index++;
+            }
+        }
+        return missing;
+    }
+
+    private static Array array(PreparedStatement ps, Object[] values) throws java.sql.SQLException {
+        return ps.getConnection().createArrayOf("bigint", values);
+    }
+
+    private Counted loadOrSeed(String accountId) {
+        return find(accountId).orElseGet(() -> {
+            // Seeded and read back on the primary, the replica may not have the row yet
+            return seedTransaction.execute(status -> {
+                seed(accountId);
+                return find(accountId).orElseThrow();
+            });
+        });
+    }
+
+    private Optional<Counted> find(String accountId) {
+        return jdbcTemplate.query(FIND_SQL, COUNTED_ROW_MAPPER, accountId).stream().findFirst();
+    }
+
+    /**
+     * Count a missing counter row from the `follows` table, with the snapshot it was counted at.
+     * Must run in a transaction: the lock on the account is held until it commits.
+     */
+    private void seed(String accountId) {
+        jdbcTemplate.query(LOCK_ACCOUNTS_SQL, rs -> {
+        }, (Object) new String[]{accountId});
+        jdbcTemplate.update(SEED_SQL, accountId, accountId, accountId);
+    }
+
+    /**
+     * The pending deltas of an account the snapshot of its counter row does not include.
+     */
+    private FollowCountDelta notCounted(String accountId, CountedSnapshot snapshot) {
+        int shard = currentShard();
+        FollowCountDelta sum = new FollowCountDelta(shard, FollowCountDelta.NO_TRANSACTION, 0, 0);
+        for (FollowCountDelta delta : deltaBuffer.pending(accountId)) {
+            if (delta.shard() == shard && (snapshot == null || !snapshot.includes(delta.transactionId()))) {
+                sum = new FollowCountDelta(shard, FollowCountDelta.NO_TRANSACTION,
+                        sum.followers() + delta.followers(), sum.followings() + delta.followings());
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Record the change of the follows from one follower to many followees written by the current transaction,
+     * for the accounts whose counter row is stored on its shard.
+     * @param follower whether the following count of the follower changes too
+     */
+    private void record(String followerId, Collection<String> followeeIds, int sign, boolean follower) {
+        if (followeeIds.isEmpty()) {
+            return;
+        }
+        int shard = currentShard();
+        List<String> followees = onCurrentShard(followeeIds);
+        boolean followerHere = follower && isOnCurrentShard(followerId);
+        if (followees.isEmpty() && !followerHere) {
+            return;
+        }
+        long transactionId = currentTransactionId();
+        TransactionCallbacks.afterCommit(() -> {
+            followees.forEach(followeeId -> deltaBuffer.add(followeeId, new FollowCountDelta(shard, transactionId, sign, 0)));
+            if (followerHere) {
+                deltaBuffer.add(followerId, new FollowCountDelta(shard, transactionId, 0, (long) sign * followeeIds.size()));
+            }
+        });
+    }
+
+    /**
+     * The ID of the current transaction, which wrote the follows: returned by the writes of `FollowBatchRepository`,
+     * queried after the others.
+     */
+    private long currentTransactionId() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return FollowCountDelta.NO_TRANSACTION;
+        }
+        Long bound = TransactionIds.current();
+        return bound != null ? bound : Objects.requireNonNull(jdbcTemplate.queryForObject(CURRENT_TRANSACTION_SQL, Long.class));
+    }
+
+    private int currentShard() {
+        return Objects.requireNonNullElse(ShardContext.current(), 0);
+    }
+
+    private boolean isOnCurrentShard(String accountId) {
+        return !shardRouter.isSharded() || shardRouter.shardOf(accountId) == currentShard();
+    }
+
+    /**
+     * The accounts, sorted, whose counter row is stored on the shard of the current transaction.
+     */
+    private List<String> onCurrentShard(Collection<String> accountIds) {
+        return accountIds.stream()
+                .filter(this::isOnCurrentShard)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * A counter row, with the snapshot it was last counted at.
+     */
+    private record Counted(long followers, long followings, CountedSnapshot snapshot) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.fp.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowRepository;
+import com.fp.service.FollowExportService;
+import com.fp.shard.ShardKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+@Service
+@Slf4j
+public class FollowExportServiceImpl implements FollowExportService {
+    private final FollowRepository followRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public FollowExportServiceImpl(FollowRepository followRepository, ObjectMapper objectMapper, FollowProperties followProperties) {
+        this.followRepository = followRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = followProperties.getExport().getFetchSize();
+    }
+
+    /**
+     * Read-only transaction: required for the PostgreSQL server-side cursor behind the fetch size.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @ShardKey("#accountId")
+    public void exportFollowers(String accountId, OutputStream outputStream) {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // The servlet container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are terminated explicitly instead of the default ' ' between root values
+            generator.setRootValueSeparator(null);
+            NdjsonWriter writer = new NdjsonWriter(generator, fetchSize);
+            followRepository.streamFollowers(accountId, fetchSize, writer);
+            generator.flush();
+            log.debug("Exported {} followers of account {}", writer.rows, accountId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes one JSON object per line and flushes once per fetched batch,
+     * so the client receives the rows at the pace they are read.
+     */
+    private static final class NdjsonWriter implements Consumer<FollowResponseDTO> {
+        private final JsonGenerator generator;
+        private final int flushEvery;
+        private long rows;
+
+        private NdjsonWriter(JsonGenerator generator, int flushEvery) {
+            this.generator = generator;
+            this.flushEvery = flushEvery;
+        }
+
+        @Override
+        public void accept(FollowResponseDTO follow) {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("followeeId", follow.getFolloweeId());
+                generator.writeStringField("followerId", follow.getFollowerId());
+                generator.writeStringField("createdAt", follow.getCreatedAt().toString());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++rows % flushEvery == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                // Client went away: abort the query, which releases the cursor and the connection
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.fp.service.impl;
+
+import com.fp.dto.common.PageResponseDTO;
+import com.fp.dto.follow.request.FollowPaginationRequestDTO;
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.strategy.FollowQueryRequest;
+import com.fp.util.CursorCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+///
+/// Turns a follower / following page request into a keyset `FollowQueryRequest`, and the fetched rows into a page
+/// with its opaque next cursor. Shared by the blocking and the reactive follow services.
+///
+/// The mutual follow pages are ordered by account ID alone: their cursors carry the last ID at a fixed timestamp.
+///
+@Component
+@RequiredArgsConstructor
+public class FollowPageAssembler {
+    private final CursorCodec cursorCodec;
+
+    /**
+     * Build query request for strategy pattern.
+     */
+    public FollowQueryRequest toQueryRequest(FollowPaginationRequestDTO followPaginationRequestDTO) {
+        boolean isFirstPage = followPaginationRequestDTO.getCursor() == null || followPaginationRequestDTO.getCursor().isBlank();
+        var builder = FollowQueryRequest.builder()
+                .accountId(followPaginationRequestDTO.getAccountId())
+                .queryType(followPaginationRequestDTO.getQueryType())
+                .isDescending("desc".equalsIgnoreCase(followPaginationRequestDTO.getOrder()))
+                .isFirstPage(isFirstPage)
+                .pageable(PageRequest.of(0, followPaginationRequestDTO.getLimit()));
+        if (!isFirstPage) {
+            CursorCodec.Cursor cursor = cursorCodec.decode(followPaginationRequestDTO.getCursor());
+            builder.cursorId(cursor.id())
+                    .cursorTimestamp(cursor.timestamp());
+        }
+
+        return builder.build();
+
+    }
+
+    public PageResponseDTO<FollowResponseDTO> toPageResponse(List<FollowResponseDTO> follows, Integer limit, QueryType queryType) {
+        //1. The rows are already projected into FollowResponseDTO by the repository, no mapping needed
+        //2. Check if there are more followers
+        boolean hasMore = follows.size() == limit;
+        //3. Get next cursor
+        String nextCursor = buildNextCursor(follows, queryType, hasMore);
+        //4. Seal the response
+        return PageResponseDTO.<FollowResponseDTO>builder()
+                .limit(limit)
+                .data(follows)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * The account ID a mutual follow page starts after, the empty string for the first page.
+     */
+    public String toMutualFollowAfterId(String cursor) {
+        return cursor == null || cursor.isBlank() ? "" : cursorCodec.decode(cursor).id();
+    }
+
+    public PageResponseDTO<String> toMutualFollowPageResponse(List<String> accountIds, Integer limit) {
+        boolean hasMore = accountIds.size() == limit;
+        return PageResponseDTO.<String>builder()
+                .limit(limit)
+                .data(accountIds)
+                .nextCursor(hasMore && !accountIds.isEmpty() ? cursorCodec.encode(Instant.EPOCH, accountIds.get(accountIds.size() - 1)) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private String buildNextCursor(List<FollowResponseDTO> follows, QueryType queryType, boolean hasMore) {
+        String nextCursor = null;
+        if(hasMore && !follows.isEmpty()){
+            FollowResponseDTO lastOne = follows.get(follows.size() - 1);
+            // Build the next cursor based on the last timestamp and follower or followee ID depending on the query type
+            nextCursor = switch (queryType){
+                case FOLLOWERS -> cursorCodec.encode(lastOne.getCreatedAt(), lastOne.getFollowerId());
+                case FOLLOWINGS -> cursorCodec.encode(lastOne.getCreatedAt(), lastOne.getFolloweeId());
+            };
+        }
+        return nextCursor;
+    }
+}
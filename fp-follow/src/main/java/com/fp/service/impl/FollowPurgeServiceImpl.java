@@ -0,0 +1,352 @@
+package com.fp.service.impl;
+
+import com.fp.cache.FollowPageCache;
+import com.fp.cache.RecommendationCache;
+import com.fp.cache.RelationshipStatusCache;
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.response.FollowPurgeStatusDTO;
+import com.fp.dto.follow.response.FollowPurgeStatusDTO.Status;
+import com.fp.dynamodb.repository.AccountDeletionRepository;
+import com.fp.entity.AccountDeletion;
+import com.fp.entity.FollowPurge;
+import com.fp.entity.FollowPurge.Phase;
+import com.fp.exception.business.AccountNotDeletedException;
+import com.fp.exception.business.FollowPurgeNotFoundException;
+import com.fp.graph.FollowGraphIndex;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowPurgeRepository;
+import com.fp.repository.FollowTables;
+import com.fp.service.FollowCountService;
+import com.fp.service.FollowPurgeService;
+import com.fp.service.FollowerGrowthService;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class FollowPurgeServiceImpl implements FollowPurgeService {
+
+    // The "C" collation keeps the keyset order equal to String.compareTo, see db/follows_intersection_indexes.sql
+    private static final String DELETE_FOLLOWINGS_SQL = """
+            DELETE FROM follows
+            WHERE follower_id = ?
+              AND followee_id IN (SELECT followee_id FROM %s
+                                  WHERE follower_id = ? AND followee_id COLLATE "C" > ?
+                                  ORDER BY followee_id COLLATE "C"
+                                  LIMIT ?)
+            RETURNING followee_id
+            """;
+
+    private static final String DELETE_FOLLOWERS_SQL = """
+            DELETE FROM follows
+            WHERE followee_id = ?
+              AND follower_id IN (SELECT follower_id FROM %s
+                                  WHERE followee_id = ? AND follower_id COLLATE "C" > ?
+                                  ORDER BY follower_id COLLATE "C"
+                                  LIMIT ?)
+            RETURNING follower_id
+            """;
+
+    private final FollowPurgeRepository followPurgeRepository;
+    private final AccountDeletionRepository accountDeletionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FollowProperties.PurgeConfig purgeConfig;
+    private final ShardRouter shardRouter;
+    private final FollowCountService followCountService;
+    private final FollowerGrowthService followerGrowthService;
+    private final FollowPageCache followPageCache;
+    private final RelationshipStatusCache relationshipStatusCache;
+    private final RecommendationCache recommendationCache;
+    private final FollowGraphIndex followGraphIndex;
+    private final String deleteFollowingsSql;
+    private final String deleteFollowersSql;
+
+    private final Counter deletedRows;
+
+    public FollowPurgeServiceImpl(FollowPurgeRepository followPurgeRepository,
+                                  AccountDeletionRepository accountDeletionRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  FollowProperties followProperties,
+                                  FollowTables followTables,
+                                  ShardRouter shardRouter,
+                                  FollowCountService followCountService,
+                                  FollowerGrowthService followerGrowthService,
+                                  FollowPageCache followPageCache,
+                                  RelationshipStatusCache relationshipStatusCache,
+                                  RecommendationCache recommendationCache,
+                                  FollowGraphIndex followGraphIndex,
+                                  MeterRegistry meterRegistry) {
+        this.followPurgeRepository = followPurgeRepository;
+        this.accountDeletionRepository = accountDeletionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.purgeConfig = followProperties.getPurge();
+        this.shardRouter = shardRouter;
+        this.followCountService = followCountService;
+        this.followerGrowthService = followerGrowthService;
+        this.followPageCache = followPageCache;
+        this.relationshipStatusCache = relationshipStatusCache;
+        this.recommendationCache = recommendationCache;
+        this.followGraphIndex = followGraphIndex;
+        this.deleteFollowingsSql = DELETE_FOLLOWINGS_SQL.formatted(followTables.tableFor(QueryType.FOLLOWINGS));
+        this.deleteFollowersSql = DELETE_FOLLOWERS_SQL.formatted(followTables.tableFor(QueryType.FOLLOWERS));
+        this.deletedRows = Counter.builder("fp.follow.purge.deleted.rows").register(meterRegistry);
+    }
+
+    /**
+     * The account service records the deletion with the account's: without it the account is live, or its purge was
+     * already recorded by the poll, which is then found by its status.
+     */
+    @Override
+    public FollowPurgeStatusDTO requestPurge(String accountId) {
+        if (accountDeletionRepository.findByAccountId(accountId).isEmpty()) {
+            return ShardContext.call(shardRouter.shardOf(accountId), () -> followPurgeRepository.findById(accountId))
+                    .map(purge -> getPurgeStatus(accountId))
+                    .orElseThrow(AccountNotDeletedException::new);
+        }
+        recordPurge(accountId);
+        return getPurgeStatus(accountId);
+    }
+
+    @Override
+    public int requestDeletedAccountPurges() {
+        int requested = 0;
+        for (AccountDeletion deletion : accountDeletionRepository.scanDeletions().toList()) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            try {
+                recordPurge(deletion.getAccountId());
+                // Only once recorded on every shard: a failure leaves the deletion for the next poll
+                accountDeletionRepository.remove(deletion.getAccountId());
+                requested++;
+            } catch (RuntimeException e) {
+                log.error("Failed to record the follow purge of deleted account {}, will retry", deletion.getAccountId(), e);
+            }
+        }
+        return requested;
+    }
+
+    /**
+     * When sharded, an edge is stored on the shards of both its accounts: the purge is recorded and run on every shard.
+     */
+    private void recordPurge(String accountId) {
+        for (int shard : shardRouter.shards()) {
+            ShardContext.run(shard, () -> followPurgeRepository.request(accountId));
+        }
+    }
+
+    /**
+     * The deleted counts are those of the account's own shard, which holds every edge of the account once.
+     */
+    @Override
+    public FollowPurgeStatusDTO getPurgeStatus(String accountId) {
+        FollowPurge home = ShardContext.call(shardRouter.shardOf(accountId), () -> followPurgeRepository.findById(accountId))
+                .orElseThrow(FollowPurgeNotFoundException::new);
+        List<FollowPurge> purges = new ArrayList<>();
+        purges.add(home);
+        for (int shard : shardRouter.shards()) {
+            if (shard != shardRouter.shardOf(accountId)) {
+                ShardContext.call(shard, () -> followPurgeRepository.findById(accountId)).ifPresent(purges::add);
+            }
+        }
+        Optional<FollowPurge> pending = purges.stream().filter(purge -> purge.getPhase() != Phase.DONE).findFirst();
+        return FollowPurgeStatusDTO.builder()
+                .accountId(accountId)
+                .status(pending.map(purge -> purge.getPhase() == Phase.FOLLOWINGS ? Status.PURGING_FOLLOWINGS : Status.PURGING_FOLLOWERS)
+                        .orElse(Status.COMPLETED))
+                .followingsDeleted(home.getFollowingsDeleted())
+                .followersDeleted(home.getFollowersDeleted())
+                .requestedAt(home.getRequestedAt())
+                .completedAt(pending.isPresent() ? null
+                        : purges.stream().map(FollowPurge::getCompletedAt).max(Instant::compareTo).orElse(null))
+                .build();
+    }
+
+    @Override
+    public int purgePending() {
+        int completed = 0;
+        for (int shard : shardRouter.shards()) {
+            completed += ShardContext.call(shard, () -> purgeShard(shard));
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        return completed;
+    }
+
+    private int purgeShard(int shard) {
+        int completed = 0;
+        Optional<String> accountId;
+        while (!Thread.currentThread().isInterrupted()) {
+            String owner = UUID.randomUUID().toString();
+            try {
+                accountId = transactionTemplate.execute(status -> claim(owner));
+            } catch (RuntimeException e) {
+                log.error("Failed to claim a pending follow purge on shard {}", shard, e);
+                return completed;
+            }
+            if (accountId == null || accountId.isEmpty()) {
+                return completed;
+            }
+            try {
+                if (purge(accountId.get(), owner, shard)) {
+                    completed++;
+                }
+            } catch (RuntimeException e) {
+                // The lease expires and the purge resumes from its last committed chunk
+                log.error("Follow purge of account {} failed on shard {}, will resume", accountId.get(), shard, e);
+            }
+        }
+        return completed;
+    }
+
+    private Optional<String> claim(String owner) {
+        return followPurgeRepository.lockNextUnclaimed().map(accountId -> {
+            FollowPurge purge = followPurgeRepository.findById(accountId).orElseThrow();
+            purge.setLeaseOwner(owner);
+            purge.setLeaseUntil(Instant.now().plus(purgeConfig.getLease()));
+            followPurgeRepository.save(purge);
+            return accountId;
+        });
+    }
+
+    /**
+     * Delete the edges of the account, chunk by chunk, at most `maxRowsPerSecond`.
+     * @return whether the purge completed, false when interrupted or when the lease was lost
+     */
+    private boolean purge(String accountId, String owner, int shard) {
+        // Only the account's own shard holds every edge once: the caches follow its deletions
+        boolean home = shardRouter.shardOf(accountId) == shard;
+        long started = System.currentTimeMillis();
+        while (true) {
+            long chunkStart = System.nanoTime();
+            Chunk chunk = transactionTemplate.execute(status -> deleteChunk(accountId, owner, home));
+            if (chunk == null) {
+                log.warn("Follow purge of account {} on shard {} was taken over by another instance", accountId, shard);
+                return false;
+            }
+            deletedRows.increment(chunk.rows());
+            if (chunk.done()) {
+                log.info("Purged the follows of account {} on shard {} in {} ms", accountId, shard, System.currentTimeMillis() - started);
+                return true;
+            }
+            if (!throttle(chunk.rows(), System.nanoTime() - chunkStart)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Delete the next chunk of the current phase and commit the progress with it.
+     * @return null when the lease is no longer held
+     */
+    private Chunk deleteChunk(String accountId, String owner, boolean home) {
+        FollowPurge purge = followPurgeRepository.findForUpdate(accountId).orElse(null);
+        if (purge == null || !owner.equals(purge.getLeaseOwner())) {
+            return null;
+        }
+        String after = purge.getLastCounterpart() == null ? "" : purge.getLastCounterpart();
+        List<String> deleted = switch (purge.getPhase()) {
+            case FOLLOWINGS -> deleteFollowings(accountId, after, home);
+            case FOLLOWERS -> deleteFollowers(accountId, after, home);
+            case DONE -> List.of();
+        };
+        if (purge.getPhase() == Phase.FOLLOWINGS) {
+            purge.setFollowingsDeleted(purge.getFollowingsDeleted() + deleted.size());
+        } else if (purge.getPhase() == Phase.FOLLOWERS) {
+            purge.setFollowersDeleted(purge.getFollowersDeleted() + deleted.size());
+        }
+
+        Instant now = Instant.now();
+        if (deleted.size() < purgeConfig.getChunkSize()) {
+            purge.setPhase(purge.getPhase() == Phase.FOLLOWINGS ? Phase.FOLLOWERS : Phase.DONE);
+            purge.setLastCounterpart(null);
+        } else {
+            // RETURNING comes in no particular order
+            purge.setLastCounterpart(Collections.max(deleted));
+        }
+        if (purge.getPhase() == Phase.DONE) {
+            purge.setCompletedAt(now);
+            purge.setLeaseOwner(null);
+            purge.setLeaseUntil(null);
+            if (home) {
+                followCountService.forget(accountId);
+                followerGrowthService.forget(accountId);
+                recommendationCache.invalidate(accountId);
+            }
+        } else {
+            purge.setLeaseUntil(now.plus(purgeConfig.getLease()));
+        }
+        purge.setUpdatedAt(now);
+        followPurgeRepository.save(purge);
+        return new Chunk(deleted.size(), purge.getPhase() == Phase.DONE);
+    }
+
+    private List<String> deleteFollowings(String accountId, String after, boolean home) {
+        List<String> followeeIds = jdbcTemplate.queryForList(deleteFollowingsSql, String.class,
+                accountId, accountId, after, purgeConfig.getChunkSize());
+        // Every shard records the followees whose counter row it stores, the follows it deleted are those they count
+        followCountService.recordPurgedFollowings(accountId, followeeIds);
+        if (home && !followeeIds.isEmpty()) {
+            followerGrowthService.recordUnfollowAll(accountId, followeeIds);
+            followPageCache.invalidateFollowAll(accountId, followeeIds);
+            relationshipStatusCache.invalidate(accountId, followeeIds);
+            followGraphIndex.recordUnfollowAll(accountId, followeeIds);
+        }
+        return followeeIds;
+    }
+
+    private List<String> deleteFollowers(String accountId, String after, boolean home) {
+        List<String> followerIds = jdbcTemplate.queryForList(deleteFollowersSql, String.class,
+                accountId, accountId, after, purgeConfig.getChunkSize());
+        // The deleted account loses its followers with its counters, only the followers' side is recorded
+        followCountService.recordPurgedFollowers(accountId, followerIds);
+        if (home && !followerIds.isEmpty()) {
+            relationshipStatusCache.invalidate(accountId, followerIds);
+            for (String followerId : followerIds) {
+                followPageCache.invalidateFollow(followerId, accountId);
+                followGraphIndex.recordUnfollow(followerId, accountId);
+                recommendationCache.invalidate(followerId);
+            }
+        }
+        return followerIds;
+    }
+
+    /**
+     * Pause so the rows deleted by the chunk stay within `maxRowsPerSecond`.
+     * @return false when interrupted, e.g. on shutdown
+     */
+    private boolean throttle(int rows, long elapsedNanos) {
+        long budgetNanos = rows * 1_000_000_000L / purgeConfig.getMaxRowsPerSecond();
+        long pauseMillis = (budgetNanos - elapsedNanos) / 1_000_000;
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Chunk(int rows, boolean done) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.fp.service.impl;
+
+import com.fp.cache.RecommendationCache;
+import com.fp.dto.follow.request.ListRecommendationsRequestDTO;
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+import com.fp.graph.FollowGraphIndex;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowRepository;
+import com.fp.service.FollowRecommendationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+@Service
+public class FollowRecommendationServiceImpl implements FollowRecommendationService {
+    private final FollowRepository followRepository;
+    private final FollowGraphIndex followGraphIndex;
+    private final RecommendationCache recommendationCache;
+    private final ForkJoinPool recommendationPool;
+    private final FollowProperties.RecommendationConfig config;
+
+    private final Timer graphTimer;
+    private final Timer databaseTimer;
+
+    public FollowRecommendationServiceImpl(FollowRepository followRepository,
+                                           FollowGraphIndex followGraphIndex,
+                                           RecommendationCache recommendationCache,
+                                           @Qualifier("followRecommendationPool") ForkJoinPool recommendationPool,
+                                           FollowProperties followProperties,
+                                           MeterRegistry meterRegistry) {
+        this.followRepository = followRepository;
+        this.followGraphIndex = followGraphIndex;
+        this.recommendationCache = recommendationCache;
+        this.recommendationPool = recommendationPool;
+        this.config = followProperties.getRecommendation();
+        this.graphTimer = Timer.builder("fp.follow.recommendation.compute").tag("source", "graph").register(meterRegistry);
+        this.databaseTimer = Timer.builder("fp.follow.recommendation.compute").tag("source", "database").register(meterRegistry);
+    }
+
+    /**
+     * Computed over the in-memory follow graph when it is loaded, by a single aggregation query otherwise.
+     */
+    @Override
+    public List<RecommendedAccountDTO> listRecommendations(ListRecommendationsRequestDTO listRecommendationsRequestDTO) {
+        var viewerId = listRecommendationsRequestDTO.getAccountId();
+        int limit = listRecommendationsRequestDTO.getLimit();
+        boolean recency = Boolean.TRUE.equals(listRecommendationsRequestDTO.getRecency());
+        Duration halfLife = recency ? config.getRecencyHalfLife() : null;
+        return recommendationCache.get(viewerId, limit, recency, () -> followGraphIndex.isReady()
+                ? graphTimer.record(() -> followGraphIndex.recommend(viewerId, limit, halfLife, recommendationPool))
+                : databaseTimer.record(() -> followRepository.findFriendsOfFriends(viewerId, limit, halfLife)));
+    }
+}
@@ -1,41 +1,72 @@
 package com.fp.service.impl;
 
-import com.fp.constant.PageConstant;
+import com.fp.cache.FollowPageCache;
+import com.fp.cache.RecommendationCache;
+import com.fp.cache.RelationshipStatusCache;
 import com.fp.dto.common.PageResponseDTO;
 import com.fp.dto.follow.request.*;
 import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.response.BatchFollowResponseDTO;
+import com.fp.dto.follow.response.BatchFollowResponseDTO.Status;
 import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.dto.follow.response.RelationshipStatusResponseDTO;
 import com.fp.exception.business.DuplicatedFollowException;
 import com.fp.exception.business.FollowRelationshipNotFoundException;
-import com.fp.exception.business.IllegalPageableCursorException;
 import com.fp.exception.business.SelfFollowNotAllowedException;
-import com.fp.entity.Follow;
+import com.fp.graph.FollowGraphIndex;
+import com.fp.replica.ReadYourWritesTracker;
 import com.fp.repository.FollowRepository;
+import com.fp.service.FollowCountService;
 import com.fp.service.FollowService;
+import com.fp.service.FollowerGrowthService;
+import com.fp.shard.FollowShardWriter;
+import com.fp.shard.ShardKey;
 import com.fp.strategy.FollowQueryRequest;
-import com.fp.strategy.FollowQueryStrategyContext;
+import com.fp.strategy.MutualFollowRequest;
+import com.fp.strategy.MutualFollowStrategyContext;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.tuple.Pair;
-import org.springframework.beans.BeanUtils;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class FollowServiceImpl implements FollowService {
     private final FollowRepository followRepository;
 
-    private final FollowQueryStrategyContext queryStrategyContext;
+    private final FollowCountService followCountService;
+
+    private final FollowerGrowthService followerGrowthService;
+
+    private final FollowPageAssembler followPageAssembler;
+
+    private final FollowPageCache followPageCache;
+
+    private final RelationshipStatusCache relationshipStatusCache;
+
+    private final MutualFollowStrategyContext mutualFollowStrategyContext;
+
+    private final FollowGraphIndex followGraphIndex;
+
+    private final RecommendationCache recommendationCache;
+
+    private final FollowShardWriter followShardWriter;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
 
     /**
      * Get the number of followers for a specific account.
      * The current accountId is the followee ID.
+     * <p>
+     * Served from the materialized follow_counts row instead of counting the follows table.
      *
      * @param accountId
      * @return the number of followers for the account
@@ -44,46 +75,183 @@ public class FollowServiceImpl implements FollowService {
     public Long getFollowerCount(String accountId) {
         //Get the number of people following this account
         //followeeId = accountId
-        return followRepository.countFollowByFolloweeId(accountId);
+        return followCountService.getFollowerCount(accountId);
+    }
+
+    /**
+     * Get the number of accounts a specific account is following.
+     * The current accountId is the follower ID.
+     */
+    @Override
+    public Long getFollowingCount(String accountId) {
+        return followCountService.getFollowingCount(accountId);
     }
 
     @Override
+    @Transactional
+    @ShardKey("#followRequestDTO.accountId")
     public void follow(FollowRequestDTO followRequestDTO) {
         var followeeId = followRequestDTO.getFolloweeId();
         var followerId = followRequestDTO.getAccountId();
         if (followerId.equals(followeeId)) {
             throw new SelfFollowNotAllowedException();
         }
-        // Check if the follow relationship already exists
-        Optional<Follow> optional = followRepository.findByFollowerIdAndFolloweeId(followerId, followeeId);
-        if (optional.isEmpty()) {
-            //create a new follow relationship
-            Follow follow = Follow.builder()
-                    .followerId(followerId)
-                    .followeeId(followeeId)
-                    .createdAt(Instant.now())
-                    .build();
-            followRepository.save(follow);
-        } else {
+        // Single round trip: the affected row count tells whether the relationship already existed
+        Instant now = Instant.now();
+        int inserted = followRepository.insertIfAbsent(followerId, followeeId, now);
+        if (inserted == 0) {
             throw new DuplicatedFollowException();
         }
+        followShardWriter.mirror(followerId, List.of(followeeId));
+        readYourWritesTracker.recordWrite(followerId, List.of(followeeId));
+        followCountService.recordFollow(followerId, followeeId);
+        followerGrowthService.recordFollow(followerId, followeeId);
+        followPageCache.invalidateFollow(followerId, followeeId);
+        relationshipStatusCache.invalidate(followerId, List.of(followeeId));
+        followGraphIndex.recordFollow(followerId, followeeId);
+        recommendationCache.invalidate(followerId);
     }
 
     @Override
+    @Transactional
+    @ShardKey("#unfollowRequestDTO.accountId")
     public void unfollow(UnfollowRequestDTO unfollowRequestDTO) {
         var followeeId = unfollowRequestDTO.getFolloweeId();
         var followerId = unfollowRequestDTO.getAccountId();
-        // Check if the follow relationship exists
-        Optional<Follow> optional = followRepository.findByFollowerIdAndFolloweeId(followerId, followeeId);
-        if (optional.isPresent()) {
-            //delete the follow relationship
-            followRepository.delete(optional.get());
-        } else {
+        // Single round trip: the affected row count tells whether the relationship existed
+        int deleted = followRepository.deleteIfPresent(followerId, followeeId);
+        if (deleted == 0) {
             throw new FollowRelationshipNotFoundException();
         }
+        followShardWriter.mirror(followerId, List.of(followeeId));
+        readYourWritesTracker.recordWrite(followerId, List.of(followeeId));
+        followCountService.recordUnfollow(followerId, followeeId);
+        followerGrowthService.recordUnfollow(followerId, followeeId);
+        followPageCache.invalidateFollow(followerId, followeeId);
+        relationshipStatusCache.invalidate(followerId, List.of(followeeId));
+        followGraphIndex.recordUnfollow(followerId, followeeId);
+        recommendationCache.invalidate(followerId);
     }
 
     @Override
+    @Transactional
+    @ShardKey("#batchFollowRequestDTO.accountId")
+    public BatchFollowResponseDTO followAll(BatchFollowRequestDTO batchFollowRequestDTO) {
+        var followerId = batchFollowRequestDTO.getAccountId();
+        Set<String> followeeIds = new LinkedHashSet<>(batchFollowRequestDTO.getFolloweeIds());
+        boolean selfFollow = followeeIds.remove(followerId);
+        // One multi-row INSERT ... ON CONFLICT DO NOTHING RETURNING for the whole batch
+        Instant now = Instant.now();
+        Set<String> followed = followeeIds.isEmpty()
+                ? Set.of()
+                : followRepository.insertAllIfAbsent(followerId, followeeIds, now);
+        followShardWriter.mirror(followerId, followed);
+        readYourWritesTracker.recordWrite(followerId, followed);
+        followCountService.recordFollowAll(followerId, followed);
+        followerGrowthService.recordFollowAll(followerId, followed);
+        followPageCache.invalidateFollowAll(followerId, followed);
+        relationshipStatusCache.invalidate(followerId, followed);
+        followGraphIndex.recordFollowAll(followerId, followed);
+        recommendationCache.invalidate(followerId);
+
+        List<BatchFollowResponseDTO.ItemResult> results = batchFollowRequestDTO.getFolloweeIds().stream()
+                .distinct()
+                .map(followeeId -> new BatchFollowResponseDTO.ItemResult(followeeId,
+                        selfFollow && followeeId.equals(followerId) ? Status.SELF_FOLLOW_NOT_ALLOWED
+                                : followed.contains(followeeId) ? Status.FOLLOWED
+                                : Status.ALREADY_FOLLOWING))
+                .toList();
+        return new BatchFollowResponseDTO(followed.size(), results);
+    }
+
+    @Override
+    @Transactional
+    @ShardKey("#batchUnfollowRequestDTO.accountId")
+    public BatchFollowResponseDTO unfollowAll(BatchFollowRequestDTO batchUnfollowRequestDTO) {
+        var followerId = batchUnfollowRequestDTO.getAccountId();
+        Set<String> followeeIds = new LinkedHashSet<>(batchUnfollowRequestDTO.getFolloweeIds());
+        // One multi-row DELETE ... RETURNING for the whole batch
+        Set<String> unfollowed = followRepository.deleteAllIfPresent(followerId, followeeIds);
+        followShardWriter.mirror(followerId, unfollowed);
+        readYourWritesTracker.recordWrite(followerId, unfollowed);
+        followCountService.recordUnfollowAll(followerId, unfollowed);
+        followerGrowthService.recordUnfollowAll(followerId, unfollowed);
+        followPageCache.invalidateFollowAll(followerId, unfollowed);
+        relationshipStatusCache.invalidate(followerId, unfollowed);
+        followGraphIndex.recordUnfollowAll(followerId, unfollowed);
+        recommendationCache.invalidate(followerId);
+
+        List<BatchFollowResponseDTO.ItemResult> results = followeeIds.stream()
+                .map(followeeId -> new BatchFollowResponseDTO.ItemResult(followeeId,
+                        unfollowed.contains(followeeId) ? Status.UNFOLLOWED : Status.NOT_FOLLOWING))
+                .toList();
+        return new BatchFollowResponseDTO(unfollowed.size(), results);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ShardKey("#relationshipStatusRequestDTO.viewerId")
+    public RelationshipStatusResponseDTO getRelationships(RelationshipStatusRequestDTO relationshipStatusRequestDTO) {
+        var viewerId = relationshipStatusRequestDTO.getViewerId();
+        List<String> targetIds = relationshipStatusRequestDTO.getTargetIds();
+        RelationshipStatusCache.Lookup lookup = relationshipStatusCache.lookup(viewerId, targetIds);
+        Map<String, Integer> statuses = lookup.statuses();
+
+        Set<String> missing = new LinkedHashSet<>(targetIds);
+        missing.removeAll(statuses.keySet());
+        if (!missing.isEmpty()) {
+            // Two IN-list lookups for the whole list instead of one query per target and direction. Not the graph
+            // index: it only sees the writes of this instance between its rebuilds, and the answer is cached.
+            Set<String> following = followRepository.findFolloweesAmong(viewerId, missing);
+            Set<String> followedBy = followRepository.findFollowersAmong(viewerId, missing);
+            Map<String, Integer> resolved = new HashMap<>();
+            for (String targetId : missing) {
+                resolved.put(targetId, (following.contains(targetId) ? RelationshipStatusCache.FOLLOWING : 0)
+                        | (followedBy.contains(targetId) ? RelationshipStatusCache.FOLLOWED_BY : 0));
+            }
+            lookup.store(resolved);
+            statuses.putAll(resolved);
+        }
+
+        BitSet following = new BitSet(targetIds.size());
+        BitSet followedBy = new BitSet(targetIds.size());
+        for (int i = 0; i < targetIds.size(); i++) {
+            int status = statuses.get(targetIds.get(i));
+            following.set(i, (status & RelationshipStatusCache.FOLLOWING) != 0);
+            followedBy.set(i, (status & RelationshipStatusCache.FOLLOWED_BY) != 0);
+        }
+        return RelationshipStatusResponseDTO.builder()
+                .viewerId(viewerId)
+                .targetIds(targetIds)
+                .following(RelationshipStatusResponseDTO.encode(following))
+                .followedBy(RelationshipStatusResponseDTO.encode(followedBy))
+                .build();
+    }
+
+    /**
+     * The sizes of both sides, from the materialized counters, let the strategy context pick
+     * a sorted merge or a probe of the larger side.
+     */
+    @Override
+    public PageResponseDTO<String> listMutualFollows(ListMutualFollowsRequestDTO listMutualFollowsRequestDTO) {
+        var viewerId = listMutualFollowsRequestDTO.getAccountId();
+        var targetId = listMutualFollowsRequestDTO.getTargetId();
+        int limit = listMutualFollowsRequestDTO.getLimit();
+        MutualFollowRequest request = MutualFollowRequest.builder()
+                .viewerId(viewerId)
+                .targetId(targetId)
+                .afterId(followPageAssembler.toMutualFollowAfterId(listMutualFollowsRequestDTO.getCursor()))
+                .limit(limit)
+                .viewerFollowingCount(followCountService.getFollowingCount(viewerId))
+                .targetFollowerCount(followCountService.getFollowerCount(targetId))
+                .build();
+        List<String> accountIds = mutualFollowStrategyContext.executeMutualFollowQuery(request);
+        return followPageAssembler.toMutualFollowPageResponse(accountIds, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ShardKey("#listFollowersRequestDTO.accountId")
     public PageResponseDTO<FollowResponseDTO> listFollowers(ListFollowersRequestDTO listFollowersRequestDTO) {
         var paginationDTO = FollowPaginationRequestDTO.builder()
                 .queryType(QueryType.FOLLOWERS)
@@ -96,6 +264,8 @@ public class FollowServiceImpl implements FollowService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @ShardKey("#listFollowingsRequestDTO.accountId")
     public PageResponseDTO<FollowResponseDTO> listFollowings(ListFollowingsRequestDTO listFollowingsRequestDTO) {
         var paginationDTO = FollowPaginationRequestDTO.builder()
                 .queryType(QueryType.FOLLOWINGS)
@@ -113,84 +283,10 @@ public class FollowServiceImpl implements FollowService {
      */
     private PageResponseDTO<FollowResponseDTO> listFollow(FollowPaginationRequestDTO followPaginationRequestDTO) {
         //1. Build the query request for the strategy pattern
-        FollowQueryRequest followQueryRequest = buildQueryRequest(followPaginationRequestDTO);
-        //2. Use the strategy context to execute the query based on the request
-        List<Follow> follows = queryStrategyContext.executeFollowQuery(followQueryRequest);
+        FollowQueryRequest followQueryRequest = followPageAssembler.toQueryRequest(followPaginationRequestDTO);
+        //2. Serve the leading pages from the page cache, which falls back to the strategy context
+        List<FollowResponseDTO> follows = followPageCache.getPage(followQueryRequest);
         //3. Build the page response from the follows
-        return buildPageResponse(follows, followPaginationRequestDTO.getLimit(), followPaginationRequestDTO.getQueryType());
-    }
-
-    /**
-     * Build query request for strategy pattern.
-     */
-    private FollowQueryRequest buildQueryRequest(FollowPaginationRequestDTO followPaginationRequestDTO) {
-        boolean isFirstPage = followPaginationRequestDTO.getCursor() == null || followPaginationRequestDTO.getCursor().isBlank();
-        var builder = FollowQueryRequest.builder()
-                .accountId(followPaginationRequestDTO.getAccountId())
-                .queryType(followPaginationRequestDTO.getQueryType())
-                .isDescending("desc".equalsIgnoreCase(followPaginationRequestDTO.getOrder()))
-                .isFirstPage(isFirstPage)
-                .pageable(PageRequest.of(0, followPaginationRequestDTO.getLimit()));
-        if (!isFirstPage) {
-            Pair<Instant, String> pair = parseCursor(followPaginationRequestDTO.getCursor());
-            builder.cursorId(pair.getRight())
-                    .cursorTimestamp(pair.getLeft());
-        }
-
-        return builder.build();
-
+        return followPageAssembler.toPageResponse(follows, followPaginationRequestDTO.getLimit(), followPaginationRequestDTO.getQueryType());
     }
-
-    private PageResponseDTO<FollowResponseDTO> buildPageResponse(List<Follow> follows, Integer limit, QueryType queryType) {
-        //1. Map the follows to FollowResponseDTO
-        List<FollowResponseDTO> data = mapToFollowResponseDTOS(follows);
-        //2. Check if there are more followers
-        boolean hasMore = follows.size() == limit;
-        //3. Get next cursor
-        String nextCursor = buildNextCursor(follows, queryType, hasMore);
-        //4. Seal the response
-        return PageResponseDTO.<FollowResponseDTO>builder()
-                .limit(limit)
-                .data(data)
-                .nextCursor(nextCursor)
-                .hasMore(hasMore)
-                .build();
-    }
-
-    private String buildNextCursor(List<Follow> follows, QueryType queryType, boolean hasMore) {
-        String nextCursor = null;
-        if(hasMore && !follows.isEmpty()){
-            Follow lastOne = follows.get(follows.size() - 1);
-            // Build the next cursor based on the last timestamp and follower or followee ID depending on the query type
-            nextCursor = switch (queryType){
-                case FOLLOWERS -> buildCursor(lastOne.getCreatedAt(), lastOne.getFollowerId());
-                case FOLLOWINGS -> buildCursor(lastOne.getCreatedAt(), lastOne.getFolloweeId());
-            };
-        }
-        return nextCursor;
-    }
-
-    private List<FollowResponseDTO> mapToFollowResponseDTOS(List<Follow> follows) {
-        //1. Map the followers to FollowerResponseDTO
-        List<FollowResponseDTO> data = follows.stream()
-                .map(follow -> {
-                    var dto = new FollowResponseDTO();
-                    BeanUtils.copyProperties(follow, dto);
-                    return dto;
-                })
-                .toList();
-        return data;
-    }
-
-    private static String buildCursor(Instant timestamp, String id) {
-        return timestamp.toString() + PageConstant.CURSOR_SEPARATOR + id;
-    }
-    private static Pair<Instant, String> parseCursor(String cursor) {
-        String[] split = cursor.split(PageConstant.CURSOR_SEPARATOR);
-        if (split.length != 2) {
-            throw new IllegalPageableCursorException("Invalid cursor format for list follower page. Expected format: 'timestamp:followerId'");
-        }
-        return Pair.of(Instant.parse(split[0]), split[1]);
-    }
-
 }
@@ -0,0 +1,301 @@
+package com.fp.service.impl;
+
+import com.fp.counter.FollowerGrowthBuffer;
+import com.fp.counter.FollowerGrowthBuffer.Growth;
+import com.fp.counter.FollowerGrowthBuffer.HourKey;
+import com.fp.counter.GrowthBuckets;
+import com.fp.dto.follow.request.FollowerGrowthRequestDTO;
+import com.fp.dto.follow.request.FollowerGrowthRequestDTO.Granularity;
+import com.fp.dto.follow.response.FollowerGrowthDeltaDTO;
+import com.fp.dto.follow.response.FollowerGrowthResponseDTO;
+import com.fp.exception.business.IllegalGrowthRangeException;
+import com.fp.properties.FollowProperties;
+import com.fp.service.FollowerGrowthService;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardKey;
+import com.fp.shard.ShardRouter;
+import com.fp.transaction.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@Slf4j
+public class FollowerGrowthServiceImpl implements FollowerGrowthService {
+
+    // One row per statement, so the rows are locked in the order of the batch
+    private static final String UPSERT_SQL = """
+            INSERT INTO follower_growth_buckets (account_id, granularity, bucket_start, gained, lost)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (account_id, granularity, bucket_start) DO UPDATE
+            SET gained = follower_growth_buckets.gained + EXCLUDED.gained,
+                lost = follower_growth_buckets.lost + EXCLUDED.lost
+            """;
+
+    // Primary key range scans of one account
+    private static final String SERIES_SQL = """
+            SELECT bucket_start, gained, lost
+            FROM follower_growth_buckets
+            WHERE account_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?
+            """;
+
+    private static final String SINCE_SQL = """
+            SELECT coalesce(sum(gained), 0), coalesce(sum(lost), 0)
+            FROM follower_growth_buckets
+            WHERE account_id = ?
+              AND ((granularity = ? AND bucket_start >= ? AND bucket_start < ?)
+                OR (granularity = ? AND bucket_start >= ? AND bucket_start < ?)
+                OR (granularity = ? AND bucket_start >= ? AND bucket_start < ?))
+            """;
+
+    private static final String PRUNE_SQL = "DELETE FROM follower_growth_buckets WHERE granularity = ? AND bucket_start < ?";
+
+    private static final String FORGET_SQL = "DELETE FROM follower_growth_buckets WHERE account_id = ?";
+
+    private static final Duration DEFAULT_DAILY_RANGE = Duration.ofDays(90);
+    private static final Duration DEFAULT_HOURLY_RANGE = Duration.ofHours(48);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FollowProperties.GrowthConfig growthConfig;
+    private final FollowerGrowthBuffer growthBuffer;
+    private final ShardRouter shardRouter;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * The order of the primary key, which the deletions of an account also follow.
+     */
+    private static final Comparator<Bucket> PRIMARY_KEY_ORDER = Comparator.comparing(Bucket::accountId)
+            .thenComparing(bucket -> bucket.granularity().name())
+            .thenComparing(Bucket::start);
+
+    public FollowerGrowthServiceImpl(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     FollowProperties followProperties,
+                                     ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.growthConfig = followProperties.getGrowth();
+        this.growthBuffer = new FollowerGrowthBuffer(growthConfig.getStripes());
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public void recordFollow(String followerId, String followeeId) {
+        TransactionCallbacks.afterCommit(() -> growthBuffer.add(followeeId, currentHour(), 1, 0));
+    }
+
+    @Override
+    public void recordUnfollow(String followerId, String followeeId) {
+        TransactionCallbacks.afterCommit(() -> growthBuffer.add(followeeId, currentHour(), 0, 1));
+    }
+
+    @Override
+    public void recordFollowAll(String followerId, Collection<String> followeeIds) {
+        if (followeeIds.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            Instant hour = currentHour();
+            followeeIds.forEach(followeeId -> growthBuffer.add(followeeId, hour, 1, 0));
+        });
+    }
+
+    @Override
+    public void recordUnfollowAll(String followerId, Collection<String> followeeIds) {
+        if (followeeIds.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            Instant hour = currentHour();
+            followeeIds.forEach(followeeId -> growthBuffer.add(followeeId, hour, 0, 1));
+        });
+    }
+
+    @Override
+    @ShardKey("#followerGrowthRequestDTO.accountId")
+    public FollowerGrowthResponseDTO getFollowerGrowth(FollowerGrowthRequestDTO followerGrowthRequestDTO) {
+        var accountId = followerGrowthRequestDTO.getAccountId();
+        Granularity granularity = followerGrowthRequestDTO.getGranularity();
+        Duration bucketLength = GrowthBuckets.length(granularity);
+        Instant now = Instant.now();
+
+        Instant to = followerGrowthRequestDTO.getTo() == null
+                ? GrowthBuckets.truncate(now, granularity).plus(bucketLength)
+                : GrowthBuckets.truncate(followerGrowthRequestDTO.getTo(), granularity);
+        Instant from = followerGrowthRequestDTO.getFrom() == null
+                ? to.minus(granularity == Granularity.DAY ? DEFAULT_DAILY_RANGE : DEFAULT_HOURLY_RANGE)
+                : GrowthBuckets.truncate(followerGrowthRequestDTO.getFrom(), granularity);
+        if (!from.isBefore(to)) {
+            throw new IllegalGrowthRangeException("The start of the series must be before its end");
+        }
+        long bucketCount = Duration.between(from, to).dividedBy(bucketLength);
+        if (bucketCount > growthConfig.getMaxBuckets()) {
+            throw new IllegalGrowthRangeException("A series cannot exceed " + growthConfig.getMaxBuckets() + " buckets");
+        }
+        Duration retention = granularity == Granularity.DAY ? growthConfig.getDailyRetention() : growthConfig.getHourlyRetention();
+        if (from.isBefore(now.minus(retention))) {
+            throw new IllegalGrowthRangeException(granularity + " buckets are only kept for " + retention.toDays() + " days");
+        }
+
+        Map<Instant, FollowerGrowthResponseDTO.Bucket> stored = new HashMap<>();
+        jdbcTemplate.query(SERIES_SQL, rs -> {
+            Instant start = rs.getTimestamp(1).toInstant();
+            stored.put(start, new FollowerGrowthResponseDTO.Bucket(start, rs.getLong(2), rs.getLong(3)));
+        }, accountId, granularity.name(), Timestamp.from(from), Timestamp.from(to));
+
+        // Dense series: the dashboards plot every bucket, most of them are empty for small accounts
+        List<FollowerGrowthResponseDTO.Bucket> buckets = new ArrayList<>((int) bucketCount);
+        for (Instant start = from; start.isBefore(to); start = start.plus(bucketLength)) {
+            FollowerGrowthResponseDTO.Bucket bucket = stored.get(start);
+            buckets.add(bucket != null ? bucket : new FollowerGrowthResponseDTO.Bucket(start, 0, 0));
+        }
+        return FollowerGrowthResponseDTO.builder()
+                .accountId(accountId)
+                .granularity(granularity)
+                .buckets(buckets)
+                .build();
+    }
+
+    @Override
+    @ShardKey("#accountId")
+    public FollowerGrowthDeltaDTO getFollowerGrowthSince(String accountId, Instant since) {
+        Instant now = Instant.now();
+        if (since.isAfter(now)) {
+            throw new IllegalGrowthRangeException("The start of the delta cannot be in the future");
+        }
+        if (since.isBefore(now.minus(growthConfig.getDailyRetention()))) {
+            throw new IllegalGrowthRangeException("Follower growth is only kept for " + growthConfig.getDailyRetention().toDays() + " days");
+        }
+        List<GrowthBuckets.Range> ranges = new ArrayList<>(GrowthBuckets.since(since, now, now.minus(growthConfig.getHourlyRetention())));
+        Instant start = ranges.get(0).from();
+        while (ranges.size() < 3) {
+            // Empty range filling the unused slot of the statement
+            ranges.add(new GrowthBuckets.Range(Granularity.HOUR, now, now));
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(accountId);
+        for (GrowthBuckets.Range range : ranges) {
+            args.add(range.granularity().name());
+            args.add(Timestamp.from(range.from()));
+            args.add(Timestamp.from(range.to()));
+        }
+        return jdbcTemplate.queryForObject(SINCE_SQL, (rs, rowNum) -> FollowerGrowthDeltaDTO.builder()
+                .accountId(accountId)
+                .since(start)
+                .gained(rs.getLong(1))
+                .lost(rs.getLong(2))
+                .build(), args.toArray());
+    }
+
+    @Override
+    public int flush() {
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        try {
+            Map<HourKey, Growth> drained = growthBuffer.drain();
+            if (drained.isEmpty()) {
+                return 0;
+            }
+            // Each bucket row lives on the shard of its account, one transaction per shard
+            int flushed = 0;
+            for (Map.Entry<Integer, List<Map.Entry<HourKey, Growth>>> shard
+                    : shardRouter.groupByShard(drained.entrySet(), entry -> entry.getKey().accountId()).entrySet()) {
+                flushed += ShardContext.call(shard.getKey(), () -> flushShard(shard.getValue()));
+            }
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushShard(List<Map.Entry<HourKey, Growth>> entries) {
+        List<Bucket> buckets = buckets(entries);
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, buckets, growthConfig.getFlushBatchSize(), (ps, bucket) -> {
+                ps.setString(1, bucket.accountId());
+                ps.setString(2, bucket.granularity().name());
+                ps.setTimestamp(3, Timestamp.from(bucket.start()));
+                ps.setLong(4, bucket.gained());
+                ps.setLong(5, bucket.lost());
+            }));
+        } catch (RuntimeException e) {
+            log.error("Failed to flush follower growth of {} account hours, will retry", entries.size(), e);
+            Map<HourKey, Growth> failed = new HashMap<>();
+            entries.forEach(entry -> failed.put(entry.getKey(), entry.getValue()));
+            growthBuffer.restore(failed);
+            return 0;
+        }
+        log.debug("Flushed follower growth of {} account hours", entries.size());
+        return entries.size();
+    }
+
+    /**
+     * Every hour is also added to its day. Sorted in primary key order, the same on every instance: a flush takes
+     * the row locks in one global order, so concurrent flushes wait for each other instead of deadlocking.
+     */
+    private static List<Bucket> buckets(List<Map.Entry<HourKey, Growth>> entries) {
+        // Keyed by the start of the day
+        Map<HourKey, Growth> days = new HashMap<>();
+        List<Bucket> buckets = new ArrayList<>(entries.size() * 2);
+        for (Map.Entry<HourKey, Growth> entry : entries) {
+            HourKey hour = entry.getKey();
+            Growth growth = entry.getValue();
+            buckets.add(new Bucket(hour.accountId(), Granularity.HOUR, hour.hour(), growth.gained(), growth.lost()));
+            days.merge(new HourKey(hour.accountId(), GrowthBuckets.truncate(hour.hour(), Granularity.DAY)), growth,
+                    (a, b) -> new Growth(a.gained() + b.gained(), a.lost() + b.lost()));
+        }
+        days.forEach((day, growth) -> buckets.add(new Bucket(day.accountId(), Granularity.DAY, day.hour(), growth.gained(), growth.lost())));
+        buckets.sort(PRIMARY_KEY_ORDER);
+        return buckets;
+    }
+
+    @Override
+    @ShardKey("#accountId")
+    public void forget(String accountId) {
+        jdbcTemplate.update(FORGET_SQL, accountId);
+    }
+
+    @Override
+    public int prune() {
+        Instant now = Instant.now();
+        int pruned = 0;
+        for (int shard : shardRouter.shards()) {
+            pruned += ShardContext.call(shard, () -> {
+                int hours = jdbcTemplate.update(PRUNE_SQL, Granularity.HOUR.name(), Timestamp.from(now.minus(growthConfig.getHourlyRetention())));
+                int days = jdbcTemplate.update(PRUNE_SQL, Granularity.DAY.name(), Timestamp.from(now.minus(growthConfig.getDailyRetention())));
+                return hours + days;
+            });
+        }
+        return pruned;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        log.info("Flushed follower growth of {} account hours on shutdown", flushed);
+    }
+
+    private static Instant currentHour() {
+        return Instant.now().truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private record Bucket(String accountId, Granularity granularity, Instant start, long gained, long lost) {
+    }
+}
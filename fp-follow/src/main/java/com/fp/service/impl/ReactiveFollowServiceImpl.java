@@ -0,0 +1,61 @@
+package com.fp.service.impl;
+
+import com.fp.dto.common.PageResponseDTO;
+import com.fp.dto.follow.request.FollowPaginationRequestDTO;
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.request.ListFollowersRequestDTO;
+import com.fp.dto.follow.request.ListFollowingsRequestDTO;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.repository.ReactiveFollowRepository;
+import com.fp.service.ReactiveFollowService;
+import com.fp.strategy.FollowQueryRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+///
+/// The pages are not served from `FollowPageCache`: its fallback and prefetches read through JDBC, so every page
+/// goes to the database, which is what the comparison with the blocking path measures.
+///
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveFollowServiceImpl implements ReactiveFollowService {
+    private final ReactiveFollowRepository reactiveFollowRepository;
+
+    private final FollowPageAssembler followPageAssembler;
+
+    @Override
+    public Mono<PageResponseDTO<FollowResponseDTO>> listFollowers(ListFollowersRequestDTO listFollowersRequestDTO) {
+        return listFollow(FollowPaginationRequestDTO.builder()
+                .queryType(QueryType.FOLLOWERS)
+                .order(listFollowersRequestDTO.getOrder())
+                .cursor(listFollowersRequestDTO.getCursor())
+                .accountId(listFollowersRequestDTO.getAccountId())
+                .limit(listFollowersRequestDTO.getLimit())
+                .build());
+    }
+
+    @Override
+    public Mono<PageResponseDTO<FollowResponseDTO>> listFollowings(ListFollowingsRequestDTO listFollowingsRequestDTO) {
+        return listFollow(FollowPaginationRequestDTO.builder()
+                .queryType(QueryType.FOLLOWINGS)
+                .order(listFollowingsRequestDTO.getOrder())
+                .cursor(listFollowingsRequestDTO.getCursor())
+                .accountId(listFollowingsRequestDTO.getAccountId())
+                .limit(listFollowingsRequestDTO.getLimit())
+                .build());
+    }
+
+    private Mono<PageResponseDTO<FollowResponseDTO>> listFollow(FollowPaginationRequestDTO followPaginationRequestDTO) {
+        // Deferred, so an invalid cursor is an error signal of the Mono rather than a throw at assembly
+        return Mono.defer(() -> {
+            FollowQueryRequest followQueryRequest = followPageAssembler.toQueryRequest(followPaginationRequestDTO);
+            return reactiveFollowRepository.findPage(followQueryRequest)
+                    .collectList()
+                    .map(follows -> followPageAssembler.toPageResponse(follows, followPaginationRequestDTO.getLimit(),
+                            followPaginationRequestDTO.getQueryType()));
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package com.fp.shard;
+
+import com.fp.repository.FollowTables;
+import com.fp.service.FollowCountService;
+import com.fp.transaction.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+///
+/// # Writes the copies of a follow held by the other shards.
+///
+/// A follow is stored on every shard storing one of its endpoints. The service writes it on the follower's shard,
+/// which holds the truth; the copies on the other shards are brought in line with it through an outbox:
+///
+/// 1. In the transaction of the follow / unfollow, a `follow_mirror_outbox` row records the edges to mirror. It
+///    commits or rolls back with the change itself, there is no distributed commit to get wrong.
+/// 2. After the commit, the `followMirrorExecutor` mirrors them: it reads the edges on the follower's shard, inserts
+///    the copies of those present (with their `created_at`) and deletes those of the others on each other shard, then
+///    deletes the outbox row.
+/// 3. The rows a crash, a failure or a saturated executor left behind are replayed by `ShardMirrorJob`.
+///
+/// A mirror writes what the follower's shard holds when it runs, not what its transaction wrote, so replaying it
+/// any number of times, in any order, is harmless. The mirrors of a follower are serialized by an advisory lock on
+/// its shard, held until the outbox row is deleted: the last one to run sees the last committed change.
+///
+/// Each copy transaction records the count deltas of the copies it wrote for the counter rows stored on its shard,
+/// see `FollowCountService`: the copy is the follow those counters count. Until it runs, the copies lag behind the
+/// follower's shard, by the time of a mirror or, after a crash, of a sweep.
+///
+/// A no-op when sharding is disabled or both endpoints are on the same shard.
+///
+@Component
+@Slf4j
+public class FollowShardWriter {
+
+    private static final String OUTBOX_SQL = "INSERT INTO follow_mirror_outbox (follower_id, followee_ids) VALUES (?, ?::varchar[]) RETURNING id";
+
+    private static final String PENDING_SQL = "SELECT id, follower_id, followee_ids FROM follow_mirror_outbox WHERE created_at < ? ORDER BY id LIMIT ?";
+
+    private static final String DELETE_OUTBOX_SQL = "DELETE FROM follow_mirror_outbox WHERE id = ?";
+
+    // Arbitrary, unique among the two-key advisory locks of the follow store
+    private static final int LOCK_CLASS = 0x46534d;
+
+    // Two-key form: a key space of its own, apart from the counter locks of FollowCountService
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(" + LOCK_CLASS + ", hashtext(?))";
+
+    private static final String FIND_SQL = "SELECT followee_id, created_at FROM " + FollowTables.FOLLOWS
+            + " WHERE follower_id = ? AND followee_id = ANY(?::varchar[])";
+
+    private static final String COPY_SQL = "INSERT INTO " + FollowTables.FOLLOWS + " (follower_id, followee_id, created_at)"
+            + " SELECT ?, f.followee_id, f.created_at FROM unnest(?::varchar[], ?::timestamptz[]) AS f (followee_id, created_at)"
+            + " ON CONFLICT DO NOTHING RETURNING followee_id";
+
+    private static final String DELETE_SQL = "DELETE FROM " + FollowTables.FOLLOWS
+            + " WHERE follower_id = ? AND followee_id = ANY(?::varchar[]) RETURNING followee_id";
+
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate shardTransaction;
+    private final FollowCountService followCountService;
+    private final Executor mirrorExecutor;
+
+    public FollowShardWriter(ShardRouter shardRouter, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             FollowCountService followCountService,
+                             @Qualifier("followMirrorExecutor") Executor mirrorExecutor) {
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.followCountService = followCountService;
+        this.mirrorExecutor = mirrorExecutor;
+        // Suspends the transaction of the current shard: the new one acquires a connection of the shard it runs on
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        this.shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Mirror follows just inserted or deleted on the follower's shard, in its transaction, to the other shards
+     * storing them once it commits.
+     */
+    public void mirror(String followerId, Collection<String> followeeIds) {
+        int shard = shardRouter.shardOf(followerId);
+        if (otherShards(shard, followerId, followeeIds).isEmpty()) {
+            return;
+        }
+        ShardMirror pending = new ShardMirror(shard,
+                jdbcTemplate.queryForObject(OUTBOX_SQL, Long.class, followerId, followeeIds.toArray(String[]::new)),
+                followerId, List.copyOf(followeeIds));
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                // Off the committing thread: it still holds a connection of the follower's shard
+                mirrorExecutor.execute(() -> apply(pending));
+            } catch (TaskRejectedException e) {
+                log.debug("Mirror executor saturated, the follows of {} are left to the sweep", followerId);
+            }
+        });
+    }
+
+    /**
+     * Replay the mirrors of every shard pending for longer than `age`, a batch of `limit` at most per shard.
+     * @return the number of mirrors replayed
+     */
+    public int sweep(Duration age, int limit) {
+        Timestamp before = Timestamp.from(Instant.now().minus(age));
+        int replayed = 0;
+        for (int shard : shardRouter.shards()) {
+            int current = shard;
+            List<ShardMirror> pending = ShardContext.call(shard, () -> jdbcTemplate.query(PENDING_SQL, (rs, rowNum) ->
+                    new ShardMirror(current, rs.getLong(1), rs.getString(2),
+                            Arrays.asList((String[]) rs.getArray(3).getArray())), before, limit));
+            for (ShardMirror mirror : pending) {
+                apply(mirror);
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Bring the copies of the edges on the other shards in line with the follower's shard, then delete the outbox row.
+     * A failure leaves the row to the sweep.
+     */
+    private void apply(ShardMirror mirror) {
+        try {
+            ShardContext.run(mirror.shard(), () -> shardTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.query(LOCK_SQL, rs -> {
+                }, mirror.followerId());
+                Map<String, Timestamp> stored = new TreeMap<>();
+                jdbcTemplate.query(FIND_SQL, rs -> {
+                    stored.put(rs.getString(1), rs.getTimestamp(2));
+                }, mirror.followerId(), mirror.followeeIds().toArray(String[]::new));
+                otherShards(mirror.shard(), mirror.followerId(), mirror.followeeIds())
+                        .forEach((shard, followeeIds) -> copy(shard, mirror.followerId(), followeeIds, stored));
+                jdbcTemplate.update(DELETE_OUTBOX_SQL, mirror.id());
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Failed to mirror the follows of {} to {} from shard {}, left to the sweep",
+                    mirror.followerId(), mirror.followeeIds(), mirror.shard(), e);
+        }
+    }
+
+    /**
+     * Write to the shard the copies of the stored edges, delete those of the others.
+     */
+    private void copy(int shard, String followerId, List<String> followeeIds, Map<String, Timestamp> stored) {
+        List<String> present = new ArrayList<>();
+        List<String> absent = new ArrayList<>();
+        for (String followeeId : followeeIds) {
+            (stored.containsKey(followeeId) ? present : absent).add(followeeId);
+        }
+        ShardContext.run(shard, () -> shardTransaction.executeWithoutResult(status -> {
+            if (!present.isEmpty()) {
+                followCountService.recordFollowAll(followerId, jdbcTemplate.queryForList(COPY_SQL, String.class, followerId,
+                        present.toArray(String[]::new),
+                        present.stream().map(followeeId -> stored.get(followeeId).toInstant().toString()).toArray(String[]::new)));
+            }
+            if (!absent.isEmpty()) {
+                followCountService.recordUnfollowAll(followerId, jdbcTemplate.queryForList(DELETE_SQL, String.class,
+                        followerId, absent.toArray(String[]::new)));
+            }
+        }));
+    }
+
+    /**
+     * The followees by shard storing the follow, other than the follower's shard holding the truth.
+     */
+    private Map<Integer, List<String>> otherShards(int primary, String followerId, Collection<String> followeeIds) {
+        Map<Integer, List<String>> shards = new TreeMap<>();
+        if (!shardRouter.isSharded() || followeeIds.isEmpty()) {
+            return shards;
+        }
+        ShardMap map = shardRouter.map();
+        int[] followerShards = map.writeShardsOf(followerId);
+        for (String followeeId : followeeIds) {
+            for (int shard : followerShards) {
+                add(shards, primary, shard, followeeId);
+            }
+            for (int shard : map.writeShardsOf(followeeId)) {
+                add(shards, primary, shard, followeeId);
+            }
+        }
+        return shards;
+    }
+
+    private static void add(Map<Integer, List<String>> shards, int primary, int shard, String followeeId) {
+        if (shard != primary) {
+            List<String> followeeIds = shards.computeIfAbsent(shard, s -> new ArrayList<>());
+            if (followeeIds.isEmpty() || !followeeIds.get(followeeIds.size() - 1).equals(followeeId)) {
+                followeeIds.add(followeeId);
+            }
+        }
+    }
+
+    /**
+     * An outbox row: the edges of a follower to mirror from its shard.
+     */
+    private record ShardMirror(int shard, long id, String followerId, List<String> followeeIds) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.fp.shard;
+
+import java.util.function.Supplier;
+
+///
+/// # The shard the current thread works on.
+///
+/// Read by `ShardRoutingDataSource` when a connection is acquired: the shard must be set before the transaction
+/// (or the non transactional statement) starts, a connection already bound to the transaction is not re-routed.
+/// Set by `ShardRoutingAspect` around the service methods annotated with `@ShardKey`, and explicitly by the
+/// code working on every shard in turn (flushes, graph rebuild, rebalancing).
+///
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the current shard, or null when none was set: the first shard is used
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run the action on the given shard, then restore the previous one.
+     */
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = enter(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(int shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Carry the current shard over to a task run by another thread, e.g. a page prefetch.
+     */
+    public static Runnable wrap(Runnable task) {
+        Integer shard = CURRENT.get();
+        return shard == null ? task : () -> run(shard, task);
+    }
+
+    /**
+     * Switch to the shard.
+     * @return the previous shard, to pass to `restore`
+     */
+    static Integer enter(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.fp.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+///
+/// # `followshards` actuator endpoint: the bucket assignment, and the online bucket moves.
+///
+/// - `GET /actuator/followshards`: the number of buckets per shard and the buckets being moved.
+/// - `POST /actuator/followshards {"bucket": 12, "shard": 3}`: move a bucket, see `ShardRebalancer`.
+///
+@Component
+@Endpoint(id = "followshards")
+@ConditionalOnProperty(prefix = "fp.follow.sharding", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardEndpoint {
+    private final ShardRouter shardRouter;
+    private final ShardRebalancer shardRebalancer;
+
+    public record Assignment(int virtualBuckets, Map<Integer, Integer> bucketsPerShard, Map<Integer, Integer> migrating) {
+    }
+
+    @ReadOperation
+    public Assignment assignment() {
+        ShardMap map = shardRouter.map();
+        Map<Integer, Integer> bucketsPerShard = new TreeMap<>();
+        Map<Integer, Integer> migrating = new TreeMap<>();
+        for (int shard = 0; shard < map.shardCount(); shard++) {
+            bucketsPerShard.put(shard, 0);
+        }
+        for (int bucket = 0; bucket < map.bucketCount(); bucket++) {
+            bucketsPerShard.merge(map.owner(bucket), 1, Integer::sum);
+            if (map.migratingTo(bucket) != ShardMap.NOT_MIGRATING) {
+                migrating.put(bucket, map.migratingTo(bucket));
+            }
+        }
+        return new Assignment(map.bucketCount(), bucketsPerShard, migrating);
+    }
+
+    @WriteOperation
+    public ShardRebalancer.Move move(int bucket, int shard) {
+        return shardRebalancer.move(bucket, shard);
+    }
+}
@@ -0,0 +1,21 @@
+package com.fp.shard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes the annotated method to the shard of an account, see {@link ShardRoutingAspect}.
+ * <p>
+ * Usage: {@code @ShardKey("#followRequestDTO.accountId")}
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+
+    /**
+     * SpEL expression over the method parameters evaluating to the account ID.
+     */
+    String value();
+}
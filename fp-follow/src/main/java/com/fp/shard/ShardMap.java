@@ -0,0 +1,123 @@
+package com.fp.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+///
+/// # Immutable assignment of the virtual buckets to the shards.
+///
+/// An account hashes to a fixed bucket, the first 4 bytes of the MD5 of its ID modulo the bucket count, stable across
+/// JVMs and releases. The shards compute the same bucket in SQL, `follow_bucket` of `db/sharding`, so a bucket move
+/// reads the rows of the bucket through an index.
+/// Only the owner of a bucket changes: moving a bucket moves 1 / bucket count of the accounts, and nothing else.
+/// A bucket being moved has a migration target, which receives the writes of its accounts as well.
+///
+public final class ShardMap {
+    public static final int NOT_MIGRATING = -1;
+
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required of every JVM", e);
+        }
+    });
+
+    private final int shardCount;
+    private final int[] owners;
+    private final int[] migratingTo;
+
+    public ShardMap(int shardCount, int[] owners, int[] migratingTo) {
+        if (owners.length != migratingTo.length) {
+            throw new IllegalArgumentException("One owner and one migration target per bucket");
+        }
+        for (int bucket = 0; bucket < owners.length; bucket++) {
+            if (owners[bucket] < 0 || owners[bucket] >= shardCount || migratingTo[bucket] >= shardCount) {
+                throw new IllegalArgumentException("Bucket " + bucket + " assigned to an unknown shard");
+            }
+        }
+        this.shardCount = shardCount;
+        this.owners = owners;
+        this.migratingTo = migratingTo;
+    }
+
+    /**
+     * The buckets spread round robin over the shards, none migrating.
+     */
+    public static ShardMap roundRobin(int shardCount, int bucketCount) {
+        int[] owners = new int[bucketCount];
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            owners[bucket] = bucket % shardCount;
+        }
+        int[] migratingTo = new int[bucketCount];
+        Arrays.fill(migratingTo, NOT_MIGRATING);
+        return new ShardMap(shardCount, owners, migratingTo);
+    }
+
+    public static int bucketOf(String accountId, int bucketCount) {
+        byte[] digest = MD5.get().digest(accountId.getBytes(StandardCharsets.UTF_8));
+        long hash = (digest[0] & 0xffL) << 24 | (digest[1] & 0xffL) << 16 | (digest[2] & 0xffL) << 8 | (digest[3] & 0xffL);
+        return (int) (hash % bucketCount);
+    }
+
+    public int bucketOf(String accountId) {
+        return bucketOf(accountId, owners.length);
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int bucketCount() {
+        return owners.length;
+    }
+
+    public int owner(int bucket) {
+        return owners[bucket];
+    }
+
+    /**
+     * @return the shard the bucket is being copied to, or `NOT_MIGRATING`
+     */
+    public int migratingTo(int bucket) {
+        return migratingTo[bucket];
+    }
+
+    /**
+     * The shard serving the reads of the account.
+     */
+    public int shardOf(String accountId) {
+        return owners[bucketOf(accountId)];
+    }
+
+    /**
+     * The shards the writes of the account go to: the owner, then the migration target if any.
+     */
+    public int[] writeShardsOf(String accountId) {
+        int bucket = bucketOf(accountId);
+        return migratingTo[bucket] == NOT_MIGRATING
+                ? new int[]{owners[bucket]}
+                : new int[]{owners[bucket], migratingTo[bucket]};
+    }
+
+    /**
+     * Whether the shard stores the follows of the account: it owns the account's bucket or is receiving it.
+     */
+    public boolean stores(int shard, String accountId) {
+        int bucket = bucketOf(accountId);
+        return owners[bucket] == shard || migratingTo[bucket] == shard;
+    }
+
+    /**
+     * A copy of this map with the bucket reassigned.
+     */
+    public ShardMap with(int bucket, int owner, int migrationTarget) {
+        int[] newOwners = owners.clone();
+        int[] newMigratingTo = migratingTo.clone();
+        newOwners[bucket] = owner;
+        newMigratingTo[bucket] = migrationTarget;
+        return new ShardMap(shardCount, newOwners, newMigratingTo);
+    }
+}
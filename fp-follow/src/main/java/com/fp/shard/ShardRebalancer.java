@@ -0,0 +1,338 @@
+package com.fp.shard;
+
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowTables;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+///
+/// # Online move of a virtual bucket to another shard.
+///
+/// 1. Mark the bucket as migrating: every instance (after one directory refresh) writes the follows of its accounts
+///    to both shards.
+/// 2. Copy the follows of the bucket from the owner to the target, then delete from the target the copies of follows
+///    unfollowed while being copied (older than the copy, absent from the owner).
+/// 3. Flip the owner: reads go to the target.
+/// 4. Once every instance has seen the flip, move the follower growth buckets of the accounts and delete from the
+///    former owner what it no longer stores: follows without an endpoint on it, counters (the target seeds them
+///    lazily from its complete follows).
+///
+/// The application keeps serving during the whole move; only the growth flushed between the flip and step 4 lands
+/// on the target before the history it is added to. A move reads the rows of its bucket only, in keyset order, through
+/// the `follow_bucket` indexes of `db/sharding`. It is an operator action of the `followshards` actuator endpoint, one
+/// move at a time.
+///
+@Component
+@ConditionalOnProperty(prefix = "fp.follow.sharding", name = "enabled", havingValue = "true")
+@Slf4j
+public class ShardRebalancer {
+    private static final int DIRECTORY_SHARD = 0;
+
+    private static final String MARK_SQL = """
+            INSERT INTO follow_shard_buckets (bucket, shard, migrating_to) VALUES (?, ?, ?)
+            ON CONFLICT (bucket) DO UPDATE SET migrating_to = EXCLUDED.migrating_to
+            WHERE follow_shard_buckets.shard = EXCLUDED.shard AND follow_shard_buckets.migrating_to IS NULL
+            """;
+
+    private static final String FLIP_SQL = "UPDATE follow_shard_buckets SET shard = migrating_to, migrating_to = NULL WHERE bucket = ? AND shard = ? AND migrating_to = ?";
+
+    private static final String ABORT_SQL = "UPDATE follow_shard_buckets SET migrating_to = NULL WHERE bucket = ? AND migrating_to = ?";
+
+    // The bucket count is inlined (%1$d): only a constant matches the expression of the bucket indexes
+    private static final String SCAN_FOLLOWERS_SQL = "SELECT follower_id, followee_id, created_at FROM " + FollowTables.FOLLOWS
+            + " WHERE follow_bucket(follower_id, %1$d) = ? AND (follower_id, followee_id) > (?, ?)"
+            + " ORDER BY follower_id, followee_id LIMIT ?";
+
+    // The follows whose follower is in the bucket as well were read by the scan of the followers
+    private static final String SCAN_FOLLOWEES_SQL = "SELECT follower_id, followee_id, created_at FROM " + FollowTables.FOLLOWS
+            + " WHERE follow_bucket(followee_id, %1$d) = ? AND follow_bucket(follower_id, %1$d) <> ? AND (followee_id, follower_id) > (?, ?)"
+            + " ORDER BY followee_id, follower_id LIMIT ?";
+
+    private static final String COPY_FOLLOW_SQL = "INSERT INTO " + FollowTables.FOLLOWS + " (follower_id, followee_id, created_at)"
+            + " VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String EXISTING_FOLLOWS_SQL = "SELECT f.follower_id, f.followee_id FROM " + FollowTables.FOLLOWS + " f"
+            + " JOIN unnest(?::varchar[], ?::varchar[]) AS p (follower_id, followee_id) USING (follower_id, followee_id)";
+
+    private static final String DELETE_FOLLOW_SQL = "DELETE FROM " + FollowTables.FOLLOWS + " WHERE follower_id = ? AND followee_id = ?";
+
+    private static final String SCAN_GROWTH_SQL = """
+            SELECT account_id, granularity, bucket_start, gained, lost
+            FROM follower_growth_buckets
+            WHERE follow_bucket(account_id, %1$d) = ? AND (account_id, granularity, bucket_start) > (?, ?, ?)
+            ORDER BY account_id, granularity, bucket_start
+            LIMIT ?
+            """;
+
+    // Added up: the target may already hold the growth flushed since the flip
+    private static final String MERGE_GROWTH_SQL = """
+            INSERT INTO follower_growth_buckets (account_id, granularity, bucket_start, gained, lost)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (account_id, granularity, bucket_start) DO UPDATE
+            SET gained = follower_growth_buckets.gained + EXCLUDED.gained,
+                lost = follower_growth_buckets.lost + EXCLUDED.lost
+            """;
+
+    private static final String DELETE_GROWTH_SQL = "DELETE FROM follower_growth_buckets WHERE account_id = ? AND granularity = ? AND bucket_start = ?";
+
+    private static final String SCAN_COUNTS_SQL = "SELECT account_id FROM follow_counts"
+            + " WHERE follow_bucket(account_id, %1$d) = ? AND account_id > ? ORDER BY account_id LIMIT ?";
+
+    private static final String DELETE_COUNTS_SQL = "DELETE FROM follow_counts WHERE account_id = ANY(?::varchar[])";
+
+    private static final RowMapper<FollowRow> FOLLOW_ROW_MAPPER = (rs, rowNum) ->
+            new FollowRow(rs.getString(1), rs.getString(2), rs.getTimestamp(3));
+
+    private static final RowMapper<GrowthRow> GROWTH_ROW_MAPPER = (rs, rowNum) ->
+            new GrowthRow(rs.getString(1), rs.getString(2), rs.getTimestamp(3), rs.getLong(4), rs.getLong(5));
+
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final FollowProperties.ShardingConfig config;
+    private final String scanFollowersSql;
+    private final String scanFolloweesSql;
+    private final String scanGrowthSql;
+    private final String scanCountsSql;
+
+    private final ReentrantLock moveLock = new ReentrantLock();
+
+    public ShardRebalancer(ShardRouter shardRouter, JdbcTemplate jdbcTemplate, FollowProperties followProperties) {
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = followProperties.getSharding();
+        int buckets = config.getVirtualBuckets();
+        this.scanFollowersSql = SCAN_FOLLOWERS_SQL.formatted(buckets);
+        this.scanFolloweesSql = SCAN_FOLLOWEES_SQL.formatted(buckets);
+        this.scanGrowthSql = SCAN_GROWTH_SQL.formatted(buckets);
+        this.scanCountsSql = SCAN_COUNTS_SQL.formatted(buckets);
+    }
+
+    /**
+     * The outcome of a bucket move.
+     */
+    public record Move(int bucket, int from, int to, long copiedFollows, long discardedFollows,
+                       long movedGrowthBuckets, long removedFollows, long removedCounts) {
+    }
+
+    /**
+     * Move a bucket to another shard, blocking until done.
+     */
+    public Move move(int bucket, int target) {
+        ShardMap map = shardRouter.map();
+        if (bucket < 0 || bucket >= map.bucketCount() || target < 0 || target >= map.shardCount()) {
+            throw new IllegalArgumentException("Unknown bucket " + bucket + " or shard " + target);
+        }
+        int source = map.owner(bucket);
+        if (source == target) {
+            throw new IllegalArgumentException("Bucket " + bucket + " is already on shard " + target);
+        }
+        if (!moveLock.tryLock()) {
+            throw new IllegalStateException("Another bucket move is running");
+        }
+        try {
+            log.info("Moving follow bucket {} from shard {} to shard {}", bucket, source, target);
+            int marked = ShardContext.call(DIRECTORY_SHARD, () -> jdbcTemplate.update(MARK_SQL, bucket, source, target));
+            if (marked == 0) {
+                throw new IllegalStateException("Bucket " + bucket + " is being moved by another instance or changed owner");
+            }
+            shardRouter.update(map.with(bucket, source, target));
+            long copied;
+            long discarded;
+            try {
+                awaitRefresh();
+                Instant copyStart = Instant.now();
+                copied = copyFollows(bucket, source, target);
+                discarded = discardUnfollowedCopies(bucket, source, target, copyStart);
+                ShardContext.run(DIRECTORY_SHARD, () -> jdbcTemplate.update(FLIP_SQL, bucket, source, target));
+            } catch (RuntimeException e) {
+                ShardContext.run(DIRECTORY_SHARD, () -> jdbcTemplate.update(ABORT_SQL, bucket, target));
+                shardRouter.refresh();
+                throw e;
+            }
+            shardRouter.update(map.with(bucket, target, ShardMap.NOT_MIGRATING));
+            awaitRefresh();
+
+            long growth = moveGrowth(bucket, source, target);
+            long removedFollows = removeFollows(bucket, source);
+            long removedCounts = removeCounts(bucket, source);
+            Move move = new Move(bucket, source, target, copied, discarded, growth, removedFollows, removedCounts);
+            log.info("Moved follow bucket: {}", move);
+            return move;
+        } finally {
+            moveLock.unlock();
+        }
+    }
+
+    private long copyFollows(int bucket, int source, int target) {
+        long[] copied = new long[1];
+        forEachFollowBatch(source, bucket, rows -> {
+            ShardContext.run(target, () -> jdbcTemplate.batchUpdate(COPY_FOLLOW_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setString(1, row.followerId());
+                ps.setString(2, row.followeeId());
+                ps.setTimestamp(3, row.createdAt());
+            }));
+            copied[0] += rows.size();
+        });
+        return copied[0];
+    }
+
+    /**
+     * A follow read by the copy then unfollowed before being written to the target is deleted from the owner
+     * only: delete the copies older than the copy which the owner no longer has. Newer follows are being
+     * written to both shards, possibly not committed on the owner yet, and are left alone.
+     */
+    private long discardUnfollowedCopies(int bucket, int source, int target, Instant copyStart) {
+        Timestamp before = Timestamp.from(copyStart);
+        long[] discarded = new long[1];
+        forEachFollowBatch(target, bucket, batch -> {
+            List<FollowRow> rows = batch.stream().filter(row -> row.createdAt().before(before)).toList();
+            if (rows.isEmpty()) {
+                return;
+            }
+            Set<String> existing = new HashSet<>();
+            ShardContext.run(source, () -> jdbcTemplate.query(EXISTING_FOLLOWS_SQL, rs -> {
+                existing.add(rs.getString(1) + '\n' + rs.getString(2));
+            }, rows.stream().map(FollowRow::followerId).toArray(String[]::new), rows.stream().map(FollowRow::followeeId).toArray(String[]::new)));
+            List<FollowRow> unfollowed = rows.stream()
+                    .filter(row -> !existing.contains(row.followerId() + '\n' + row.followeeId()))
+                    .toList();
+            deleteFollows(target, unfollowed);
+            discarded[0] += unfollowed.size();
+        });
+        return discarded[0];
+    }
+
+    private long moveGrowth(int bucket, int source, int target) {
+        long moved = 0;
+        GrowthRow last = new GrowthRow("", "", new Timestamp(0), 0, 0);
+        List<GrowthRow> batch;
+        do {
+            GrowthRow after = last;
+            batch = ShardContext.call(source, () -> jdbcTemplate.query(scanGrowthSql, GROWTH_ROW_MAPPER,
+                    bucket, after.accountId(), after.granularity(), after.bucketStart(), config.getCopyBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            last = batch.get(batch.size() - 1);
+            List<GrowthRow> rows = batch;
+            ShardContext.run(target, () -> jdbcTemplate.batchUpdate(MERGE_GROWTH_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setString(1, row.accountId());
+                ps.setString(2, row.granularity());
+                ps.setTimestamp(3, row.bucketStart());
+                ps.setLong(4, row.gained());
+                ps.setLong(5, row.lost());
+            }));
+            ShardContext.run(source, () -> jdbcTemplate.batchUpdate(DELETE_GROWTH_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setString(1, row.accountId());
+                ps.setString(2, row.granularity());
+                ps.setTimestamp(3, row.bucketStart());
+            }));
+            moved += rows.size();
+        } while (batch.size() == config.getCopyBatchSize());
+        return moved;
+    }
+
+    /**
+     * Delete from the former owner the follows of the bucket whose other endpoint is not on it either.
+     */
+    private long removeFollows(int bucket, int source) {
+        ShardMap map = shardRouter.map();
+        long[] removed = new long[1];
+        forEachFollowBatch(source, bucket, batch -> {
+            List<FollowRow> rows = batch.stream()
+                    .filter(row -> !map.stores(source, row.followerId()) && !map.stores(source, row.followeeId()))
+                    .toList();
+            deleteFollows(source, rows);
+            removed[0] += rows.size();
+        });
+        return removed[0];
+    }
+
+    private long removeCounts(int bucket, int source) {
+        long removed = 0;
+        String after = "";
+        List<String> accountIds;
+        do {
+            String from = after;
+            accountIds = ShardContext.call(source, () -> jdbcTemplate.queryForList(scanCountsSql, String.class,
+                    bucket, from, config.getCopyBatchSize()));
+            if (accountIds.isEmpty()) {
+                break;
+            }
+            after = accountIds.get(accountIds.size() - 1);
+            String[] moved = accountIds.toArray(String[]::new);
+            removed += ShardContext.call(source, () -> jdbcTemplate.update(DELETE_COUNTS_SQL, (Object) moved));
+        } while (accountIds.size() == config.getCopyBatchSize());
+        return removed;
+    }
+
+    /**
+     * Keyset scans of the follows of a shard having an endpoint in the bucket: those of its followers, then those of
+     * its followees. Every batch is non-empty.
+     */
+    private void forEachFollowBatch(int shard, int bucket, Consumer<List<FollowRow>> consumer) {
+        FollowRow last = new FollowRow("", "", null);
+        List<FollowRow> batch;
+        do {
+            FollowRow after = last;
+            batch = ShardContext.call(shard, () -> jdbcTemplate.query(scanFollowersSql, FOLLOW_ROW_MAPPER,
+                    bucket, after.followerId(), after.followeeId(), config.getCopyBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            last = batch.get(batch.size() - 1);
+            consumer.accept(batch);
+        } while (batch.size() == config.getCopyBatchSize());
+
+        last = new FollowRow("", "", null);
+        do {
+            FollowRow after = last;
+            batch = ShardContext.call(shard, () -> jdbcTemplate.query(scanFolloweesSql, FOLLOW_ROW_MAPPER,
+                    bucket, bucket, after.followeeId(), after.followerId(), config.getCopyBatchSize()));
+            if (batch.isEmpty()) {
+                break;
+            }
+            last = batch.get(batch.size() - 1);
+            consumer.accept(batch);
+        } while (batch.size() == config.getCopyBatchSize());
+    }
+
+    private void deleteFollows(int shard, List<FollowRow> rows) {
+        if (!rows.isEmpty()) {
+            ShardContext.run(shard, () -> jdbcTemplate.batchUpdate(DELETE_FOLLOW_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setString(1, row.followerId());
+                ps.setString(2, row.followeeId());
+            }));
+        }
+    }
+
+    /**
+     * Wait until every instance has reloaded the directory.
+     */
+    private void awaitRefresh() {
+        try {
+            Thread.sleep(2 * config.getRefreshInterval());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shard directory refresh", e);
+        }
+    }
+
+    private record FollowRow(String followerId, String followeeId, Timestamp createdAt) {
+    }
+
+    private record GrowthRow(String accountId, String granularity, Timestamp bucketStart, long gained, long lost) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.fp.shard;
+
+import com.fp.properties.FollowProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+///
+/// # Routes accounts to the shards of the follow store.
+///
+/// The follow store is split across `fp.follow.sharding.shards` databases of identical schema. Accounts hash to
+/// virtual buckets (`ShardMap`), the bucket directory on shard 0 (`db/sharding`) assigns every bucket to a shard.
+/// A follow is stored on the shards of both its follower and its followee, so the followers, the followings, the
+/// counters and the growth of an account are all read from the account's shard alone.
+///
+/// The directory is loaded at startup and reloaded every `refreshInterval`; `ShardRebalancer` updates it.
+/// Disabled by default: a single shard, the application datasource, and no directory at all.
+///
+@Component
+@Slf4j
+public class ShardRouter {
+    private static final int DIRECTORY_SHARD = 0;
+
+    private static final String LOAD_SQL = "SELECT bucket, shard, migrating_to FROM follow_shard_buckets";
+
+    private static final String SEED_SQL = "INSERT INTO follow_shard_buckets (bucket, shard) VALUES (?, ?) ON CONFLICT (bucket) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FollowProperties.ShardingConfig config;
+
+    private volatile ShardMap map;
+
+    public ShardRouter(JdbcTemplate jdbcTemplate, FollowProperties followProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = followProperties.getSharding();
+        if (config.isEnabled() && config.getShards().isEmpty()) {
+            throw new IllegalStateException("Sharding is enabled but no shard is configured");
+        }
+        this.map = config.isEnabled()
+                ? ShardMap.roundRobin(config.getShards().size(), config.getVirtualBuckets())
+                : ShardMap.roundRobin(1, 1);
+    }
+
+    /**
+     * Create the directory rows missing on the first start, then load the directory.
+     */
+    @PostConstruct
+    public void load() {
+        if (!isSharded()) {
+            return;
+        }
+        ShardMap defaults = map;
+        ShardContext.run(DIRECTORY_SHARD, () -> {
+            Integer rows = jdbcTemplate.queryForObject("SELECT count(*) FROM follow_shard_buckets", Integer.class);
+            if (rows == null || rows < defaults.bucketCount()) {
+                List<Integer> buckets = IntStream.range(0, defaults.bucketCount()).boxed().toList();
+                jdbcTemplate.batchUpdate(SEED_SQL, buckets, config.getCopyBatchSize(), (ps, bucket) -> {
+                    ps.setInt(1, bucket);
+                    ps.setInt(2, defaults.owner(bucket));
+                });
+            }
+        });
+        refresh();
+    }
+
+    /**
+     * Reload the bucket directory. A directory referencing an unknown shard is rejected and the current map kept.
+     */
+    public void refresh() {
+        if (!isSharded()) {
+            return;
+        }
+        int bucketCount = config.getVirtualBuckets();
+        ShardMap defaults = ShardMap.roundRobin(config.getShards().size(), bucketCount);
+        int[] owners = new int[bucketCount];
+        int[] migratingTo = new int[bucketCount];
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            owners[bucket] = defaults.owner(bucket);
+            migratingTo[bucket] = ShardMap.NOT_MIGRATING;
+        }
+        ShardContext.run(DIRECTORY_SHARD, () -> jdbcTemplate.query(LOAD_SQL, rs -> {
+            int bucket = rs.getInt(1);
+            if (bucket < bucketCount) {
+                owners[bucket] = rs.getInt(2);
+                int target = rs.getInt(3);
+                migratingTo[bucket] = rs.wasNull() ? ShardMap.NOT_MIGRATING : target;
+            }
+        }));
+        try {
+            map = new ShardMap(config.getShards().size(), owners, migratingTo);
+        } catch (IllegalArgumentException e) {
+            log.error("Rejected the follow shard directory, keeping the previous one: {}", e.getMessage());
+        }
+    }
+
+    public boolean isSharded() {
+        return config.isEnabled();
+    }
+
+    /**
+     * The current map. Take it once per operation, so the whole operation sees the same assignment.
+     */
+    public ShardMap map() {
+        return map;
+    }
+
+    public int shardOf(String accountId) {
+        return map.shardOf(accountId);
+    }
+
+    public List<Integer> shards() {
+        return IntStream.range(0, map.shardCount()).boxed().toList();
+    }
+
+    /**
+     * The accounts grouped by the shard serving them, in shard order.
+     */
+    public Map<Integer, List<String>> groupByShard(Collection<String> accountIds) {
+        return groupByShard(accountIds, Function.identity());
+    }
+
+    public <T> Map<Integer, List<T>> groupByShard(Collection<T> items, Function<T, String> accountId) {
+        ShardMap current = map;
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(current.shardOf(accountId.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Install a map the directory was just updated to, ahead of the next refresh.
+     */
+    void update(ShardMap updated) {
+        map = updated;
+    }
+}
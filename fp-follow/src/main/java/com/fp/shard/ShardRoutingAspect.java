@@ -0,0 +1,61 @@
+package com.fp.shard;
+
+import com.fp.replica.ReadYourWritesTracker;
+import com.fp.replica.ReplicaContext;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs the methods annotated with {@link ShardKey} on the shard of their account, on its primary when the account
+ * was written within the read-your-writes window.
+ * <p>
+ * Highest precedence: the shard has to be set before the transaction interceptor acquires the connection.
+ * A no-op when neither sharding nor replicas are enabled, callers of the services never see the shards.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+    private final ShardRouter shardRouter;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(shardKey)")
+    public Object route(ProceedingJoinPoint joinPoint, ShardKey shardKey) throws Throwable {
+        if (!shardRouter.isSharded() && !readYourWritesTracker.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        var context = new MethodBasedEvaluationContext(joinPoint.getTarget(), signature.getMethod(), joinPoint.getArgs(), parameterNameDiscoverer);
+        String accountId = expressions.computeIfAbsent(shardKey.value(), parser::parseExpression).getValue(context, String.class);
+        if (accountId == null) {
+            // Invalid request, let the method reject it
+            return joinPoint.proceed();
+        }
+        Integer previousShard = ShardContext.enter(shardRouter.shardOf(accountId));
+        boolean previousPrimaryRequired = ReplicaContext.enter(readYourWritesTracker.requiresPrimary(accountId));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaContext.restore(previousPrimaryRequired);
+            ShardContext.restore(previousShard);
+        }
+    }
+}
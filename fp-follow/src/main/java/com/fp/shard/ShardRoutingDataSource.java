@@ -0,0 +1,77 @@
+package com.fp.shard;
+
+import com.fp.replica.ReplicaContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+///
+/// # Datasource of the follow store: a pool per shard and role.
+///
+/// Hands out connections of the shard of `ShardContext.current()`, of the first shard when none is set
+/// (schema validation at startup, code not routed yet). Read-only transactions get a connection of the shard's
+/// replica, if it has one, unless `ReplicaContext` requires the primary. JPA, the JDBC fragments and the
+/// transaction manager all use this single datasource, so the repositories need no change.
+///
+/// The read-only flag is only known once the transaction has begun: this datasource must sit behind a
+/// `LazyConnectionDataSourceProxy`, which acquires the connection at the first statement.
+///
+@Slf4j
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    /**
+     * Lookup key of a pool.
+     */
+    public record PoolKey(int shard, boolean replica) {
+    }
+
+    private final Set<Integer> replicatedShards = new HashSet<>();
+
+    /**
+     * @param primaries the primary pool of each shard, by shard number
+     * @param replicas the replica pool of the shards having one, by shard number
+     */
+    public ShardRoutingDataSource(Map<Integer, DataSource> primaries, Map<Integer, DataSource> replicas) {
+        Map<Object, Object> pools = new HashMap<>();
+        primaries.forEach((shard, pool) -> pools.put(new PoolKey(shard, false), pool));
+        replicas.forEach((shard, pool) -> {
+            pools.put(new PoolKey(shard, true), pool);
+            replicatedShards.add(shard);
+        });
+        setTargetDataSources(pools);
+        // Never fall back to another shard's pool
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer current = ShardContext.current();
+        int shard = current == null ? 0 : current;
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReplicaContext.isPrimaryRequired()
+                && replicatedShards.contains(shard);
+        return new PoolKey(shard, replica);
+    }
+
+    /**
+     * Close the pools, which are not beans of their own.
+     */
+    @Override
+    public void close() {
+        for (DataSource pool : getResolvedDataSources().values()) {
+            if (pool instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close a follow store pool", e);
+                }
+            }
+        }
+    }
+}
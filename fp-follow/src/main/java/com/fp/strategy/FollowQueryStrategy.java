@@ -1,21 +1,21 @@
 package com.fp.strategy;
 
-import com.fp.entity.Follow;
+import com.fp.dto.follow.response.FollowResponseDTO;
 import com.fp.pattern.core.strategy.Strategy;
 
 import java.util.List;
 
-public interface FollowQueryStrategy extends Strategy<FollowQueryRequest, List<Follow>> {
+public interface FollowQueryStrategy extends Strategy<FollowQueryRequest, List<FollowResponseDTO>> {
 
     /**
      * Executes the query based on the provided input.
      * @param input the request containing the query parameters
-     * @return a list of Follow entities matching the query
+     * @return a list of FollowResponseDTO projections matching the query
      */
-    List<Follow> executeQuery(FollowQueryRequest input);
+    List<FollowResponseDTO> executeQuery(FollowQueryRequest input);
 
     @Override
-    default List<Follow> execute(FollowQueryRequest input) {
+    default List<FollowResponseDTO> execute(FollowQueryRequest input) {
         return executeQuery(input);
     }
 
@@ -1,20 +1,20 @@
 package com.fp.strategy;
 
-import com.fp.entity.Follow;
+import com.fp.dto.follow.response.FollowResponseDTO;
 import com.fp.pattern.core.strategy.StrategyContext;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 
 @Component
-public class FollowQueryStrategyContext extends StrategyContext<FollowQueryRequest, List<Follow>> {
+public class FollowQueryStrategyContext extends StrategyContext<FollowQueryRequest, List<FollowResponseDTO>> {
 
     /**
      * Executes the follow query strategy based on the provided input.
      * @param input the request containing the query parameters
-     * @return a list of Follow entities matching the query
+     * @return a list of FollowResponseDTO projections matching the query
      */
-    public List<Follow> executeFollowQuery(FollowQueryRequest input) {
+    public List<FollowResponseDTO> executeFollowQuery(FollowQueryRequest input) {
         return super.executeStrategy(input);
     }
 
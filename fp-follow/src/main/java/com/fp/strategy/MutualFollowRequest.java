@@ -0,0 +1,25 @@
+package com.fp.strategy;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MutualFollowRequest {
+    private final String viewerId;
+    private final String targetId;
+    // Exclusive lower bound of the account IDs of the page, empty for the first page
+    private final String afterId;
+    private final int limit;
+    private final long viewerFollowingCount;
+    private final long targetFollowerCount;
+
+    /**
+     * Ratio between the larger and the smaller side of the intersection.
+     */
+    public double getSkew() {
+        long small = Math.max(1, Math.min(viewerFollowingCount, targetFollowerCount));
+        long large = Math.max(viewerFollowingCount, targetFollowerCount);
+        return (double) large / small;
+    }
+}
@@ -0,0 +1,20 @@
+package com.fp.strategy;
+
+import com.fp.pattern.core.strategy.Strategy;
+
+import java.util.List;
+
+public interface MutualFollowStrategy extends Strategy<MutualFollowRequest, List<String>> {
+
+    /**
+     * Computes one page of the intersection.
+     * @param input the request containing both accounts and the page bounds
+     * @return the account IDs of the page, in ascending order
+     */
+    List<String> intersect(MutualFollowRequest input);
+
+    @Override
+    default List<String> execute(MutualFollowRequest input) {
+        return intersect(input);
+    }
+}
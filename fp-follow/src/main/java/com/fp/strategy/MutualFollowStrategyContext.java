@@ -0,0 +1,19 @@
+package com.fp.strategy;
+
+import com.fp.pattern.core.strategy.StrategyContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class MutualFollowStrategyContext extends StrategyContext<MutualFollowRequest, List<String>> {
+
+    /**
+     * Computes one page of the mutual follows with the strategy suited to the sizes of both sides.
+     * @param input the request containing both accounts and the page bounds
+     * @return the account IDs of the page, in ascending order
+     */
+    public List<String> executeMutualFollowQuery(MutualFollowRequest input) {
+        return super.executeStrategy(input);
+    }
+}
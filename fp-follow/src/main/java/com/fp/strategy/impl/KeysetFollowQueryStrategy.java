@@ -0,0 +1,86 @@
+package com.fp.strategy.impl;
+
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.pagination.KeysetPaginationEngine;
+import com.fp.pagination.KeysetQuery;
+import com.fp.pattern.annotation.StrategyComponent;
+import com.fp.repository.FollowTables;
+import com.fp.strategy.FollowQueryRequest;
+import com.fp.strategy.FollowQueryStrategy;
+import com.fp.strategy.FollowQueryStrategyType;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+///
+/// # Follow page strategy backed by the keyset pagination engine.
+///
+/// Every `FollowQueryStrategyType` is a keyset shape over the follows table:
+///
+/// - FOLLOWERS: filter `followee_id`, key `(created_at, follower_id)`
+/// - FOLLOWINGS: filter `follower_id`, key `(created_at, followee_id)`
+///
+/// with the direction and first page / cursor page taken from the type. This replaces the eight hand-written
+/// queries and strategies, one per type. Each direction reads the table partitioned on its filter column
+/// when the follows are partitioned, see `FollowTables`.
+///
+@StrategyComponent
+public class KeysetFollowQueryStrategy implements FollowQueryStrategy {
+    private static final List<String> SELECT_COLUMNS = List.of("followee_id", "follower_id", "created_at");
+
+    private static final RowMapper<FollowResponseDTO> ROW_MAPPER = (rs, rowNum) -> new FollowResponseDTO(
+            rs.getString("followee_id"),
+            rs.getString("follower_id"),
+            rs.getTimestamp("created_at").toInstant()
+    );
+
+    private final KeysetPaginationEngine paginationEngine;
+
+    private final Map<FollowQueryStrategyType, KeysetQuery> queries = new EnumMap<>(FollowQueryStrategyType.class);
+
+    public KeysetFollowQueryStrategy(KeysetPaginationEngine paginationEngine, FollowTables followTables) {
+        this.paginationEngine = paginationEngine;
+        for (FollowQueryStrategyType type : FollowQueryStrategyType.values()) {
+            queries.put(type, toKeysetQuery(type, followTables));
+        }
+    }
+
+    @Override
+    public List<FollowResponseDTO> executeQuery(FollowQueryRequest input) {
+        KeysetQuery query = queries.get(input.getStrategyType());
+        List<?> cursor = query.seek() ? List.of(input.getCursorTimestamp(), input.getCursorId()) : null;
+        return paginationEngine.fetch(query, ROW_MAPPER, input.getAccountId(), cursor, input.getPageable().getPageSize());
+    }
+
+    @Override
+    public boolean supports(FollowQueryRequest input) {
+        return input.getQueryType() != null;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "KEYSET";
+    }
+
+    /**
+     * The keyset shape executed for a strategy type on the unpartitioned follows table.
+     */
+    public static KeysetQuery toKeysetQuery(FollowQueryStrategyType type) {
+        return toKeysetQuery(type, FollowTables.UNPARTITIONED);
+    }
+
+    /**
+     * The keyset shape executed for a strategy type.
+     */
+    public static KeysetQuery toKeysetQuery(FollowQueryStrategyType type, FollowTables followTables) {
+        String table = followTables.tableFor(type.getQueryType());
+        return switch (type.getQueryType()) {
+            case FOLLOWERS -> new KeysetQuery(table, SELECT_COLUMNS, "followee_id",
+                    List.of("created_at", "follower_id"), type.isDescending(), !type.isFirstPage());
+            case FOLLOWINGS -> new KeysetQuery(table, SELECT_COLUMNS, "follower_id",
+                    List.of("created_at", "followee_id"), type.isDescending(), !type.isFirstPage());
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.fp.strategy.impl;
+
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.pattern.annotation.StrategyComponent;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowIntersectionRepository.Side;
+import com.fp.repository.FollowRepository;
+import com.fp.strategy.MutualFollowRequest;
+import com.fp.strategy.MutualFollowStrategy;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+///
+/// # Mutual follows by probing the larger side.
+///
+/// When one side is much larger than the other, merging would read the whole larger side.
+/// Instead the smaller side is walked in account ID order and every chunk of it is probed against the larger
+/// side with a single primary key lookup, so the cost only depends on the size of the smaller side.
+///
+@StrategyComponent
+@RequiredArgsConstructor
+public class ProbeMutualFollowStrategy implements MutualFollowStrategy {
+    private final FollowRepository followRepository;
+    private final FollowProperties followProperties;
+
+    @Override
+    public List<String> intersect(MutualFollowRequest input) {
+        Side followings = new Side(QueryType.FOLLOWINGS, input.getViewerId());
+        Side followers = new Side(QueryType.FOLLOWERS, input.getTargetId());
+        boolean followingsSmaller = input.getViewerFollowingCount() <= input.getTargetFollowerCount();
+        return followRepository.intersectByProbe(
+                followingsSmaller ? followings : followers,
+                followingsSmaller ? followers : followings,
+                input.getAfterId(),
+                input.getLimit()
+        );
+    }
+
+    @Override
+    public boolean supports(MutualFollowRequest input) {
+        return input.getSkew() > followProperties.getMutual().getSkewRatio();
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "PROBE";
+    }
+}
@@ -0,0 +1,46 @@
+package com.fp.strategy.impl;
+
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.pattern.annotation.StrategyComponent;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowIntersectionRepository.Side;
+import com.fp.repository.FollowRepository;
+import com.fp.strategy.MutualFollowRequest;
+import com.fp.strategy.MutualFollowStrategy;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+///
+/// # Mutual follows by sorted-merge intersection.
+///
+/// Walks the viewer's followings and the target's followers side by side, both in account ID order,
+/// and emits the IDs present in both. Reads each side at most once, sequentially: the right choice
+/// when both sides have comparable sizes.
+///
+@StrategyComponent
+@RequiredArgsConstructor
+public class SortedMergeMutualFollowStrategy implements MutualFollowStrategy {
+    private final FollowRepository followRepository;
+    private final FollowProperties followProperties;
+
+    @Override
+    public List<String> intersect(MutualFollowRequest input) {
+        return followRepository.intersectSorted(
+                new Side(QueryType.FOLLOWINGS, input.getViewerId()),
+                new Side(QueryType.FOLLOWERS, input.getTargetId()),
+                input.getAfterId(),
+                input.getLimit()
+        );
+    }
+
+    @Override
+    public boolean supports(MutualFollowRequest input) {
+        return input.getSkew() <= followProperties.getMutual().getSkewRatio();
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "SORTED_MERGE";
+    }
+}
@@ -0,0 +1,32 @@
+package com.fp.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+///
+/// # Work deferred to the commit of the current transaction.
+///
+/// The in-memory side effects of a follow / unfollow (count deltas, growth, cache invalidations, the graph index)
+/// must only be seen once the change is visible to other transactions, and never when it rolls back.
+///
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Run the action once the current transaction commits, dropped if it rolls back; at once outside of a transaction.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.fp.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+///
+/// # The PostgreSQL ID of the current transaction, as returned by its writes.
+///
+/// The follow writes return `pg_current_xact_id()` with their rows, which spares the count deltas a statement of their
+/// own to learn the transaction which wrote them, see `FollowCountService`. Bound to the Spring transaction: unbound
+/// while a `REQUIRES_NEW` transaction suspends it, e.g. the mirror of a follow on another shard.
+///
+public final class TransactionIds {
+    private static final Object KEY = TransactionIds.class;
+
+    private TransactionIds() {
+    }
+
+    /**
+     * Remember the ID of the current transaction. A no-op outside of a transaction.
+     */
+    public static void bind(long transactionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(KEY, transactionId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(KEY);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(KEY, transactionId);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+            }
+        });
+    }
+
+    /**
+     * @return the ID bound by a write of the current transaction, null if none was
+     */
+    public static Long current() {
+        return (Long) TransactionSynchronizationManager.getResource(KEY);
+    }
+}
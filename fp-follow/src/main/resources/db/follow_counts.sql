@@ -0,0 +1,14 @@
+-- Materialized follower / following counters, maintained by FollowCountService.
+-- Rows are seeded lazily from the follows table and repaired by the reconciliation job.
+CREATE TABLE IF NOT EXISTS follow_counts
+(
+    account_id       VARCHAR(255) PRIMARY KEY,
+    follower_count   BIGINT                   NOT NULL DEFAULT 0,
+    following_count  BIGINT                   NOT NULL DEFAULT 0,
+    -- The snapshot of the follows table the counts were taken at by the seed or the reconciliation: the flushes skip
+    -- the deltas of the transactions it includes. NULL for the rows counted before, the next reconciliation sets it.
+    counted_snapshot PG_SNAPSHOT,
+    updated_at       TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+ALTER TABLE follow_counts ADD COLUMN IF NOT EXISTS counted_snapshot PG_SNAPSHOT;
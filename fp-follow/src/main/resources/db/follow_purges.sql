@@ -0,0 +1,24 @@
+-- Purges of the follow relationships of deleted accounts, driven by FollowPurgeService.
+-- One row per account (per shard when sharded); the phase and the keyset cursor are committed with every chunk,
+-- so a purge interrupted by a crash resumes where it stopped once its lease has expired.
+CREATE TABLE IF NOT EXISTS follow_purges
+(
+    account_id         VARCHAR(255) PRIMARY KEY,
+    phase              VARCHAR(10)              NOT NULL DEFAULT 'FOLLOWINGS'
+        CHECK (phase IN ('FOLLOWINGS', 'FOLLOWERS', 'DONE')),
+    -- last counterpart deleted in the current phase, in "C" collation order
+    last_counterpart   VARCHAR(255),
+    followings_deleted BIGINT                   NOT NULL DEFAULT 0,
+    followers_deleted  BIGINT                   NOT NULL DEFAULT 0,
+    -- instance claim holding the purge, and until when
+    lease_owner        VARCHAR(36),
+    lease_until        TIMESTAMP WITH TIME ZONE,
+    requested_at       TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at         TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    completed_at       TIMESTAMP WITH TIME ZONE
+);
+
+-- Pending purges, oldest first
+CREATE INDEX IF NOT EXISTS idx_follow_purges_pending
+    ON follow_purges (requested_at)
+    WHERE phase <> 'DONE';
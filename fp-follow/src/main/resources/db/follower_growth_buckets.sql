@@ -0,0 +1,32 @@
+-- Pre-aggregated follower growth per account, maintained by FollowerGrowthService.
+-- Every follow / unfollow is counted in the UTC hour and the UTC day it happened, so a series or a
+-- "since T" delta reads a bounded number of rows of one account instead of scanning follows by created_at.
+CREATE TABLE IF NOT EXISTS follower_growth_buckets
+(
+    account_id   VARCHAR(255)             NOT NULL,
+    granularity  VARCHAR(4)               NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    gained       BIGINT                   NOT NULL DEFAULT 0,
+    lost         BIGINT                   NOT NULL DEFAULT 0,
+    PRIMARY KEY (account_id, granularity, bucket_start)
+);
+
+-- Retention pruning deletes the oldest buckets of every account
+CREATE INDEX IF NOT EXISTS idx_follower_growth_buckets_prune
+    ON follower_growth_buckets (granularity, bucket_start);
+
+-- One-off backfill from the existing follows. Unfollows are not recorded before the buckets exist,
+-- so the backfilled buckets only count the follows which still exist.
+INSERT INTO follower_growth_buckets (account_id, granularity, bucket_start, gained)
+SELECT followee_id, 'DAY', date_trunc('day', created_at, 'UTC'), count(*)
+FROM follows
+WHERE created_at >= now() - INTERVAL '400 days'
+GROUP BY 1, 3
+ON CONFLICT DO NOTHING;
+
+INSERT INTO follower_growth_buckets (account_id, granularity, bucket_start, gained)
+SELECT followee_id, 'HOUR', date_trunc('hour', created_at, 'UTC'), count(*)
+FROM follows
+WHERE created_at >= now() - INTERVAL '7 days'
+GROUP BY 1, 3
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,8 @@
+-- Indexes backing FollowIntersectionRepository: both sides of an intersection are streamed in byte order.
+-- The "C" collation makes the index order match String.compareTo for the ASCII account IDs,
+-- which the merge in the JVM relies on.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_follower_followee_c
+    ON follows (follower_id, followee_id COLLATE "C");
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_followee_follower_c
+    ON follows (followee_id, follower_id COLLATE "C");
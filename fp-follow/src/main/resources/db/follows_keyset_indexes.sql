@@ -0,0 +1,8 @@
+-- Indexes backing the keyset pages of KeysetPaginationEngine.
+-- Each one matches (filter column, key columns...) so a seek page is a single index range scan.
+-- The primary key (follower_id, followee_id) cannot serve the created_at ordering.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_followee_created_follower
+    ON follows (followee_id, created_at, follower_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_follower_created_followee
+    ON follows (follower_id, created_at, followee_id);
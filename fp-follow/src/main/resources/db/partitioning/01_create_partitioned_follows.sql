@@ -0,0 +1,103 @@
+-- Step 1 of 3 of the migration to the hash-partitioned follow tables. Run once, online.
+--
+-- follows_p            partitioned by hash(followee_id): follower lists, counts and exports of one account
+--                      hit a single partition. Replaces follows in step 3.
+-- follows_by_follower  mirror partitioned by hash(follower_id): following lists and intersections of one
+--                      account hit a single partition. Kept in sync by a trigger on follows_p, so the
+--                      application keeps writing a single table.
+--
+-- Both primary keys (follower_id, followee_id) contain the partition key, as PostgreSQL requires.
+-- Each partition is indexed and vacuumed on its own: index depth, vacuum duration and the bloat a vacuum
+-- has to catch up with stay those of a table 1/32 the size.
+-- Hash partitions cannot be split later, 32 leaves room for ~30x growth at the current partition size.
+
+CREATE TABLE IF NOT EXISTS follows_p
+(
+    follower_id VARCHAR(255)             NOT NULL,
+    followee_id VARCHAR(255)             NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (follower_id, followee_id)
+) PARTITION BY HASH (followee_id);
+
+CREATE TABLE IF NOT EXISTS follows_by_follower
+(
+    follower_id VARCHAR(255)             NOT NULL,
+    followee_id VARCHAR(255)             NOT NULL,
+    created_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (follower_id, followee_id)
+) PARTITION BY HASH (follower_id);
+
+DO
+$$
+    DECLARE
+        partitions CONSTANT INT := 32;
+    BEGIN
+        FOR i IN 0..partitions - 1
+            LOOP
+                EXECUTE format('CREATE TABLE IF NOT EXISTS follows_p_%s PARTITION OF follows_p '
+                                   'FOR VALUES WITH (MODULUS %s, REMAINDER %s)', i, partitions, i);
+                EXECUTE format('CREATE TABLE IF NOT EXISTS follows_by_follower_%s PARTITION OF follows_by_follower '
+                                   'FOR VALUES WITH (MODULUS %s, REMAINDER %s)', i, partitions, i);
+            END LOOP;
+    END
+$$;
+
+-- Same indexes as follows_keyset_indexes.sql and follows_intersection_indexes.sql, each on the table
+-- partitioned by its leading column. Created on the empty parents, so no CONCURRENTLY needed.
+CREATE INDEX IF NOT EXISTS idx_follows_p_followee_created_follower
+    ON follows_p (followee_id, created_at, follower_id);
+
+CREATE INDEX IF NOT EXISTS idx_follows_p_followee_follower_c
+    ON follows_p (followee_id, follower_id COLLATE "C");
+
+CREATE INDEX IF NOT EXISTS idx_follows_by_follower_follower_created_followee
+    ON follows_by_follower (follower_id, created_at, followee_id);
+
+CREATE INDEX IF NOT EXISTS idx_follows_by_follower_follower_followee_c
+    ON follows_by_follower (follower_id, followee_id COLLATE "C");
+
+CREATE OR REPLACE FUNCTION follows_p_mirror() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO follows_by_follower (follower_id, followee_id, created_at)
+        VALUES (NEW.follower_id, NEW.followee_id, NEW.created_at)
+        ON CONFLICT (follower_id, followee_id) DO NOTHING;
+        RETURN NEW;
+    END IF;
+    DELETE FROM follows_by_follower WHERE follower_id = OLD.follower_id AND followee_id = OLD.followee_id;
+    RETURN OLD;
+END
+$$;
+
+DROP TRIGGER IF EXISTS follows_p_mirror ON follows_p;
+CREATE TRIGGER follows_p_mirror
+    AFTER INSERT OR DELETE
+    ON follows_p
+    FOR EACH ROW
+EXECUTE FUNCTION follows_p_mirror();
+
+-- Forward the writes served while the backfill runs: from here on every follow / unfollow committed on
+-- follows is also applied to follows_p (and through it to the mirror).
+CREATE OR REPLACE FUNCTION follows_forward_to_p() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO follows_p (follower_id, followee_id, created_at)
+        VALUES (NEW.follower_id, NEW.followee_id, NEW.created_at)
+        ON CONFLICT (follower_id, followee_id) DO NOTHING;
+        RETURN NEW;
+    END IF;
+    DELETE FROM follows_p WHERE follower_id = OLD.follower_id AND followee_id = OLD.followee_id;
+    RETURN OLD;
+END
+$$;
+
+DROP TRIGGER IF EXISTS follows_forward_to_p ON follows;
+CREATE TRIGGER follows_forward_to_p
+    AFTER INSERT OR DELETE
+    ON follows
+    FOR EACH ROW
+EXECUTE FUNCTION follows_forward_to_p();
@@ -0,0 +1,46 @@
+-- Step 2 of 3: copy the existing follows into follows_p, in committed batches, while the application runs.
+-- Re-runnable: rows already copied are skipped, a stopped run can be started again.
+--
+-- Each batch locks its source rows FOR KEY SHARE until it commits, so an unfollow of a row being copied waits
+-- for the batch, then its forwarding trigger deletes the copy: a row deleted during the backfill is never
+-- resurrected.
+
+CREATE OR REPLACE PROCEDURE backfill_follows_p(batch_size INT DEFAULT 10000)
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    last_follower VARCHAR(255) := '';
+    last_followee VARCHAR(255) := '';
+    copied        BIGINT       := 0;
+    batch         INT;
+BEGIN
+    LOOP
+        WITH source AS (SELECT follower_id, followee_id, created_at
+                        FROM follows
+                        WHERE (follower_id, followee_id) > (last_follower, last_followee)
+                        ORDER BY follower_id, followee_id
+                        LIMIT batch_size
+                        FOR KEY SHARE),
+             inserted AS (INSERT INTO follows_p (follower_id, followee_id, created_at)
+                 SELECT follower_id, followee_id, created_at FROM source
+                 ON CONFLICT (follower_id, followee_id) DO NOTHING)
+        -- The last key of the batch, with the batch size; no row at all once the table is exhausted
+        SELECT count(*) OVER (), follower_id, followee_id
+        FROM source
+        ORDER BY follower_id DESC, followee_id DESC
+        LIMIT 1
+        INTO batch, last_follower, last_followee;
+        EXIT WHEN batch IS NULL;
+        copied := copied + batch;
+        COMMIT;
+        RAISE NOTICE 'Copied % follows, up to follower %', copied, last_follower;
+    END LOOP;
+END
+$$;
+
+CALL backfill_follows_p();
+
+-- Sanity check before step 3, both counts must match (modulo the writes in flight)
+SELECT (SELECT count(*) FROM follows)             AS follows,
+       (SELECT count(*) FROM follows_p)           AS follows_p,
+       (SELECT count(*) FROM follows_by_follower) AS follows_by_follower;
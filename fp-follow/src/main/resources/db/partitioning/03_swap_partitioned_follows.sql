@@ -0,0 +1,23 @@
+-- Step 3 of 3: swap follows_p in place of follows. Takes an exclusive lock for the duration of the renames only.
+-- Then enable fp.follow.partitioning.enabled, so the following direction is read from follows_by_follower.
+--
+-- Rollback: rename the tables back and recreate the forwarding trigger the other way round.
+
+BEGIN;
+
+LOCK TABLE follows IN ACCESS EXCLUSIVE MODE;
+
+DROP TRIGGER follows_forward_to_p ON follows;
+DROP FUNCTION follows_forward_to_p();
+
+ALTER TABLE follows RENAME TO follows_unpartitioned;
+ALTER TABLE follows_p RENAME TO follows;
+
+COMMIT;
+
+ANALYZE follows;
+ANALYZE follows_by_follower;
+
+-- Once the partitioned tables have served traffic for a while:
+-- DROP TABLE follows_unpartitioned;
+-- DROP PROCEDURE backfill_follows_p(INT);
@@ -0,0 +1,23 @@
+-- Bucket of an account, on every shard of the sharded follow store.
+--
+-- Same value as ShardMap.bucketOf: the first 4 bytes of the MD5 of the account ID, unsigned, modulo the bucket count
+-- (the shard databases are UTF8 encoded, as the Java side hashes the UTF-8 bytes).
+--
+-- The indexes serve ShardRebalancer: a bucket move reads the rows of its bucket only, in keyset order, instead of
+-- scanning whole tables. 1024 is fp.follow.sharding.virtual-buckets; with another count the moves still work, but
+-- scan the tables. Each index is an entry more per written row, paid on the sharded store only.
+CREATE OR REPLACE FUNCTION follow_bucket(account_id VARCHAR, buckets INTEGER) RETURNS INTEGER
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+AS 'SELECT ((''x'' || left(md5(account_id), 8))::bit(32)::bigint % buckets)::integer';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_follower_bucket
+    ON follows (follow_bucket(follower_id, 1024), follower_id, followee_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follows_followee_bucket
+    ON follows (follow_bucket(followee_id, 1024), followee_id, follower_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follow_counts_bucket
+    ON follow_counts (follow_bucket(account_id, 1024), account_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_follower_growth_buckets_bucket
+    ON follower_growth_buckets (follow_bucket(account_id, 1024), account_id, granularity, bucket_start);
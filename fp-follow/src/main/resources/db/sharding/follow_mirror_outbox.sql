@@ -0,0 +1,12 @@
+-- Follows to mirror to the other shards storing them, on every shard of the sharded follow store.
+--
+-- Written by FollowShardWriter in the transaction of the follow / unfollow on the follower's shard, so a change is
+-- committed together with the record that its copies are pending. The row is deleted once the other shards match
+-- the follower's shard; the rows a crash or a failure left behind are replayed by ShardMirrorJob.
+CREATE TABLE IF NOT EXISTS follow_mirror_outbox
+(
+    id           BIGSERIAL PRIMARY KEY,
+    follower_id  VARCHAR(255)                NOT NULL,
+    followee_ids VARCHAR(255)[]              NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now()
+);
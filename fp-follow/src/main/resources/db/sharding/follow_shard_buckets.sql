@@ -0,0 +1,19 @@
+-- Bucket directory of the sharded follow store, on shard 0 only.
+--
+-- Accounts hash to one of fp.follow.sharding.virtual-buckets buckets, each bucket is owned by one shard.
+-- Every shard holds the follows, follow_counts and follower_growth_buckets schema of a single database
+-- (the other scripts of db/, run on each shard), plus follow_buckets.sql and follow_mirror_outbox.sql of this
+-- directory. A shard stores every follow with an endpoint in one of its
+-- buckets, so a follow between two shards is stored on both.
+--
+-- The rows are created by the first instance started with sharding enabled, spreading the buckets round robin
+-- over the configured shards; adding a shard later leaves them unchanged until buckets are moved to it.
+-- migrating_to is set while the rebalancer copies the bucket: writes then go to both shards.
+
+CREATE TABLE IF NOT EXISTS follow_shard_buckets
+(
+    bucket       INTEGER PRIMARY KEY,
+    shard        INTEGER NOT NULL,
+    migrating_to INTEGER,
+    CHECK (migrating_to IS NULL OR migrating_to <> shard)
+);
@@ -0,0 +1,242 @@
+package com.fp.follow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.cache.FollowPageCache;
+import com.fp.cache.RecommendationCache;
+import com.fp.cache.RelationshipStatusCache;
+import com.fp.controller.FollowController;
+import com.fp.dto.follow.request.BatchFollowRequestDTO;
+import com.fp.dto.follow.response.BatchFollowResponseDTO;
+import com.fp.dto.follow.response.BatchFollowResponseDTO.ItemResult;
+import com.fp.dto.follow.response.BatchFollowResponseDTO.Status;
+import com.fp.graph.FollowGraphIndex;
+import com.fp.replica.ReadYourWritesTracker;
+import com.fp.repository.FollowBatchRepositoryImpl;
+import com.fp.repository.FollowRepository;
+import com.fp.repository.FollowTables;
+import com.fp.service.FollowCountService;
+import com.fp.service.FollowExportService;
+import com.fp.service.FollowPurgeService;
+import com.fp.service.FollowRecommendationService;
+import com.fp.service.FollowService;
+import com.fp.service.FollowerGrowthService;
+import com.fp.service.impl.FollowPageAssembler;
+import com.fp.service.impl.FollowServiceImpl;
+import com.fp.shard.FollowShardWriter;
+import com.fp.strategy.MutualFollowStrategyContext;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+///
+/// # Batch follow / unfollow, from the request validation to the side effects.
+///
+/// The batch statements run against an embedded PostgreSQL: the side effects must receive exactly the rows
+/// `RETURNING` reported, never the requested ones.
+///
+public class FollowBatchTest {
+    private static final String FOLLOWER = "follower";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static FollowBatchRepositoryImpl batchRepository;
+
+    private final FollowCountService followCountService = mock(FollowCountService.class);
+    private final FollowerGrowthService followerGrowthService = mock(FollowerGrowthService.class);
+    private final FollowPageCache followPageCache = mock(FollowPageCache.class);
+    private final RelationshipStatusCache relationshipStatusCache = mock(RelationshipStatusCache.class);
+    private final FollowGraphIndex followGraphIndex = mock(FollowGraphIndex.class);
+    private final FollowShardWriter followShardWriter = mock(FollowShardWriter.class);
+    private FollowService followService;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().setServerConfig("jit", "off").start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("""
+                CREATE TABLE follows
+                (
+                    follower_id VARCHAR(255)                NOT NULL,
+                    followee_id VARCHAR(255)                NOT NULL,
+                    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+                    PRIMARY KEY (follower_id, followee_id)
+                )
+                """);
+        batchRepository = new FollowBatchRepositoryImpl(jdbcTemplate, FollowTables.UNPARTITIONED);
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    public void setUpService() {
+        jdbcTemplate.execute("TRUNCATE follows");
+        FollowRepository followRepository = mock(FollowRepository.class);
+        when(followRepository.insertAllIfAbsent(anyString(), anyCollection(), any())).thenAnswer(invocation ->
+                batchRepository.insertAllIfAbsent(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+        when(followRepository.deleteAllIfPresent(anyString(), anyCollection())).thenAnswer(invocation ->
+                batchRepository.deleteAllIfPresent(invocation.getArgument(0), invocation.getArgument(1)));
+        followService = new FollowServiceImpl(followRepository, followCountService, followerGrowthService,
+                mock(FollowPageAssembler.class), followPageCache, relationshipStatusCache,
+                mock(MutualFollowStrategyContext.class), followGraphIndex, mock(RecommendationCache.class),
+                followShardWriter, mock(ReadYourWritesTracker.class));
+    }
+
+    @Test
+    public void testInsertAllReturnsOnlyTheInsertedRows() {
+        Instant followedAt = Instant.now().minus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MICROS);
+        insertFollow("followee-1", followedAt);
+
+        Set<String> inserted = batchRepository.insertAllIfAbsent(FOLLOWER, List.of("followee-1", "followee-2", "followee-3"), Instant.now());
+
+        assertThat(inserted).containsExactlyInAnyOrder("followee-2", "followee-3");
+        assertThat(followeesOf(FOLLOWER)).containsExactlyInAnyOrder("followee-1", "followee-2", "followee-3");
+        // ON CONFLICT DO NOTHING: the existing follow keeps its date
+        assertThat(jdbcTemplate.queryForObject("SELECT created_at FROM follows WHERE follower_id = ? AND followee_id = ?",
+                Timestamp.class, FOLLOWER, "followee-1").toInstant()).isEqualTo(followedAt);
+    }
+
+    @Test
+    public void testDeleteAllReturnsOnlyTheDeletedRows() {
+        insertFollow("followee-1", Instant.now());
+        insertFollow("followee-2", Instant.now());
+
+        Set<String> deleted = batchRepository.deleteAllIfPresent(FOLLOWER, List.of("followee-1", "followee-3"));
+
+        assertThat(deleted).containsExactly("followee-1");
+        assertThat(followeesOf(FOLLOWER)).containsExactly("followee-2");
+    }
+
+    @Test
+    public void testFollowAllWithPartialDuplicates() {
+        insertFollow("followee-1", Instant.now());
+
+        BatchFollowResponseDTO response = followService.followAll(request("followee-1", "followee-2", "followee-2", FOLLOWER, "followee-3"));
+
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        // One result per distinct followee, in the order of the request
+        assertThat(response.getResults()).containsExactly(
+                new ItemResult("followee-1", Status.ALREADY_FOLLOWING),
+                new ItemResult("followee-2", Status.FOLLOWED),
+                new ItemResult(FOLLOWER, Status.SELF_FOLLOW_NOT_ALLOWED),
+                new ItemResult("followee-3", Status.FOLLOWED));
+        assertThat(followeesOf(FOLLOWER)).containsExactlyInAnyOrder("followee-1", "followee-2", "followee-3");
+
+        Set<String> followed = Set.of("followee-2", "followee-3");
+        verify(followCountService).recordFollowAll(FOLLOWER, followed);
+        verify(followerGrowthService).recordFollowAll(FOLLOWER, followed);
+        verify(followPageCache).invalidateFollowAll(FOLLOWER, followed);
+        verify(relationshipStatusCache).invalidate(FOLLOWER, followed);
+        verify(followGraphIndex).recordFollowAll(FOLLOWER, followed);
+        verify(followShardWriter).mirror(FOLLOWER, followed);
+    }
+
+    @Test
+    public void testFollowAllOfSelfOnlyWritesNothing() {
+        BatchFollowResponseDTO response = followService.followAll(request(FOLLOWER));
+
+        assertThat(response.getSucceeded()).isZero();
+        assertThat(response.getResults()).containsExactly(new ItemResult(FOLLOWER, Status.SELF_FOLLOW_NOT_ALLOWED));
+        assertThat(followeesOf(FOLLOWER)).isEmpty();
+        verify(followCountService).recordFollowAll(FOLLOWER, Set.of());
+        verify(followerGrowthService).recordFollowAll(FOLLOWER, Set.of());
+    }
+
+    @Test
+    public void testUnfollowAllWithAbsentRows() {
+        insertFollow("followee-1", Instant.now());
+        insertFollow("followee-2", Instant.now());
+
+        BatchFollowResponseDTO response = followService.unfollowAll(request("followee-1", "followee-3", "followee-1"));
+
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getResults()).containsExactly(
+                new ItemResult("followee-1", Status.UNFOLLOWED),
+                new ItemResult("followee-3", Status.NOT_FOLLOWING));
+        assertThat(followeesOf(FOLLOWER)).containsExactly("followee-2");
+
+        Set<String> unfollowed = Set.of("followee-1");
+        verify(followCountService).recordUnfollowAll(FOLLOWER, unfollowed);
+        verify(followerGrowthService).recordUnfollowAll(FOLLOWER, unfollowed);
+        verify(followPageCache).invalidateFollowAll(FOLLOWER, unfollowed);
+        verify(relationshipStatusCache).invalidate(FOLLOWER, unfollowed);
+        verify(followGraphIndex).recordUnfollowAll(FOLLOWER, unfollowed);
+        verify(followShardWriter).mirror(FOLLOWER, unfollowed);
+    }
+
+    @Test
+    public void testBatchIsCappedAtOneHundredFollowees() throws Exception {
+        FollowService service = mock(FollowService.class);
+        when(service.followAll(any())).thenReturn(new BatchFollowResponseDTO(0, List.of()));
+        when(service.unfollowAll(any())).thenReturn(new BatchFollowResponseDTO(0, List.of()));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new FollowController(service, mock(FollowExportService.class),
+                mock(FollowRecommendationService.class), mock(FollowerGrowthService.class), mock(FollowPurgeService.class))).build();
+
+        String hundred = OBJECT_MAPPER.writeValueAsString(request(followees(100)));
+        String hundredAndOne = OBJECT_MAPPER.writeValueAsString(request(followees(101)));
+        String none = OBJECT_MAPPER.writeValueAsString(request());
+
+        mockMvc.perform(post("/api/follow/batch").contentType(MediaType.APPLICATION_JSON).content(hundred))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/follow/batch").contentType(MediaType.APPLICATION_JSON).content(hundred))
+                .andExpect(status().isOk());
+
+        FollowService rejecting = mock(FollowService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FollowController(rejecting, mock(FollowExportService.class),
+                mock(FollowRecommendationService.class), mock(FollowerGrowthService.class), mock(FollowPurgeService.class))).build();
+        for (String body : List.of(hundredAndOne, none)) {
+            mockMvc.perform(post("/api/follow/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(delete("/api/follow/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest());
+        }
+        verifyNoInteractions(rejecting);
+    }
+
+    private static BatchFollowRequestDTO request(String... followeeIds) {
+        return BatchFollowRequestDTO.builder().accountId(FOLLOWER).followeeIds(List.of(followeeIds)).build();
+    }
+
+    private static String[] followees(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "followee-" + i).toArray(String[]::new);
+    }
+
+    private static void insertFollow(String followeeId, Instant createdAt) {
+        jdbcTemplate.update("INSERT INTO follows (follower_id, followee_id, created_at) VALUES (?, ?, ?)",
+                FOLLOWER, followeeId, Timestamp.from(createdAt));
+    }
+
+    private static List<String> followeesOf(String followerId) {
+        return jdbcTemplate.queryForList("SELECT followee_id FROM follows WHERE follower_id = ?", String.class, followerId);
+    }
+}
@@ -0,0 +1,95 @@
+package com.fp.follow;
+
+import com.fp.counter.CountedSnapshot;
+import com.fp.counter.FollowCountDelta;
+import com.fp.counter.FollowCountDeltaBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FollowCountDeltaBufferTest {
+
+    @Test
+    public void testAddAndDrain() {
+        FollowCountDeltaBuffer buffer = new FollowCountDeltaBuffer(8);
+        buffer.add("a", delta(10, 1, 0));
+        buffer.add("a", delta(10, 1, 0));
+        buffer.add("b", delta(11, 0, 1));
+        buffer.add("c", delta(12, 1, 0));
+        buffer.add("c", delta(12, -1, 0));
+
+        assertThat(buffer.pending("a")).containsExactly(delta(10, 2, 0));
+
+        Map<String, List<FollowCountDelta>> drained = buffer.drain();
+        // zero deltas are not flushed
+        assertThat(drained).containsOnlyKeys("a", "b");
+        assertThat(buffer.pending("a")).isEmpty();
+        assertThat(buffer.drain()).isEmpty();
+
+        buffer.restore(drained);
+        assertThat(buffer.pending("b")).containsExactly(delta(11, 0, 1));
+    }
+
+    @Test
+    public void testOnlyDeltasOfTheSameTransactionAddUp() {
+        FollowCountDeltaBuffer buffer = new FollowCountDeltaBuffer(8);
+        buffer.add("a", delta(10, 1, 0));
+        buffer.add("a", delta(11, -1, 0));
+        buffer.add("a", new FollowCountDelta(1, 11, -1, 0));
+
+        // A follow and an unfollow of different transactions may be counted by different snapshots
+        assertThat(buffer.pending("a")).containsExactly(delta(10, 1, 0), delta(11, -1, 0), new FollowCountDelta(1, 11, -1, 0));
+        assertThat(buffer.drain().get("a")).hasSize(3);
+    }
+
+    @Test
+    public void testCountedSnapshotIncludesTheTransactionsCommittedBefore() {
+        CountedSnapshot snapshot = CountedSnapshot.parse("100:110:102,105");
+
+        assertThat(snapshot.includes(99)).isTrue();
+        assertThat(snapshot.includes(101)).isTrue();
+        assertThat(snapshot.includes(102)).isFalse();
+        assertThat(snapshot.includes(105)).isFalse();
+        assertThat(snapshot.includes(110)).isFalse();
+        assertThat(snapshot.includes(FollowCountDelta.NO_TRANSACTION)).isFalse();
+        assertThat(CountedSnapshot.parse("100:100:").includes(100)).isFalse();
+        assertThat(CountedSnapshot.parse(null)).isNull();
+    }
+
+    @Test
+    public void testConcurrentAddsAreNotLost() throws InterruptedException {
+        FollowCountDeltaBuffer buffer = new FollowCountDeltaBuffer(4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        long[] flushed = new long[1];
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    buffer.add("account-" + (i % 16), delta(1, 1, 0));
+                }
+            });
+        }
+        executor.submit(() -> {
+            for (int i = 0; i < 100; i++) {
+                synchronized (flushed) {
+                    buffer.drain().values().forEach(deltas -> deltas.forEach(delta -> flushed[0] += delta.followers()));
+                }
+            }
+        });
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        synchronized (flushed) {
+            buffer.drain().values().forEach(deltas -> deltas.forEach(delta -> flushed[0] += delta.followers()));
+            assertThat(flushed[0]).isEqualTo(80_000);
+        }
+    }
+
+    private static FollowCountDelta delta(long transactionId, long followers, long followings) {
+        return new FollowCountDelta(0, transactionId, followers, followings);
+    }
+}
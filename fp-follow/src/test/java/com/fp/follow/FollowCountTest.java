@@ -0,0 +1,206 @@
+package com.fp.follow;
+
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowBatchRepositoryImpl;
+import com.fp.repository.FollowTables;
+import com.fp.service.FollowCountService;
+import com.fp.service.impl.FollowCountServiceImpl;
+import com.fp.shard.ShardRouter;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+///
+/// # Follower / following counters against an embedded PostgreSQL.
+///
+/// The writes, flushes, seeds and reconciliations run concurrently, as they do across instances: whatever their
+/// interleaving, the counts must end up exact.
+///
+public class FollowCountTest {
+    private static final List<String> STARS = IntStream.range(0, 4).mapToObj(i -> "star-" + i).toList();
+    private static final List<String> FANS = IntStream.range(0, 40).mapToObj(i -> "fan-" + i).toList();
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static FollowBatchRepositoryImpl batchRepository;
+
+    private FollowCountService followCountService;
+
+    @BeforeAll
+    public static void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().setServerConfig("jit", "off").start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("""
+                CREATE TABLE follows
+                (
+                    follower_id VARCHAR(255)                NOT NULL,
+                    followee_id VARCHAR(255)                NOT NULL,
+                    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+                    PRIMARY KEY (follower_id, followee_id)
+                )
+                """);
+        batchRepository = new FollowBatchRepositoryImpl(jdbcTemplate, FollowTables.UNPARTITIONED);
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/follow_counts.sql"));
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    public void setUpService() {
+        jdbcTemplate.execute("TRUNCATE follows, follow_counts");
+        FollowProperties followProperties = new FollowProperties();
+        // Several reconciliation transactions per pass
+        followProperties.getCount().setReconcileBatchSize(7);
+        followCountService = new FollowCountServiceImpl(jdbcTemplate, transactionTemplate, followProperties,
+                new ShardRouter(jdbcTemplate, followProperties));
+    }
+
+    @Test
+    public void testFlushSkipsTheFollowsTheSeedCounted() {
+        follow("fan-0", "star-0");
+        // Seeded while the delta of the follow is pending: the seed counts the follow already
+        assertThat(followCountService.getFollowerCount("star-0")).isEqualTo(1);
+        follow("fan-1", "star-0");
+        assertThat(followCountService.getFollowerCount("star-0")).isEqualTo(2);
+
+        followCountService.flush();
+        assertThat(storedFollowers("star-0")).isEqualTo(2);
+        assertThat(followCountService.getFollowerCount("star-0")).isEqualTo(2);
+    }
+
+    @Test
+    public void testReconciliationKeepsThePendingDeltas() {
+        assertThat(followCountService.getFollowerCount("star-0")).isZero();
+        follow("fan-0", "star-0");
+        follow("fan-1", "star-0");
+        followCountService.flush();
+        // Drifted, then a follow committed before the reconciliation but flushed after it
+        jdbcTemplate.update("UPDATE follow_counts SET follower_count = 5 WHERE account_id = 'star-0'");
+        follow("fan-2", "star-0");
+
+        assertThat(followCountService.reconcile()).isEqualTo(1);
+        assertThat(followCountService.getFollowerCount("star-0")).isEqualTo(3);
+        follow("fan-3", "star-0");
+        followCountService.flush();
+
+        assertThat(storedFollowers("star-0")).isEqualTo(4);
+        assertThat(followCountService.getFollowerCount("star-0")).isEqualTo(4);
+    }
+
+    @Test
+    public void testConcurrentFollowsReconciliationsAndFlushesKeepExactCounts() throws Exception {
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(11);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            writers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 250; i++) {
+                    String followerId = FANS.get(random.nextInt(FANS.size()));
+                    String followeeId = STARS.get(random.nextInt(STARS.size()));
+                    if (!follow(followerId, followeeId)) {
+                        unfollow(followerId, followeeId);
+                    }
+                }
+            }));
+        }
+        List<Future<?>> background = List.of(
+                executor.submit(() -> {
+                    while (writing.get()) {
+                        followCountService.reconcile();
+                    }
+                }),
+                executor.submit(() -> {
+                    while (writing.get()) {
+                        followCountService.flush();
+                    }
+                }),
+                // Seeds the counter rows while their follows are written
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (writing.get()) {
+                        followCountService.getFollowerCount(STARS.get(random.nextInt(STARS.size())));
+                        followCountService.getFollowingCount(FANS.get(random.nextInt(FANS.size())));
+                    }
+                }));
+        for (Future<?> writer : writers) {
+            writer.get(2, TimeUnit.MINUTES);
+        }
+        writing.set(false);
+        for (Future<?> task : background) {
+            task.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        followCountService.flush();
+        for (String starId : STARS) {
+            long followers = jdbcTemplate.queryForObject("SELECT count(*) FROM follows WHERE followee_id = ?", Long.class, starId);
+            assertThat(followCountService.getFollowerCount(starId)).as(starId).isEqualTo(followers);
+            assertThat(storedFollowers(starId)).as(starId).isEqualTo(followers);
+        }
+        for (String fanId : FANS) {
+            long followings = jdbcTemplate.queryForObject("SELECT count(*) FROM follows WHERE follower_id = ?", Long.class, fanId);
+            assertThat(followCountService.getFollowingCount(fanId)).as(fanId).isEqualTo(followings);
+        }
+        // A last reconciliation finds nothing to repair
+        assertThat(followCountService.reconcile()).isZero();
+    }
+
+    /**
+     * Write and record a follow in one transaction, as `FollowServiceImpl` does.
+     * @return false when the follow already existed
+     */
+    private boolean follow(String followerId, String followeeId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (batchRepository.insertIfAbsent(followerId, followeeId, Instant.now()) == 0) {
+                return false;
+            }
+            followCountService.recordFollow(followerId, followeeId);
+            return true;
+        }));
+    }
+
+    private void unfollow(String followerId, String followeeId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (batchRepository.deleteIfPresent(followerId, followeeId) != 0) {
+                followCountService.recordUnfollow(followerId, followeeId);
+            }
+        });
+    }
+
+    private static long storedFollowers(String accountId) {
+        return jdbcTemplate.queryForObject("SELECT follower_count FROM follow_counts WHERE account_id = ?", Long.class, accountId);
+    }
+}
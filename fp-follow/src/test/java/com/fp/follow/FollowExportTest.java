@@ -0,0 +1,85 @@
+package com.fp.follow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.entity.Follow;
+import com.fp.repository.FollowRepository;
+import com.fp.service.FollowExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class FollowExportTest {
+    // more than two fetch batches, and not a multiple of the fetch size
+    private static final int FOLLOWERS = 2_345;
+
+    @Autowired
+    private FollowExportService followExportService;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String followeeId = UUID.randomUUID().toString();
+    private final List<Follow> follows = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        Instant start = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        for (int i = 0; i < FOLLOWERS; i++) {
+            follows.add(Follow.builder()
+                    .followeeId(followeeId)
+                    .followerId(UUID.randomUUID().toString())
+                    .createdAt(start.plusMillis(i))
+                    .build());
+        }
+        followRepository.saveAll(follows);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        followRepository.deleteAll(follows);
+    }
+
+    @Test
+    public void testExportStreamsEveryFollowerAsNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        followExportService.exportFollowers(followeeId, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(FOLLOWERS);
+
+        Instant previous = Instant.MIN;
+        for (int i = 0; i < lines.length; i++) {
+            FollowResponseDTO follow = objectMapper.readValue(lines[i], FollowResponseDTO.class);
+            assertThat(follow.getFolloweeId()).isEqualTo(followeeId);
+            assertThat(follow.getFollowerId()).isEqualTo(follows.get(i).getFollowerId());
+            assertThat(follow.getCreatedAt()).isAfter(previous);
+            previous = follow.getCreatedAt();
+        }
+    }
+
+    @Test
+    public void testExportOfAccountWithoutFollowersIsEmpty() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        followExportService.exportFollowers(UUID.randomUUID().toString(), out);
+        assertThat(out.size()).isZero();
+    }
+}
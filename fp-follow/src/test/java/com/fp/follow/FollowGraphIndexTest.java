@@ -0,0 +1,89 @@
+package com.fp.follow;
+
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+import com.fp.graph.FollowGraphIndex;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowRepository;
+import com.fp.repository.FollowStreamRepository;
+import com.fp.shard.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class FollowGraphIndexTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private FollowGraphIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        FollowRepository followRepository = mock(FollowRepository.class);
+        // a -> b, a -> c, b -> c, c -> a, d -> c
+        doAnswer(invocation -> {
+            FollowStreamRepository.EdgeConsumer consumer = invocation.getArgument(1);
+            Instant now = Instant.now();
+            consumer.accept("a", "b", now);
+            consumer.accept("a", "c", now);
+            consumer.accept("b", "c", now);
+            consumer.accept("c", "a", now);
+            consumer.accept("d", "c", now);
+            return null;
+        }).when(followRepository).streamEdges(anyInt(), any());
+
+        FollowProperties properties = new FollowProperties();
+        properties.getGraph().setEnabled(true);
+        properties.getGraph().setCompactThreshold(1);
+        index = new FollowGraphIndex(followRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)), properties,
+                new ShardRouter(mock(JdbcTemplate.class), properties));
+        index.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testRecommendationsOnLoadedGraph() {
+        assertThat(index.isReady()).isTrue();
+        // d follows c, which follows a
+        assertThat(accountIds(index.recommend("d", 10, null, pool))).containsExactly("a");
+        // a follows b and c, which only follow a and c
+        assertThat(index.recommend("a", 10, null, pool)).isEmpty();
+        assertThat(index.recommend("unknown", 10, null, pool)).isEmpty();
+    }
+
+    @Test
+    public void testDeltasThenCompaction() {
+        index.recordFollow("c", "e");
+        index.recordUnfollow("c", "a");
+        // following twice or unfollowing an absent relationship does not change anything
+        index.recordFollow("c", "e");
+        index.recordUnfollow("x", "y");
+
+        assertThat(accountIds(index.recommend("d", 10, null, pool))).containsExactly("e");
+        assertThat(index.compact()).isTrue();
+        assertThat(accountIds(index.recommend("d", 10, null, pool))).containsExactly("e");
+
+        // unfollow after compaction hits the new base arrays
+        index.recordUnfollow("c", "e");
+        assertThat(index.recommend("d", 10, null, pool)).isEmpty();
+    }
+
+    private static List<String> accountIds(List<RecommendedAccountDTO> recommendations) {
+        return recommendations.stream().map(RecommendedAccountDTO::getAccountId).toList();
+    }
+}
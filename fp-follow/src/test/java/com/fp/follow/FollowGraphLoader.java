@@ -0,0 +1,100 @@
+package com.fp.follow;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+///
+/// # Bulk loader of a `SyntheticFollowGraph` into the `follows` table.
+///
+/// The followers are split in slices, each streamed by its own thread and connection through `COPY ... FROM STDIN`:
+/// no entity, no statement per row, and the generation of a slice overlaps the load of the others.
+/// Each slice commits on its own; a failed load leaves the slices already copied in place.
+///
+/// Meant for an empty table: the follows of the graph must not collide with existing rows, and loading before
+/// creating the secondary indexes (db/*_indexes.sql) is several times faster.
+///
+@Slf4j
+public class FollowGraphLoader {
+    private static final String COPY_SQL = "COPY follows (follower_id, followee_id, created_at) FROM STDIN";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataSource dataSource;
+    private final int parallelism;
+
+    public FollowGraphLoader(DataSource dataSource, int parallelism) {
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the number of loaded follows
+     */
+    public long load(SyntheticFollowGraph graph) {
+        int users = graph.spec().users();
+        // More slices than threads, so a slice of celebrity-heavy followers does not hold back the whole load
+        int slices = Math.min(users, parallelism * 8);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Long>> loads = new ArrayList<>();
+            for (int slice = 0; slice < slices; slice++) {
+                int fromFollower = (int) ((long) users * slice / slices);
+                int toFollower = (int) ((long) users * (slice + 1) / slices);
+                loads.add(executor.submit(() -> loadSlice(graph, fromFollower, toFollower)));
+            }
+            long loaded = 0;
+            for (Future<Long> load : loads) {
+                loaded += load.get();
+            }
+            return loaded;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading the synthetic follow graph", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load the synthetic follow graph", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long loadSlice(SyntheticFollowGraph graph, int fromFollower, int toFollower) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pgConnection, COPY_SQL, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                long loaded = graph.forEachEdge(fromFollower, toFollower, (follower, followee, createdAt) -> {
+                    try {
+                        writer.write(graph.accountId(follower));
+                        writer.write('\t');
+                        writer.write(graph.accountId(followee));
+                        writer.write('\t');
+                        writer.write(DateTimeFormatter.ISO_INSTANT.format(createdAt));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                log.debug("Loaded {} follows of followers [{}, {})", loaded, fromFollower, toFollower);
+                return loaded;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.fp.follow;
+
+import com.fp.cache.FollowPageCache;
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.properties.FollowProperties;
+import com.fp.strategy.FollowQueryRequest;
+import com.fp.strategy.FollowQueryStrategyContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FollowPageCacheTest {
+    private static final int PAGE_SIZE = 2;
+    private static final String ACCOUNT_ID = "hot-account";
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile CountDownLatch blockQueries = new CountDownLatch(0);
+    private FollowPageCache cache;
+
+    /**
+     * Ten followers of the hot account, one second apart, served in descending order.
+     */
+    private final FollowQueryStrategyContext context = new FollowQueryStrategyContext() {
+        @Override
+        public List<FollowResponseDTO> executeFollowQuery(FollowQueryRequest input) {
+            queries.incrementAndGet();
+            try {
+                blockQueries.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<FollowResponseDTO> page = new ArrayList<>();
+            for (int i = 9; i >= 0 && page.size() < input.getPageable().getPageSize(); i--) {
+                Instant createdAt = Instant.ofEpochSecond(i);
+                if (input.isFirstPage() || createdAt.isBefore(input.getCursorTimestamp())) {
+                    page.add(new FollowResponseDTO(ACCOUNT_ID, "follower-" + i, createdAt));
+                }
+            }
+            return page;
+        }
+    };
+
+    @BeforeEach
+    public void setUp() {
+        FollowProperties properties = new FollowProperties();
+        properties.getPageCache().setPages(3);
+        // run prefetches inline so the test is deterministic
+        cache = new FollowPageCache(context, properties, Runnable::run, meterRegistry);
+    }
+
+    @Test
+    public void testRepeatedFirstPageHitsCache() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.getPage(firstPage())).hasSize(PAGE_SIZE);
+        }
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("fp.follow.page.cache.requests", "result", "hit").count()).isEqualTo(99);
+        assertThat(meterRegistry.counter("fp.follow.page.cache.requests", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testWalkingCursorPrefetchesNextPage() {
+        List<FollowResponseDTO> first = cache.getPage(firstPage());
+        List<FollowResponseDTO> second = cache.getPage(nextPage(first));
+        // page 2 loaded on demand, page 3 prefetched
+        assertThat(queries.get()).isEqualTo(3);
+        List<FollowResponseDTO> third = cache.getPage(nextPage(second));
+        assertThat(third.get(0).getFollowerId()).isEqualTo("follower-5");
+        assertThat(queries.get()).isEqualTo(3);
+
+        // pages beyond the cached depth go to the database every time
+        cache.getPage(nextPage(third));
+        cache.getPage(nextPage(third));
+        assertThat(queries.get()).isEqualTo(5);
+    }
+
+    @Test
+    public void testFollowInvalidatesAffectedAccountOnly() {
+        cache.getPage(firstPage());
+        cache.getPage(firstPageOf("other-account"));
+        assertThat(queries.get()).isEqualTo(2);
+
+        cache.invalidateFollow("someone", ACCOUNT_ID);
+
+        cache.getPage(firstPage());
+        cache.getPage(firstPageOf("other-account"));
+        assertThat(queries.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testConcurrentMissesLoadOnce() throws Exception {
+        blockQueries = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<List<FollowResponseDTO>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> cache.getPage(firstPage())));
+            }
+            Thread.sleep(200);
+            blockQueries.countDown();
+            for (var future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).hasSize(PAGE_SIZE);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    private FollowQueryRequest firstPage() {
+        return firstPageOf(ACCOUNT_ID);
+    }
+
+    private static FollowQueryRequest firstPageOf(String accountId) {
+        return FollowQueryRequest.builder()
+                .accountId(accountId)
+                .queryType(QueryType.FOLLOWERS)
+                .isDescending(true)
+                .isFirstPage(true)
+                .pageable(PageRequest.of(0, PAGE_SIZE))
+                .build();
+    }
+
+    private static FollowQueryRequest nextPage(List<FollowResponseDTO> page) {
+        FollowResponseDTO lastOne = page.get(page.size() - 1);
+        return FollowQueryRequest.builder()
+                .accountId(ACCOUNT_ID)
+                .queryType(QueryType.FOLLOWERS)
+                .isDescending(true)
+                .isFirstPage(false)
+                .cursorTimestamp(lastOne.getCreatedAt())
+                .cursorId(lastOne.getFollowerId())
+                .pageable(PageRequest.of(0, PAGE_SIZE))
+                .build();
+    }
+}
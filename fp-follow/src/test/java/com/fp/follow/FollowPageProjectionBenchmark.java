@@ -0,0 +1,135 @@
+package com.fp.follow;
+
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.entity.Follow;
+import com.fp.repository.FollowRepository;
+import com.fp.strategy.FollowQueryRequest;
+import com.fp.strategy.FollowQueryStrategyContext;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+///
+/// # Benchmark of the follower page read path for 100-item pages.
+///
+/// Compares loading managed `Follow` entities + `BeanUtils.copyProperties` (previous path) with the
+/// keyset engine mapping rows straight into `FollowResponseDTO` in a read-only transaction.
+/// Reports allocated bytes per page (thread allocation counter) and p50/p99 latency.
+///
+@SpringBootTest
+@Slf4j
+public class FollowPageProjectionBenchmark {
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2000;
+
+    private static final String ENTITY_PAGE_QUERY = """
+            SELECT f FROM Follow f
+            WHERE f.followeeId = :accountId
+            ORDER BY f.createdAt DESC, f.followerId DESC
+            """;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private FollowQueryStrategyContext queryStrategyContext;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final String followeeId = UUID.randomUUID().toString();
+    private final List<Follow> follows = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        Instant now = Instant.now();
+        for (int i = 0; i < PAGE_SIZE * 2; i++) {
+            follows.add(Follow.builder()
+                    .followeeId(followeeId)
+                    .followerId(UUID.randomUUID().toString())
+                    .createdAt(now.minusSeconds(i))
+                    .build());
+        }
+        followRepository.saveAll(follows);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        followRepository.deleteAll(follows);
+    }
+
+    @Test
+    public void benchmarkFirstPageReadPath() {
+        Result entityPath = run("managed entities + BeanUtils", () -> transactionTemplate.execute(status ->
+                entityManager.createQuery(ENTITY_PAGE_QUERY, Follow.class)
+                        .setParameter("accountId", followeeId)
+                        .setMaxResults(PAGE_SIZE)
+                        .getResultList()
+                        .stream()
+                        .map(follow -> {
+                            var dto = new FollowResponseDTO();
+                            BeanUtils.copyProperties(follow, dto);
+                            return dto;
+                        })
+                        .toList()));
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        FollowQueryRequest firstPage = FollowQueryRequest.builder()
+                .accountId(followeeId)
+                .queryType(QueryType.FOLLOWERS)
+                .isFirstPage(true)
+                .isDescending(true)
+                .pageable(PageRequest.of(0, PAGE_SIZE))
+                .build();
+        Result projectionPath = run("keyset engine projection (read-only)", () -> readOnly.execute(status ->
+                queryStrategyContext.executeFollowQuery(firstPage)));
+
+        assertThat(projectionPath.bytesPerPage()).isLessThan(entityPath.bytesPerPage());
+    }
+
+    private Result run(String name, Supplier<List<FollowResponseDTO>> page) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertThat(page.get()).hasSize(PAGE_SIZE);
+        }
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] latencies = new long[ITERATIONS];
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            page.get();
+            latencies[i] = System.nanoTime() - start;
+        }
+        long bytesPerPage = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / ITERATIONS;
+        Arrays.sort(latencies);
+        log.info("{}: {} bytes allocated/page, p50={} µs, p99={} µs", name, bytesPerPage,
+                latencies[ITERATIONS / 2] / 1000, latencies[ITERATIONS * 99 / 100] / 1000);
+        return new Result(bytesPerPage);
+    }
+
+    private record Result(long bytesPerPage) {
+    }
+}
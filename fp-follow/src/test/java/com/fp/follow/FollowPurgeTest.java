@@ -0,0 +1,153 @@
+package com.fp.follow;
+
+import com.fp.dto.follow.response.FollowPurgeStatusDTO;
+import com.fp.dynamodb.repository.AccountDeletionRepository;
+import com.fp.entity.AccountDeletion;
+import com.fp.entity.Follow;
+import com.fp.entity.FollowId;
+import com.fp.entity.FollowPurge;
+import com.fp.exception.business.AccountNotDeletedException;
+import com.fp.exception.business.FollowPurgeNotFoundException;
+import com.fp.repository.FollowPurgeRepository;
+import com.fp.repository.FollowRepository;
+import com.fp.service.FollowCountService;
+import com.fp.service.FollowPurgeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+public class FollowPurgeTest {
+    // several chunks in each direction, and not a multiple of the chunk size
+    private static final int FOLLOWINGS = 1_234;
+    private static final int FOLLOWERS = 1_100;
+
+    @Autowired
+    private FollowPurgeService followPurgeService;
+
+    @Autowired
+    private FollowPurgeRepository followPurgeRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private FollowCountService followCountService;
+
+    @Autowired
+    private AccountDeletionRepository accountDeletionRepository;
+
+    private final String accountId = UUID.randomUUID().toString();
+    private final String bystanderId = UUID.randomUUID().toString();
+    private final List<Follow> follows = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        for (int i = 0; i < FOLLOWINGS; i++) {
+            follows.add(Follow.builder().followerId(accountId).followeeId(UUID.randomUUID().toString()).createdAt(now).build());
+        }
+        for (int i = 0; i < FOLLOWERS; i++) {
+            follows.add(Follow.builder().followerId(UUID.randomUUID().toString()).followeeId(accountId).createdAt(now).build());
+        }
+        // Not a follow of the purged account: must survive
+        follows.add(Follow.builder().followerId(bystanderId).followeeId(follows.get(0).getFolloweeId()).createdAt(now).build());
+        followRepository.saveAll(follows);
+        accountDeletionRepository.save(AccountDeletion.of(accountId, now));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        followRepository.deleteAll(follows);
+        followPurgeRepository.deleteById(accountId);
+        accountDeletionRepository.remove(accountId);
+    }
+
+    @Test
+    public void testPurgeDeletesEveryFollowOfTheAccount() throws InterruptedException {
+        String followeeId = follows.get(0).getFolloweeId();
+        assertThat(followCountService.getFollowerCount(followeeId)).isEqualTo(2);
+
+        FollowPurgeStatusDTO requested = followPurgeService.requestPurge(accountId);
+        assertThat(requested.getStatus()).isEqualTo(FollowPurgeStatusDTO.Status.PURGING_FOLLOWINGS);
+
+        FollowPurgeStatusDTO status = awaitCompletion();
+        assertThat(status.getFollowingsDeleted()).isEqualTo(FOLLOWINGS);
+        assertThat(status.getFollowersDeleted()).isEqualTo(FOLLOWERS);
+        assertThat(status.getCompletedAt()).isNotNull();
+        assertThat(followRepository.existsById(new FollowId(accountId, followeeId))).isFalse();
+        assertThat(followRepository.existsById(new FollowId(bystanderId, followeeId))).isTrue();
+
+        followCountService.flush();
+        assertThat(followCountService.getFollowerCount(followeeId)).isEqualTo(1);
+    }
+
+    @Test
+    public void testInterruptedPurgeResumesFromItsProgress() throws InterruptedException {
+        followPurgeService.requestPurge(accountId);
+        // As left by an instance which crashed after purging the followings, its lease expired
+        FollowPurge purge = followPurgeRepository.findById(accountId).orElseThrow();
+        followRepository.deleteAll(follows.subList(0, FOLLOWINGS));
+        purge.setPhase(FollowPurge.Phase.FOLLOWERS);
+        purge.setFollowingsDeleted(FOLLOWINGS);
+        purge.setLeaseOwner(UUID.randomUUID().toString());
+        purge.setLeaseUntil(Instant.now().minusSeconds(1));
+        followPurgeRepository.save(purge);
+
+        FollowPurgeStatusDTO status = awaitCompletion();
+        assertThat(status.getFollowingsDeleted()).isEqualTo(FOLLOWINGS);
+        assertThat(status.getFollowersDeleted()).isEqualTo(FOLLOWERS);
+    }
+
+    @Test
+    public void testPurgeOfLiveAccountIsRejected() {
+        assertThatThrownBy(() -> followPurgeService.requestPurge(bystanderId))
+                .isInstanceOf(AccountNotDeletedException.class);
+        assertThat(followPurgeRepository.findById(bystanderId)).isEmpty();
+    }
+
+    @Test
+    public void testPollRecordsThePurgeOfDeletedAccount() throws InterruptedException {
+        // The scheduled job may have polled the deletion first
+        followPurgeService.requestDeletedAccountPurges();
+        assertThat(accountDeletionRepository.findByAccountId(accountId)).isEmpty();
+
+        FollowPurgeStatusDTO status = awaitCompletion();
+        assertThat(status.getFollowingsDeleted()).isEqualTo(FOLLOWINGS);
+        assertThat(status.getFollowersDeleted()).isEqualTo(FOLLOWERS);
+        // The request of the account service arriving after the poll finds the purge
+        assertThat(followPurgeService.requestPurge(accountId).getStatus()).isEqualTo(FollowPurgeStatusDTO.Status.COMPLETED);
+    }
+
+    @Test
+    public void testStatusOfAccountNeverPurgedIsNotFound() {
+        assertThatThrownBy(() -> followPurgeService.getPurgeStatus(UUID.randomUUID().toString()))
+                .isInstanceOf(FollowPurgeNotFoundException.class);
+    }
+
+    /**
+     * The scheduled job may have claimed the purge first: wait for whichever instance of the loop runs it.
+     */
+    private FollowPurgeStatusDTO awaitCompletion() throws InterruptedException {
+        followPurgeService.purgePending();
+        long deadline = System.currentTimeMillis() + 30_000;
+        FollowPurgeStatusDTO status = followPurgeService.getPurgeStatus(accountId);
+        while (status.getStatus() != FollowPurgeStatusDTO.Status.COMPLETED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            status = followPurgeService.getPurgeStatus(accountId);
+        }
+        assertThat(status.getStatus()).isEqualTo(FollowPurgeStatusDTO.Status.COMPLETED);
+        return status;
+    }
+}
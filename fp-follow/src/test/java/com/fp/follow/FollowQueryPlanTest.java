@@ -0,0 +1,478 @@
+package com.fp.follow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.pagination.KeysetPaginationEngine;
+import com.fp.pagination.KeysetQuery;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowBatchRepositoryImpl;
+import com.fp.repository.FollowIntersectionRepository.Side;
+import com.fp.repository.FollowIntersectionRepositoryImpl;
+import com.fp.repository.FollowRecommendationRepositoryImpl;
+import com.fp.repository.FollowStreamRepositoryImpl;
+import com.fp.repository.FollowTables;
+import com.fp.service.impl.FollowCountServiceImpl;
+import com.fp.service.impl.FollowPurgeServiceImpl;
+import com.fp.shard.ShardMap;
+import com.fp.shard.ShardRebalancer;
+import com.fp.shard.ShardRouter;
+import com.fp.strategy.FollowQueryStrategyType;
+import com.fp.strategy.impl.KeysetFollowQueryStrategy;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+///
+/// # Query plan regression suite of the follow queries.
+///
+/// Starts an embedded PostgreSQL (downloaded binaries, no Docker, no network), creates `follows` with the indexes of
+/// `db/*.sql`, loads a power-law `SyntheticFollowGraph` and runs every follow query shape of the repositories, as
+/// they send it, under `EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON)`. Each plan must:
+///
+/// - read `follows` through its indexes only: no sequential scan, whatever the account
+/// - for the ordered shapes (keyset pages, exports, intersection streams), follow the index order: no sort, no bitmap
+/// - stay within a buffer budget proportional to the index rows it reads, so a seek turned into a filtered range
+///   scan fails as well
+///
+/// The statements are captured from the repository implementations through a `StatementRecorder`, or read from the
+/// SQL constants of the services, so a change to a query is tested without touching this class.
+/// Writes are explained in rolled-back transactions, then the table is vacuumed.
+///
+/// The plans must not depend on the run: the planner settings are fixed, the rows are clustered in a fixed physical
+/// order, the statistics read every row instead of a random sample, autovacuum is off, and every data change is
+/// followed by a `VACUUM ANALYZE`, so no test sees the dead tuples or the stale visibility map of another.
+///
+/// The plans are written to `target/query-plans`, one JSON file per shape plus `summary.txt`, and published by the
+/// follow service workflow.
+///
+public class FollowQueryPlanTest {
+    private static final int USERS = 20_000;
+    private static final long EDGES = 400_000;
+    private static final long SEED = 19;
+    private static final int PAGE_SIZE = 20;
+    private static final int CANDIDATES = 100;
+
+    // Buffer budget of a plan: a few pages of descent, then a bounded cost per index row or probe
+    private static final long BASE_BUFFERS = 64;
+    private static final long BUFFERS_PER_ROW_READ = 4;
+    private static final long BUFFERS_PER_PROBE = 5;
+    private static final long BUFFERS_PER_ROW_WRITTEN = 24;
+
+    private static final Path PLANS_DIR = Path.of("target", "query-plans");
+    private static final Set<String> INDEX_SCANS = Set.of("Index Scan", "Index Only Scan");
+    private static final Set<String> BITMAP_SCANS = Set.of("Bitmap Heap Scan", "Bitmap Index Scan");
+    private static final Set<String> SORTS = Set.of("Sort", "Incremental Sort");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+    private static JdbcTemplate setupJdbcTemplate;
+    private static final StatementRecorder recorder = new StatementRecorder();
+    private static JdbcTemplate jdbcTemplate;
+    private static DataSourceTransactionManager transactionManager;
+    private static final Map<String, String> summary = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private static SyntheticFollowGraph graph;
+    // The most followed account, the account following the most, and an account from the long tail
+    private static String celebrity;
+    private static String heavyFollower;
+    private static String typical;
+
+    @BeforeAll
+    public static void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("jit", "off")
+                // No background vacuum or analyze changing the statistics or the visibility map during the run
+                .setServerConfig("autovacuum", "off")
+                // Statistics from every row: a sample of 300 x target rows covers the whole table
+                .setServerConfig("default_statistics_target", "10000")
+                // The planner costs of the production database (SSD storage, a cache larger than the graph)
+                .setServerConfig("random_page_cost", "1.1")
+                .setServerConfig("effective_cache_size", "4GB")
+                .setServerConfig("work_mem", "4MB")
+                .setServerConfig("max_parallel_workers_per_gather", "0")
+                .start();
+        dataSource = postgres.getPostgresDatabase();
+        setupJdbcTemplate = new JdbcTemplate(dataSource);
+        DataSource recorded = recorder.wrap(dataSource);
+        jdbcTemplate = new JdbcTemplate(recorded);
+        transactionManager = new DataSourceTransactionManager(recorded);
+
+        setupJdbcTemplate.execute("""
+                CREATE TABLE follows
+                (
+                    follower_id VARCHAR(255)                NOT NULL,
+                    followee_id VARCHAR(255)                NOT NULL,
+                    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+                    PRIMARY KEY (follower_id, followee_id)
+                )
+                """);
+        graph = new SyntheticFollowGraph(SyntheticFollowGraph.Spec.of(USERS, EDGES, SEED));
+        new FollowGraphLoader(dataSource, Runtime.getRuntime().availableProcessors()).load(graph);
+
+        // Indexes after the load, as FollowGraphLoader recommends
+        try (Connection connection = dataSource.getConnection()) {
+            for (String script : List.of("db/follow_counts.sql", "db/follows_keyset_indexes.sql",
+                    "db/follows_intersection_indexes.sql")) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+            }
+        }
+        // The loader writes in parallel, so the physical order, and with it the correlation statistics, would change
+        // between runs
+        setupJdbcTemplate.execute("CLUSTER follows USING follows_pkey");
+        // Sets the visibility map too, index-only scans depend on it
+        vacuumAnalyze();
+
+        celebrity = graph.accountId(0);
+        typical = graph.accountId(USERS / 2);
+        heavyFollower = setupJdbcTemplate.queryForObject(
+                "SELECT follower_id FROM follows GROUP BY follower_id ORDER BY count(*) DESC LIMIT 1", String.class);
+        // Drifted counters for the reconciliation to repair
+        for (String accountId : List.of(celebrity, heavyFollower, typical)) {
+            setupJdbcTemplate.update("INSERT INTO follow_counts (account_id) VALUES (?)", accountId);
+        }
+        vacuumAnalyze();
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        try {
+            List<String> lines = new ArrayList<>();
+            lines.add(String.format("%-48s %10s %10s  %s", "shape", "buffers", "budget", "access paths"));
+            lines.addAll(summary.values());
+            Files.createDirectories(PLANS_DIR);
+            Files.write(PLANS_DIR.resolve("summary.txt"), lines);
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    @Test
+    public void testKeysetPagesSeekTheKeysetIndexes() {
+        KeysetPaginationEngine paginationEngine = new KeysetPaginationEngine(jdbcTemplate);
+        for (FollowQueryStrategyType type : FollowQueryStrategyType.values()) {
+            String popular = type.getQueryType() == QueryType.FOLLOWERS ? celebrity : heavyFollower;
+            for (String accountId : List.of(popular, typical)) {
+                KeysetQuery query = KeysetFollowQueryStrategy.toKeysetQuery(type);
+                // A cursor in the middle of the list: a deep page must cost the same as the first one
+                List<?> cursor = query.seek() ? middleKey(type.getQueryType(), accountId) : null;
+                paginationEngine.fetch(query, (rs, rowNum) -> rs.getString(1), accountId, cursor, PAGE_SIZE);
+                assertRecordedPlans("page-" + type.name().toLowerCase() + (accountId.equals(typical) ? "-typical" : "-popular"), true);
+            }
+        }
+    }
+
+    @Test
+    public void testExportStreamsFollowersInIndexOrder() {
+        FollowStreamRepositoryImpl streamRepository = new FollowStreamRepositoryImpl(jdbcTemplate);
+        streamRepository.streamFollowers(celebrity, 1_000, follow -> {
+        });
+        assertRecordedPlans("export-followers", true);
+    }
+
+    @Test
+    public void testRelationshipLookupsProbeThePrimaryKey() {
+        FollowBatchRepositoryImpl batchRepository = new FollowBatchRepositoryImpl(jdbcTemplate, FollowTables.UNPARTITIONED);
+        List<String> candidates = IntStream.range(0, CANDIDATES).mapToObj(user -> graph.accountId(user * 7)).toList();
+
+        batchRepository.findFolloweesAmong(heavyFollower, candidates);
+        assertRecordedPlans("relationship-followees-among", false);
+        batchRepository.findFollowersAmong(celebrity, candidates);
+        assertRecordedPlans("relationship-followers-among", false);
+    }
+
+    @Test
+    public void testWritesTouchOnlyTheirRows() {
+        FollowBatchRepositoryImpl batchRepository = new FollowBatchRepositoryImpl(jdbcTemplate, FollowTables.UNPARTITIONED);
+        List<String> newFollowees = IntStream.range(0, CANDIDATES).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        List<String> followings = setupJdbcTemplate.queryForList(
+                "SELECT followee_id FROM follows WHERE follower_id = ?", String.class, typical);
+
+        inRolledBackTransaction(() -> batchRepository.insertAllIfAbsent(typical, newFollowees, Instant.now()));
+        assertRecordedPlans("write-insert-all", false);
+        inRolledBackTransaction(() -> batchRepository.deleteAllIfPresent(typical, followings));
+        assertRecordedPlans("write-delete-all", false);
+
+        inRolledBackTransaction(() -> batchRepository.insertIfAbsent(typical, celebrity, Instant.now()));
+        assertRecordedPlans("write-insert-one", false);
+        inRolledBackTransaction(() -> batchRepository.deleteIfPresent(typical, followings.get(0)));
+        assertRecordedPlans("write-delete-one", false);
+    }
+
+    @Test
+    public void testIntersectionsStreamBothSidesInByteOrder() {
+        FollowProperties followProperties = new FollowProperties();
+        FollowIntersectionRepositoryImpl intersectionRepository = new FollowIntersectionRepositoryImpl(jdbcTemplate,
+                transactionManager, followProperties, FollowTables.UNPARTITIONED,
+                new ShardRouter(setupJdbcTemplate, followProperties));
+
+        intersectionRepository.intersectSorted(new Side(QueryType.FOLLOWINGS, heavyFollower),
+                new Side(QueryType.FOLLOWERS, celebrity), "", PAGE_SIZE);
+        assertRecordedPlans("mutual-sorted", true);
+        intersectionRepository.intersectByProbe(new Side(QueryType.FOLLOWINGS, typical),
+                new Side(QueryType.FOLLOWERS, celebrity), "", PAGE_SIZE);
+        assertRecordedPlans("mutual-probe", true);
+    }
+
+    @Test
+    public void testFriendsOfFriendsWalkThePrimaryKey() {
+        FollowRecommendationRepositoryImpl recommendationRepository = new FollowRecommendationRepositoryImpl(
+                jdbcTemplate, FollowTables.UNPARTITIONED, new ShardRouter(setupJdbcTemplate, new FollowProperties()));
+
+        recommendationRepository.findFriendsOfFriends(typical, PAGE_SIZE, null);
+        assertRecordedPlans("recommendation-count", false);
+        recommendationRepository.findFriendsOfFriends(typical, PAGE_SIZE, Duration.ofDays(30));
+        assertRecordedPlans("recommendation-recency", false);
+    }
+
+    @Test
+    public void testCountsOnlyReadTheIndexes() {
+        String seed = constant(FollowCountServiceImpl.class, "SEED_SQL");
+        assertPlan("count-seed-popular", new StatementRecorder.Statement(seed,
+                List.of(celebrity, celebrity, celebrity)), false);
+        assertPlan("count-seed-typical", new StatementRecorder.Statement(seed,
+                List.of(typical, typical, typical)), false);
+        assertPlan("count-reconcile", new StatementRecorder.Statement(constant(FollowCountServiceImpl.class, "RECOUNT_SQL"),
+                List.of(new StatementRecorder.ArrayParameter("varchar", new Object[]{celebrity, heavyFollower, typical}))), false);
+    }
+
+    @Test
+    public void testPurgeChunksSeekTheAccount() {
+        int chunkSize = new FollowProperties().getPurge().getChunkSize();
+        String followings = constant(FollowPurgeServiceImpl.class, "DELETE_FOLLOWINGS_SQL").formatted(FollowTables.FOLLOWS);
+        String followers = constant(FollowPurgeServiceImpl.class, "DELETE_FOLLOWERS_SQL").formatted(FollowTables.FOLLOWS);
+
+        assertPlan("purge-followings", new StatementRecorder.Statement(followings,
+                List.of(heavyFollower, heavyFollower, "", chunkSize)), false);
+        assertPlan("purge-followers", new StatementRecorder.Statement(followers,
+                List.of(celebrity, celebrity, "", chunkSize)), false);
+    }
+
+    @Test
+    public void testBucketMovesSeekTheirBucket() {
+        var sharding = new FollowProperties().getSharding();
+        int buckets = sharding.getVirtualBuckets();
+        String followers = constant(ShardRebalancer.class, "SCAN_FOLLOWERS_SQL").formatted(buckets);
+        String followees = constant(ShardRebalancer.class, "SCAN_FOLLOWEES_SQL").formatted(buckets);
+        int heavyFollowerBucket = ShardMap.bucketOf(heavyFollower, buckets);
+        int celebrityBucket = ShardMap.bucketOf(celebrity, buckets);
+
+        // The bucket indexes of the sharded store only, the other shapes are planned without them
+        try (Connection connection = dataSource.getConnection()) {
+            for (String script : List.of("db/follower_growth_buckets.sql", "db/sharding/follow_buckets.sql")) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to create the bucket indexes", e);
+        }
+        try {
+            vacuumAnalyze();
+            assertPlan("move-scan-followers", new StatementRecorder.Statement(followers,
+                    List.of(heavyFollowerBucket, "", "", sharding.getCopyBatchSize())), true);
+            assertPlan("move-scan-followees", new StatementRecorder.Statement(followees,
+                    List.of(celebrityBucket, celebrityBucket, "", "", sharding.getCopyBatchSize())), true);
+        } finally {
+            setupJdbcTemplate.execute("DROP TABLE follower_growth_buckets");
+            setupJdbcTemplate.execute("DROP INDEX idx_follows_follower_bucket, idx_follows_followee_bucket, idx_follow_counts_bucket");
+            vacuumAnalyze();
+        }
+    }
+
+    /**
+     * Check the plan of every distinct statement recorded since the last call.
+     */
+    private static void assertRecordedPlans(String label, boolean ordered) {
+        List<StatementRecorder.Statement> statements = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (StatementRecorder.Statement statement : recorder.drain()) {
+            if (seen.add(statement.sql())) {
+                statements.add(statement);
+            }
+        }
+        assertThat(statements).as(label).isNotEmpty();
+        for (int i = 0; i < statements.size(); i++) {
+            assertPlan(statements.size() == 1 ? label : label + "-" + (i + 1), statements.get(i), ordered);
+        }
+    }
+
+    /**
+     * @param ordered whether the statement must return the rows in index order, if it has an ORDER BY
+     */
+    private static void assertPlan(String label, StatementRecorder.Statement statement, boolean ordered) {
+        JsonNode explained = explain(statement);
+        if (!statement.sql().stripLeading().startsWith("SELECT")) {
+            // The rolled-back rows stay as dead tuples in the heap and the indexes until vacuumed
+            vacuumAnalyze();
+        }
+        writePlan(label, explained);
+        JsonNode root = explained.get(0).get("Plan");
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(root, nodes);
+
+        List<JsonNode> followsScans = nodes.stream()
+                .filter(node -> FollowTables.FOLLOWS.equals(node.path("Relation Name").asText())
+                        && node.path("Node Type").asText().endsWith("Scan"))
+                .toList();
+        List<String> accessPaths = followsScans.stream().map(FollowQueryPlanTest::accessPath).toList();
+        long buffers = root.path("Shared Hit Blocks").asLong() + root.path("Shared Read Blocks").asLong();
+        long budget = budget(statement, nodes);
+        summary.put(label, String.format("%-48s %10d %10d  %s", label, buffers, budget, accessPaths));
+
+        if (!statement.sql().stripLeading().startsWith("INSERT")) {
+            assertThat(followsScans).as("%s reads follows", label).isNotEmpty();
+        }
+        boolean seekOrder = ordered && statement.sql().contains("ORDER BY");
+        for (JsonNode scan : followsScans) {
+            String nodeType = scan.path("Node Type").asText();
+            assertThat(seekOrder ? INDEX_SCANS.contains(nodeType) : INDEX_SCANS.contains(nodeType) || BITMAP_SCANS.contains(nodeType))
+                    .as("%s reads follows through an index, not %s, see %s", label, accessPaths, PLANS_DIR)
+                    .isTrue();
+        }
+        if (seekOrder) {
+            assertThat(nodes).as("%s sorts, see %s", label, PLANS_DIR)
+                    .noneMatch(node -> SORTS.contains(node.path("Node Type").asText()));
+        }
+        assertThat(buffers).as("%s shared buffers, see %s", label, PLANS_DIR).isLessThanOrEqualTo(budget);
+    }
+
+    private static String accessPath(JsonNode scan) {
+        String index = scan.path("Index Name").asText("");
+        return scan.path("Node Type").asText() + (index.isEmpty() ? "" : " using " + index);
+    }
+
+    /**
+     * The buffers a plan may touch: a constant for the index descents, plus a few per index row read or loop,
+     * per probed array element and per written row (one entry in each index of follows).
+     */
+    private static long budget(StatementRecorder.Statement statement, List<JsonNode> nodes) {
+        long rowsRead = 0;
+        long rowsWritten = 0;
+        for (JsonNode node : nodes) {
+            String nodeType = node.path("Node Type").asText();
+            long loops = node.path("Actual Loops").asLong();
+            if (FollowTables.FOLLOWS.equals(node.path("Relation Name").asText()) && nodeType.endsWith("Scan")) {
+                rowsRead += (node.path("Actual Rows").asLong() + node.path("Rows Removed by Filter").asLong() + 1) * loops;
+            }
+            if (nodeType.equals("ModifyTable") && node.has("Plans")) {
+                JsonNode source = node.get("Plans").get(0);
+                rowsWritten += source.path("Actual Rows").asLong() * source.path("Actual Loops").asLong();
+            }
+        }
+        long probes = statement.parameters().stream()
+                .filter(StatementRecorder.ArrayParameter.class::isInstance)
+                .mapToLong(parameter -> ((StatementRecorder.ArrayParameter) parameter).elements().length)
+                .sum();
+        return BASE_BUFFERS + BUFFERS_PER_ROW_READ * rowsRead + BUFFERS_PER_PROBE * probes
+                + BUFFERS_PER_ROW_WRITTEN * rowsWritten;
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, nodes);
+        }
+    }
+
+    /**
+     * Run the statement under EXPLAIN ANALYZE in a transaction rolled back afterwards.
+     */
+    private static JsonNode explain(StatementRecorder.Statement statement) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + statement.sql())) {
+                List<Object> parameters = statement.parameters();
+                for (int i = 0; i < parameters.size(); i++) {
+                    if (parameters.get(i) instanceof StatementRecorder.ArrayParameter array) {
+                        ps.setArray(i + 1, connection.createArrayOf(array.baseTypeName(), array.elements()));
+                    } else {
+                        ps.setObject(i + 1, parameters.get(i));
+                    }
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return OBJECT_MAPPER.readTree(rs.getString(1));
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Failed to explain " + statement.sql(), e);
+        }
+    }
+
+    private static void vacuumAnalyze() {
+        setupJdbcTemplate.execute("VACUUM (FREEZE, ANALYZE) follows");
+        setupJdbcTemplate.execute("VACUUM (FREEZE, ANALYZE) follow_counts");
+    }
+
+    private static void writePlan(String label, JsonNode plan) {
+        try {
+            Files.createDirectories(PLANS_DIR);
+            OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(PLANS_DIR.resolve(label + ".json").toFile(), plan);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write the plan of " + label, e);
+        }
+    }
+
+    /**
+     * The key of the row in the middle of an account's list, in the order of the keyset pages.
+     */
+    private static List<Object> middleKey(QueryType direction, String accountId) {
+        String filter = direction == QueryType.FOLLOWERS ? "followee_id" : "follower_id";
+        String key = direction == QueryType.FOLLOWERS ? "follower_id" : "followee_id";
+        return setupJdbcTemplate.queryForObject("SELECT created_at, " + key + " FROM follows WHERE " + filter + " = ?"
+                        + " ORDER BY created_at, " + key
+                        + " OFFSET (SELECT count(*) / 2 FROM follows WHERE " + filter + " = ?) LIMIT 1",
+                (rs, rowNum) -> List.of(rs.getTimestamp(1).toInstant(), rs.getString(2)), accountId, accountId);
+    }
+
+    private static void inRolledBackTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            action.run();
+        });
+        vacuumAnalyze();
+    }
+
+    private static String constant(Class<?> owner, String name) {
+        try {
+            Field field = owner.getDeclaredField(name);
+            field.setAccessible(true);
+            return (String) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No SQL constant " + name + " in " + owner.getSimpleName(), e);
+        }
+    }
+}
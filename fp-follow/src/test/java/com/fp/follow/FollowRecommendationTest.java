@@ -0,0 +1,103 @@
+package com.fp.follow;
+
+import com.fp.dto.follow.response.RecommendedAccountDTO;
+import com.fp.graph.FollowGraphIndex;
+import com.fp.properties.FollowProperties;
+import com.fp.repository.FollowRepository;
+import com.fp.repository.FollowStreamRepository;
+import com.fp.shard.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class FollowRecommendationTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    private FollowGraphIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        FollowRepository followRepository = mock(FollowRepository.class);
+        Instant now = Instant.now();
+        Instant monthAgo = now.minus(Duration.ofDays(30));
+        // v follows a, b, c and x. x is recommended by 3, y by 2 (recently), z by 2 (a month ago), w by 1
+        doAnswer(invocation -> {
+            FollowStreamRepository.EdgeConsumer consumer = invocation.getArgument(1);
+            consumer.accept("v", "a", now);
+            consumer.accept("v", "b", now);
+            consumer.accept("v", "c", now);
+            consumer.accept("v", "x", now);
+            consumer.accept("a", "x", now);
+            consumer.accept("b", "x", now);
+            consumer.accept("c", "x", now);
+            consumer.accept("a", "y", now);
+            consumer.accept("b", "y", now);
+            consumer.accept("a", "z", monthAgo);
+            consumer.accept("c", "z", monthAgo);
+            consumer.accept("c", "w", now);
+            consumer.accept("a", "v", now);
+            return null;
+        }).when(followRepository).streamEdges(anyInt(), any());
+
+        FollowProperties properties = new FollowProperties();
+        properties.getGraph().setEnabled(true);
+        index = new FollowGraphIndex(followRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)), properties,
+                new ShardRouter(mock(JdbcTemplate.class), properties));
+        index.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testRankedByMutualCount() {
+        List<RecommendedAccountDTO> recommendations = index.recommend("v", 10, null, pool);
+
+        // x is already followed and v itself is never recommended
+        assertThat(recommendations).extracting(RecommendedAccountDTO::getAccountId).doesNotContain("x", "v");
+        assertThat(recommendations).extracting(RecommendedAccountDTO::getMutualCount).containsExactly(2, 2, 1);
+        assertThat(recommendations.get(2).getAccountId()).isEqualTo("w");
+        assertThat(index.recommend("v", 1, null, pool)).hasSize(1);
+        assertThat(index.recommend("unknown", 10, null, pool)).isEmpty();
+    }
+
+    @Test
+    public void testRecencyWeighting() {
+        List<RecommendedAccountDTO> recommendations = index.recommend("v", 10, Duration.ofDays(7), pool);
+
+        // y and z have the same count, but the follows of z are about four half-lives old
+        assertThat(recommendations).extracting(RecommendedAccountDTO::getAccountId).containsExactly("y", "w", "z");
+        assertThat(recommendations.get(0).getScore()).isCloseTo(2, offset(0.01));
+        assertThat(recommendations.get(2).getScore()).isLessThan(0.2);
+    }
+
+    @Test
+    public void testOverlayApplied() {
+        index.recordUnfollow("v", "x");
+        index.recordFollow("v", "y");
+        index.recordFollow("b", "w");
+
+        List<RecommendedAccountDTO> recommendations = index.recommend("v", 10, null, pool);
+
+        assertThat(recommendations).extracting(RecommendedAccountDTO::getAccountId).containsExactly("x", "z", "w");
+        assertThat(recommendations).extracting(RecommendedAccountDTO::getMutualCount).containsExactly(3, 2, 2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.fp.follow;
+
+import com.fp.dto.follow.request.RelationshipStatusRequestDTO;
+import com.fp.dto.follow.response.RelationshipStatusResponseDTO;
+import com.fp.entity.Follow;
+import com.fp.repository.FollowRepository;
+import com.fp.service.FollowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class FollowRelationshipStatusTest {
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    private final String viewer = UUID.randomUUID().toString();
+    private final String followed = UUID.randomUUID().toString();
+    private final String follower = UUID.randomUUID().toString();
+    private final String mutual = UUID.randomUUID().toString();
+    private final String stranger = UUID.randomUUID().toString();
+    private final List<Follow> follows = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        follows.add(follow(viewer, followed));
+        follows.add(follow(follower, viewer));
+        follows.add(follow(viewer, mutual));
+        follows.add(follow(mutual, viewer));
+        followRepository.saveAll(follows);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        followRepository.deleteAll(follows);
+    }
+
+    @Test
+    public void testResolvesBothDirections() {
+        RelationshipStatusResponseDTO response = followService.getRelationships(RelationshipStatusRequestDTO.builder()
+                .viewerId(viewer)
+                .targetIds(List.of(followed, follower, mutual, stranger))
+                .build());
+
+        assertThat(response.getTargetIds()).containsExactly(followed, follower, mutual, stranger);
+        assertThat(response.isFollowing(0)).isTrue();
+        assertThat(response.isFollowedBy(0)).isFalse();
+        assertThat(response.isFollowing(1)).isFalse();
+        assertThat(response.isFollowedBy(1)).isTrue();
+        assertThat(response.isFollowing(2)).isTrue();
+        assertThat(response.isFollowedBy(2)).isTrue();
+        assertThat(response.isFollowing(3)).isFalse();
+        assertThat(response.isFollowedBy(3)).isFalse();
+    }
+
+    @Test
+    public void testBitsetEncoding() {
+        BitSet bits = new BitSet();
+        bits.set(0);
+        bits.set(9);
+        bits.set(499);
+        String encoded = RelationshipStatusResponseDTO.encode(bits);
+        assertThat(RelationshipStatusResponseDTO.decode(encoded)).isEqualTo(bits);
+        // 500 targets fit in 63 bytes
+        assertThat(encoded).hasSize(84);
+        assertThat(RelationshipStatusResponseDTO.decode(RelationshipStatusResponseDTO.encode(new BitSet())).isEmpty()).isTrue();
+    }
+
+    private static Follow follow(String followerId, String followeeId) {
+        return Follow.builder()
+                .followerId(followerId)
+                .followeeId(followeeId)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
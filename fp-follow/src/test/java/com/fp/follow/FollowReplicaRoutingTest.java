@@ -0,0 +1,248 @@
+package com.fp.follow;
+
+import com.fp.config.FollowDataSourceConfig;
+import com.fp.properties.FollowProperties;
+import com.fp.replica.ReadYourWritesTracker;
+import com.fp.replica.ReplicaContext;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardRoutingDataSource;
+import com.fp.shard.ShardRoutingDataSource.PoolKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class FollowReplicaRoutingTest {
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testReadOnlyTransactionsGoToTheReplica() {
+        var dataSource = new TestRoutingDataSource(
+                Map.of(0, mock(DataSource.class), 1, mock(DataSource.class)),
+                Map.of(0, mock(DataSource.class)));
+
+        assertThat(dataSource.lookupKey()).isEqualTo(new PoolKey(0, false));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.lookupKey()).isEqualTo(new PoolKey(0, true));
+        // No replica for shard 1
+        assertThat(ShardContext.call(1, dataSource::lookupKey)).isEqualTo(new PoolKey(1, false));
+
+        boolean previous = ReplicaContext.enter(true);
+        try {
+            assertThat(dataSource.lookupKey()).isEqualTo(new PoolKey(0, false));
+        } finally {
+            ReplicaContext.restore(previous);
+        }
+        assertThat(dataSource.lookupKey()).isEqualTo(new PoolKey(0, true));
+    }
+
+    @Test
+    public void testReadOnlyServiceCallsGetTheReplicaPool() throws IOException {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            // One server behind both pools, told apart by the application name of their connections
+            String url = postgres.getJdbcUrl("postgres", "postgres");
+            FollowProperties followProperties = new FollowProperties();
+            followProperties.getReplica().setEnabled(true);
+            followProperties.getReplica().setUrls(List.of(url + "&ApplicationName=follow-replica"));
+            DataSourceProperties dataSourceProperties = new DataSourceProperties();
+            dataSourceProperties.setUrl(url + "&ApplicationName=follow-primary");
+            dataSourceProperties.setUsername("postgres");
+
+            context.getEnvironment().getPropertySources()
+                    .addFirst(new MapPropertySource("test", Map.of("fp.follow.replica.enabled", "true")));
+            context.registerBean(FollowProperties.class, () -> followProperties);
+            context.registerBean(DataSourceProperties.class, () -> dataSourceProperties);
+            context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+            context.register(JpaConfig.class);
+            context.refresh();
+            PoolNames poolNames = context.getBean(PoolNames.class);
+
+            assertThat(poolNames.read()).isEqualTo("follow-replica");
+            assertThat(poolNames.write()).isEqualTo("follow-primary");
+            boolean previous = ReplicaContext.enter(true);
+            try {
+                assertThat(poolNames.read()).isEqualTo("follow-primary");
+            } finally {
+                ReplicaContext.restore(previous);
+            }
+        }
+    }
+
+    @Test
+    public void testRecentlyWrittenAccountsRequireThePrimary() throws InterruptedException {
+        ReadYourWritesTracker tracker = tracker(Duration.ofMillis(200), 100);
+        tracker.recordWrite("follower", List.of("followee-1", "followee-2"));
+
+        assertThat(tracker.requiresPrimary("follower")).isTrue();
+        assertThat(tracker.requiresPrimary("followee-2")).isTrue();
+        assertThat(tracker.requiresPrimary("someone-else")).isFalse();
+
+        Thread.sleep(250);
+        assertThat(tracker.requiresPrimary("follower")).isFalse();
+    }
+
+    @Test
+    public void testTrackerForgetsOnlyTheExpiredAccounts() throws InterruptedException {
+        ReadYourWritesTracker tracker = tracker(Duration.ofMillis(200), 2);
+        tracker.recordWrite("a", List.of());
+        Thread.sleep(250);
+        // Room is made by forgetting "a", whose window expired
+        tracker.recordWrite("b", List.of("c"));
+
+        assertThat(tracker.requiresPrimary("a")).isFalse();
+        assertThat(tracker.requiresPrimary("b")).isTrue();
+        assertThat(tracker.requiresPrimary("c")).isTrue();
+        assertThat(tracker.requiresPrimary("someone-else")).isFalse();
+    }
+
+    @Test
+    public void testOverflowingTrackerPinsEveryAccountForAWindow() throws InterruptedException {
+        ReadYourWritesTracker tracker = tracker(Duration.ofMillis(200), 2);
+        tracker.recordWrite("a", List.of());
+        tracker.recordWrite("b", List.of());
+        tracker.recordWrite("c", List.of());
+
+        // No account within its window is forgotten: all of them, and the others, stay on the primary
+        assertThat(tracker.requiresPrimary("a")).isTrue();
+        assertThat(tracker.requiresPrimary("b")).isTrue();
+        assertThat(tracker.requiresPrimary("c")).isTrue();
+        assertThat(tracker.requiresPrimary("someone-else")).isTrue();
+
+        Thread.sleep(250);
+        assertThat(tracker.requiresPrimary("a")).isFalse();
+        assertThat(tracker.requiresPrimary("someone-else")).isFalse();
+        tracker.recordWrite("d", List.of());
+        assertThat(tracker.requiresPrimary("d")).isTrue();
+        assertThat(tracker.requiresPrimary("c")).isFalse();
+    }
+
+    @Test
+    public void testDisabledTrackerNeverPins() {
+        FollowProperties properties = new FollowProperties();
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties, new SimpleMeterRegistry());
+        tracker.recordWrite("follower", List.of("followee"));
+
+        assertThat(tracker.isEnabled()).isFalse();
+        assertThat(tracker.requiresPrimary("follower")).isFalse();
+    }
+
+    @Test
+    public void testPrimaryRequirementNestsAndFollowsTasks() throws InterruptedException {
+        assertThat(ReplicaContext.isPrimaryRequired()).isFalse();
+        AtomicBoolean seenByTask = new AtomicBoolean();
+        boolean outer = ReplicaContext.enter(true);
+        try {
+            // A nested read of an account outside its window keeps the requirement
+            boolean inner = ReplicaContext.enter(false);
+            assertThat(ReplicaContext.isPrimaryRequired()).isTrue();
+            ReplicaContext.restore(inner);
+            assertThat(ReplicaContext.isPrimaryRequired()).isTrue();
+
+            Thread thread = new Thread(ReplicaContext.wrap(() -> seenByTask.set(ReplicaContext.isPrimaryRequired())));
+            thread.start();
+            thread.join();
+        } finally {
+            ReplicaContext.restore(outer);
+        }
+        assertThat(seenByTask).isTrue();
+        assertThat(ReplicaContext.isPrimaryRequired()).isFalse();
+    }
+
+    private static ReadYourWritesTracker tracker(Duration window, int maxTrackedAccounts) {
+        FollowProperties properties = new FollowProperties();
+        properties.getReplica().setEnabled(true);
+        properties.getReplica().setReadYourWritesWindow(window);
+        properties.getReplica().setMaxTrackedAccounts(maxTrackedAccounts);
+        return new ReadYourWritesTracker(properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * JPA over the datasource of `FollowDataSourceConfig`, as the application runs it.
+     */
+    @Configuration
+    @EnableTransactionManagement
+    @Import(FollowDataSourceConfig.class)
+    static class JpaConfig {
+        @Bean
+        public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setPackagesToScan("com.fp.entity");
+            return factory;
+        }
+
+        @Bean
+        public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        public PoolNames poolNames() {
+            return new PoolNames();
+        }
+    }
+
+    /**
+     * Reports the pool its transaction got a connection of.
+     */
+    static class PoolNames {
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Transactional(readOnly = true)
+        public String read() {
+            return applicationName();
+        }
+
+        @Transactional
+        public String write() {
+            return applicationName();
+        }
+
+        private String applicationName() {
+            return (String) entityManager.createNativeQuery("SELECT current_setting('application_name')").getSingleResult();
+        }
+    }
+
+    private static class TestRoutingDataSource extends ShardRoutingDataSource {
+        TestRoutingDataSource(Map<Integer, DataSource> primaries, Map<Integer, DataSource> replicas) {
+            super(primaries, replicas);
+        }
+
+        Object lookupKey() {
+            return determineCurrentLookupKey();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.fp.follow;
+
+import com.fp.properties.FollowProperties;
+import com.fp.service.FollowCountService;
+import com.fp.shard.FollowShardWriter;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardMap;
+import com.fp.shard.ShardRebalancer;
+import com.fp.shard.ShardRouter;
+import com.fp.shard.ShardRoutingDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+///
+/// # Follows between two shards of an embedded PostgreSQL: mirrors, their replay, bucket moves.
+///
+/// The mirror executor only queues the mirrors: a test runs them, out of order if it likes, or drops them as a crash
+/// would, leaving their outbox rows to the sweep.
+///
+public class FollowShardMirrorTest {
+    private static final Instant CREATED_AT = Instant.parse("2024-03-01T12:00:00Z");
+
+    private static EmbeddedPostgres postgres;
+    private static ShardRoutingDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private final List<Runnable> mirrors = new ArrayList<>();
+    private FollowProperties followProperties;
+    private ShardRouter shardRouter;
+    private FollowCountService followCountService;
+    private FollowShardWriter followShardWriter;
+
+    @BeforeAll
+    public static void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().setServerConfig("jit", "off").start();
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE shard1");
+        DataSource shard0 = postgres.getPostgresDatabase();
+        DataSource shard1 = postgres.getDatabase("postgres", "shard1");
+        for (DataSource shard : List.of(shard0, shard1)) {
+            new JdbcTemplate(shard).execute("""
+                    CREATE TABLE follows
+                    (
+                        follower_id VARCHAR(255)                NOT NULL,
+                        followee_id VARCHAR(255)                NOT NULL,
+                        created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+                        PRIMARY KEY (follower_id, followee_id)
+                    )
+                    """);
+            try (Connection connection = shard.getConnection()) {
+                for (String script : List.of("db/follow_counts.sql", "db/follower_growth_buckets.sql",
+                        "db/sharding/follow_buckets.sql", "db/sharding/follow_mirror_outbox.sql")) {
+                    ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+                }
+            }
+        }
+        try (Connection connection = shard0.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/sharding/follow_shard_buckets.sql"));
+        }
+        dataSource = new ShardRoutingDataSource(Map.of(0, shard0, 1, shard1), Map.of());
+        dataSource.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    public void setUpShards() {
+        for (int shard : List.of(0, 1)) {
+            ShardContext.run(shard, () -> jdbcTemplate.execute(
+                    "TRUNCATE follows, follow_counts, follower_growth_buckets, follow_mirror_outbox"));
+        }
+        ShardContext.run(0, () -> jdbcTemplate.execute("TRUNCATE follow_shard_buckets"));
+        followProperties = new FollowProperties();
+        var sharding = followProperties.getSharding();
+        sharding.setEnabled(true);
+        sharding.setShards(List.of(new FollowProperties.ShardingConfig.ShardConfig(),
+                new FollowProperties.ShardingConfig.ShardConfig()));
+        sharding.setRefreshInterval(1);
+        sharding.setCopyBatchSize(7);
+        shardRouter = new ShardRouter(jdbcTemplate, followProperties);
+        shardRouter.load();
+        followCountService = mock(FollowCountService.class);
+        followShardWriter = new FollowShardWriter(shardRouter, jdbcTemplate,
+                transactionTemplate.getTransactionManager(), followCountService, mirrors::add);
+    }
+
+    @Test
+    public void testFollowsAreMirroredOnceCommitted() {
+        String follower = accountOn(0, 0);
+        String followee = accountOn(1, 0);
+
+        follow(follower, followee);
+        assertThat(outbox(0)).isEqualTo(1);
+        assertThat(copied(1, follower, followee)).isFalse();
+        runMirrors();
+        assertThat(copied(1, follower, followee)).isTrue();
+        assertThat(ShardContext.call(1, () -> jdbcTemplate.queryForObject(
+                "SELECT created_at FROM follows WHERE follower_id = ?", Timestamp.class, follower)).toInstant())
+                .isEqualTo(CREATED_AT);
+        assertThat(outbox(0)).isZero();
+
+        unfollow(follower, followee);
+        runMirrors();
+        assertThat(copied(1, follower, followee)).isFalse();
+        assertThat(outbox(0)).isZero();
+        verify(followCountService).recordFollowAll(follower, List.of(followee));
+        verify(followCountService).recordUnfollowAll(follower, List.of(followee));
+    }
+
+    @Test
+    public void testRolledBackFollowsAreNeverMirrored() {
+        String follower = accountOn(0, 0);
+        String followee = accountOn(1, 0);
+
+        ShardContext.run(0, () -> transactionTemplate.executeWithoutResult(status -> {
+            insert(follower, followee);
+            followShardWriter.mirror(follower, List.of(followee));
+            status.setRollbackOnly();
+        }));
+        runMirrors();
+
+        assertThat(mirrors).isEmpty();
+        assertThat(outbox(0)).isZero();
+        assertThat(copied(1, follower, followee)).isFalse();
+    }
+
+    @Test
+    public void testSweepRepairsTheMirrorsACrashLost() {
+        String follower = accountOn(0, 0);
+        String followee = accountOn(1, 0);
+        String otherFollowee = accountOn(1, 1);
+        follow(follower, followee);
+        runMirrors();
+
+        // Crashed after the commits, before their mirrors: the shards disagree on both follows
+        unfollow(follower, followee);
+        follow(follower, otherFollowee);
+        mirrors.clear();
+        assertThat(copied(1, follower, followee)).isTrue();
+        assertThat(copied(1, follower, otherFollowee)).isFalse();
+
+        assertThat(followShardWriter.sweep(Duration.ZERO, 100)).isEqualTo(2);
+        assertThat(copied(1, follower, followee)).isFalse();
+        assertThat(copied(1, follower, otherFollowee)).isTrue();
+        assertThat(outbox(0)).isZero();
+        assertThat(followShardWriter.sweep(Duration.ZERO, 100)).isZero();
+    }
+
+    @Test
+    public void testLateMirrorsWriteTheCurrentState() {
+        String follower = accountOn(0, 0);
+        String followee = accountOn(1, 0);
+        follow(follower, followee);
+        Runnable followMirror = mirrors.remove(0);
+        unfollow(follower, followee);
+        Runnable unfollowMirror = mirrors.remove(0);
+
+        // The mirror of the unfollow runs first: the mirror of the follow, late, must not resurrect the copy
+        unfollowMirror.run();
+        followMirror.run();
+        assertThat(copied(1, follower, followee)).isFalse();
+
+        // Replaying a mirror already applied changes nothing
+        follow(follower, followee);
+        Runnable mirror = mirrors.get(0);
+        runMirrors();
+        mirror.run();
+        assertThat(copied(1, follower, followee)).isTrue();
+        verify(followCountService, times(1)).recordFollowAll(follower, List.of(followee));
+    }
+
+    @Test
+    public void testBucketFunctionMatchesTheShardMap() {
+        List<String> accountIds = new ArrayList<>(List.of("account-1", "", "émoji-☃-账户"));
+        for (int i = 0; i < 2000; i++) {
+            accountIds.add(UUID.randomUUID().toString());
+        }
+        for (int buckets : List.of(1024, 7)) {
+            List<Integer> buckets0 = ShardContext.call(0, () -> jdbcTemplate.queryForList(
+                    "SELECT follow_bucket(a, ?) FROM unnest(?::varchar[]) WITH ORDINALITY AS u (a, n) ORDER BY n",
+                    Integer.class, buckets, accountIds.toArray(String[]::new)));
+            assertThat(buckets0).isEqualTo(accountIds.stream().map(accountId -> ShardMap.bucketOf(accountId, buckets)).toList());
+        }
+    }
+
+    @Test
+    public void testMovedBucketLeavesOnlyItsCopiesBehind() {
+        ShardMap map = shardRouter.map();
+        String moved = accountOn(0, 0);
+        int bucket = map.bucketOf(moved);
+        String stayer = accountOn(0, 1);
+        String remote = accountOn(1, 0);
+        List<String> bucketMates = new ArrayList<>();
+        for (int i = 0; bucketMates.size() < 10; i++) {
+            String accountId = "account-" + i;
+            if (map.bucketOf(accountId) == bucket && !accountId.equals(moved)) {
+                bucketMates.add(accountId);
+            }
+        }
+        // Both directions, across shards, within the bucket: more rows than a batch
+        for (String mate : bucketMates) {
+            follow(moved, mate);
+            follow(mate, stayer);
+            follow(remote, mate);
+        }
+        follow(stayer, moved);
+        follow(stayer, remote);
+        runMirrors();
+        ShardContext.run(0, () -> jdbcTemplate.update("INSERT INTO follow_counts (account_id) VALUES (?), (?)", moved, stayer));
+
+        ShardRebalancer.Move move = new ShardRebalancer(shardRouter, jdbcTemplate, followProperties).move(bucket, 1);
+
+        assertThat(move.copiedFollows()).isEqualTo(31);
+        assertThat(move.removedCounts()).isEqualTo(1);
+        assertThat(shardRouter.shardOf(moved)).isEqualTo(1);
+        // Shard 1 has every follow of the bucket, shard 0 those of the accounts it still owns
+        assertThat(follows(1)).isEqualTo(32);
+        assertThat(follows(0)).isEqualTo(12);
+        assertThat(copied(0, stayer, moved)).isTrue();
+        assertThat(copied(0, moved, bucketMates.get(0))).isFalse();
+        assertThat(copied(0, stayer, remote)).isTrue();
+    }
+
+    /**
+     * The `index`-th of the accounts served by the shard.
+     */
+    private String accountOn(int shard, int index) {
+        int found = 0;
+        for (int i = 0; ; i++) {
+            String accountId = "account-" + i;
+            if (shardRouter.shardOf(accountId) == shard && found++ == index) {
+                return accountId;
+            }
+        }
+    }
+
+    /**
+     * Write and mirror a follow in a transaction of the follower's shard, as `FollowServiceImpl` does.
+     */
+    private void follow(String followerId, String followeeId) {
+        ShardContext.run(shardRouter.shardOf(followerId), () -> transactionTemplate.executeWithoutResult(status -> {
+            insert(followerId, followeeId);
+            followShardWriter.mirror(followerId, List.of(followeeId));
+        }));
+    }
+
+    private void unfollow(String followerId, String followeeId) {
+        ShardContext.run(shardRouter.shardOf(followerId), () -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM follows WHERE follower_id = ? AND followee_id = ?", followerId, followeeId);
+            followShardWriter.mirror(followerId, List.of(followeeId));
+        }));
+    }
+
+    private static void insert(String followerId, String followeeId) {
+        jdbcTemplate.update("INSERT INTO follows (follower_id, followee_id, created_at) VALUES (?, ?, ?)",
+                followerId, followeeId, Timestamp.from(CREATED_AT));
+    }
+
+    private void runMirrors() {
+        List<Runnable> pending = List.copyOf(mirrors);
+        mirrors.clear();
+        pending.forEach(Runnable::run);
+    }
+
+    private static boolean copied(int shard, String followerId, String followeeId) {
+        return ShardContext.call(shard, () -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM follows WHERE follower_id = ? AND followee_id = ?", Integer.class, followerId, followeeId)) > 0;
+    }
+
+    private static int follows(int shard) {
+        return ShardContext.call(shard, () -> jdbcTemplate.queryForObject("SELECT count(*) FROM follows", Integer.class));
+    }
+
+    private static int outbox(int shard) {
+        return ShardContext.call(shard, () -> jdbcTemplate.queryForObject("SELECT count(*) FROM follow_mirror_outbox", Integer.class));
+    }
+}
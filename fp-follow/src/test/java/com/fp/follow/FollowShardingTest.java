@@ -0,0 +1,120 @@
+package com.fp.follow;
+
+import com.fp.properties.FollowProperties;
+import com.fp.shard.ShardContext;
+import com.fp.shard.ShardMap;
+import com.fp.shard.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class FollowShardingTest {
+
+    @Test
+    public void testBucketsAreStableAndSpread() {
+        int[] perBucket = new int[64];
+        for (int i = 0; i < 64_000; i++) {
+            String accountId = UUID.randomUUID().toString();
+            int bucket = ShardMap.bucketOf(accountId, 64);
+            assertThat(ShardMap.bucketOf(accountId, 64)).isEqualTo(bucket);
+            perBucket[bucket]++;
+        }
+        for (int count : perBucket) {
+            assertThat(count).isBetween(800, 1200);
+        }
+        // Fixed across JVMs and releases: the directory and the data depend on it
+        assertThat(ShardMap.bucketOf("account-1", 1024)).isEqualTo(468);
+    }
+
+    @Test
+    public void testMigratingBucketIsWrittenToBothShards() {
+        ShardMap map = ShardMap.roundRobin(3, 12);
+        String accountId = "account-42";
+        int bucket = map.bucketOf(accountId);
+        int owner = map.owner(bucket);
+        int target = (owner + 1) % 3;
+        assertThat(map.writeShardsOf(accountId)).containsExactly(owner);
+
+        ShardMap migrating = map.with(bucket, owner, target);
+        assertThat(migrating.shardOf(accountId)).isEqualTo(owner);
+        assertThat(migrating.writeShardsOf(accountId)).containsExactly(owner, target);
+        assertThat(migrating.stores(target, accountId)).isTrue();
+
+        ShardMap moved = migrating.with(bucket, target, ShardMap.NOT_MIGRATING);
+        assertThat(moved.shardOf(accountId)).isEqualTo(target);
+        assertThat(moved.stores(owner, accountId)).isFalse();
+        // Only the moved bucket changed owner
+        for (int other = 0; other < 12; other++) {
+            if (other != bucket) {
+                assertThat(moved.owner(other)).isEqualTo(map.owner(other));
+            }
+        }
+    }
+
+    @Test
+    public void testDirectoryReferencingUnknownShardIsRejected() {
+        assertThatThrownBy(() -> new ShardMap(2, new int[]{0, 2}, new int[]{ShardMap.NOT_MIGRATING, ShardMap.NOT_MIGRATING}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testUnshardedRouterUsesASingleShard() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ShardRouter router = new ShardRouter(jdbcTemplate, new FollowProperties());
+        router.load();
+        router.refresh();
+
+        assertThat(router.isSharded()).isFalse();
+        assertThat(router.shards()).containsExactly(0);
+        assertThat(router.groupByShard(List.of("a", "b", "c"))).isEqualTo(Map.of(0, List.of("a", "b", "c")));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void testGroupByShard() {
+        FollowProperties properties = new FollowProperties();
+        properties.getSharding().setEnabled(true);
+        properties.getSharding().setVirtualBuckets(16);
+        properties.getSharding().setShards(List.of(new FollowProperties.ShardingConfig.ShardConfig(),
+                new FollowProperties.ShardingConfig.ShardConfig()));
+        ShardRouter router = new ShardRouter(mock(JdbcTemplate.class), properties);
+
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            accountIds.add("account-" + i);
+        }
+        Map<Integer, List<String>> groups = router.groupByShard(accountIds);
+        assertThat(groups.keySet()).containsExactly(0, 1);
+        groups.forEach((shard, group) -> assertThat(group).allSatisfy(accountId -> assertThat(router.shardOf(accountId)).isEqualTo(shard)));
+        assertThat(groups.values().stream().mapToInt(List::size).sum()).isEqualTo(100);
+    }
+
+    @Test
+    public void testShardContextNestsAndFollowsTasks() {
+        assertThat(ShardContext.current()).isNull();
+        AtomicReference<Integer> seenByTask = new AtomicReference<>();
+        ShardContext.run(1, () -> {
+            assertThat(ShardContext.<Integer>call(2, ShardContext::current)).isEqualTo(2);
+            assertThat(ShardContext.current()).isEqualTo(1);
+            Thread thread = new Thread(ShardContext.wrap(() -> seenByTask.set(ShardContext.current())));
+            thread.start();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(seenByTask.get()).isEqualTo(1);
+        assertThat(ShardContext.current()).isNull();
+    }
+}
@@ -0,0 +1,144 @@
+package com.fp.follow;
+
+import com.fp.dto.follow.request.FollowRequestDTO;
+import com.fp.dto.follow.request.UnfollowRequestDTO;
+import com.fp.entity.Follow;
+import com.fp.repository.FollowRepository;
+import com.fp.service.FollowService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+///
+/// # Benchmark of the follow/unfollow write path.
+///
+/// Compares the legacy `find + save()` / `find + delete()` path with `FollowServiceImpl.follow` / `unfollow`, whose
+/// whole transaction is the single `INSERT ... ON CONFLICT DO NOTHING` / `DELETE` statement: JDBC statements per
+/// transaction and p50/p99 latency.
+///
+/// The statements are counted at the application data source by a `StatementRecorder`, those of `JdbcTemplate`
+/// included, which the Hibernate statistics miss; only the statements of the benchmark thread are counted.
+///
+@SpringBootTest
+@Slf4j
+public class FollowWriteBenchmark {
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2000;
+    private static final StatementRecorder recorder = new StatementRecorder();
+
+    @TestConfiguration
+    static class RecordingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                            ? recorder.wrap(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void benchmarkFollowWritePath() {
+        String followeeId = UUID.randomUUID().toString();
+
+        Result legacyFollow = run("legacy follow (find + save)", followeeId, (followerId, id) ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    Optional<Follow> optional = followRepository.findByFollowerIdAndFolloweeId(followerId, id);
+                    if (optional.isEmpty()) {
+                        followRepository.save(Follow.builder().followerId(followerId).followeeId(id).createdAt(Instant.now()).build());
+                    }
+                }));
+        Result legacyUnfollow = run("legacy unfollow (find + delete)", followeeId, (followerId, id) ->
+                transactionTemplate.executeWithoutResult(status ->
+                        followRepository.findByFollowerIdAndFolloweeId(followerId, id).ifPresent(followRepository::delete)));
+
+        Result follow = run("follow (FollowService)", followeeId, (followerId, id) -> {
+            FollowRequestDTO request = new FollowRequestDTO();
+            request.setAccountId(followerId);
+            request.setFolloweeId(id);
+            followService.follow(request);
+        });
+        Result unfollow = run("unfollow (FollowService)", followeeId, (followerId, id) -> {
+            UnfollowRequestDTO request = new UnfollowRequestDTO();
+            request.setAccountId(followerId);
+            request.setFolloweeId(id);
+            followService.unfollow(request);
+        });
+
+        // The whole transaction, counters, growth, caches and index included, is the write statement
+        assertThat(follow.statementsPerOp()).isEqualTo(1.0);
+        assertThat(unfollow.statementsPerOp()).isEqualTo(1.0);
+        assertThat(follow.statementsPerOp()).isLessThan(legacyFollow.statementsPerOp());
+        assertThat(unfollow.statementsPerOp()).isLessThan(legacyUnfollow.statementsPerOp());
+    }
+
+    /**
+     * Runs the transaction for generated follower IDs of the same followee. The same follower IDs are reused by the
+     * follow and unfollow runs, so each unfollow run deletes the rows of the follow run before it.
+     */
+    private Result run(String name, String followeeId, BiConsumer<String, String> transaction) {
+        List<String> followerIds = followerIds(WARMUP + ITERATIONS);
+        for (int i = 0; i < WARMUP; i++) {
+            transaction.accept(followerIds.get(i), followeeId);
+        }
+
+        recorder.drain();
+        long[] latencies = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            String followerId = followerIds.get(WARMUP + i);
+            long start = System.nanoTime();
+            transaction.accept(followerId, followeeId);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Result result = new Result((double) recorder.drain(Thread.currentThread()).size() / ITERATIONS, latencies);
+        log.info("{}: {} statements/op, p50={} µs, p99={} µs",
+                name, result.statementsPerOp(), result.percentile(50) / 1000, result.percentile(99) / 1000);
+        return result;
+    }
+
+    private List<String> followerIds(int count) {
+        // Deterministic IDs so the unfollow runs hit the rows created by the follow runs
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add("benchmark-follower-" + i);
+        }
+        return ids;
+    }
+
+    private record Result(double statementsPerOp, long[] latencies) {
+        long percentile(int p) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1)];
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.fp.follow;
+
+import com.fp.counter.FollowerGrowthBuffer;
+import com.fp.counter.FollowerGrowthBuffer.Growth;
+import com.fp.counter.FollowerGrowthBuffer.HourKey;
+import com.fp.counter.GrowthBuckets;
+import com.fp.counter.GrowthBuckets.Range;
+import com.fp.dto.follow.request.FollowerGrowthRequestDTO.Granularity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FollowerGrowthTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-10T10:25:00Z");
+    private static final Instant HOURS_KEPT_SINCE = NOW.minus(Duration.ofDays(7));
+
+    @Test
+    public void testBufferKeepsGainsAndLossesPerHour() {
+        FollowerGrowthBuffer buffer = new FollowerGrowthBuffer(8);
+        Instant hour = Instant.parse("2024-03-10T10:00:00Z");
+        buffer.add("a", hour, 1, 0);
+        buffer.add("a", hour, 0, 1);
+        buffer.add("a", hour.plusSeconds(3600), 1, 0);
+        buffer.add("b", hour, 1, 0);
+
+        Map<HourKey, Growth> drained = buffer.drain();
+        // a follow and an unfollow within the same hour are both reported
+        assertThat(drained).containsEntry(new HourKey("a", hour), new Growth(1, 1))
+                .containsEntry(new HourKey("a", hour.plusSeconds(3600)), new Growth(1, 0))
+                .hasSize(3);
+        assertThat(buffer.drain()).isEmpty();
+
+        buffer.restore(drained);
+        assertThat(buffer.drain()).isEqualTo(drained);
+    }
+
+    @Test
+    public void testSinceWithinTheCurrentDayReadsHours() {
+        assertThat(GrowthBuckets.since(Instant.parse("2024-03-10T03:40:00Z"), NOW, HOURS_KEPT_SINCE)).containsExactly(
+                new Range(Granularity.HOUR, Instant.parse("2024-03-10T03:00:00Z"), Instant.parse("2024-03-10T11:00:00Z")));
+    }
+
+    @Test
+    public void testSinceOverSeveralDaysReadsWholeDays() {
+        assertThat(GrowthBuckets.since(Instant.parse("2024-03-05T13:20:00Z"), NOW, HOURS_KEPT_SINCE)).containsExactly(
+                new Range(Granularity.HOUR, Instant.parse("2024-03-05T13:00:00Z"), Instant.parse("2024-03-06T00:00:00Z")),
+                new Range(Granularity.DAY, Instant.parse("2024-03-06T00:00:00Z"), Instant.parse("2024-03-10T00:00:00Z")),
+                new Range(Granularity.HOUR, Instant.parse("2024-03-10T00:00:00Z"), Instant.parse("2024-03-10T11:00:00Z")));
+
+        // starting on a day boundary, the first day is read as a whole day
+        assertThat(GrowthBuckets.since(Instant.parse("2024-03-01T00:00:00Z"), NOW, HOURS_KEPT_SINCE)).containsExactly(
+                new Range(Granularity.DAY, Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-03-10T00:00:00Z")),
+                new Range(Granularity.HOUR, Instant.parse("2024-03-10T00:00:00Z"), Instant.parse("2024-03-10T11:00:00Z")));
+    }
+
+    @Test
+    public void testSinceOlderThanTheHourlyRetentionReadsItsWholeDay() {
+        // The hours of 2024-03-02 are pruned already, the day is kept
+        assertThat(GrowthBuckets.since(Instant.parse("2024-03-02T13:20:00Z"), NOW, HOURS_KEPT_SINCE)).containsExactly(
+                new Range(Granularity.DAY, Instant.parse("2024-03-02T00:00:00Z"), Instant.parse("2024-03-10T00:00:00Z")),
+                new Range(Granularity.HOUR, Instant.parse("2024-03-10T00:00:00Z"), Instant.parse("2024-03-10T11:00:00Z")));
+
+        // Within the retention, the first day is still read from its hours
+        assertThat(GrowthBuckets.since(Instant.parse("2024-03-03T13:20:00Z"), NOW, HOURS_KEPT_SINCE).get(0)).isEqualTo(
+                new Range(Granularity.HOUR, Instant.parse("2024-03-03T13:00:00Z"), Instant.parse("2024-03-04T00:00:00Z")));
+    }
+}
@@ -0,0 +1,60 @@
+package com.fp.follow;
+
+import com.fp.pagination.KeysetPaginationEngine;
+import com.fp.repository.FollowTables;
+import com.fp.strategy.FollowQueryStrategyType;
+import com.fp.strategy.impl.KeysetFollowQueryStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KeysetPaginationEngineTest {
+
+    private final KeysetPaginationEngine engine = new KeysetPaginationEngine(null);
+
+    private String sql(FollowQueryStrategyType type) {
+        return engine.sql(KeysetFollowQueryStrategy.toKeysetQuery(type));
+    }
+
+    @Test
+    public void testFirstPages() {
+        assertThat(sql(FollowQueryStrategyType.FOLLOWERS_FIRST_PAGE_DESC)).isEqualTo(
+                "SELECT followee_id, follower_id, created_at FROM follows WHERE followee_id = ?"
+                        + " ORDER BY created_at DESC, follower_id DESC LIMIT ?");
+        assertThat(sql(FollowQueryStrategyType.FOLLOWINGS_FIRST_PAGE_ASC)).isEqualTo(
+                "SELECT followee_id, follower_id, created_at FROM follows WHERE follower_id = ?"
+                        + " ORDER BY created_at ASC, followee_id ASC LIMIT ?");
+    }
+
+    @Test
+    public void testSeekPredicateFollowsDirection() {
+        assertThat(sql(FollowQueryStrategyType.FOLLOWERS_CURSOR_PAGE_DESC))
+                .contains("WHERE followee_id = ? AND (created_at, follower_id) < (?, ?)")
+                .endsWith("ORDER BY created_at DESC, follower_id DESC LIMIT ?");
+        assertThat(sql(FollowQueryStrategyType.FOLLOWERS_CURSOR_PAGE_ASC))
+                .contains("WHERE followee_id = ? AND (created_at, follower_id) > (?, ?)")
+                .endsWith("ORDER BY created_at ASC, follower_id ASC LIMIT ?");
+        assertThat(sql(FollowQueryStrategyType.FOLLOWINGS_CURSOR_PAGE_DESC))
+                .contains("WHERE follower_id = ? AND (created_at, followee_id) < (?, ?)")
+                .endsWith("ORDER BY created_at DESC, followee_id DESC LIMIT ?");
+        // used to seek with '<' while ordering ascending, which returned the wrong rows
+        assertThat(sql(FollowQueryStrategyType.FOLLOWINGS_CURSOR_PAGE_ASC))
+                .contains("WHERE follower_id = ? AND (created_at, followee_id) > (?, ?)")
+                .endsWith("ORDER BY created_at ASC, followee_id ASC LIMIT ?");
+    }
+
+    @Test
+    public void testSqlIsCachedPerShape() {
+        var query = KeysetFollowQueryStrategy.toKeysetQuery(FollowQueryStrategyType.FOLLOWINGS_CURSOR_PAGE_ASC);
+        assertThat(engine.sql(query)).isSameAs(engine.sql(query));
+    }
+
+    @Test
+    public void testPartitionedLayoutReadsEachDirectionFromItsPartitionedTable() {
+        FollowTables partitioned = new FollowTables(true);
+        assertThat(engine.sql(KeysetFollowQueryStrategy.toKeysetQuery(FollowQueryStrategyType.FOLLOWERS_FIRST_PAGE_DESC, partitioned)))
+                .contains("FROM follows WHERE followee_id = ?");
+        assertThat(engine.sql(KeysetFollowQueryStrategy.toKeysetQuery(FollowQueryStrategyType.FOLLOWINGS_CURSOR_PAGE_DESC, partitioned)))
+                .contains("FROM follows_by_follower WHERE follower_id = ?");
+    }
+}
@@ -0,0 +1,99 @@
+package com.fp.follow;
+
+import com.fp.dto.common.PageResponseDTO;
+import com.fp.dto.follow.request.FollowPaginationRequestDTO.QueryType;
+import com.fp.dto.follow.request.ListMutualFollowsRequestDTO;
+import com.fp.entity.Follow;
+import com.fp.repository.FollowIntersectionRepository.Side;
+import com.fp.repository.FollowRepository;
+import com.fp.service.FollowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class MutualFollowTest {
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    private final String viewer = UUID.randomUUID().toString();
+    private final String target = UUID.randomUUID().toString();
+    private final List<Follow> follows = new ArrayList<>();
+    private final List<String> expected = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        // The viewer follows 300 accounts, every third of them follows the target, and so do 1000 strangers
+        for (int i = 0; i < 300; i++) {
+            String followee = UUID.randomUUID().toString();
+            follows.add(follow(viewer, followee));
+            if (i % 3 == 0) {
+                follows.add(follow(followee, target));
+                expected.add(followee);
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            follows.add(follow(UUID.randomUUID().toString(), target));
+        }
+        followRepository.saveAll(follows);
+        expected.sort(String::compareTo);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        followRepository.deleteAll(follows);
+    }
+
+    @Test
+    public void testMergeAndProbeAgree() {
+        Side followings = new Side(QueryType.FOLLOWINGS, viewer);
+        Side followers = new Side(QueryType.FOLLOWERS, target);
+
+        assertThat(followRepository.intersectSorted(followings, followers, "", 1000)).isEqualTo(expected);
+        assertThat(followRepository.intersectByProbe(followings, followers, "", 1000)).isEqualTo(expected);
+        assertThat(followRepository.intersectByProbe(followers, followings, "", 1000)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testCursorPagination() {
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        PageResponseDTO<String> page;
+        do {
+            page = followService.listMutualFollows(ListMutualFollowsRequestDTO.builder()
+                    .accountId(viewer)
+                    .targetId(target)
+                    .limit(30)
+                    .cursor(cursor)
+                    .build());
+            walked.addAll(page.getData());
+            cursor = page.getNextCursor();
+            if (page.isHasMore()) {
+                assertThat(cursor).isNotEqualTo(page.getData().get(page.getData().size() - 1));
+            }
+        } while (page.isHasMore());
+
+        assertThat(walked).isEqualTo(expected);
+    }
+
+    private static Follow follow(String followerId, String followeeId) {
+        return Follow.builder()
+                .followerId(followerId)
+                .followeeId(followeeId)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.fp.follow;
+
+import com.fp.dto.common.PageResponseDTO;
+import com.fp.dto.follow.request.ListFollowersRequestDTO;
+import com.fp.dto.follow.response.FollowResponseDTO;
+import com.fp.exception.business.IllegalPageableCursorException;
+import com.fp.pagination.KeysetPaginationEngine;
+import com.fp.repository.FollowTables;
+import com.fp.repository.ReactiveFollowRepository;
+import com.fp.service.impl.FollowPageAssembler;
+import com.fp.service.impl.ReactiveFollowServiceImpl;
+import com.fp.strategy.FollowQueryRequest;
+import com.fp.strategy.FollowQueryStrategyType;
+import com.fp.strategy.impl.KeysetFollowQueryStrategy;
+import com.fp.util.CursorCodec;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReactiveFollowTest {
+    private static final String ACCOUNT_ID = "followee";
+    private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+    private final CursorCodec cursorCodec = new CursorCodec();
+    private final List<FollowQueryRequest> requests = new ArrayList<>();
+
+    /**
+     * Five followers, one second apart, whatever the cursor: the pages are cut by the limit.
+     */
+    private final ReactiveFollowRepository repository =
+            new ReactiveFollowRepository(null, new KeysetPaginationEngine(null), FollowTables.UNPARTITIONED) {
+                @Override
+                public Flux<FollowResponseDTO> findPage(FollowQueryRequest request) {
+                    requests.add(request);
+                    return Flux.range(0, 5)
+                            .map(i -> new FollowResponseDTO(ACCOUNT_ID, "follower-" + i, NOW.minusSeconds(i)))
+                            .take(request.getPageable().getPageSize());
+                }
+            };
+
+    private final ReactiveFollowServiceImpl service =
+            new ReactiveFollowServiceImpl(repository, new FollowPageAssembler(cursorCodec));
+
+    @Test
+    public void testPlaceholdersBecomeIndexedMarkers() {
+        String sql = new KeysetPaginationEngine(null).sql(
+                KeysetFollowQueryStrategy.toKeysetQuery(FollowQueryStrategyType.FOLLOWERS_CURSOR_PAGE_DESC));
+
+        assertThat(ReactiveFollowRepository.toIndexedMarkers(sql))
+                .isEqualTo(sql.replaceFirst("\\?", "\\$1").replaceFirst("\\?", "\\$2")
+                        .replaceFirst("\\?", "\\$3").replaceFirst("\\?", "\\$4"))
+                .doesNotContain("?");
+    }
+
+    @Test
+    public void testFullPageCarriesCursorOfLastRow() {
+        PageResponseDTO<FollowResponseDTO> page = service.listFollowers(request(null, 3)).block();
+
+        assertThat(page.getData()).extracting(FollowResponseDTO::getFollowerId)
+                .containsExactly("follower-0", "follower-1", "follower-2");
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(cursorCodec.decode(page.getNextCursor()))
+                .isEqualTo(new CursorCodec.Cursor(NOW.minusSeconds(2), "follower-2"));
+        assertThat(requests.get(0).getStrategyType()).isEqualTo(FollowQueryStrategyType.FOLLOWERS_FIRST_PAGE_DESC);
+    }
+
+    @Test
+    public void testCursorSeeksAndShortPageEnds() {
+        String cursor = cursorCodec.encode(NOW.minusSeconds(2), "follower-2");
+
+        PageResponseDTO<FollowResponseDTO> page = service.listFollowers(request(cursor, 10)).block();
+
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        FollowQueryRequest seek = requests.get(0);
+        assertThat(seek.getStrategyType()).isEqualTo(FollowQueryStrategyType.FOLLOWERS_CURSOR_PAGE_DESC);
+        assertThat(seek.getCursorTimestamp()).isEqualTo(NOW.minusSeconds(2));
+        assertThat(seek.getCursorId()).isEqualTo("follower-2");
+    }
+
+    @Test
+    public void testInvalidCursorIsAnErrorSignal() {
+        var page = service.listFollowers(request("not-a-cursor", 3));
+
+        assertThat(requests).isEmpty();
+        assertThatThrownBy(page::block).isInstanceOf(IllegalPageableCursorException.class);
+        assertThat(requests).isEmpty();
+    }
+
+    private static ListFollowersRequestDTO request(String cursor, int limit) {
+        return ListFollowersRequestDTO.builder()
+                .accountId(ACCOUNT_ID)
+                .cursor(cursor)
+                .limit(limit)
+                .order("desc")
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.fp.follow;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+///
+/// # Records the prepared statements executed through a `DataSource`.
+///
+/// Wraps the data source, its connections and their prepared statements in proxies which remember the SQL text and
+/// the bound parameters of every execution, so a test can replay the exact statements the repositories send,
+/// e.g. under `EXPLAIN`. Arrays are copied when bound, the driver's `Array` may not outlive its statement.
+/// The executions of plain statements, e.g. the `JdbcTemplate` queries without parameters, are recorded too.
+///
+public class StatementRecorder {
+
+    /**
+     * One execution of a prepared statement.
+     * @param parameters the bound values, by parameter index; an array parameter is an `ArrayParameter`
+     */
+    public record Statement(String sql, List<Object> parameters) {
+    }
+
+    /**
+     * A bound SQL array, to be re-created with `Connection.createArrayOf`.
+     */
+    public record ArrayParameter(String baseTypeName, Object[] elements) {
+    }
+
+    private final Queue<Execution> executions = new ConcurrentLinkedQueue<>();
+
+    public DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                result instanceof Connection connection ? wrap(connection) : result);
+    }
+
+    /**
+     * The statements executed since the last call, in execution order.
+     */
+    public List<Statement> drain() {
+        return drain(null);
+    }
+
+    /**
+     * The statements executed by a thread since the last call, in execution order. Those of the other threads, e.g.
+     * of the scheduled jobs, are dropped.
+     */
+    public List<Statement> drain(Thread thread) {
+        List<Statement> drained = new ArrayList<>();
+        Execution execution;
+        while ((execution = executions.poll()) != null) {
+            if (thread == null || execution.thread() == thread) {
+                drained.add(execution.statement());
+            }
+        }
+        return drained;
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) ->
+                result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                        ? wrap(statement, (String) args[0])
+                        : result instanceof java.sql.Statement statement && method.getName().equals("createStatement")
+                        ? wrap(statement)
+                        : result);
+    }
+
+    private java.sql.Statement wrap(java.sql.Statement statement) {
+        return proxy(java.sql.Statement.class, statement, (method, args, result) -> {
+            if (method.getName().startsWith("execute") && args != null && args[0] instanceof String sql) {
+                record(new Statement(sql, List.of()));
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement wrap(PreparedStatement statement, String sql) {
+        SortedMap<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, parameter(name, args[1]));
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                record(new Statement(sql, Collections.unmodifiableList(new ArrayList<>(parameters.values()))));
+            }
+            return result;
+        });
+    }
+
+    private void record(Statement statement) {
+        executions.add(new Execution(Thread.currentThread(), statement));
+    }
+
+    private static Object parameter(String setter, Object value) throws SQLException {
+        if (setter.equals("setNull")) {
+            return null;
+        }
+        if (value instanceof Array array) {
+            return new ArrayParameter(array.getBaseTypeName(), (Object[]) array.getArray());
+        }
+        return value;
+    }
+
+    private record Execution(Thread thread, Statement statement) {
+    }
+
+    @FunctionalInterface
+    private interface AfterInvocation {
+        Object apply(Method method, Object[] args, Object result) throws SQLException;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, AfterInvocation after) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return after.apply(method, args, result);
+        });
+    }
+}
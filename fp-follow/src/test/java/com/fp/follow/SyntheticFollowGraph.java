@@ -0,0 +1,153 @@
+package com.fp.follow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+///
+/// # Deterministic power-law follow graph.
+///
+/// Users are indexed `0..users-1`; user `i` is the `i`-th most popular one. Each user follows a number of accounts
+/// drawn from a Pareto distribution around `edges / users`, and picks each followee from a Zipf distribution over
+/// the popularity ranks: a handful of celebrities collect a large share of the followers, most accounts a few.
+/// Follow timestamps are spread over `[from, to)`, denser towards `to` as `recency` grows.
+///
+/// The edges of a follower only depend on the seed and the follower index, so any slicing of the followers
+/// (e.g. one per loader thread) yields the same graph. The edge count is the expected one, not an exact one.
+///
+public class SyntheticFollowGraph {
+
+    /**
+     * @param users number of accounts
+     * @param edges expected number of follow relationships
+     * @param celebritySkew Zipf exponent of the followee popularity: 0 is uniform, around 1 is social-network like
+     * @param followingTail Pareto shape of the number of followings per user: lower means heavier "follow everyone"
+     *                      accounts, must be above 1
+     * @param maxFollowings cap of the followings of a single user
+     * @param from oldest follow
+     * @param to newest follow, exclusive
+     * @param recency 1 spreads the follows uniformly over time, above 1 favors recent follows
+     * @param seed the same seed always produces the same graph
+     */
+    public record Spec(int users, long edges, double celebritySkew, double followingTail, int maxFollowings,
+                       Instant from, Instant to, double recency, long seed) {
+
+        public Spec {
+            if (users < 2 || edges < 0 || followingTail <= 1 || maxFollowings < 1 || !from.isBefore(to) || recency <= 0) {
+                throw new IllegalArgumentException("Invalid synthetic graph spec");
+            }
+        }
+
+        /**
+         * Social-network like defaults: a year of follows, a third of them in the last month.
+         */
+        public static Spec of(int users, long edges, long seed) {
+            Instant to = Instant.parse("2025-01-01T00:00:00Z");
+            return new Spec(users, edges, 1.0, 2.0, 5_000, to.minus(Duration.ofDays(365)), to, 3.0, seed);
+        }
+    }
+
+    /**
+     * Receives the edges of the graph, follower by follower.
+     */
+    @FunctionalInterface
+    public interface EdgeConsumer {
+        void accept(int follower, int followee, Instant createdAt);
+    }
+
+    private final Spec spec;
+    // Cumulative Zipf weights of the popularity ranks
+    private final double[] popularity;
+    private final double meanFollowings;
+    private final int maxFollowings;
+    private final long spanMicros;
+
+    public SyntheticFollowGraph(Spec spec) {
+        this.spec = spec;
+        this.popularity = new double[spec.users()];
+        double total = 0;
+        for (int rank = 0; rank < spec.users(); rank++) {
+            total += 1 / Math.pow(rank + 1, spec.celebritySkew());
+            popularity[rank] = total;
+        }
+        this.maxFollowings = Math.min(spec.maxFollowings(), spec.users() - 1);
+        this.meanFollowings = (double) spec.edges() / spec.users();
+        this.spanMicros = Duration.between(spec.from(), spec.to()).toNanos() / 1000;
+    }
+
+    public Spec spec() {
+        return spec;
+    }
+
+    /**
+     * The account ID of a user: a random looking version 4 UUID, the same for a given seed and index.
+     */
+    public String accountId(int user) {
+        long high = mix(spec.seed() ^ (user * 0x9E3779B97F4A7C15L));
+        long low = mix(high ^ user);
+        return new UUID((high & ~0xF000L) | 0x4000L, (low & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L).toString();
+    }
+
+    /**
+     * Generate the edges of the followers `[fromFollower, toFollower)`.
+     * @return the number of edges generated
+     */
+    public long forEachEdge(int fromFollower, int toFollower, EdgeConsumer consumer) {
+        long count = 0;
+        Set<Integer> followees = new HashSet<>();
+        for (int follower = fromFollower; follower < toFollower; follower++) {
+            SplittableRandom random = new SplittableRandom(mix(spec.seed() + follower));
+            int followings = followings(random);
+            followees.clear();
+            // Bounded retries: a user following most of a small graph cannot always find fresh followees
+            for (int attempt = 0; followees.size() < followings && attempt < 4 * followings; attempt++) {
+                int followee = followee(random);
+                if (followee != follower && followees.add(followee)) {
+                    consumer.accept(follower, followee, createdAt(random));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int followings(SplittableRandom random) {
+        double alpha = spec.followingTail();
+        // Pareto with minimum 1 and shape alpha has the mean alpha / (alpha - 1)
+        double pareto = Math.pow(1 - random.nextDouble(), -1 / alpha);
+        double followings = meanFollowings * (alpha - 1) / alpha * pareto;
+        // Randomized rounding keeps the expected total right for small means
+        int whole = (int) Math.min(followings, maxFollowings);
+        return whole < maxFollowings && random.nextDouble() < followings - whole ? whole + 1 : whole;
+    }
+
+    private int followee(SplittableRandom random) {
+        double target = random.nextDouble() * popularity[popularity.length - 1];
+        int low = 0;
+        int high = popularity.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (popularity[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Instant createdAt(SplittableRandom random) {
+        double age = Math.pow(random.nextDouble(), spec.recency());
+        return spec.to().minusNanos((long) (age * spanMicros) * 1000 + 1000);
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
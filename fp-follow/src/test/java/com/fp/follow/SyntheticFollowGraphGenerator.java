@@ -0,0 +1,70 @@
+package com.fp.follow;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+///
+/// # Loads a production-scale synthetic follow graph into the local database.
+///
+/// For benchmarking deep pages and counts on realistic data, not part of the build: only runs when the number of
+/// users is given, e.g.
+///
+/// ```
+/// mvn test -pl fp-follow -Dtest=SyntheticFollowGraphGenerator \
+///     -Dfp.follow.synthetic.users=2000000 -Dfp.follow.synthetic.edges=40000000
+/// ```
+///
+/// Optional: `fp.follow.synthetic.seed` (42), `.skew` (1.0), `.parallelism` (processors), and `.truncate` (false)
+/// to empty `follows` and `follow_counts` first.
+///
+@SpringBootTest
+@Slf4j
+@EnabledIfSystemProperty(named = "fp.follow.synthetic.users", matches = "\\d+")
+public class SyntheticFollowGraphGenerator {
+    private static final String PREFIX = "fp.follow.synthetic.";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void generateSyntheticGraph() {
+        int users = Integer.parseInt(System.getProperty(PREFIX + "users"));
+        long edges = Long.parseLong(System.getProperty(PREFIX + "edges", String.valueOf(users * 20L)));
+        long seed = Long.parseLong(System.getProperty(PREFIX + "seed", "42"));
+        double skew = Double.parseDouble(System.getProperty(PREFIX + "skew", "1.0"));
+        int parallelism = Integer.parseInt(System.getProperty(PREFIX + "parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        SyntheticFollowGraph.Spec defaults = SyntheticFollowGraph.Spec.of(users, edges, seed);
+        SyntheticFollowGraph graph = new SyntheticFollowGraph(new SyntheticFollowGraph.Spec(users, edges, skew,
+                defaults.followingTail(), defaults.maxFollowings(), defaults.from(), defaults.to(), defaults.recency(), seed));
+
+        if (Boolean.parseBoolean(System.getProperty(PREFIX + "truncate", "false"))) {
+            jdbcTemplate.execute("TRUNCATE follows, follow_counts");
+        }
+        long start = System.currentTimeMillis();
+        long loaded = new FollowGraphLoader(dataSource, parallelism).load(graph);
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Loaded {} follows of {} users in {} s ({} rows/s)", loaded, users, elapsed / 1000,
+                loaded * 1000 / Math.max(elapsed, 1));
+
+        jdbcTemplate.execute("ANALYZE follows");
+        Map<String, Object> shape = jdbcTemplate.queryForMap("""
+                SELECT max(followers) AS max_followers,
+                       percentile_disc(0.5) WITHIN GROUP (ORDER BY followers) AS median_followers,
+                       percentile_disc(0.99) WITHIN GROUP (ORDER BY followers) AS p99_followers
+                FROM (SELECT count(*) AS followers FROM follows GROUP BY followee_id) f
+                """);
+        log.info("Follower distribution: {}, top account {}", shape, graph.accountId(0));
+    }
+}
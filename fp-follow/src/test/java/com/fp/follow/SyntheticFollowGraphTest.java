@@ -0,0 +1,73 @@
+package com.fp.follow;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SyntheticFollowGraphTest {
+    private static final SyntheticFollowGraph.Spec SPEC = SyntheticFollowGraph.Spec.of(10_000, 200_000, 7);
+
+    @Test
+    public void testSameSeedGivesSameGraphWhateverTheSlicing() {
+        SyntheticFollowGraph graph = new SyntheticFollowGraph(SPEC);
+        List<String> whole = edges(graph, 0, 10_000);
+
+        List<String> sliced = new ArrayList<>();
+        sliced.addAll(edges(graph, 0, 3_333));
+        sliced.addAll(edges(graph, 3_333, 7_001));
+        sliced.addAll(edges(graph, 7_001, 10_000));
+        assertThat(sliced).isEqualTo(whole);
+
+        assertThat(edges(new SyntheticFollowGraph(SPEC), 0, 10_000)).isEqualTo(whole);
+        assertThat(new SyntheticFollowGraph(SPEC).accountId(123)).isEqualTo(graph.accountId(123));
+    }
+
+    @Test
+    public void testEdgesAreValidAndCloseToTheExpectedCount() {
+        SyntheticFollowGraph graph = new SyntheticFollowGraph(SPEC);
+        Set<Long> seen = new HashSet<>();
+        long count = graph.forEachEdge(0, SPEC.users(), (follower, followee, createdAt) -> {
+            assertThat(follower).isNotEqualTo(followee);
+            assertThat(seen.add((long) follower << 32 | followee)).isTrue();
+            assertThat(createdAt).isBetween(SPEC.from(), SPEC.to());
+        });
+        assertThat(count).isBetween(180_000L, 220_000L);
+    }
+
+    @Test
+    public void testFollowersFollowAPowerLaw() {
+        SyntheticFollowGraph graph = new SyntheticFollowGraph(SPEC);
+        int[] followers = new int[SPEC.users()];
+        long count = graph.forEachEdge(0, SPEC.users(), (follower, followee, createdAt) -> followers[followee]++);
+
+        // The top 1% of the accounts collect a large share of the follows, the most popular one the most
+        long top = 0;
+        for (int rank = 0; rank < SPEC.users() / 100; rank++) {
+            top += followers[rank];
+        }
+        assertThat((double) top / count).isGreaterThan(0.3);
+        assertThat(followers[0]).isGreaterThan(followers[SPEC.users() / 2] * 100);
+    }
+
+    @Test
+    public void testRecentFollowsAreDenser() {
+        SyntheticFollowGraph graph = new SyntheticFollowGraph(SPEC);
+        Instant middle = SPEC.from().plus(java.time.Duration.between(SPEC.from(), SPEC.to()).dividedBy(2));
+        long[] halves = new long[2];
+        graph.forEachEdge(0, 1_000, (follower, followee, createdAt) -> halves[createdAt.isBefore(middle) ? 0 : 1]++);
+        assertThat(halves[1]).isGreaterThan(halves[0] * 2);
+    }
+
+    private static List<String> edges(SyntheticFollowGraph graph, int fromFollower, int toFollower) {
+        List<String> edges = new ArrayList<>();
+        graph.forEachEdge(fromFollower, toFollower, (follower, followee, createdAt) ->
+                edges.add(follower + ">" + followee + "@" + createdAt));
+        return edges;
+    }
+}